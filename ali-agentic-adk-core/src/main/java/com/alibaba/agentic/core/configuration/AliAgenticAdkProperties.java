@@ -19,6 +19,8 @@ package com.alibaba.agentic.core.configuration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
 @ConfigurationProperties("ali.agentic.adk.properties")
 public class AliAgenticAdkProperties {
@@ -37,6 +39,81 @@ public class AliAgenticAdkProperties {
 
     private String redisKeyPrefix;
 
+    /**
+     * 异步任务实例存储方式：inMemory(默认) / file / redis
+     */
+    private String taskInstanceStorageStrategy;
+
+    /**
+     * file存储方式下的目录
+     */
+    private String taskInstanceStoragePath;
+
+    /**
+     * 未完成异步任务实例的过期时间(秒)
+     */
+    private Long taskInstanceTtlSeconds;
+
+    /**
+     * 异步任务工作线程数
+     */
+    private Integer asyncTaskConcurrency;
+
+    /**
+     * 异步任务队列容量
+     */
+    private Integer asyncTaskQueueCapacity;
+
+    /**
+     * 异步任务队列满时的策略：BLOCK / ABORT
+     */
+    private String asyncTaskRejectPolicy;
+
+    /**
+     * BLOCK策略下提交的最长等待时间(毫秒)
+     */
+    private Long asyncTaskSubmitTimeoutMillis;
+
+    /**
+     * 双工会话保留的最近结果数量
+     */
+    private Integer streamReplaySize;
+
+    /**
+     * 双工会话内同时处理的事件数
+     */
+    private Integer streamMaxInFlight;
+
+    /**
+     * 双工会话待处理事件上限
+     */
+    private Integer streamMaxPendingEvents;
+
+    /**
+     * 有界背压策略的缓存容量
+     */
+    private Integer streamBufferSize;
+
+    /**
+     * 各调用模式的背压策略，如 SSE: BUFFER、BIDI: DROP_OLDEST，未配置时不做处理
+     */
+    private Map<String, String> streamBackpressure;
+
+    /**
+     * 是否开启节点执行跟踪
+     */
+    private Boolean traceEnabled;
+
+    /**
+     * 跟踪统计的输出周期(秒)，小于等于0时不自动输出
+     */
+    private Long traceExportIntervalSeconds;
+
+    /**
+     * 跟踪统计最多保留的节点数，超出时淘汰最久未执行的节点
+     */
+    private Integer traceMaxNodes;
+
 
     public String[] getPaths() {
         return paths;
@@ -94,4 +171,124 @@ public class AliAgenticAdkProperties {
         this.flowStorageStrategy = flowStorageStrategy;
     }
 
+    public Integer getAsyncTaskConcurrency() {
+        return asyncTaskConcurrency;
+    }
+
+    public void setAsyncTaskConcurrency(Integer asyncTaskConcurrency) {
+        this.asyncTaskConcurrency = asyncTaskConcurrency;
+    }
+
+    public Integer getAsyncTaskQueueCapacity() {
+        return asyncTaskQueueCapacity;
+    }
+
+    public void setAsyncTaskQueueCapacity(Integer asyncTaskQueueCapacity) {
+        this.asyncTaskQueueCapacity = asyncTaskQueueCapacity;
+    }
+
+    public String getAsyncTaskRejectPolicy() {
+        return asyncTaskRejectPolicy;
+    }
+
+    public void setAsyncTaskRejectPolicy(String asyncTaskRejectPolicy) {
+        this.asyncTaskRejectPolicy = asyncTaskRejectPolicy;
+    }
+
+    public Long getAsyncTaskSubmitTimeoutMillis() {
+        return asyncTaskSubmitTimeoutMillis;
+    }
+
+    public void setAsyncTaskSubmitTimeoutMillis(Long asyncTaskSubmitTimeoutMillis) {
+        this.asyncTaskSubmitTimeoutMillis = asyncTaskSubmitTimeoutMillis;
+    }
+
+    public String getTaskInstanceStorageStrategy() {
+        return taskInstanceStorageStrategy;
+    }
+
+    public void setTaskInstanceStorageStrategy(String taskInstanceStorageStrategy) {
+        this.taskInstanceStorageStrategy = taskInstanceStorageStrategy;
+    }
+
+    public String getTaskInstanceStoragePath() {
+        return taskInstanceStoragePath;
+    }
+
+    public void setTaskInstanceStoragePath(String taskInstanceStoragePath) {
+        this.taskInstanceStoragePath = taskInstanceStoragePath;
+    }
+
+    public Long getTaskInstanceTtlSeconds() {
+        return taskInstanceTtlSeconds;
+    }
+
+    public void setTaskInstanceTtlSeconds(Long taskInstanceTtlSeconds) {
+        this.taskInstanceTtlSeconds = taskInstanceTtlSeconds;
+    }
+
+    public Integer getStreamReplaySize() {
+        return streamReplaySize;
+    }
+
+    public void setStreamReplaySize(Integer streamReplaySize) {
+        this.streamReplaySize = streamReplaySize;
+    }
+
+    public Integer getStreamMaxInFlight() {
+        return streamMaxInFlight;
+    }
+
+    public void setStreamMaxInFlight(Integer streamMaxInFlight) {
+        this.streamMaxInFlight = streamMaxInFlight;
+    }
+
+    public Integer getStreamMaxPendingEvents() {
+        return streamMaxPendingEvents;
+    }
+
+    public void setStreamMaxPendingEvents(Integer streamMaxPendingEvents) {
+        this.streamMaxPendingEvents = streamMaxPendingEvents;
+    }
+
+    public Integer getStreamBufferSize() {
+        return streamBufferSize;
+    }
+
+    public void setStreamBufferSize(Integer streamBufferSize) {
+        this.streamBufferSize = streamBufferSize;
+    }
+
+    public Map<String, String> getStreamBackpressure() {
+        return streamBackpressure;
+    }
+
+    public void setStreamBackpressure(Map<String, String> streamBackpressure) {
+        this.streamBackpressure = streamBackpressure;
+    }
+
+    public Boolean getTraceEnabled() {
+        return traceEnabled;
+    }
+
+    public void setTraceEnabled(Boolean traceEnabled) {
+        this.traceEnabled = traceEnabled;
+    }
+
+    public Long getTraceExportIntervalSeconds() {
+        return traceExportIntervalSeconds;
+    }
+
+    public void setTraceExportIntervalSeconds(Long traceExportIntervalSeconds) {
+        this.traceExportIntervalSeconds = traceExportIntervalSeconds;
+    }
+
+    public Integer getTraceMaxNodes() {
+        return traceMaxNodes;
+    }
+
+    public void setTraceMaxNodes(Integer traceMaxNodes) {
+        this.traceMaxNodes = traceMaxNodes;
+    }
+
 }
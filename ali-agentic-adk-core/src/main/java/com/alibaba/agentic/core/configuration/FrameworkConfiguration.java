@@ -17,12 +17,20 @@ package com.alibaba.agentic.core.configuration;
 
 import com.alibaba.agentic.core.engine.behavior.ExclusiveGatewayBehavior;
 import com.alibaba.agentic.core.engine.parser.SequenceFlowParser;
+import com.alibaba.agentic.core.executor.BackpressureMode;
+import com.alibaba.agentic.core.executor.InvokeMode;
+import com.alibaba.agentic.core.executor.StreamPolicy;
 import com.alibaba.agentic.core.flows.service.TaskExecutionService;
 import com.alibaba.agentic.core.flows.service.TaskInstanceService;
+import com.alibaba.agentic.core.flows.service.impl.AbstractBatchingTaskInstanceService;
 import com.alibaba.agentic.core.flows.service.impl.CustomInstanceAccessService;
 import com.alibaba.agentic.core.flows.service.impl.DefaultTaskExecutionService;
 import com.alibaba.agentic.core.flows.service.impl.DefaultTaskInstanceService;
+import com.alibaba.agentic.core.flows.service.impl.FileTaskInstanceService;
 import com.alibaba.agentic.core.flows.service.impl.FlowProcessService;
+import com.alibaba.agentic.core.flows.service.impl.RedisTaskInstanceService;
+import com.alibaba.agentic.core.flows.storage.redis.AiRedisTemplate;
+import com.alibaba.agentic.core.flows.storage.redis.RedisCache;
 import com.alibaba.agentic.core.runner.Runner;
 import com.alibaba.smart.framework.engine.SmartEngine;
 import com.alibaba.smart.framework.engine.configuration.InstanceAccessor;
@@ -31,11 +39,17 @@ import com.alibaba.smart.framework.engine.configuration.ProcessEngineConfigurati
 import com.alibaba.smart.framework.engine.configuration.impl.DefaultProcessEngineConfiguration;
 import com.alibaba.smart.framework.engine.configuration.impl.DefaultSmartEngine;
 import com.alibaba.smart.framework.engine.extension.scanner.SimpleAnnotationScanner;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @ConditionalOnClass(SmartEngine.class)
 public class FrameworkConfiguration {
@@ -74,14 +88,51 @@ public class FrameworkConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public TaskInstanceService taskInstanceService() {
-        return new DefaultTaskInstanceService();
+    public TaskInstanceService taskInstanceService(AliAgenticAdkProperties aliAgenticAdkProperties,
+                                                   ObjectProvider<AiRedisTemplate> aiRedisTemplate) throws IOException {
+        long ttlMillis = Optional.ofNullable(aliAgenticAdkProperties.getTaskInstanceTtlSeconds())
+                .map(TimeUnit.SECONDS::toMillis)
+                .orElse(AbstractBatchingTaskInstanceService.DEFAULT_TTL_MILLIS);
+        String strategy = aliAgenticAdkProperties.getTaskInstanceStorageStrategy();
+        if ("file".equals(strategy)) {
+            String path = Optional.ofNullable(aliAgenticAdkProperties.getTaskInstanceStoragePath()).orElse("agentic-task-instances");
+            return new FileTaskInstanceService(Paths.get(path), AbstractBatchingTaskInstanceService.DEFAULT_MAX_BATCH_SIZE,
+                    ttlMillis, true, FileTaskInstanceService.DEFAULT_COMPACT_THRESHOLD_BYTES);
+        }
+        if ("redis".equals(strategy)) {
+            AiRedisTemplate redisTemplate = aiRedisTemplate.getIfAvailable(() -> new AiRedisTemplate(RedisCache.jedisPool(
+                    aliAgenticAdkProperties.getRedisHost(), aliAgenticAdkProperties.getRedisPort(), aliAgenticAdkProperties.getRedisPassword())));
+            return new RedisTaskInstanceService(redisTemplate, aliAgenticAdkProperties.getRedisKeyPrefix(),
+                    AbstractBatchingTaskInstanceService.DEFAULT_MAX_BATCH_SIZE, ttlMillis, RedisTaskInstanceService.DEFAULT_COMPLETED_TTL_SECONDS);
+        }
+        return new DefaultTaskInstanceService(ttlMillis);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TaskExecutionService taskExecutionService(TaskInstanceService taskInstanceService, Runner runner,
+                                                     AliAgenticAdkProperties aliAgenticAdkProperties) {
+        return new DefaultTaskExecutionService(taskInstanceService, runner,
+                Optional.ofNullable(aliAgenticAdkProperties.getAsyncTaskConcurrency()).orElse(DefaultTaskExecutionService.DEFAULT_CONCURRENCY),
+                Optional.ofNullable(aliAgenticAdkProperties.getAsyncTaskQueueCapacity()).orElse(DefaultTaskExecutionService.DEFAULT_QUEUE_CAPACITY),
+                Optional.ofNullable(aliAgenticAdkProperties.getAsyncTaskRejectPolicy())
+                        .map(policy -> DefaultTaskExecutionService.RejectPolicy.valueOf(policy.toUpperCase()))
+                        .orElse(DefaultTaskExecutionService.RejectPolicy.BLOCK),
+                Optional.ofNullable(aliAgenticAdkProperties.getAsyncTaskSubmitTimeoutMillis()).orElse(DefaultTaskExecutionService.DEFAULT_SUBMIT_TIMEOUT_MILLIS));
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public TaskExecutionService taskExecutionService(TaskInstanceService taskInstanceService, Runner runner) {
-        return new DefaultTaskExecutionService(taskInstanceService, runner);
+    public StreamPolicy streamPolicy(AliAgenticAdkProperties aliAgenticAdkProperties) {
+        StreamPolicy streamPolicy = new StreamPolicy();
+        Optional.ofNullable(aliAgenticAdkProperties.getStreamReplaySize()).ifPresent(streamPolicy::setReplaySize);
+        Optional.ofNullable(aliAgenticAdkProperties.getStreamMaxInFlight()).ifPresent(streamPolicy::setMaxInFlight);
+        Optional.ofNullable(aliAgenticAdkProperties.getStreamMaxPendingEvents()).ifPresent(streamPolicy::setMaxPendingEvents);
+        Optional.ofNullable(aliAgenticAdkProperties.getStreamBufferSize()).ifPresent(streamPolicy::setBufferSize);
+        Optional.ofNullable(aliAgenticAdkProperties.getStreamBackpressure()).ifPresent(backpressure ->
+                backpressure.forEach((mode, strategy) -> streamPolicy.getBackpressure().put(
+                        InvokeMode.valueOf(mode.toUpperCase()), BackpressureMode.valueOf(strategy.toUpperCase()))));
+        return streamPolicy;
     }
 
 
@@ -60,6 +60,20 @@ public class ConditionRegistry {
         conditionsMap.put(key, conditionalContainer);
     }
 
+    /**
+     * 替换已注册的条件，用于复用已部署的流程定义时绑定当前画布的条件
+     *
+     * @param gatewayId
+     * @param conditionalContainer
+     */
+    public static void rebind(String gatewayId, ConditionalContainer conditionalContainer) {
+        if (Objects.isNull(conditionalContainer.getFlowNode())) {
+            throw new BaseException("The instance of ConditionFlowNode has no block after branch decision. " +
+                    "Please configure its field of flowNode.", ErrorEnum.PROPERTY_CONFIG_ERROR);
+        }
+        conditionsMap.put(constructConditionId(gatewayId, conditionalContainer.getFlowNode().getId()), conditionalContainer);
+    }
+
     /**
      * 获取条件
      *
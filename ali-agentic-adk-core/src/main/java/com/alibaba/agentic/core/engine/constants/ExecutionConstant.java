@@ -51,4 +51,9 @@ public class ExecutionConstant {
      */
     public static final String CALLBACK_RESULT = "callback_result";
 
+    /**
+     * 待分发的异步任务键名，引擎调用返回后统一提交执行。
+     */
+    public static final String PENDING_ASYNC_TASKS = "pending_async_tasks";
+
 }
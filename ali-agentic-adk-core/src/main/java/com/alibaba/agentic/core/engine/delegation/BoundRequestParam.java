@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.delegation;
+
+import com.alibaba.fastjson.JSONObject;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DESCRIPTION
+ * 绑定了类型化请求对象的入参。
+ * <p>
+ * 键值内容与原先序列化生成的请求一致，保证异步持久化、日志等按 Map 读取的逻辑不受影响；
+ * 同一执行内 invoke 可直接取出 {@link #getTarget()}，省去 JSON 往返转换。
+ * 经过持久化恢复后的入参只剩键值部分，此时回退为 JSON 转换。
+ * </p>
+ */
+public class BoundRequestParam<T> extends HashMap<String, Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final transient T target;
+
+    public BoundRequestParam(Map<String, Object> param, T target) {
+        super(param);
+        this.target = target;
+    }
+
+    /**
+     * 解析入参为指定类型的请求对象
+     *
+     * @param param 执行入参
+     * @param type  请求类型
+     * @return 请求对象
+     */
+    public static <T> T resolve(Map<String, Object> param, Class<T> type) {
+        if (param instanceof BoundRequestParam<?> bound && type.isInstance(bound.getTarget())) {
+            return type.cast(bound.getTarget());
+        }
+        return new JSONObject(param).toJavaObject(type);
+    }
+
+}
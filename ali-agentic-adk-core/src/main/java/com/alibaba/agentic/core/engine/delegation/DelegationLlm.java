@@ -25,7 +25,6 @@ import com.alibaba.agentic.core.executor.SystemContext;
 import com.alibaba.agentic.core.models.BasicLlm;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
 import com.alibaba.smart.framework.engine.context.ExecutionContext;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -98,13 +97,14 @@ public class DelegationLlm extends FrameworkDelegationBase {
     @Override
     public Flowable<Result> invoke(SystemContext systemContext, Request request) throws Throwable {
         try {
-            LlmRequest llmRequest = new JSONObject(request.getParam()).toJavaObject(LlmRequest.class);
+            LlmRequest llmRequest = BoundRequestParam.resolve(request.getParam(), LlmRequest.class);
             BasicLlm basicLlm = getModel(llmRequest.getModel());
             return basicLlm.invoke(llmRequest, systemContext)
                     .map(llmResponse -> {
                         boolean success = llmResponse.getError() == null;
                         if (success) {
-                            return Result.success(mapper.convertValue(llmResponse, new TypeReference<>() {}));
+                            return Result.success(mapper.convertValue(llmResponse, new TypeReference<Map<String, Object>>() {}))
+                                    .setTypedData(llmResponse);
                         }
                         throw new BaseException(llmResponse.getError().getMessage(), ErrorEnum.SYSTEM_ERROR);
                     })
@@ -117,10 +117,16 @@ public class DelegationLlm extends FrameworkDelegationBase {
 
     @Override
     public Map<String, Object> generateRequest(ExecutionContext executionContext, String activityId) {
-        Map<String, Object> properties = super.generateRequest(executionContext, activityId);
-        if (MapUtils.isEmpty(properties)) {
-            return Map.of();
-        }
+        return RequestTemplate.bind(executionContext, activityId, DelegationLlm::buildRequest, LlmRequest::copy);
+    }
+
+    /**
+     * 由节点属性构建 llm 请求，每个已部署节点只执行一次
+     *
+     * @param properties 节点属性
+     * @return llm 请求
+     */
+    static LlmRequest buildRequest(Map<String, Object> properties) {
         LlmRequest request = new LlmRequest();
         request.setModelName((String) properties.get("modelName"));
         request.setModel((String) properties.get("model"));
@@ -161,8 +167,7 @@ public class DelegationLlm extends FrameworkDelegationBase {
         if (properties.containsKey("extraParams")) {
             request.setExtraParams(properties.get("extraParams"));
         }
-        // 关键：**封装成对象再序列化！**
-        return JSONObject.parseObject(JSONObject.toJSONString(request));
+        return request;
     }
 
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.delegation;
+
+import com.alibaba.agentic.core.engine.constants.ExecutionConstant;
+import com.alibaba.agentic.core.engine.dto.FlowDefinition;
+import com.alibaba.agentic.core.engine.node.FlowNode;
+import com.alibaba.agentic.core.engine.node.sub.ParallelFlowNode;
+import com.alibaba.agentic.core.engine.parallel.ParallelBranchExecutor;
+import com.alibaba.agentic.core.engine.parallel.ParallelRegistry;
+import com.alibaba.agentic.core.executor.InvokeMode;
+import com.alibaba.agentic.core.executor.Request;
+import com.alibaba.agentic.core.executor.Result;
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.alibaba.agentic.core.flows.service.impl.FlowProcessService;
+import com.alibaba.smart.framework.engine.context.ExecutionContext;
+import io.reactivex.rxjava3.core.Flowable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 并行节点委托。
+ * <p>
+ * fork：每个分支使用独立的 SystemContext 副本，在执行器上启动各自的子流程；
+ * join：按汇聚策略等待分支结束，将完成分支的 interOutput 按分支顺序合并回当前上下文。
+ * </p>
+ */
+@Slf4j
+@Component
+public class DelegationParallel extends FrameworkDelegationBase {
+
+    @Autowired
+    private FlowProcessService flowProcessService;
+
+    @Override
+    public Flowable<Result> invoke(SystemContext systemContext, Request request) throws Throwable {
+        String activityId = String.valueOf(request.getParam().get(CURRENT_ACTIVITY_ID));
+        ParallelFlowNode parallelFlowNode = ParallelRegistry.getParallelNode(activityId);
+        List<FlowNode> branchNodes = parallelFlowNode.getParallelNodeList();
+        List<FlowDefinition> definitions = parallelFlowNode.getBranchDefinitions();
+
+        List<SystemContext> branchContexts = new ArrayList<>(definitions.size());
+        List<Callable<Result>> branches = new ArrayList<>(definitions.size());
+        for (FlowDefinition definition : definitions) {
+            SystemContext branchContext = forkContext(systemContext);
+            Request branchRequest = new Request()
+                    .setInvokeMode(branchContext.getInvokeMode())
+                    .setProcessor(request.getProcessor())
+                    .setParam(systemContext.getRequestParameter());
+            branchContexts.add(branchContext);
+            branches.add(() -> runBranch(definition, branchRequest, branchContext));
+        }
+
+        List<Result> results = ParallelBranchExecutor.invokeAll(branches, parallelFlowNode.getExecutorService(),
+                parallelFlowNode.getJoinPolicy(), parallelFlowNode.getJoinCount(), parallelFlowNode.getBranchTimeoutMillis());
+
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            if (result == null) {
+                // 汇聚条件满足后被取消的分支
+                continue;
+            }
+            if (result.isSuccess()) {
+                systemContext.getInterOutput().putAll(branchContexts.get(i).getInterOutput());
+            }
+            Map<String, Object> branchData = new HashMap<>();
+            branchData.put("success", result.isSuccess());
+            branchData.put("data", result.getData());
+            branchData.put("errorMsg", result.getErrorMsg());
+            data.put(branchNodes.get(i).getId(), branchData);
+        }
+        if (!ParallelBranchExecutor.isJoined(results, parallelFlowNode.getJoinPolicy(), parallelFlowNode.getJoinCount())) {
+            log.warn("parallel node {} join failed, policy: {}", activityId, parallelFlowNode.getJoinPolicy());
+            return Flowable.just(new Result(false, "500", "parallel branches not joined", data));
+        }
+        return Flowable.just(Result.success(data));
+    }
+
+    @Override
+    protected Map<String, Object> generateRequest(ExecutionContext executionContext, String activityId) {
+        Map<String, Object> request = new HashMap<>(super.generateRequest(executionContext, activityId));
+        request.put(CURRENT_ACTIVITY_ID, activityId);
+        return request;
+    }
+
+    private Result runBranch(FlowDefinition definition, Request request, SystemContext systemContext) {
+        Map<String, Object> response = new HashMap<>();
+        flowProcessService.startFlow(definition,
+                Map.of(ExecutionConstant.ORIGIN_REQUEST, request, ExecutionConstant.SYSTEM_CONTEXT, systemContext),
+                response);
+        Flowable<Result> flowable = (Flowable<Result>) response.get(ExecutionConstant.INVOKE_RESULT);
+        if (flowable == null) {
+            return Result.success(null);
+        }
+        return flowable.blockingLast(Result.success(null));
+    }
+
+    private SystemContext forkContext(SystemContext systemContext) {
+        // 分支内的异步节点无法在汇聚前回调，分支统一按同步方式执行
+        InvokeMode invokeMode = InvokeMode.ASYNC.equals(systemContext.getInvokeMode()) ? InvokeMode.SYNC : systemContext.getInvokeMode();
+        return new SystemContext()
+                .setInvokeMode(invokeMode)
+                .setProcessor(systemContext.getProcessor())
+                .setRequestParameter(systemContext.getRequestParameter())
+                .setInterOutput(systemContext.getInterOutput().copy());
+    }
+}
@@ -24,7 +24,6 @@ import com.alibaba.agentic.core.executor.Result;
 import com.alibaba.agentic.core.executor.SystemContext;
 import com.alibaba.agentic.core.tools.BaseTool;
 import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
 import com.alibaba.smart.framework.engine.context.ExecutionContext;
 import io.reactivex.rxjava3.core.Flowable;
 import lombok.extern.slf4j.Slf4j;
@@ -89,7 +88,7 @@ public class DelegationTool extends FrameworkDelegationBase {
 
     @Override
     public Flowable<Result> invoke(SystemContext systemContext, Request request) throws Throwable {
-        FunctionCallRequest functionCallRequest = new JSONObject(request.getParam()).toJavaObject(FunctionCallRequest.class);
+        FunctionCallRequest functionCallRequest = BoundRequestParam.resolve(request.getParam(), FunctionCallRequest.class);
         BaseTool tool = getTool(functionCallRequest.getToolName());
         try {
             return tool.run(functionCallRequest.getToolParameter(), systemContext)
@@ -102,12 +101,17 @@ public class DelegationTool extends FrameworkDelegationBase {
 
     @Override
     public Map<String, Object> generateRequest(ExecutionContext executionContext, String activityId) {
-        FunctionCallRequest request = new FunctionCallRequest();
-        Map<String, Object> properties = super.generateRequest(executionContext, activityId);
+        return RequestTemplate.bind(executionContext, activityId, DelegationTool::buildRequest, FunctionCallRequest::copy);
+    }
 
-        if (MapUtils.isEmpty(properties)) {
-            return JSONObject.parseObject(JSONObject.toJSONString(request));
-        }
+    /**
+     * 由节点属性构建工具调用请求，每个已部署节点只执行一次
+     *
+     * @param properties 节点属性
+     * @return 工具调用请求
+     */
+    static FunctionCallRequest buildRequest(Map<String, Object> properties) {
+        FunctionCallRequest request = new FunctionCallRequest();
         request.setToolName(String.valueOf(properties.get("functionToolName")));
 
         List<ToolParam> paramList = JSONArray.parseArray(String.valueOf(properties.get("paramList")), ToolParam.class);
@@ -120,7 +124,7 @@ public class DelegationTool extends FrameworkDelegationBase {
             }
             request.setToolParameter(toolParameter);
         }
-        return JSONObject.parseObject(JSONObject.toJSONString(request));
+        return request;
     }
 
 }
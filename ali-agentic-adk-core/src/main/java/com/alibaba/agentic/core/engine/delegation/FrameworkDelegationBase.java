@@ -19,7 +19,8 @@ import com.alibaba.agentic.core.engine.constants.ExecutionConstant;
 import com.alibaba.agentic.core.engine.utils.DelegationUtils;
 import com.alibaba.agentic.core.engine.utils.SmartEngineUtils;
 import com.alibaba.agentic.core.executor.*;
-import com.alibaba.agentic.core.flows.service.TaskExecutionService;
+import com.alibaba.agentic.core.executor.trace.ExecutionTracer;
+import com.alibaba.agentic.core.executor.trace.NodeTrace;
 import com.alibaba.agentic.core.flows.service.TaskInstanceService;
 import com.alibaba.agentic.core.flows.service.domain.AsyncRequest;
 import com.alibaba.agentic.core.flows.service.domain.TaskInstance;
@@ -31,6 +32,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.MapUtils;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -46,8 +49,6 @@ public abstract class FrameworkDelegationBase implements JavaDelegation, Executo
     protected static final String CURRENT_ACTIVITY_ID = "currentActivityId";
     @Resource
     TaskInstanceService taskInstanceService;
-    @Resource
-    TaskExecutionService taskExecutionService;
 
     @Override
     public void execute(ExecutionContext executionContext) {
@@ -80,19 +81,20 @@ public abstract class FrameworkDelegationBase implements JavaDelegation, Executo
     }
 
     protected Flowable<Result> executeImpl(ExecutionContext executionContext, SystemContext systemContext, Map<String, Object> requestMap) {
+        String activityId = executionContext.getExecutionInstance().getProcessDefinitionActivityId();
+        NodeTrace trace = ExecutionTracer.start(executionContext.getProcessDefinition().getId(), activityId);
         Request request = (Request) requestMap.get(ExecutionConstant.ORIGIN_REQUEST);
-        Map<String, Object> originRequestParam = generateRequest(executionContext, executionContext.getExecutionInstance().getProcessDefinitionActivityId());
+        Map<String, Object> originRequestParam = generateRequest(executionContext, activityId);
         request.setParam(originRequestParam);
 
         InvokeMode invokeMode = systemContext.getInvokeMode();
         AssertUtils.assertNotNull(invokeMode);
         if (InvokeMode.ASYNC.equals(invokeMode)) {
-            String taskId = processAsyncTask(executionContext, systemContext, request);
+            String taskId = processAsyncTask(executionContext, systemContext, request, trace);
             executionContext.setNeedPause(true);
             return Flowable.just(AsyncTaskResult.success(taskId));
         }
-        String activityId = executionContext.getExecutionInstance().getProcessDefinitionActivityId();
-        return DelegationExecutor.invoke(systemContext, request)
+        return DelegationExecutor.invoke(systemContext, request, trace)
                 .map(result -> {
                     DelegationUtils.saveInterOutput(activityId, systemContext, result);
                     return result;
@@ -100,7 +102,7 @@ public abstract class FrameworkDelegationBase implements JavaDelegation, Executo
     }
 
 
-    protected String processAsyncTask(ExecutionContext executionContext, SystemContext systemContext, Request request) {
+    protected String processAsyncTask(ExecutionContext executionContext, SystemContext systemContext, Request request, NodeTrace trace) {
         String activityId = executionContext.getExecutionInstance().getProcessDefinitionActivityId();
         log.debug("activityId: {}", activityId);
         // persist && submit task
@@ -111,9 +113,13 @@ public abstract class FrameworkDelegationBase implements JavaDelegation, Executo
                 .setProcessInstance(executionContext.getProcessInstance())
                 .setActivityId(activityId);
         String taskId = taskInstanceService.persistTaskInstance(taskInstance);
-        taskExecutionService.submitTask(new AsyncRequest().setTaskId(taskId)
+        // 引擎暂停当前节点后再分发，避免任务先于暂停完成而回调不到对应节点
+        List<AsyncRequest> pendingTasks = (List<AsyncRequest>) executionContext.getResponse()
+                .computeIfAbsent(ExecutionConstant.PENDING_ASYNC_TASKS, key -> new ArrayList<AsyncRequest>());
+        pendingTasks.add(new AsyncRequest().setTaskId(taskId)
                 .setRequest(request)
-                .setSystemContext(systemContext));
+                .setSystemContext(systemContext)
+                .setTrace(trace));
         return taskId;
     }
 
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.delegation;
+
+import com.alibaba.agentic.core.engine.utils.SmartEngineUtils;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.smart.framework.engine.context.ExecutionContext;
+import com.alibaba.smart.framework.engine.model.assembly.ProcessDefinition;
+import org.apache.commons.collections.MapUtils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * DESCRIPTION
+ * 节点请求模板。
+ * <p>
+ * 节点属性在流程部署后即不再变化，按 流程定义 + 节点 id 缓存解析后的类型化请求及其键值形式，
+ * 每次执行只拷贝出一份可变的请求对象，不再重复读取属性和做 JSON 往返转换。
+ * 缓存项记录生成时的原始属性表，流程重新部署后属性表更换，模板会自动重建。
+ * </p>
+ */
+public final class RequestTemplate<T> {
+
+    public static final int MAX_CACHE_SIZE = 4096;
+
+    // 流程定义 id:版本:节点 id -> 请求模板
+    private static final Map<String, RequestTemplate<?>> cache = new ConcurrentHashMap<>();
+
+    private final Object source;
+
+    private final T prototype;
+
+    private final Map<String, Object> param;
+
+    private final UnaryOperator<T> copier;
+
+    RequestTemplate(Object source, T prototype, UnaryOperator<T> copier) {
+        this.source = source;
+        this.prototype = prototype;
+        this.copier = copier;
+        this.param = Collections.unmodifiableMap(JSONObject.parseObject(JSONObject.toJSONString(prototype)));
+    }
+
+    /**
+     * 获取节点的请求入参，节点未配置属性时返回空 Map
+     *
+     * @param executionContext 执行上下文
+     * @param activityId       节点 id
+     * @param builder          由节点属性构建请求对象，仅在模板缺失或失效时调用
+     * @param copier           拷贝请求对象，保证每次执行拿到的对象互不影响
+     * @return 绑定了类型化请求的入参
+     */
+    public static <T> Map<String, Object> bind(ExecutionContext executionContext, String activityId,
+                                               Function<Map<String, Object>, T> builder, UnaryOperator<T> copier) {
+        Object source = SmartEngineUtils.getPropertyMap(executionContext, activityId);
+        if (MapUtils.isEmpty((Map<?, ?>) source)) {
+            return Map.of();
+        }
+        ProcessDefinition processDefinition = executionContext.getProcessDefinition();
+        String key = processDefinition.getId() + ":" + processDefinition.getVersion() + ":" + activityId;
+        return lookup(key, source,
+                () -> builder.apply(SmartEngineUtils.getAllProperties(executionContext, activityId)), copier).bind();
+    }
+
+    static <T> RequestTemplate<T> lookup(String key, Object source, Supplier<T> builder, UnaryOperator<T> copier) {
+        RequestTemplate<?> template = cache.get(key);
+        if (template == null || template.source != source) {
+            template = new RequestTemplate<>(source, builder.get(), copier);
+            cache.put(key, template);
+            evictIfNecessary(key);
+        }
+        return (RequestTemplate<T>) template;
+    }
+
+    static int cacheSize() {
+        return cache.size();
+    }
+
+    static void clear() {
+        cache.clear();
+    }
+
+    private static void evictIfNecessary(String retainedKey) {
+        Iterator<String> iterator = cache.keySet().iterator();
+        while (cache.size() > MAX_CACHE_SIZE && iterator.hasNext()) {
+            if (!iterator.next().equals(retainedKey)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 生成一次执行使用的入参
+     */
+    public BoundRequestParam<T> bind() {
+        return new BoundRequestParam<>(param, copier.apply(prototype));
+    }
+
+}
@@ -18,6 +18,7 @@ package com.alibaba.agentic.core.engine.delegation.domain;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -34,4 +35,15 @@ public class FunctionCallRequest {
 
     private Map<String, Object> toolParameter;
 
+    /**
+     * 拷贝请求，工具参数重新创建
+     *
+     * @return 新的请求对象
+     */
+    public FunctionCallRequest copy() {
+        return new FunctionCallRequest()
+                .setToolName(toolName)
+                .setToolParameter(toolParameter == null ? null : new HashMap<>(toolParameter));
+    }
+
 }
@@ -20,6 +20,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -80,6 +81,34 @@ public class LlmRequest {
      */
     private Object extraParams;
 
+    /**
+     * 拷贝请求，列表及消息对象均重新创建，extraParams 仍为同一引用
+     *
+     * @return 新的请求对象
+     */
+    public LlmRequest copy() {
+        LlmRequest copy = new LlmRequest()
+                .setModel(model)
+                .setModelName(modelName)
+                .setMaxTokens(maxTokens)
+                .setTemperature(temperature)
+                .setTopP(topP)
+                .setStream(stream)
+                .setUser(user)
+                .setExtraParams(extraParams);
+        if (stop != null) {
+            copy.setStop(new ArrayList<>(stop));
+        }
+        if (messages != null) {
+            List<Message> copiedMessages = new ArrayList<>(messages.size());
+            for (Message message : messages) {
+                copiedMessages.add(message == null ? null : new Message(message.getRole(), message.getContent()));
+            }
+            copy.setMessages(copiedMessages);
+        }
+        return copy;
+    }
+
     /**
      * 对话消息体（Chat 场景下使用）
      */
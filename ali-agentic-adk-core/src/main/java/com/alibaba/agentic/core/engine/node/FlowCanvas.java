@@ -17,6 +17,7 @@ package com.alibaba.agentic.core.engine.node;
 
 import com.alibaba.agentic.core.engine.constants.NodeIdConstant;
 import com.alibaba.agentic.core.engine.dto.FlowDefinition;
+import com.alibaba.agentic.core.engine.node.sub.ParallelFlowNode;
 import com.alibaba.agentic.core.engine.utils.XmlUtils;
 import com.alibaba.agentic.core.flows.storage.FlowStorageService;
 import com.alibaba.agentic.core.utils.ApplicationContextUtil;
@@ -36,6 +37,9 @@ import org.dom4j.io.OutputFormat;
 import org.dom4j.io.XMLWriter;
 
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
@@ -146,6 +150,116 @@ public class FlowCanvas {
     }
 
 
+    /**
+     * 计算画布的结构哈希。
+     * <p>
+     * 覆盖所有可达节点（含条件分支、兜底分支与并行分支）的类型、id、连线以及会写入bpmn的属性，
+     * 结构不变时哈希不变，可用于跳过重复部署。自动生成的节点id与网关id不参与哈希，以节点的遍历序号代替，
+     * 重新构建的相同画布也能命中；复用时需通过 {@link #restoreDeployedIds(List)} 还原部署时的id。
+     * </p>
+     *
+     * @return 十六进制的 SHA-256
+     */
+    public String structuralHash() {
+        StringBuilder signature = new StringBuilder(256);
+        signature.append(processDefinitionId).append('|').append(version).append('\n');
+        List<FlowNode> nodes = collectNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).assignSignatureId(i);
+        }
+        for (FlowNode node : nodes) {
+            node.appendSignature(signature);
+            signature.append('\n');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(signature.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 复用已部署的流程定义时，重新绑定各节点的运行期对象。
+     */
+    public void bindRuntime() {
+        collectNodes().forEach(node -> {
+            node.rebindConditions();
+            node.bindRuntime();
+        });
+    }
+
+    /**
+     * 画布中所有可达的并行节点，包括嵌套在并行分支中的并行节点。
+     */
+    public List<ParallelFlowNode> parallelNodes() {
+        List<ParallelFlowNode> parallelNodes = new ArrayList<>();
+        for (FlowNode node : collectNodes()) {
+            if (node instanceof ParallelFlowNode parallelFlowNode) {
+                parallelNodes.add(parallelFlowNode);
+            }
+        }
+        return parallelNodes;
+    }
+
+    /**
+     * 按遍历顺序返回各节点的id与网关id（无网关时为null），部署后记录，供复用时还原。
+     */
+    public List<String> deployedIds() {
+        List<FlowNode> nodes = collectNodes();
+        List<String> ids = new ArrayList<>(nodes.size() * 2);
+        for (FlowNode node : nodes) {
+            ids.add(node.getId());
+            ids.add(node.getGatewayId());
+        }
+        return ids;
+    }
+
+    /**
+     * 将自动生成的节点id与网关id还原为 {@link #deployedIds()} 记录的取值，需在 {@link #bindRuntime()} 之前调用。
+     * 画布结构与记录时一致（结构哈希相同）时遍历顺序一致。
+     */
+    public void restoreDeployedIds(List<String> deployedIds) {
+        List<FlowNode> nodes = collectNodes();
+        for (int i = 0; i < nodes.size() && 2 * i + 1 < deployedIds.size(); i++) {
+            nodes.get(i).restoreDeployedIds(deployedIds.get(2 * i), deployedIds.get(2 * i + 1));
+        }
+    }
+
+    // 按部署时的遍历方式收集所有可达节点，包括并行节点的各分支
+    private List<FlowNode> collectNodes() {
+        List<FlowNode> nodes = new ArrayList<>();
+        Deque<FlowNode> nodeQueue = new ArrayDeque<>();
+        Set<String> visitedNodeIdSet = new HashSet<>();
+        nodeQueue.offer(root);
+        visitedNodeIdSet.add(root.getId());
+        while (!nodeQueue.isEmpty()) {
+            FlowNode currentNode = nodeQueue.poll();
+            nodes.add(currentNode);
+            List<FlowNode> successors = new ArrayList<>();
+            if (CollectionUtils.isNotEmpty(currentNode.getConditionalContainerList())) {
+                currentNode.getConditionalContainerList().forEach(container -> successors.add(container.getFlowNode()));
+                successors.add(currentNode.getElseNext());
+            } else {
+                successors.add(currentNode.getNext());
+            }
+            if (currentNode instanceof ParallelFlowNode parallelFlowNode && CollectionUtils.isNotEmpty(parallelFlowNode.getParallelNodeList())) {
+                successors.addAll(parallelFlowNode.getParallelNodeList());
+            }
+            for (FlowNode successor : successors) {
+                if (Objects.nonNull(successor) && visitedNodeIdSet.add(successor.getId())) {
+                    nodeQueue.offer(successor);
+                }
+            }
+        }
+        return nodes;
+    }
+
     /**
      * 创建definitions元素并添加命名空间
      */
@@ -27,8 +27,10 @@ import com.alibaba.agentic.core.engine.utils.XmlUtils;
 import com.alibaba.agentic.core.exceptions.BaseException;
 import com.alibaba.agentic.core.exceptions.ErrorEnum;
 import com.alibaba.agentic.core.utils.AssertUtils;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -95,6 +97,20 @@ public abstract class FlowNode {
      */
     private Gateway gateway;
 
+    /**
+     * id 是否为自动生成（name_UUID），自动生成的 id 不参与画布结构哈希。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient boolean generatedId;
+
+    /**
+     * 计算结构哈希时使用的 id，自动生成的 id 以节点的遍历序号代替。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient String signatureId;
+
     // 节点类型
     protected abstract String getNodeType();
 
@@ -169,6 +185,64 @@ public abstract class FlowNode {
 
     }
 
+    // 追加参与画布结构哈希的内容，子类需追加自身写入bpmn或运行期依赖的属性
+    // 节点引用一律使用signatureId，自动生成的节点id与网关id不参与哈希
+    protected void appendSignature(StringBuilder signature) {
+        signature.append(getClass().getName()).append('|').append(signatureId()).append('|').append(name)
+                .append('|').append(getDelegationClassName());
+        if (Objects.nonNull(this.next)) {
+            signature.append("|next=").append(this.next.signatureId());
+        }
+        if (Objects.nonNull(this.gateway)) {
+            signature.append("|gateway=").append(this.gateway.getGatewayType());
+        }
+        if (CollectionUtils.isNotEmpty(this.conditionalContainerList)) {
+            this.conditionalContainerList.forEach(container -> signature.append("|condition=")
+                    .append(container.getClass().getName()).append(':')
+                    .append(Objects.isNull(container.getFlowNode()) ? null : container.getFlowNode().signatureId()));
+        }
+        if (Objects.nonNull(this.elseNext)) {
+            signature.append("|else=").append(this.elseNext.signatureId());
+        }
+    }
+
+    // 结构哈希中代表本节点的id，未经FlowCanvas编号时为节点id
+    public String signatureId() {
+        return Objects.nonNull(signatureId) ? signatureId : getId();
+    }
+
+    // 按遍历序号编号，自动生成的id以序号代替
+    void assignSignatureId(int index) {
+        String id = getId();
+        this.signatureId = generatedId ? "#" + index : id;
+    }
+
+    String getGatewayId() {
+        return Objects.isNull(this.gateway) ? null : this.gateway.getGatewayId();
+    }
+
+    // 复用已部署的流程定义时，将自动生成的节点id与网关id还原为部署时的取值，使其与bpmn及各注册表一致
+    void restoreDeployedIds(String deployedId, String deployedGatewayId) {
+        if (generatedId && Objects.nonNull(deployedId)) {
+            this.id = deployedId;
+        }
+        if (Objects.nonNull(this.gateway) && Objects.nonNull(deployedGatewayId)) {
+            this.gateway.gatewayId = deployedGatewayId;
+        }
+    }
+
+    // 复用已部署的流程定义时，以当前画布的条件替换注册表中部署时的条件
+    void rebindConditions() {
+        if (Objects.nonNull(this.gateway) && CollectionUtils.isNotEmpty(this.conditionalContainerList)) {
+            this.conditionalContainerList.forEach(container -> ConditionRegistry.rebind(this.gateway.getGatewayId(), container));
+        }
+    }
+
+    // 命中部署缓存时调用，只重新绑定运行期对象（如工具实例），不重新生成bpmn
+    protected void bindRuntime() {
+
+    }
+
     // 设置自己的下一个节点
     public FlowNode next(FlowNode node) {
         this.next = node;
@@ -215,8 +289,13 @@ public abstract class FlowNode {
         return nextOnParallel(flowNode);
     }
 
+    // 设置并行节点为下一个节点，返回并行节点本身，便于通过next配置分支汇聚后的后续节点
     public FlowNode nextOnParallel(ParallelFlowNode node) {
-        throw new IllegalArgumentException("only support on parallel node");
+        if (CollectionUtils.isEmpty(node.getParallelNodeList())) {
+            throw new BaseException("parallelNodeList of ParallelFlowNode is empty.", ErrorEnum.FLOW_CONFIG_ERROR);
+        }
+        this.next = node;
+        return node;
     }
 
     public FlowNode next(FlowCanvas canvas) {
@@ -243,12 +322,14 @@ public abstract class FlowNode {
     public String getId() {
         if (StringUtils.isBlank(id)) {
             id = name + "_" + UUID.randomUUID();
+            generatedId = true;
         }
         return id;
     }
 
     public FlowNode setId(String id) {
         this.id = id;
+        this.generatedId = false;
         AssertUtils.assertNotIn(id, NodeIdConstant.RESERVED_NODE_ID);
         return this;
     }
@@ -51,6 +51,12 @@ public class LlmFlowNode extends FlowNode {
         super.generate(processElement);
     }
 
+    @Override
+    protected void appendSignature(StringBuilder signature) {
+        super.appendSignature(signature);
+        signature.append("|llm=").append(JSONObject.toJSONString(llmRequest));
+    }
+
     @Override
     protected void addProperties(Element serviceTask) {
         Element extensionElements = serviceTask.addElement("extensionElements");
@@ -35,6 +35,12 @@ public class LoopFlowNode extends FlowNode {
         this.innerCanvas = innerCanvas;
     }
 
+    @Override
+    protected void appendSignature(StringBuilder signature) {
+        super.appendSignature(signature);
+        signature.append("|loop=").append(innerCanvas == null ? null : innerCanvas.structuralHash());
+    }
+
     @Override
     protected String getNodeType() {
         return null;
@@ -16,21 +16,49 @@
 package com.alibaba.agentic.core.engine.node.sub;
 
 import com.alibaba.agentic.core.engine.constants.NodeType;
+import com.alibaba.agentic.core.engine.delegation.DelegationParallel;
+import com.alibaba.agentic.core.engine.dto.FlowDefinition;
+import com.alibaba.agentic.core.engine.node.FlowCanvas;
 import com.alibaba.agentic.core.engine.node.FlowNode;
+import com.alibaba.agentic.core.engine.parallel.JoinPolicy;
+import com.alibaba.agentic.core.engine.parallel.ParallelRegistry;
+import com.alibaba.agentic.core.exceptions.BaseException;
+import com.alibaba.agentic.core.exceptions.ErrorEnum;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.apache.commons.collections.CollectionUtils;
+import org.dom4j.Element;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 
+/**
+ * 并行节点。
+ * <p>
+ * 每个分支被部署为独立的子流程，执行时由 {@link DelegationParallel} 将分支提交到执行器并发运行，
+ * 按汇聚策略汇聚后合并各分支的 interOutput，再继续执行本节点的 next。
+ * </p>
+ */
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class ParallelFlowNode extends FlowNode {
 
+    private static final String BRANCH_VERSION = "1.0.0";
+
     //并行条件下的所有分支node。注意，触发并行节点的前提是next节点为空
     private List<FlowNode> parallelNodeList;
-    //自定义的并发节点执行器
+    //自定义的并发节点执行器，为空时使用ParallelBranchExecutor.DEFAULT_EXECUTOR
     private ExecutorService executorService;
+    //汇聚策略
+    private JoinPolicy joinPolicy = JoinPolicy.ALL;
+    //FIRST_N策略下需要成功的分支数
+    private int joinCount = 1;
+    //单个分支的超时时间(毫秒)，小于等于0表示不超时
+    private long branchTimeoutMillis;
+    //各分支部署后的流程定义，与parallelNodeList一一对应
+    private List<FlowDefinition> branchDefinitions;
 
     @Override
     protected String getNodeType() {
@@ -39,6 +67,47 @@ public class ParallelFlowNode extends FlowNode {
 
     @Override
     protected String getDelegationClassName() {
-        return null;
+        return DelegationParallel.class.getName();
+    }
+
+    @Override
+    protected void generate(Element processElement) {
+        if (CollectionUtils.isEmpty(parallelNodeList)) {
+            throw new BaseException("parallelNodeList of ParallelFlowNode is empty.", ErrorEnum.FLOW_CONFIG_ERROR);
+        }
+        super.generate(processElement);
+
+        // 每个分支部署为独立子流程，便于在不同线程上各自启动
+        List<FlowDefinition> definitions = new ArrayList<>(parallelNodeList.size());
+        for (FlowNode branch : parallelNodeList) {
+            FlowCanvas canvas = new FlowCanvas();
+            canvas.setRoot(branch);
+            canvas.setProcessDefinitionId(getId() + "_" + branch.getId());
+            canvas.setVersion(BRANCH_VERSION);
+            definitions.add(canvas.deploy());
+        }
+        this.branchDefinitions = definitions;
+        ParallelRegistry.register(this);
+    }
+
+    @Override
+    protected void appendSignature(StringBuilder signature) {
+        super.appendSignature(signature);
+        signature.append("|parallel=").append(joinPolicy).append(':').append(joinCount).append(':').append(branchTimeoutMillis)
+                .append(':').append(executorService == null ? 0 : System.identityHashCode(executorService));
+        if (CollectionUtils.isNotEmpty(parallelNodeList)) {
+            parallelNodeList.forEach(branch -> signature.append("|branch=").append(branch.signatureId()));
+        }
+    }
+
+    @Override
+    protected void bindRuntime() {
+        if (Objects.isNull(branchDefinitions) && CollectionUtils.isNotEmpty(parallelNodeList)) {
+            // 与generate中各分支子流程的定义id、默认版本保持一致
+            List<FlowDefinition> definitions = new ArrayList<>(parallelNodeList.size());
+            parallelNodeList.forEach(branch -> definitions.add(new FlowDefinition(getId() + "_" + branch.getId(), BRANCH_VERSION, null)));
+            this.branchDefinitions = definitions;
+        }
+        ParallelRegistry.register(this);
     }
 }
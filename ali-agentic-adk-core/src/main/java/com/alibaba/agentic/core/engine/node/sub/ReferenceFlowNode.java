@@ -50,6 +50,13 @@ public class ReferenceFlowNode extends FlowNode {
         return DelegationFlowCanvas.class.getName();
     }
 
+    @Override
+    protected void appendSignature(StringBuilder signature) {
+        super.appendSignature(signature);
+        signature.append("|reference=").append(flowDefinitionId).append(':').append(flowVersion)
+                .append('|').append(MapUtils.isEmpty(parameter) ? "{}" : JSONObject.toJSONString(parameter));
+    }
+
     @Override
     protected void addProperties(Element serviceTask) {
         Element extensionElements = serviceTask.addElement("extensionElements");
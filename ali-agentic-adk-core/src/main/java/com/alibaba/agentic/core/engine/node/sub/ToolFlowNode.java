@@ -72,6 +72,21 @@ public class ToolFlowNode extends FlowNode {
         }
     }
 
+    @Override
+    protected void appendSignature(StringBuilder signature) {
+        super.appendSignature(signature);
+        signature.append("|tool=").append(functionToolName)
+                .append('|').append(CollectionUtils.isEmpty(paramList) ? "[]" : JSONObject.toJSONString(paramList))
+                .append('|').append(baseTool == null ? null : baseTool.getClass().getName());
+    }
+
+    @Override
+    protected void bindRuntime() {
+        if (baseTool != null) {
+            DelegationTool.register(baseTool);
+        }
+    }
+
     @Override
     protected void addProperties(Element serviceTask) {
         Element extensionElements = serviceTask.addElement("extensionElements");
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.parallel;
+
+/**
+ * 并行分支的汇聚策略。
+ *
+ * @author 框架团队
+ */
+public enum JoinPolicy {
+
+    /**
+     * 等待全部分支结束，全部成功才视为成功。
+     */
+    ALL,
+
+    /**
+     * 前 N 个分支成功即汇聚，其余分支被取消。
+     */
+    FIRST_N,
+
+    /**
+     * 任一分支成功即汇聚，其余分支被取消。
+     */
+    FIRST_SUCCESS
+
+}
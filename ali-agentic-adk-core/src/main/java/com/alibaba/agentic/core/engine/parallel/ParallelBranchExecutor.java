@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.parallel;
+
+import com.alibaba.agentic.core.exceptions.BaseException;
+import com.alibaba.agentic.core.exceptions.ErrorEnum;
+import com.alibaba.agentic.core.executor.Result;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行分支执行器（fork/join）。
+ * <p>
+ * 将各分支提交到执行器并发运行，按 {@link JoinPolicy} 汇聚结果；
+ * 汇聚条件满足或超时后取消仍在运行的分支。
+ * </p>
+ *
+ * @author 框架团队
+ */
+@Slf4j
+public class ParallelBranchExecutor {
+
+    public static final int DEFAULT_POOL_SIZE = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * 默认的有界分支执行器。
+     * <p>
+     * 使用 SynchronousQueue + AbortPolicy：线程耗尽时拒绝提交，被拒绝的分支直接记为失败结果，
+     * 不在调用线程上无超时地执行，嵌套的并行节点也不会因为等待排队任务而死锁。
+     * </p>
+     */
+    public static final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private ParallelBranchExecutor() {
+    }
+
+    /**
+     * 并发执行所有分支并汇聚。
+     *
+     * @param branches      分支任务
+     * @param executor      分支执行器，为空时使用 {@link #DEFAULT_EXECUTOR}
+     * @param policy        汇聚策略，为空时按 {@link JoinPolicy#ALL}
+     * @param joinCount     {@link JoinPolicy#FIRST_N} 下需要成功的分支数
+     * @param timeoutMillis 分支超时时间（自分支提交起计算），小于等于 0 表示不超时
+     * @return 与 branches 一一对应的结果；被取消的分支为 null，超时或被执行器拒绝的分支为失败结果
+     */
+    public static List<Result> invokeAll(List<Callable<Result>> branches, ExecutorService executor,
+                                         JoinPolicy policy, int joinCount, long timeoutMillis) {
+        int size = branches.size();
+        Result[] results = new Result[size];
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+        JoinPolicy joinPolicy = policy == null ? JoinPolicy.ALL : policy;
+        int required = requiredCount(joinPolicy, joinCount, size);
+
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(executor == null ? DEFAULT_EXECUTOR : executor);
+        Map<Future<Result>, Integer> futures = new HashMap<>(size * 2);
+        int done = 0;
+        for (int i = 0; i < size; i++) {
+            Callable<Result> branch = branches.get(i);
+            try {
+                futures.put(completionService.submit(() -> {
+                    try {
+                        Result result = branch.call();
+                        return result == null ? Result.success(null) : result;
+                    } catch (Throwable throwable) {
+                        return Result.fail(throwable);
+                    }
+                }), i);
+            } catch (RejectedExecutionException e) {
+                log.warn("parallel branch {} rejected by executor", i);
+                results[i] = Result.fail(new BaseException(String.format("parallel branch %d rejected, executor is saturated", i), e, ErrorEnum.SYSTEM_ERROR));
+                done++;
+            }
+        }
+
+        long deadline = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0L;
+        int success = 0;
+        boolean timeout = false;
+        try {
+            while (done < size) {
+                if (joinPolicy != JoinPolicy.ALL && (success >= required || done - success > size - required)) {
+                    break;
+                }
+                Future<Result> future;
+                if (deadline > 0) {
+                    future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (future == null) {
+                        timeout = true;
+                        break;
+                    }
+                } else {
+                    future = completionService.take();
+                }
+                Result result = getDone(future);
+                results[futures.get(future)] = result;
+                done++;
+                if (result.isSuccess()) {
+                    success++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(futures);
+            throw new BaseException("parallel branches interrupted", e, ErrorEnum.SYSTEM_ERROR);
+        }
+        cancel(futures);
+
+        if (timeout) {
+            for (int i = 0; i < size; i++) {
+                if (results[i] == null) {
+                    results[i] = Result.fail(new BaseException(String.format("parallel branch %d timeout after %d ms", i, timeoutMillis), ErrorEnum.SYSTEM_ERROR));
+                }
+            }
+        }
+        List<Result> list = new ArrayList<>(size);
+        for (Result result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+
+    /**
+     * 按汇聚策略判断整体是否成功。
+     *
+     * @param results   {@link #invokeAll} 返回的结果
+     * @param policy    汇聚策略
+     * @param joinCount {@link JoinPolicy#FIRST_N} 下需要成功的分支数
+     * @return 是否满足汇聚条件
+     */
+    public static boolean isJoined(List<Result> results, JoinPolicy policy, int joinCount) {
+        JoinPolicy joinPolicy = policy == null ? JoinPolicy.ALL : policy;
+        int success = 0;
+        for (Result result : results) {
+            if (result != null && result.isSuccess()) {
+                success++;
+            }
+        }
+        return success >= requiredCount(joinPolicy, joinCount, results.size());
+    }
+
+    private static int requiredCount(JoinPolicy policy, int joinCount, int size) {
+        switch (policy) {
+            case FIRST_SUCCESS:
+                return Math.min(1, size);
+            case FIRST_N:
+                return Math.min(Math.max(joinCount, 1), size);
+            default:
+                return size;
+        }
+    }
+
+    private static Result getDone(Future<Result> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return Result.fail(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.fail(e);
+        }
+    }
+
+    private static void cancel(Map<Future<Result>, Integer> futures) {
+        futures.keySet().forEach(future -> {
+            if (!future.isDone()) {
+                log.debug("cancel parallel branch {}", futures.get(future));
+                future.cancel(true);
+            }
+        });
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE,
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "agentic-parallel-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.parallel;
+
+import com.alibaba.agentic.core.engine.node.sub.ParallelFlowNode;
+import com.alibaba.agentic.core.exceptions.BaseException;
+import com.alibaba.agentic.core.exceptions.ErrorEnum;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 并行节点注册表，节点id -> 并行节点（含分支的流程定义与执行器）。
+ * <p>
+ * 部署或复用部署时注册；运行中的流程通过 {@link #retain} / {@link #release} 计数，
+ * 最后一个使用该节点的流程结束后移除，避免静态注册表随画布数量无限增长。
+ * </p>
+ *
+ * @author 框架团队
+ */
+public class ParallelRegistry {
+
+    private final static Map<String, ParallelFlowNode> parallelNodeMap = new ConcurrentHashMap<>();
+
+    // 节点id -> 正在运行的流程数
+    private final static Map<String, Integer> referenceCountMap = new HashMap<>();
+
+    public static void register(ParallelFlowNode parallelFlowNode) {
+        parallelNodeMap.put(parallelFlowNode.getId(), parallelFlowNode);
+    }
+
+    /**
+     * 流程开始运行时调用，重新登记节点并增加引用计数。
+     */
+    public static synchronized void retain(List<ParallelFlowNode> parallelFlowNodes) {
+        for (ParallelFlowNode parallelFlowNode : parallelFlowNodes) {
+            parallelNodeMap.put(parallelFlowNode.getId(), parallelFlowNode);
+            referenceCountMap.merge(parallelFlowNode.getId(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 流程结束时调用，引用计数归零的节点从注册表移除。
+     */
+    public static synchronized void release(List<ParallelFlowNode> parallelFlowNodes) {
+        for (ParallelFlowNode parallelFlowNode : parallelFlowNodes) {
+            String id = parallelFlowNode.getId();
+            Integer count = referenceCountMap.get(id);
+            if (count == null || count <= 1) {
+                referenceCountMap.remove(id);
+                parallelNodeMap.remove(id);
+            } else {
+                referenceCountMap.put(id, count - 1);
+            }
+        }
+    }
+
+    public static ParallelFlowNode getParallelNode(String activityId) {
+        ParallelFlowNode parallelFlowNode = parallelNodeMap.get(activityId);
+        if (parallelFlowNode == null) {
+            throw new BaseException(String.format("Cannot find parallel node with id: %s.", activityId), ErrorEnum.SYSTEM_ERROR);
+        }
+        return parallelFlowNode;
+    }
+
+    public static int size() {
+        return parallelNodeMap.size();
+    }
+
+}
@@ -29,11 +29,7 @@ import java.util.Map;
 public class SmartEngineUtils {
 
     public static Map<String, Object> getAllProperties(ExecutionContext executionContext, String activityId) {
-        ExtensionElementContainer idBasedElement = (ExtensionElementContainer) executionContext.getProcessDefinition().getIdBasedElementMap().get(
-                activityId);
-
-        ExtensionElements extensionElements = idBasedElement.getExtensionElements();
-        Map<PropertyCompositeKey, PropertyCompositeValue> map = (Map<PropertyCompositeKey, PropertyCompositeValue>) extensionElements.getDecorationMap().get(ExtensionElementsConstant.PROPERTIES);
+        Map<PropertyCompositeKey, PropertyCompositeValue> map = getPropertyMap(executionContext, activityId);
         if (MapUtils.isEmpty(map)) {
             return Map.of();
         }
@@ -46,4 +42,16 @@ public class SmartEngineUtils {
         return result;
     }
 
+    /**
+     * 获取节点在流程定义中的原始属性表，不做拷贝。
+     * 流程定义重新部署后该对象会随之更换，可用于判断基于属性构建的缓存是否仍然有效。
+     */
+    public static Map<PropertyCompositeKey, PropertyCompositeValue> getPropertyMap(ExecutionContext executionContext, String activityId) {
+        ExtensionElementContainer idBasedElement = (ExtensionElementContainer) executionContext.getProcessDefinition().getIdBasedElementMap().get(
+                activityId);
+
+        ExtensionElements extensionElements = idBasedElement.getExtensionElements();
+        return (Map<PropertyCompositeKey, PropertyCompositeValue>) extensionElements.getDecorationMap().get(ExtensionElementsConstant.PROPERTIES);
+    }
+
 }
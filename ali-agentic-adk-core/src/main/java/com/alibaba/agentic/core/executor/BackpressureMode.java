@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor;
+
+import io.reactivex.rxjava3.core.BackpressureOverflowStrategy;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * 结果流的背压策略。
+ * <p>
+ * 下游消费跟不上上游产出时，决定如何处理积压的数据。默认不做处理，
+ * 有界缓存 {@link #BUFFER} 会在积压超出容量时让流失败，需按调用模式显式开启。
+ * </p>
+ */
+public enum BackpressureMode {
+
+    /**
+     * 不做处理，由上游自行响应下游请求量
+     */
+    NONE,
+
+    /**
+     * 无界缓存，消费慢时不丢数据也不失败
+     */
+    UNBOUNDED,
+
+    /**
+     * 有界缓存，超出容量时以 MissingBackpressureException 结束流
+     */
+    BUFFER,
+
+    /**
+     * 有界缓存，超出容量时丢弃最早的数据
+     */
+    DROP_OLDEST,
+
+    /**
+     * 下游没有请求时直接丢弃新数据
+     */
+    DROP,
+
+    /**
+     * 下游没有请求时只保留最新一条数据
+     */
+    LATEST;
+
+    /**
+     * 为结果流加上当前背压策略
+     *
+     * @param flowable   结果流
+     * @param bufferSize 有界缓存容量
+     * @return 加上背压处理后的结果流
+     */
+    public <T> Flowable<T> apply(Flowable<T> flowable, int bufferSize) {
+        return switch (this) {
+            case NONE -> flowable;
+            case UNBOUNDED -> flowable.onBackpressureBuffer();
+            case BUFFER -> flowable.onBackpressureBuffer(bufferSize, null, BackpressureOverflowStrategy.ERROR);
+            case DROP_OLDEST -> flowable.onBackpressureBuffer(bufferSize, null, BackpressureOverflowStrategy.DROP_OLDEST);
+            case DROP -> flowable.onBackpressureDrop();
+            case LATEST -> flowable.onBackpressureLatest();
+        };
+    }
+
+}
@@ -15,14 +15,21 @@
  */
 package com.alibaba.agentic.core.executor;
 
+import com.alibaba.agentic.core.configuration.AliAgenticAdkProperties;
+import com.alibaba.agentic.core.executor.trace.ExecutionTracer;
+import com.alibaba.agentic.core.executor.trace.LogTraceSink;
+import com.alibaba.agentic.core.executor.trace.NodeTrace;
+import com.alibaba.agentic.core.executor.trace.TraceSink;
 import io.reactivex.rxjava3.core.Flowable;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 委托执行器，负责组织回调链并触发具体执行。
@@ -38,6 +45,8 @@ import java.util.Optional;
 @Slf4j
 public class DelegationExecutor {
 
+    public static final long DEFAULT_TRACE_EXPORT_INTERVAL_MILLIS = 60_000;
+
     private final static List<Callback> beforeCallbacks = new ArrayList<>();
 
     private final static List<Callback> afterCallbacks = new ArrayList<>();
@@ -50,11 +59,27 @@ public class DelegationExecutor {
      * @return 结果流
      */
     public static Flowable<Result> invoke(SystemContext systemContext, Request request) {
+        return invoke(systemContext, request, null);
+    }
+
+    /**
+     * 调用主入口，同时记录节点跟踪。
+     *
+     * @param systemContext 系统上下文
+     * @param request       执行请求
+     * @param trace         节点跟踪记录，未开启跟踪时为 null
+     * @return 结果流
+     */
+    public static Flowable<Result> invoke(SystemContext systemContext, Request request, NodeTrace trace) {
         boolean needAfterCallback = InvokeMode.SYNC.equals(systemContext.getInvokeMode());
         ExecutorChain executorChain = new ExecutorChain(systemContext, beforeCallbacks.toArray(new Callback[0]),
-                needAfterCallback ? afterCallbacks.toArray(new Callback[0]) : null);
+                needAfterCallback ? afterCallbacks.toArray(new Callback[0]) : null, trace);
         executorChain.execute(systemContext, request, new Result());
-        return executorChain.getResult();
+        if (trace == null) {
+            return executorChain.getResult();
+        }
+        trace.afterFinished();
+        return executorChain.getResult().doFinally(trace::finish);
     }
 
     /**
@@ -74,6 +99,27 @@ public class DelegationExecutor {
         return result;
     }
 
+    /**
+     * 注册跟踪输出并按配置开启节点跟踪，开启但未提供 sink 时输出到日志。
+     *
+     * @param aliAgenticAdkProperties 框架配置
+     * @param traceSinks              可选的跟踪输出
+     */
+    @Autowired
+    public void setTracing(AliAgenticAdkProperties aliAgenticAdkProperties, Optional<List<TraceSink>> traceSinks) {
+        traceSinks.ifPresent(list -> list.forEach(ExecutionTracer::addSink));
+        if (!Boolean.TRUE.equals(aliAgenticAdkProperties.getTraceEnabled())) {
+            return;
+        }
+        if (traceSinks.map(List::isEmpty).orElse(true)) {
+            ExecutionTracer.addSink(new LogTraceSink());
+        }
+        Optional.ofNullable(aliAgenticAdkProperties.getTraceMaxNodes()).ifPresent(ExecutionTracer::setMaxNodes);
+        ExecutionTracer.enable(Optional.ofNullable(aliAgenticAdkProperties.getTraceExportIntervalSeconds())
+                .map(TimeUnit.SECONDS::toMillis)
+                .orElse(DEFAULT_TRACE_EXPORT_INTERVAL_MILLIS));
+    }
+
     /**
      * 通过依赖注入收集回调，并按类型分别加入 before/after 链。
      *
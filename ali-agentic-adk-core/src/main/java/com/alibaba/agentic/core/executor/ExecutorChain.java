@@ -15,6 +15,7 @@
  */
 package com.alibaba.agentic.core.executor;
 
+import com.alibaba.agentic.core.executor.trace.NodeTrace;
 import io.reactivex.rxjava3.core.Flowable;
 import lombok.extern.slf4j.Slf4j;
 
@@ -53,8 +54,18 @@ public class ExecutorChain implements CallbackChain {
 
     private Result callBackResult;
 
+    /**
+     * 节点跟踪记录，未开启跟踪时为 null
+     */
+    private final NodeTrace trace;
+
 
     public ExecutorChain(SystemContext systemContext, Callback[] beforeCallbacks, Callback[] afterCallbacks) {
+        this(systemContext, beforeCallbacks, afterCallbacks, null);
+    }
+
+    public ExecutorChain(SystemContext systemContext, Callback[] beforeCallbacks, Callback[] afterCallbacks, NodeTrace trace) {
+        this.trace = trace;
         this.executor = systemContext.getExecutor();
         this.beforeCallbacks = beforeCallbacks;
         this.afterCallbacks = afterCallbacks;
@@ -78,6 +89,9 @@ public class ExecutorChain implements CallbackChain {
     public void execute(SystemContext systemContext, Request request, Result result) {
         this.request = request;
         this.result = Flowable.fromCallable(() -> result);
+        if (trace != null) {
+            trace.chainStarted();
+        }
         innerExecute(systemContext);
     }
 
@@ -105,17 +119,26 @@ public class ExecutorChain implements CallbackChain {
             return;
         }
         if (!invoked) {
+            if (trace != null) {
+                trace.invoking();
+            }
             try {
                 this.result = executor.invoke(systemContext, this.request);
-                log.info("executor: {}, pos:{}, invoke success", this.executor, pos);
+                log.debug("executor: {}, pos:{}, invoke success", this.executor, pos);
             } catch (Throwable throwable) {
                 log.error("executor: {}, pos:{}, invoke error", this.executor, pos);
                 this.result = Flowable.fromCallable(() -> Result.fail(throwable));
             }
+            if (trace != null) {
+                this.result = trace.instrument(this.result);
+            }
             invoked = true;
             pos = 0;
         }
         if (pos < an) {
+            if (trace != null) {
+                trace.afterStarted();
+            }
             Callback callback = afterCallbacks[pos++];
             try {
                 this.result.subscribe(result -> callback.execute(systemContext, this.request, result, this));
@@ -0,0 +1,425 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.TypeReference;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点间中间结果存储。
+ * <p>
+ * 可由多个线程并发写入（并行分支、异步回调），读取时不再做 JSON 字符串深拷贝，且读取方之间不共享可变对象：
+ * 写入时将结果拷贝为只读结构，通过 {@link Map} 接口读取时返回该只读视图；
+ * 通过 {@link #get(String, Class)} 读取时，Map 类型返回可修改的深拷贝，类型化结果与读取类型一致时返回其拷贝，
+ * 其余类型每次读取都转换出新的对象。
+ * </p>
+ * <p>
+ * 写入时估算每个结果占用的堆内存，超过溢出阈值且只包含字符串、数值、布尔、Map、List 的结果按类型编码后存放到堆外内存，
+ * 读取时再解码；类型化结果只以软引用保留，内存紧张时被回收后从溢出的数据转换。
+ * </p>
+ */
+public class InterOutputStore extends AbstractMap<String, Map<String, Object>> {
+
+    /**
+     * 单个结果的默认溢出阈值，1MB
+     */
+    public static final long DEFAULT_SPILL_THRESHOLD_BYTES = 1024 * 1024;
+
+    private static final int MAX_ESTIMATE_DEPTH = 16;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    private final long spillThresholdBytes;
+
+    private final AtomicLong heapBytes = new AtomicLong();
+
+    private final AtomicLong spilledBytes = new AtomicLong();
+
+    public InterOutputStore() {
+        this(DEFAULT_SPILL_THRESHOLD_BYTES);
+    }
+
+    /**
+     * @param spillThresholdBytes 单个结果的溢出阈值，小于等于0时不溢出
+     */
+    public InterOutputStore(long spillThresholdBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    /**
+     * 保存节点结果
+     *
+     * @param key   结果键
+     * @param data  结果数据
+     * @param typed 结果对应的类型化对象，可为空
+     */
+    public void put(String key, Map<String, Object> data, Object typed) {
+        long bytes = estimate(data, 0);
+        byte[] encoded = spillThresholdBytes > 0 && bytes > spillThresholdBytes ? InterOutputCodec.encode(data) : null;
+        Slot slot;
+        if (encoded != null) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length);
+            buffer.put(encoded).flip();
+            slot = new Slot(null, typed, buffer, encoded.length);
+        } else {
+            slot = new Slot((Map<String, Object>) freeze(data, 0), typed, null, bytes);
+        }
+        account(slot, 1);
+        account(slots.put(key, slot), -1);
+    }
+
+    /**
+     * 按类型读取节点结果，每次返回新的对象：Map 类型返回可修改的深拷贝，类型化结果与读取类型一致时返回其拷贝，
+     * 其余类型从结果数据转换
+     *
+     * @param key   结果键
+     * @param clazz 结果类型
+     * @return 结果，不存在时为null
+     */
+    public <T> T get(String key, Class<T> clazz) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        Object typed = slot.typed();
+        if (clazz.isInstance(typed)) {
+            // 通过对象树拷贝，不经过 JSON 字符串；无法拷贝时从结果数据转换
+            try {
+                Object tree = JSON.toJSON(typed);
+                if (tree instanceof JSONObject object) {
+                    return object.toJavaObject(clazz);
+                }
+            } catch (JSONException ignored) {
+            }
+        }
+        Map<String, Object> data = slot.data();
+        if (clazz.isAssignableFrom(LinkedHashMap.class)) {
+            return clazz.cast(slot.spilled != null ? data : thaw(data));
+        }
+        return slot.view(clazz, data);
+    }
+
+    /**
+     * 读取节点结果中的单个字段，Map、List 字段返回可修改的深拷贝
+     *
+     * @param key   结果键
+     * @param field 字段名
+     * @return 字段值，不存在时为null
+     */
+    public Object getField(String key, String field) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        Map<String, Object> data = slot.data();
+        if (data == null) {
+            return null;
+        }
+        return slot.spilled != null ? data.get(field) : thaw(data.get(field));
+    }
+
+    /**
+     * 按泛型类型读取节点结果
+     *
+     * @param key           结果键
+     * @param typeReference 结果类型
+     * @return 结果，不存在时为null
+     */
+    public <T> T get(String key, TypeReference<T> typeReference) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        Type type = typeReference.getType();
+        if (type instanceof Class<?> clazz) {
+            return (T) get(key, clazz);
+        }
+        return slot.view(type, slot.data());
+    }
+
+    /**
+     * 拷贝一份独立的存储，结果对象本身共享
+     */
+    public InterOutputStore copy() {
+        InterOutputStore copy = new InterOutputStore(spillThresholdBytes);
+        copy.putAll(this);
+        return copy;
+    }
+
+    /**
+     * @return 堆内结果的估算字节数
+     */
+    public long heapBytes() {
+        return heapBytes.get();
+    }
+
+    /**
+     * @return 溢出到堆外的结果字节数
+     */
+    public long spilledBytes() {
+        return spilledBytes.get();
+    }
+
+    @Override
+    public Map<String, Object> get(Object key) {
+        Slot slot = slots.get(key);
+        return slot == null ? null : slot.data();
+    }
+
+    /**
+     * 保存节点结果。为避免反序列化，被覆盖的结果已溢出到堆外时返回null
+     */
+    @Override
+    public Map<String, Object> put(String key, Map<String, Object> value) {
+        Slot previous = slots.get(key);
+        put(key, value, null);
+        return previous == null ? null : previous.data;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Map<String, Object>> map) {
+        if (map instanceof InterOutputStore store) {
+            for (Map.Entry<String, Slot> entry : store.slots.entrySet()) {
+                account(entry.getValue(), 1);
+                account(slots.put(entry.getKey(), entry.getValue()), -1);
+            }
+            return;
+        }
+        for (Map.Entry<? extends String, ? extends Map<String, Object>> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue(), null);
+        }
+    }
+
+    @Override
+    public Map<String, Object> remove(Object key) {
+        Slot slot = slots.remove(key);
+        account(slot, -1);
+        return slot == null ? null : slot.data;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slots.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public void clear() {
+        for (String key : slots.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Map<String, Object>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Map<String, Object>>> iterator() {
+                Iterator<Entry<String, Slot>> iterator = slots.entrySet().iterator();
+                return new Iterator<>() {
+                    private String current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Map<String, Object>> next() {
+                        Entry<String, Slot> entry = iterator.next();
+                        current = entry.getKey();
+                        return new SimpleImmutableEntry<>(current, entry.getValue().data());
+                    }
+
+                    @Override
+                    public void remove() {
+                        InterOutputStore.this.remove(current);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return slots.size();
+            }
+        };
+    }
+
+    private void account(Slot slot, int sign) {
+        if (slot == null) {
+            return;
+        }
+        if (slot.spilled != null) {
+            spilledBytes.addAndGet(sign * slot.bytes);
+        } else {
+            heapBytes.addAndGet(sign * slot.bytes);
+        }
+    }
+
+    /**
+     * 将 Map、List、Set 结构拷贝为只读结构，其余对象保持原样
+     */
+    static Object freeze(Object value, int depth) {
+        if (value == null || depth >= MAX_ESTIMATE_DEPTH) {
+            return value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(Math.max(16, map.size() * 4 / 3 + 1));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), freeze(entry.getValue(), depth + 1));
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(freeze(element, depth + 1));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof Set<?> set) {
+            Set<Object> copy = new LinkedHashSet<>(Math.max(16, set.size() * 4 / 3 + 1));
+            for (Object element : set) {
+                copy.add(freeze(element, depth + 1));
+            }
+            return Collections.unmodifiableSet(copy);
+        }
+        return value;
+    }
+
+    /**
+     * 将只读结构拷贝为可修改的 LinkedHashMap、ArrayList、LinkedHashSet 结构
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T thaw(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(Math.max(16, map.size() * 4 / 3 + 1));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), thaw(entry.getValue()));
+            }
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(thaw(element));
+            }
+            return (T) copy;
+        }
+        if (value instanceof Set<?> set) {
+            Set<Object> copy = new LinkedHashSet<>(Math.max(16, set.size() * 4 / 3 + 1));
+            for (Object element : set) {
+                copy.add(thaw(element));
+            }
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * 粗略估算对象占用的堆内存，只计算常见的结果结构
+     */
+    static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence sequence) {
+            return 40 + 2L * sequence.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (depth >= MAX_ESTIMATE_DEPTH) {
+            return 16;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 40;
+            for (Object element : collection) {
+                size += 8 + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        return 16;
+    }
+
+    private static final class Slot {
+
+        private final Map<String, Object> data;
+
+        private final SoftReference<Object> typed;
+
+        private final ByteBuffer spilled;
+
+        private final long bytes;
+
+        private Slot(Map<String, Object> data, Object typed, ByteBuffer spilled, long bytes) {
+            this.data = data;
+            this.typed = typed == null ? null : new SoftReference<>(typed);
+            this.spilled = spilled;
+            this.bytes = bytes;
+        }
+
+        private Map<String, Object> data() {
+            if (spilled == null) {
+                return data;
+            }
+            return InterOutputCodec.decode(spilled);
+        }
+
+        private Object typed() {
+            return typed == null ? null : typed.get();
+        }
+
+        private <T> T view(Type type, Map<String, Object> data) {
+            if (data == null) {
+                return null;
+            }
+            // 每次转换出新的对象，避免读取方之间共享可变对象
+            return new JSONObject(data).toJavaObject(type);
+        }
+    }
+
+}
@@ -55,6 +55,10 @@ public class Result {
      * 错误信息或异常堆栈。
      */
     private String errorMsg;
+    /**
+     * data 对应的类型化对象（可选），保存为节点结果后按同类型读取时无需转换。
+     */
+    private transient Object typedData;
 
     public Result(boolean success, String code, String errorMsg, Map<String, Object> data) {
         this.success = success;
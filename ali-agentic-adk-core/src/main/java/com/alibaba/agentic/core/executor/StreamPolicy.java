@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor;
+
+import io.reactivex.rxjava3.core.Flowable;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 结果流的缓存与背压配置。
+ * <p>
+ * 控制双工会话的结果回放数量、会话内同时处理的事件数、待处理事件的缓存上限，
+ * 以及各调用模式下结果流的背压策略，避免长会话无限制占用内存。
+ * </p>
+ */
+@Data
+@Accessors(chain = true)
+public class StreamPolicy {
+
+    public static final int DEFAULT_REPLAY_SIZE = 256;
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1;
+
+    public static final int DEFAULT_MAX_PENDING_EVENTS = 1024;
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private static volatile StreamPolicy defaultPolicy = new StreamPolicy();
+
+    /**
+     * 双工会话中为晚订阅者保留的最近结果数量。
+     */
+    private int replaySize = DEFAULT_REPLAY_SIZE;
+
+    /**
+     * 双工会话内同时处理的事件数，1 表示按事件顺序串行处理。
+     */
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    /**
+     * 双工会话中等待处理的事件上限，超出后会话以失败结果结束。
+     */
+    private int maxPendingEvents = DEFAULT_MAX_PENDING_EVENTS;
+
+    /**
+     * 有界背压策略的缓存容量。
+     */
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * 各调用模式的背压策略，未配置的模式不做处理。
+     */
+    private Map<InvokeMode, BackpressureMode> backpressure = new EnumMap<>(InvokeMode.class);
+
+    public static StreamPolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    public static void setDefault(StreamPolicy policy) {
+        defaultPolicy = policy == null ? new StreamPolicy() : policy;
+    }
+
+    /**
+     * 获取调用模式对应的背压策略
+     */
+    public BackpressureMode backpressureOf(InvokeMode invokeMode) {
+        if (invokeMode == null || backpressure == null) {
+            return BackpressureMode.NONE;
+        }
+        return backpressure.getOrDefault(invokeMode, BackpressureMode.NONE);
+    }
+
+    /**
+     * 按调用模式为结果流加上背压策略
+     *
+     * @param flowable   结果流
+     * @param invokeMode 调用模式
+     * @return 加上背压处理后的结果流
+     */
+    public <T> Flowable<T> applyBackpressure(Flowable<T> flowable, InvokeMode invokeMode) {
+        return backpressureOf(invokeMode).apply(flowable, bufferSize);
+    }
+
+}
@@ -19,7 +19,6 @@ import io.reactivex.rxjava3.processors.FlowableProcessor;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -58,6 +57,24 @@ public class SystemContext {
     /**
      * 节点间中间结果存储，键为节点ID，值为该节点的输出结果。
      */
-    private Map<String, Map<String, Object>> interOutput = new HashMap<>();
+    private InterOutputStore interOutput = new InterOutputStore();
+
+    /**
+     * 设置节点间中间结果，非 {@link InterOutputStore} 的结果会被拷贝到新的存储中。
+     *
+     * @param interOutput 中间结果
+     * @return 当前上下文
+     */
+    public SystemContext setInterOutput(Map<String, Map<String, Object>> interOutput) {
+        if (interOutput instanceof InterOutputStore store) {
+            this.interOutput = store;
+        } else {
+            this.interOutput = new InterOutputStore();
+            if (interOutput != null) {
+                this.interOutput.putAll(interOutput);
+            }
+        }
+        return this;
+    }
 
 }
@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点执行跟踪入口。
+ * <p>
+ * 默认关闭，关闭时 {@link #start(String, String)} 只读取一次 volatile 标志并返回 null，调用方判空后跳过全部记录。
+ * 开启后按 流程定义 + 节点 汇总各阶段耗时、错误数与 token 用量，并可按周期输出到已注册的 {@link TraceSink}。
+ * 流程定义 id 每次部署都会变化，统计最多保留 {@link #setMaxNodes(int)} 个节点，超出时淘汰最久未执行的节点。
+ * </p>
+ */
+@Slf4j
+public final class ExecutionTracer {
+
+    public static final int DEFAULT_MAX_NODES = 256;
+
+    private static volatile boolean enabled;
+
+    private static volatile int maxNodes = DEFAULT_MAX_NODES;
+
+    /**
+     * 按访问顺序排列，最久未执行的节点在最前
+     */
+    private static final Map<String, NodeMetrics> metrics = new LinkedHashMap<String, NodeMetrics>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, NodeMetrics> eldest) {
+            return size() > maxNodes;
+        }
+    };
+
+    private static final List<TraceSink> sinks = new CopyOnWriteArrayList<>();
+
+    private static ScheduledExecutorService exporter;
+
+    private static ScheduledFuture<?> exportTask;
+
+    private ExecutionTracer() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开始跟踪一次节点执行
+     *
+     * @param flowId     流程定义 id
+     * @param activityId 节点 id
+     * @return 跟踪记录，未开启时为 null
+     */
+    public static NodeTrace start(String flowId, String activityId) {
+        if (!enabled) {
+            return null;
+        }
+        return new NodeTrace(flowId, activityId);
+    }
+
+    /**
+     * 开启跟踪
+     *
+     * @param exportIntervalMillis 输出周期，小于等于0时不自动输出
+     */
+    public static synchronized void enable(long exportIntervalMillis) {
+        enabled = true;
+        cancelExport();
+        if (exportIntervalMillis > 0) {
+            if (exporter == null) {
+                exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "agentic-trace-exporter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            exportTask = exporter.scheduleAtFixedRate(ExecutionTracer::export, exportIntervalMillis,
+                    exportIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static synchronized void disable() {
+        enabled = false;
+        cancelExport();
+    }
+
+    /**
+     * 设置最多保留的节点统计数
+     *
+     * @param maxNodes 大于0时生效
+     */
+    public static void setMaxNodes(int maxNodes) {
+        if (maxNodes <= 0) {
+            return;
+        }
+        synchronized (metrics) {
+            ExecutionTracer.maxNodes = maxNodes;
+            Iterator<String> iterator = metrics.keySet().iterator();
+            while (metrics.size() > maxNodes && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    public static void addSink(TraceSink sink) {
+        if (sink != null && !sinks.contains(sink)) {
+            sinks.add(sink);
+        }
+    }
+
+    public static void removeSink(TraceSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * @return 全部节点的累计统计
+     */
+    public static Collection<NodeMetrics> getMetrics() {
+        synchronized (metrics) {
+            return new ArrayList<>(metrics.values());
+        }
+    }
+
+    public static NodeMetrics getMetrics(String flowId, String activityId) {
+        synchronized (metrics) {
+            return metrics.get(key(flowId, activityId));
+        }
+    }
+
+    /**
+     * 将累计统计输出到全部 sink
+     */
+    public static void export() {
+        Collection<NodeMetrics> snapshot = getMetrics();
+        for (TraceSink sink : sinks) {
+            try {
+                sink.export(snapshot);
+            } catch (Throwable throwable) {
+                log.warn("trace sink {} export error", sink, throwable);
+            }
+        }
+    }
+
+    /**
+     * 清空累计统计
+     */
+    public static void reset() {
+        synchronized (metrics) {
+            metrics.clear();
+        }
+    }
+
+    static void complete(NodeTrace trace) {
+        String key = key(trace.getFlowId(), trace.getActivityId());
+        NodeMetrics nodeMetrics;
+        synchronized (metrics) {
+            nodeMetrics = metrics.get(key);
+            if (nodeMetrics == null) {
+                nodeMetrics = new NodeMetrics(trace.getFlowId(), trace.getActivityId());
+                metrics.put(key, nodeMetrics);
+            }
+        }
+        nodeMetrics.record(trace);
+        for (TraceSink sink : sinks) {
+            try {
+                sink.onNode(trace);
+            } catch (Throwable throwable) {
+                log.warn("trace sink {} error", sink, throwable);
+            }
+        }
+    }
+
+    private static void cancelExport() {
+        if (exportTask != null) {
+            exportTask.cancel(false);
+            exportTask = null;
+        }
+    }
+
+    private static String key(String flowId, String activityId) {
+        return flowId + "#" + activityId;
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+
+/**
+ * 以日志形式输出节点统计，延迟单位微秒
+ */
+@Slf4j
+public class LogTraceSink implements TraceSink {
+
+    @Override
+    public void export(Collection<NodeMetrics> metrics) {
+        for (NodeMetrics node : metrics) {
+            LatencyRecorder execute = node.getPhase(TracePhase.EXECUTE);
+            LatencyRecorder total = node.getTotal();
+            log.info("flow: {}, activity: {}, invocations: {}, errors: {}, queue p99: {}, before p99: {}, "
+                            + "execute p50/p99/max: {}/{}/{}, after p99: {}, total p50/p99: {}/{}, tokens: {}/{}",
+                    node.getFlowId(), node.getActivityId(), node.getInvocations(), node.getErrors(),
+                    node.getPhase(TracePhase.QUEUE).getPercentile(99), node.getPhase(TracePhase.BEFORE).getPercentile(99),
+                    execute.getPercentile(50), execute.getPercentile(99), execute.getMax(),
+                    node.getPhase(TracePhase.AFTER).getPercentile(99), total.getPercentile(50), total.getPercentile(99),
+                    node.getPromptTokens(), node.getCompletionTokens());
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个节点（流程定义 + processDefinitionActivityId）的累计统计
+ */
+public class NodeMetrics {
+
+    @Getter
+    private final String flowId;
+
+    @Getter
+    private final String activityId;
+
+    private final Map<TracePhase, LatencyRecorder> phases = new EnumMap<>(TracePhase.class);
+
+    @Getter
+    private final LatencyRecorder total = new LatencyRecorder();
+
+    private final LongAdder invocations = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder promptTokens = new LongAdder();
+
+    private final LongAdder completionTokens = new LongAdder();
+
+    NodeMetrics(String flowId, String activityId) {
+        this.flowId = flowId;
+        this.activityId = activityId;
+        for (TracePhase phase : TracePhase.values()) {
+            phases.put(phase, new LatencyRecorder());
+        }
+    }
+
+    void record(NodeTrace trace) {
+        invocations.increment();
+        if (trace.isError()) {
+            errors.increment();
+        }
+        promptTokens.add(trace.getPromptTokens());
+        completionTokens.add(trace.getCompletionTokens());
+        for (TracePhase phase : TracePhase.values()) {
+            long nanos = trace.phaseNanos(phase);
+            if (nanos >= 0) {
+                phases.get(phase).recordNanos(nanos);
+            }
+        }
+        long totalNanos = trace.totalNanos();
+        if (totalNanos >= 0) {
+            total.recordNanos(totalNanos);
+        }
+    }
+
+    public LatencyRecorder getPhase(TracePhase phase) {
+        return phases.get(phase);
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getPromptTokens() {
+        return promptTokens.sum();
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens.sum();
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+import com.alibaba.agentic.core.engine.delegation.domain.LlmResponse;
+import com.alibaba.agentic.core.executor.Result;
+import io.reactivex.rxjava3.core.Flowable;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单次节点执行的跟踪记录。
+ * <p>
+ * 由 {@link ExecutionTracer#start(String, String)} 创建，未开启跟踪时为 null，调用方需判空。
+ * 各阶段只记录时间戳，结果流结束时调用 {@link #finish()} 汇总到 {@link NodeMetrics}。
+ * </p>
+ */
+public class NodeTrace {
+
+    @Getter
+    private final String flowId;
+
+    @Getter
+    private final String activityId;
+
+    private final long createdNanos;
+
+    private volatile long chainStartNanos;
+
+    private volatile long invokeNanos;
+
+    private volatile long executeEndNanos;
+
+    private volatile long afterStartNanos;
+
+    private volatile long afterEndNanos;
+
+    private volatile boolean error;
+
+    private volatile int promptTokens;
+
+    private volatile int completionTokens;
+
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    NodeTrace(String flowId, String activityId) {
+        this.flowId = flowId;
+        this.activityId = activityId;
+        this.createdNanos = System.nanoTime();
+    }
+
+    public void chainStarted() {
+        if (chainStartNanos == 0) {
+            chainStartNanos = System.nanoTime();
+        }
+    }
+
+    public void invoking() {
+        if (invokeNanos == 0) {
+            invokeNanos = System.nanoTime();
+        }
+    }
+
+    public void afterStarted() {
+        if (afterStartNanos == 0) {
+            afterStartNanos = System.nanoTime();
+        }
+    }
+
+    public void afterFinished() {
+        if (afterStartNanos != 0) {
+            afterEndNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 为执行器的结果流加上计时与结果统计，结果流可能被多次订阅，只记录第一次结束
+     */
+    public Flowable<Result> instrument(Flowable<Result> flowable) {
+        return flowable.doOnNext(this::onResult)
+                .doOnError(throwable -> error = true)
+                .doFinally(() -> {
+                    if (executeEndNanos == 0) {
+                        executeEndNanos = System.nanoTime();
+                    }
+                });
+    }
+
+    /**
+     * 节点结束，汇总到统计中，只生效一次
+     */
+    public void finish() {
+        if (finished.compareAndSet(false, true)) {
+            ExecutionTracer.complete(this);
+        }
+    }
+
+    /**
+     * 获取阶段耗时
+     *
+     * @param phase 阶段
+     * @return 耗时纳秒，阶段未发生时为 -1
+     */
+    public long phaseNanos(TracePhase phase) {
+        return switch (phase) {
+            case QUEUE -> between(createdNanos, chainStartNanos);
+            case BEFORE -> between(chainStartNanos, invokeNanos);
+            case EXECUTE -> between(invokeNanos, executeEndNanos);
+            case AFTER -> between(afterStartNanos, afterEndNanos);
+        };
+    }
+
+    /**
+     * @return 节点激活到执行与回调全部结束的耗时纳秒，未结束时为 -1
+     */
+    public long totalNanos() {
+        return between(createdNanos, Math.max(executeEndNanos, afterEndNanos));
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    private void onResult(Result result) {
+        if (result == null) {
+            return;
+        }
+        if (!result.isSuccess()) {
+            error = true;
+        }
+        // 流式输出的用量为累计值，取最大
+        if (result.getTypedData() instanceof LlmResponse response) {
+            if (response.getUsage() != null) {
+                promptTokens = Math.max(promptTokens, valueOf(response.getUsage().getPromptTokens()));
+                completionTokens = Math.max(completionTokens, valueOf(response.getUsage().getCompletionTokens()));
+            }
+        } else if (result.getData() != null && result.getData().get("usage") instanceof Map<?, ?> usage) {
+            promptTokens = Math.max(promptTokens, valueOf(usage.get("promptTokens")));
+            completionTokens = Math.max(completionTokens, valueOf(usage.get("completionTokens")));
+        }
+    }
+
+    private static int valueOf(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static long between(long start, long end) {
+        return start == 0 || end == 0 ? -1 : Math.max(0, end - start);
+    }
+
+}
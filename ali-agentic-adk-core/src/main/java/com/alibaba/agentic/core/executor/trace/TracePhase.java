@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+/**
+ * 节点执行的计时阶段
+ */
+public enum TracePhase {
+
+    /**
+     * 节点激活到执行链开始，异步节点包含在任务队列中的等待时间
+     */
+    QUEUE,
+
+    /**
+     * before 回调
+     */
+    BEFORE,
+
+    /**
+     * 执行器调用，从调用到结果流结束
+     */
+    EXECUTE,
+
+    /**
+     * after 回调
+     */
+    AFTER
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+import java.util.Collection;
+
+/**
+ * 跟踪数据输出，可对接 Micrometer、JMX 或日志。
+ * <p>
+ * {@link #onNode(NodeTrace)} 在节点结束的线程上同步调用，实现需足够轻量；
+ * {@link #export(Collection)} 由 {@link ExecutionTracer} 按周期调用，传入全部节点的累计统计。
+ * </p>
+ */
+public interface TraceSink {
+
+    /**
+     * 单个节点执行结束
+     */
+    default void onNode(NodeTrace trace) {
+    }
+
+    /**
+     * 周期性输出累计统计
+     */
+    void export(Collection<NodeMetrics> metrics);
+
+}
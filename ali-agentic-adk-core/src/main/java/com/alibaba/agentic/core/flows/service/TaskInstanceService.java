@@ -41,4 +41,12 @@ public interface TaskInstanceService {
      * @return
      */
     TaskInstance getTaskInstance(String taskId);
+
+    /**
+     * 异步任务完成（已回调流程），实现可在此删除或设置过期
+     *
+     * @param taskId
+     */
+    default void completeTaskInstance(String taskId) {
+    }
 }
@@ -17,6 +17,7 @@ package com.alibaba.agentic.core.flows.service.domain;
 
 import com.alibaba.agentic.core.executor.Request;
 import com.alibaba.agentic.core.executor.SystemContext;
+import com.alibaba.agentic.core.executor.trace.NodeTrace;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -34,4 +35,9 @@ public class AsyncRequest {
     private SystemContext systemContext;
 
     private Request request;
+
+    /**
+     * 节点跟踪记录，未开启跟踪时为空，不参与持久化
+     */
+    private NodeTrace trace;
 }
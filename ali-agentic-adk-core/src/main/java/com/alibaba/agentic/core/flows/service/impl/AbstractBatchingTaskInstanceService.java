@@ -0,0 +1,232 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.flows.service.impl;
+
+import com.alibaba.agentic.core.flows.service.TaskInstanceService;
+import com.alibaba.agentic.core.flows.service.domain.TaskInstance;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * DESCRIPTION
+ * 批量写入的持久化异步任务管理基类
+ * <p>
+ * 写入先进入队列，由单个写线程合并为一批后调用 {@link #writeBatch(List)}（组提交），
+ * persistTaskInstance 在所在批次落盘后返回；尚未落盘的写入对读可见。
+ * </p>
+ */
+@Slf4j
+public abstract class AbstractBatchingTaskInstanceService implements TaskInstanceService, Closeable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    public static final long DEFAULT_TTL_MILLIS = 7 * 24 * 3600 * 1000L;
+
+    private static final PendingWrite POISON = new PendingWrite(null, null, 0L, false);
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * 已入队但尚未写入的记录，taskId -> 最新的一次写入
+     */
+    private final Map<String, PendingWrite> unflushed = new ConcurrentHashMap<>();
+
+    private final int maxBatchSize;
+
+    /**
+     * 未完成任务的过期时间(毫秒)，防止回调永远不来的任务常驻存储
+     */
+    @Getter
+    private final long ttlMillis;
+
+    private final Thread writer;
+
+    /**
+     * 保证close之后不再有写入进入队列，POISON始终是队列中的最后一条
+     */
+    private final Object enqueueLock = new Object();
+
+    private volatile boolean closed;
+
+    protected AbstractBatchingTaskInstanceService(String name, int maxBatchSize, long ttlMillis) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.ttlMillis = ttlMillis;
+        this.writer = new Thread(this::writeLoop, name + "-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * 子类完成初始化后启动写线程
+     */
+    protected void start() {
+        writer.start();
+    }
+
+    @Override
+    public String persistTaskInstance(TaskInstance taskInstance) {
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        PendingWrite write = new PendingWrite(taskInstance.getId(), TaskInstanceCodec.encode(taskInstance), expireAt, false);
+        enqueue(write);
+        try {
+            write.getFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("persist task instance interrupted, taskId: " + taskInstance.getId(), e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("persist task instance error, taskId: " + taskInstance.getId(), e.getCause());
+        }
+        return taskInstance.getId();
+    }
+
+    @Override
+    public TaskInstance getTaskInstance(String taskId) {
+        PendingWrite write = unflushed.get(taskId);
+        if (write != null) {
+            return write.isCompleted() ? null : TaskInstanceCodec.decode(write.getData());
+        }
+        try {
+            return TaskInstanceCodec.decode(read(taskId));
+        } catch (IOException e) {
+            throw new RuntimeException("read task instance error, taskId: " + taskId, e);
+        }
+    }
+
+    @Override
+    public void completeTaskInstance(String taskId) {
+        enqueue(new PendingWrite(taskId, null, 0L, true));
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (enqueueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(POISON);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            // 写线程被中断提前退出时，剩余的写入在这里落盘，避免persistTaskInstance永久等待
+            List<PendingWrite> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            rest.remove(POISON);
+            if (!rest.isEmpty()) {
+                flush(rest);
+            }
+        }
+        closeStore();
+    }
+
+    /**
+     * 写入一批记录，data为空的记录表示任务已完成
+     */
+    protected abstract void writeBatch(List<PendingWrite> batch) throws IOException;
+
+    /**
+     * 读取已写入的记录，不存在或已过期时返回null
+     */
+    protected abstract byte[] read(String taskId) throws IOException;
+
+    protected void closeStore() throws IOException {
+    }
+
+    private void enqueue(PendingWrite write) {
+        synchronized (enqueueLock) {
+            if (closed) {
+                throw new IllegalStateException("task instance service closed");
+            }
+            unflushed.put(write.getTaskId(), write);
+            queue.add(write);
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            running = !batch.remove(POISON);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        Throwable error = null;
+        try {
+            writeBatch(batch);
+        } catch (Throwable t) {
+            log.error("write task instance batch error, size: {}", batch.size(), t);
+            error = t;
+        }
+        for (PendingWrite write : batch) {
+            unflushed.remove(write.getTaskId(), write);
+            if (error == null) {
+                write.getFuture().complete(null);
+            } else {
+                write.getFuture().completeExceptionally(error);
+            }
+        }
+    }
+
+    @Getter
+    protected static final class PendingWrite {
+
+        private final String taskId;
+
+        /**
+         * 编码后的任务，已完成的任务为null
+         */
+        private final byte[] data;
+
+        private final long expireAt;
+
+        private final boolean completed;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(String taskId, byte[] data, long expireAt, boolean completed) {
+            this.taskId = taskId;
+            this.data = data;
+            this.expireAt = expireAt;
+            this.completed = completed;
+        }
+    }
+}
@@ -18,14 +18,135 @@ package com.alibaba.agentic.core.flows.service.impl;
 import com.alibaba.agentic.core.engine.dto.FlowDefinition;
 import com.alibaba.agentic.core.engine.node.FlowCanvas;
 import com.alibaba.agentic.core.flows.service.AgentProcessService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 流程部署服务。
+ * <p>
+ * 以画布的结构哈希缓存部署结果，结构未变化时直接复用已部署的 {@link FlowDefinition}，
+ * 跳过bpmn xml的生成与存储写入。缓存按访问顺序淘汰最久未使用的部署，复用时还原部署时自动生成的节点id。
+ * </p>
+ */
+@Slf4j
 @Component
 public class AgentProcessServiceImpl implements AgentProcessService {
 
+    public static final int MAX_DEPLOY_CACHE_SIZE = 1024;
+
+    // 画布结构哈希 -> 已部署的流程，按访问顺序排列，最久未使用的在最前
+    private final Map<String, DeployedFlow> deployCache = new LinkedHashMap<String, DeployedFlow>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DeployedFlow> eldest) {
+            return size() > MAX_DEPLOY_CACHE_SIZE;
+        }
+    };
+
+    // 部署中的画布结构哈希，同一结构的并发部署只执行一次，避免条件重复注册
+    private final Map<String, CompletableFuture<DeployedFlow>> deploying = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
 
     @Override
     public FlowDefinition deploy(FlowCanvas flowCanvas) {
-        return flowCanvas.deploy();
+        String hash = flowCanvas.structuralHash();
+        DeployedFlow cached = lookup(hash);
+        if (cached == null) {
+            CompletableFuture<DeployedFlow> future = new CompletableFuture<>();
+            CompletableFuture<DeployedFlow> running = deploying.putIfAbsent(hash, future);
+            if (running == null) {
+                try {
+                    cached = lookup(hash);
+                    if (cached == null) {
+                        DeployedFlow deployed = new DeployedFlow(flowCanvas.deploy(), flowCanvas.deployedIds());
+                        missCount.increment();
+                        synchronized (deployCache) {
+                            deployCache.put(hash, deployed);
+                            // 部署会为画布补全定义id与版本，同一画布再次运行时按补全后的哈希命中
+                            deployCache.putIfAbsent(flowCanvas.structuralHash(), deployed);
+                        }
+                        future.complete(deployed);
+                        return deployed.definition;
+                    }
+                    future.complete(cached);
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    deploying.remove(hash, future);
+                }
+            } else {
+                cached = join(running);
+            }
+        }
+        hitCount.increment();
+        flowCanvas.setProcessDefinitionId(cached.definition.getDefinitionId());
+        flowCanvas.setVersion(cached.definition.getVersion());
+        flowCanvas.restoreDeployedIds(cached.ids);
+        flowCanvas.bindRuntime();
+        return cached.definition;
+    }
+
+    public long getDeployCacheHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getDeployCacheMissCount() {
+        return missCount.sum();
+    }
+
+    public double getDeployCacheHitRate() {
+        long hit = hitCount.sum();
+        long total = hit + missCount.sum();
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    public int getDeployCacheSize() {
+        synchronized (deployCache) {
+            return deployCache.size();
+        }
+    }
+
+    private DeployedFlow lookup(String hash) {
+        synchronized (deployCache) {
+            return deployCache.get(hash);
+        }
+    }
+
+    private static DeployedFlow join(CompletableFuture<DeployedFlow> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // 已部署的流程定义，以及部署时按遍历顺序记录的节点id与网关id
+    private static final class DeployedFlow {
+
+        private final FlowDefinition definition;
+
+        private final List<String> ids;
+
+        private DeployedFlow(FlowDefinition definition, List<String> ids) {
+            this.definition = definition;
+            this.ids = ids;
+        }
     }
 }
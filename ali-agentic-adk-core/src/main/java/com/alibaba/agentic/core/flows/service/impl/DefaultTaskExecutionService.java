@@ -15,6 +15,8 @@
  */
 package com.alibaba.agentic.core.flows.service.impl;
 
+import com.alibaba.agentic.core.exceptions.BaseException;
+import com.alibaba.agentic.core.exceptions.ErrorEnum;
 import com.alibaba.agentic.core.executor.DelegationExecutor;
 import com.alibaba.agentic.core.executor.Request;
 import com.alibaba.agentic.core.executor.Result;
@@ -27,13 +29,22 @@ import io.reactivex.rxjava3.core.Flowable;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PostConstruct;
-import java.util.Queue;
-import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * DESCRIPTION
+ * 异步任务执行default实现
+ * <p>
+ * 任务提交后由工作线程池立即消费，执行结果以非阻塞方式订阅后回调流程；
+ * 队列满时按 {@link RejectPolicy} 阻塞等待或直接拒绝。
+ * </p>
  *
  * @author baliang.smy
  * @date 2025/7/28 14:14
@@ -41,42 +52,196 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class DefaultTaskExecutionService implements TaskExecutionService {
 
-    private final static Queue<AsyncRequest> queue = new LinkedBlockingQueue<>();
+    public static final int DEFAULT_CONCURRENCY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+    public static final long DEFAULT_SUBMIT_TIMEOUT_MILLIS = 3000L;
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum RejectPolicy {
+        /**
+         * 阻塞提交线程，超过submitTimeoutMillis仍无空位则拒绝
+         */
+        BLOCK,
+        /**
+         * 直接拒绝
+         */
+        ABORT
+    }
 
     private final TaskInstanceService taskInstanceService;
 
     private final Runner runner;
 
+    private final ThreadPoolExecutor workers;
+
+    private final LongAdder submittedCount = new LongAdder();
+
+    private final LongAdder completedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final LongAdder startedCount = new LongAdder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final long startNanos = System.nanoTime();
+
     public DefaultTaskExecutionService(TaskInstanceService taskInstanceService, Runner runner) {
+        this(taskInstanceService, runner, DEFAULT_CONCURRENCY, DEFAULT_QUEUE_CAPACITY, RejectPolicy.BLOCK, DEFAULT_SUBMIT_TIMEOUT_MILLIS);
+    }
+
+    public DefaultTaskExecutionService(TaskInstanceService taskInstanceService, Runner runner, int concurrency,
+                                       int queueCapacity, RejectPolicy rejectPolicy, long submitTimeoutMillis) {
         this.taskInstanceService = taskInstanceService;
         this.runner = runner;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "agentic-async-task-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectHandler(rejectPolicy == null ? RejectPolicy.BLOCK : rejectPolicy, submitTimeoutMillis));
     }
 
     @PostConstruct
     public void init() {
-        Executors.newScheduledThreadPool(2).scheduleAtFixedRate(() -> {
-            //log.info("scheduler queue size: {}", queue.size());
-            if (queue.isEmpty()) {
-                return;
-            }
-            AsyncRequest task = queue.poll();
-            Request request = task.getRequest();
-            Flowable<Result> result = DelegationExecutor.invoke(task.getSystemContext(), request);
-            signal(task.getTaskId(), DelegationExecutor.receive(task.getSystemContext(), request, result.blockingFirst()));
-        }, 1, 1, TimeUnit.SECONDS);
+        workers.prestartAllCoreThreads();
     }
 
+    @PreDestroy
+    public void destroy() {
+        workers.shutdown();
+    }
 
     @Override
     public void submitTask(AsyncRequest asyncRequest) {
-        queue.add(asyncRequest);
+        long enqueueNanos = System.nanoTime();
+        try {
+            workers.execute(() -> execute(asyncRequest, enqueueNanos));
+            submittedCount.increment();
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            log.error("async task rejected, taskId: {}, queue depth: {}", asyncRequest.getTaskId(), getQueueDepth());
+            throw new BaseException("async task queue is full, taskId: " + asyncRequest.getTaskId(), e, ErrorEnum.SYSTEM_ERROR);
+        }
     }
 
     @Override
     public void signal(String taskId, Result result) {
         TaskInstance taskInstance = taskInstanceService.getTaskInstance(taskId);
+        if (taskInstance == null) {
+            log.warn("task instance not found or already completed, taskId: {}", taskId);
+            return;
+        }
         runner.signal(taskInstance, result);
+        taskInstanceService.completeTaskInstance(taskId);
+    }
+
+    private void execute(AsyncRequest task, long enqueueNanos) {
+        totalWaitNanos.add(System.nanoTime() - enqueueNanos);
+        startedCount.increment();
+        inFlight.incrementAndGet();
+        Request request = task.getRequest();
+        Flowable<Result> result;
+        try {
+            result = DelegationExecutor.invoke(task.getSystemContext(), request, task.getTrace());
+        } catch (Throwable throwable) {
+            onResult(task, Result.fail(throwable));
+            return;
+        }
+        // 非阻塞订阅，结果在产生结果的线程上回调，工作线程立即释放
+        result.first(new Result()).subscribe(r -> onResult(task, r), throwable -> onResult(task, Result.fail(throwable)));
     }
 
+    private void onResult(AsyncRequest task, Result result) {
+        try {
+            signal(task.getTaskId(), DelegationExecutor.receive(task.getSystemContext(), task.getRequest(), result));
+            if (result.isSuccess()) {
+                completedCount.increment();
+            } else {
+                failedCount.increment();
+            }
+        } catch (Throwable throwable) {
+            failedCount.increment();
+            log.error("async task signal error, taskId: {}", task.getTaskId(), throwable);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static RejectedExecutionHandler rejectHandler(RejectPolicy rejectPolicy, long submitTimeoutMillis) {
+        if (RejectPolicy.ABORT.equals(rejectPolicy)) {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+        return (runnable, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("async task executor is shut down");
+            }
+            try {
+                if (!executor.getQueue().offer(runnable, submitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new RejectedExecutionException("async task queue is still full after " + submitTimeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+        };
+    }
+
+    /**
+     * 当前排队中的任务数
+     */
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * 已开始执行、尚未回调的任务数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 任务从提交到开始执行的平均等待时间(毫秒)
+     */
+    public double getAverageWaitMillis() {
+        long started = startedCount.sum();
+        return started == 0 ? 0D : totalWaitNanos.sum() / 1_000_000D / started;
+    }
+
+    /**
+     * 启动以来每秒完成(含失败)的任务数
+     */
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000D;
+        return seconds <= 0 ? 0D : (completedCount.sum() + failedCount.sum()) / seconds;
+    }
 
 }
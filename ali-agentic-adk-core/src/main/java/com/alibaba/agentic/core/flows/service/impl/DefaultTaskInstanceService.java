@@ -21,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DESCRIPTION
@@ -32,20 +33,73 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class DefaultTaskInstanceService implements TaskInstanceService {
 
-    private final static Map<String, TaskInstance> persistMap = new ConcurrentHashMap<>();
+    private static final int SWEEP_INTERVAL = 1024;
 
+    private final Map<String, Entry> persistMap = new ConcurrentHashMap<>();
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    /**
+     * 未完成任务的过期时间(毫秒)，小于等于0表示不过期
+     */
+    private final long ttlMillis;
+
+    public DefaultTaskInstanceService() {
+        this(AbstractBatchingTaskInstanceService.DEFAULT_TTL_MILLIS);
+    }
+
+    public DefaultTaskInstanceService(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
 
     @Override
     public String persistTaskInstance(TaskInstance taskInstance) {
-        persistMap.put(taskInstance.getId(), taskInstance);
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        persistMap.put(taskInstance.getId(), new Entry(taskInstance, expireAt));
+        if (writes.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweep();
+        }
         return taskInstance.getId();
     }
 
 
     @Override
     public TaskInstance getTaskInstance(String taskId) {
-        return persistMap.get(taskId);
+        Entry entry = persistMap.get(taskId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt < System.currentTimeMillis()) {
+            persistMap.remove(taskId, entry);
+            return null;
+        }
+        return entry.taskInstance;
+    }
+
+    @Override
+    public void completeTaskInstance(String taskId) {
+        persistMap.remove(taskId);
     }
 
+    public int size() {
+        return persistMap.size();
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        persistMap.entrySet().removeIf(entry -> entry.getValue().expireAt < now);
+    }
+
+    private static final class Entry {
+
+        private final TaskInstance taskInstance;
+
+        private final long expireAt;
+
+        private Entry(TaskInstance taskInstance, long expireAt) {
+            this.taskInstance = taskInstance;
+            this.expireAt = expireAt;
+        }
+    }
 
 }
@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.flows.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * DESCRIPTION
+ * 基于本地追加日志文件的异步任务管理实现
+ * <p>
+ * 每次写入追加一条带CRC的记录，内存中只保留 taskId -> 文件偏移 的索引；
+ * 启动时回放日志重建索引（末尾不完整的记录会被截断），进程重启后未回调的任务仍可找回。
+ * 完成的任务写入删除标记，废弃数据超过阈值且多于有效数据时整体压缩重写。
+ * </p>
+ * 记录格式：[int 长度][byte 操作][long 过期时间][int idLen][id][int dataLen][data][int crc]
+ */
+@Slf4j
+public class FileTaskInstanceService extends AbstractBatchingTaskInstanceService {
+
+    public static final String FILE_NAME = "task-instances.log";
+
+    public static final long DEFAULT_COMPACT_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+    private static final byte OP_PUT = 1;
+
+    private static final byte OP_DELETE = 2;
+
+    private static final int HEADER_BYTES = 1 + 8 + 4;
+
+    private final Path file;
+
+    private final boolean forceOnWrite;
+
+    private final long compactThresholdBytes;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FileChannel channel;
+
+    private long position;
+
+    private long liveBytes;
+
+    private long deadBytes;
+
+    public FileTaskInstanceService(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_BATCH_SIZE, DEFAULT_TTL_MILLIS, true, DEFAULT_COMPACT_THRESHOLD_BYTES);
+    }
+
+    public FileTaskInstanceService(Path directory, int maxBatchSize, long ttlMillis, boolean forceOnWrite,
+                                   long compactThresholdBytes) throws IOException {
+        super("file-task-instance", maxBatchSize, ttlMillis);
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.forceOnWrite = forceOnWrite;
+        this.compactThresholdBytes = compactThresholdBytes;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replay();
+        start();
+    }
+
+    /**
+     * 当前有效(未完成且未过期)的任务数
+     */
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    protected byte[] read(String taskId) throws IOException {
+        Location location = index.get(taskId);
+        if (location == null) {
+            return null;
+        }
+        if (location.expireAt < System.currentTimeMillis()) {
+            index.remove(taskId, location);
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            // 压缩后偏移会变化，重新取一次
+            Location current = index.get(taskId);
+            if (current == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(current.length);
+            long offset = current.dataOffset;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("unexpected end of " + file);
+                }
+            }
+            return buffer.array();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void writeBatch(List<PendingWrite> batch) throws IOException {
+        int size = 0;
+        for (PendingWrite write : batch) {
+            size += recordSize(write.getTaskId(), write.getData());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        long[] dataOffsets = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            dataOffsets[i] = position + buffer.position() + 4 + HEADER_BYTES
+                    + write.getTaskId().getBytes(StandardCharsets.UTF_8).length + 4;
+            putRecord(buffer, write.isCompleted() ? OP_DELETE : OP_PUT, write.getExpireAt(), write.getTaskId(), write.getData());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        if (forceOnWrite) {
+            channel.force(false);
+        }
+        position += size;
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            int recordSize = recordSize(write.getTaskId(), write.getData());
+            if (write.isCompleted()) {
+                discard(index.remove(write.getTaskId()));
+                deadBytes += recordSize;
+            } else {
+                discard(index.put(write.getTaskId(), new Location(dataOffsets[i], write.getData().length, write.getExpireAt(), recordSize)));
+                liveBytes += recordSize;
+            }
+        }
+        if (deadBytes > compactThresholdBytes && deadBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    @Override
+    protected void closeStore() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 只保留未过期的有效记录重写日志文件
+     */
+    private void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Path tmp = file.resolveSibling(FILE_NAME + ".compact");
+            long now = System.currentTimeMillis();
+            long newPosition = 0;
+            try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Map.Entry<String, Location> entry : index.entrySet()) {
+                    Location location = entry.getValue();
+                    if (location.expireAt < now) {
+                        index.remove(entry.getKey(), location);
+                        continue;
+                    }
+                    ByteBuffer data = ByteBuffer.allocate(location.length);
+                    while (data.hasRemaining()) {
+                        if (channel.read(data, location.dataOffset + data.position()) < 0) {
+                            throw new EOFException("unexpected end of " + file);
+                        }
+                    }
+                    ByteBuffer record = ByteBuffer.allocate(location.recordSize);
+                    putRecord(record, OP_PUT, location.expireAt, entry.getKey(), data.array());
+                    record.flip();
+                    long dataOffset = newPosition + location.recordSize - 4 - location.length;
+                    while (record.hasRemaining()) {
+                        target.write(record, newPosition + record.position());
+                    }
+                    entry.setValue(new Location(dataOffset, location.length, location.expireAt, location.recordSize));
+                    newPosition += location.recordSize;
+                }
+                target.force(true);
+            }
+            channel.close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            log.info("compact task instance log, {} -> {} bytes, {} tasks", position, newPosition, index.size());
+            position = newPosition;
+            liveBytes = newPosition;
+            deadBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replay() throws IOException {
+        long now = System.currentTimeMillis();
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length < HEADER_BYTES + 4 || offset + 4 + length + 4 > channel.size()) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                int crc = in.readInt();
+                if (crc != crc(body)) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(body);
+                byte op = buffer.get();
+                long expireAt = buffer.getLong();
+                byte[] id = new byte[buffer.getInt()];
+                buffer.get(id);
+                int dataLength = buffer.getInt();
+                String taskId = new String(id, StandardCharsets.UTF_8);
+                int recordSize = 4 + length + 4;
+                if (op == OP_PUT && expireAt >= now) {
+                    discard(index.put(taskId, new Location(offset + 4 + buffer.position(), dataLength, expireAt, recordSize)));
+                    liveBytes += recordSize;
+                } else {
+                    discard(index.remove(taskId));
+                    deadBytes += recordSize;
+                }
+                offset += recordSize;
+            }
+        } catch (EOFException e) {
+            // 末尾记录不完整
+        }
+        // DataInputStream关闭时会关闭channel，重新打开
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (offset < channel.size()) {
+            log.warn("truncate incomplete task instance records of {}, {} -> {} bytes", file, channel.size(), offset);
+            channel.truncate(offset);
+        }
+        position = offset;
+    }
+
+    private void discard(Location location) {
+        if (location != null) {
+            liveBytes -= location.recordSize;
+            deadBytes += location.recordSize;
+        }
+    }
+
+    private static int recordSize(String taskId, byte[] data) {
+        return 4 + HEADER_BYTES + taskId.getBytes(StandardCharsets.UTF_8).length + 4 + (data == null ? 0 : data.length) + 4;
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte op, long expireAt, String taskId, byte[] data) {
+        byte[] id = taskId.getBytes(StandardCharsets.UTF_8);
+        int dataLength = data == null ? 0 : data.length;
+        int start = buffer.position();
+        buffer.putInt(HEADER_BYTES + id.length + 4 + dataLength);
+        buffer.put(op);
+        buffer.putLong(expireAt);
+        buffer.putInt(id.length);
+        buffer.put(id);
+        buffer.putInt(dataLength);
+        if (data != null) {
+            buffer.put(data);
+        }
+        CRC32 crc32 = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + 4).limit(buffer.position());
+        crc32.update(body);
+        buffer.putInt((int) crc32.getValue());
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body, 0, body.length);
+        return (int) crc32.getValue();
+    }
+
+    private static final class Location {
+
+        private final long dataOffset;
+
+        private final int length;
+
+        private final long expireAt;
+
+        private final int recordSize;
+
+        private Location(long dataOffset, int length, long expireAt, int recordSize) {
+            this.dataOffset = dataOffset;
+            this.length = length;
+            this.expireAt = expireAt;
+            this.recordSize = recordSize;
+        }
+    }
+}
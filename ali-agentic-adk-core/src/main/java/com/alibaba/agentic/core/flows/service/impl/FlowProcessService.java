@@ -17,6 +17,9 @@ package com.alibaba.agentic.core.flows.service.impl;
 
 import com.alibaba.agentic.core.engine.constants.ExecutionConstant;
 import com.alibaba.agentic.core.engine.dto.FlowDefinition;
+import com.alibaba.agentic.core.flows.service.TaskExecutionService;
+import com.alibaba.agentic.core.flows.service.domain.AsyncRequest;
+import com.alibaba.agentic.core.utils.ApplicationContextUtil;
 import com.alibaba.smart.framework.engine.SmartEngine;
 import com.alibaba.smart.framework.engine.model.instance.ExecutionInstance;
 import com.alibaba.smart.framework.engine.model.instance.ProcessInstance;
@@ -43,10 +46,12 @@ public class FlowProcessService {
     public ProcessInstance startFlow(FlowDefinition flowDefinition, Map<String, Object> request, Map<String, Object> response) {
         try {
             PersisterSession.create();
-            return smartEngine.getProcessCommandService().start(flowDefinition.getDefinitionId(), flowDefinition.getVersion(),
+            ProcessInstance processInstance = smartEngine.getProcessCommandService().start(flowDefinition.getDefinitionId(), flowDefinition.getVersion(),
                     new HashMap<>(Map.of(ExecutionConstant.ORIGIN_REQUEST, request.get(ExecutionConstant.ORIGIN_REQUEST),
                             ExecutionConstant.SYSTEM_CONTEXT, request.get(ExecutionConstant.SYSTEM_CONTEXT))),
                     response);
+            dispatchPendingTasks(response);
+            return processInstance;
         } catch (Exception e) {
             log.error("FlowProcessService startFlow fail", e);
             throw new RuntimeException(e);
@@ -58,9 +63,11 @@ public class FlowProcessService {
     public ProcessInstance startFlow(String flowDefinitionId, String flowVersion, Map<String, Object> request, Map<String, Object> response) {
         try {
             PersisterSession.create();
-            return smartEngine.getProcessCommandService().start(flowDefinitionId, flowVersion
+            ProcessInstance processInstance = smartEngine.getProcessCommandService().start(flowDefinitionId, flowVersion
                     , Map.of(ExecutionConstant.ORIGIN_REQUEST, request.get(ExecutionConstant.ORIGIN_REQUEST),
                             ExecutionConstant.SYSTEM_CONTEXT, request.get(ExecutionConstant.SYSTEM_CONTEXT)), response);
+            dispatchPendingTasks(response);
+            return processInstance;
         } catch (Exception e) {
             log.error("FlowProcessService startFlow fail", e);
             throw new RuntimeException(e);
@@ -83,11 +90,13 @@ public class FlowProcessService {
             }
             for (ExecutionInstance executionInstance : executionInstanceList) {
                 if (executionInstance.getProcessDefinitionActivityId().equals(activityId)) {
+                    Map<String, Object> signalResponse = new HashMap<>(response);
                     executionCommandService.signal(executionInstance.getInstanceId(),
                             new HashMap<>(Map.of(ExecutionConstant.ORIGIN_REQUEST, request.get(ExecutionConstant.ORIGIN_REQUEST),
                                     ExecutionConstant.SYSTEM_CONTEXT, request.get(ExecutionConstant.SYSTEM_CONTEXT),
                                     ExecutionConstant.IS_CALLBACK, true)),
-                            new HashMap<>(response));
+                            signalResponse);
+                    dispatchPendingTasks(signalResponse);
                     return;
                 }
             }
@@ -99,5 +108,14 @@ public class FlowProcessService {
         }
     }
 
+    // 引擎调用返回（节点已暂停）后再提交本次调用中产生的异步任务
+    private void dispatchPendingTasks(Map<String, Object> response) {
+        List<AsyncRequest> pendingTasks = (List<AsyncRequest>) response.remove(ExecutionConstant.PENDING_ASYNC_TASKS);
+        if (CollectionUtils.isEmpty(pendingTasks)) {
+            return;
+        }
+        TaskExecutionService taskExecutionService = (TaskExecutionService) ApplicationContextUtil.getBean(TaskExecutionService.class);
+        pendingTasks.forEach(taskExecutionService::submitTask);
+    }
 
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.flows.service.impl;
+
+import com.alibaba.agentic.core.flows.storage.redis.AiRedisTemplate;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DESCRIPTION
+ * 基于Redis的异步任务管理实现
+ * <p>
+ * 任务以二进制编码存储，同一批次的写入通过一次pipeline提交；
+ * 未完成的任务按ttl过期；完成后改写为completedTtl内有效的完成标记，重复回调读到标记时视为任务不存在。
+ * </p>
+ */
+public class RedisTaskInstanceService extends AbstractBatchingTaskInstanceService {
+
+    public static final int DEFAULT_COMPLETED_TTL_SECONDS = 600;
+
+    /**
+     * 已完成任务的标记，首字节与 {@link TaskInstanceCodec} 的版本号不同
+     */
+    private static final byte[] COMPLETED_MARKER = new byte[] {0};
+
+    private final AiRedisTemplate redisTemplate;
+
+    private final String prefix;
+
+    private final int completedTtlSeconds;
+
+    public RedisTaskInstanceService(AiRedisTemplate redisTemplate, String prefix) {
+        this(redisTemplate, prefix, DEFAULT_MAX_BATCH_SIZE, DEFAULT_TTL_MILLIS, DEFAULT_COMPLETED_TTL_SECONDS);
+    }
+
+    public RedisTaskInstanceService(AiRedisTemplate redisTemplate, String prefix, int maxBatchSize,
+                                    long ttlMillis, int completedTtlSeconds) {
+        super("redis-task-instance", maxBatchSize, ttlMillis);
+        this.redisTemplate = redisTemplate;
+        this.prefix = StringUtils.isEmpty(prefix) ? "" : prefix;
+        this.completedTtlSeconds = completedTtlSeconds;
+        start();
+    }
+
+    @Override
+    protected void writeBatch(List<PendingWrite> batch) {
+        redisTemplate.pipelined(pipeline -> {
+            for (PendingWrite write : batch) {
+                byte[] key = key(write.getTaskId());
+                if (write.isCompleted()) {
+                    if (completedTtlSeconds > 0) {
+                        pipeline.setex(key, completedTtlSeconds, COMPLETED_MARKER);
+                    } else {
+                        pipeline.del(key);
+                    }
+                } else if (getTtlMillis() > 0) {
+                    pipeline.setex(key, (int) Math.max(1L, getTtlMillis() / 1000L), write.getData());
+                } else {
+                    pipeline.set(key, write.getData());
+                }
+            }
+        });
+    }
+
+    @Override
+    protected byte[] read(String taskId) {
+        byte[] data = redisTemplate.get(key(taskId));
+        return data == null || Arrays.equals(data, COMPLETED_MARKER) ? null : data;
+    }
+
+    private byte[] key(String taskId) {
+        return (prefix + ":task:" + taskId).getBytes(StandardCharsets.UTF_8);
+    }
+}
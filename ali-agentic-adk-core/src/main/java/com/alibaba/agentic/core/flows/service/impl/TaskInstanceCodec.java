@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.flows.service.impl;
+
+import com.alibaba.agentic.core.executor.Executor;
+import com.alibaba.agentic.core.executor.InvokeMode;
+import com.alibaba.agentic.core.executor.Request;
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.alibaba.agentic.core.flows.service.domain.TaskInstance;
+import com.alibaba.agentic.core.utils.ApplicationContextUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.TypeReference;
+import com.alibaba.smart.framework.engine.model.instance.ProcessInstance;
+import com.alibaba.smart.framework.engine.persister.util.InstanceSerializerFacade;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * TaskInstance的二进制编解码
+ * <p>
+ * 按字段顺序写入长度前缀的字节，ProcessInstance使用SmartEngine自带的序列化，
+ * Map类字段使用JSON；超过 {@link #COMPRESS_THRESHOLD} 字节时整体deflate压缩。
+ * 执行器只记录类名，解码时从Spring容器中取回；双工模式的processor不参与持久化。
+ * </p>
+ */
+@Slf4j
+public final class TaskInstanceCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final byte FLAG_COMPRESSED = 1;
+
+    static final int COMPRESS_THRESHOLD = 512;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private static final TypeReference<Map<String, Map<String, Object>>> INTER_OUTPUT_TYPE = new TypeReference<Map<String, Map<String, Object>>>() {
+    };
+
+    private TaskInstanceCodec() {
+    }
+
+    public static byte[] encode(TaskInstance taskInstance) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(body);
+            writeString(out, taskInstance.getId());
+            writeString(out, taskInstance.getActivityId());
+            ProcessInstance processInstance = taskInstance.getProcessInstance();
+            writeString(out, processInstance == null ? null : InstanceSerializerFacade.serialize(processInstance));
+
+            Request request = taskInstance.getRequest();
+            out.writeBoolean(request != null);
+            if (request != null) {
+                writeString(out, request.getInvokeMode() == null ? null : request.getInvokeMode().name());
+                writeJson(out, request.getParam());
+            }
+
+            SystemContext systemContext = taskInstance.getSystemContext();
+            out.writeBoolean(systemContext != null);
+            if (systemContext != null) {
+                writeString(out, systemContext.getInvokeMode() == null ? null : systemContext.getInvokeMode().name());
+                writeString(out, systemContext.getExecutor() == null ? null : systemContext.getExecutor().getClass().getName());
+                writeJson(out, systemContext.getRequestParameter());
+                writeJson(out, systemContext.getInterOutput());
+            }
+            out.flush();
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(body.size() + 2);
+            result.write(VERSION);
+            if (body.size() > COMPRESS_THRESHOLD) {
+                result.write(FLAG_COMPRESSED);
+                try (DeflaterOutputStream deflater = new DeflaterOutputStream(result)) {
+                    body.writeTo(deflater);
+                }
+            } else {
+                result.write(0);
+                body.writeTo(result);
+            }
+            return result.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("encode task instance error, taskId: " + taskInstance.getId(), e);
+        }
+    }
+
+    public static TaskInstance decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            if (bytes[0] != VERSION) {
+                throw new IOException("unsupported task instance version: " + bytes[0]);
+            }
+            ByteArrayInputStream body = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+            DataInputStream in = new DataInputStream(bytes[1] == FLAG_COMPRESSED ? new InflaterInputStream(body) : body);
+
+            TaskInstance taskInstance = new TaskInstance()
+                    .setId(readString(in))
+                    .setActivityId(readString(in));
+            String processInstance = readString(in);
+            if (processInstance != null) {
+                taskInstance.setProcessInstance(InstanceSerializerFacade.deserializeAll(processInstance));
+            }
+            if (in.readBoolean()) {
+                Request request = new Request();
+                String invokeMode = readString(in);
+                if (invokeMode != null) {
+                    request.setInvokeMode(InvokeMode.valueOf(invokeMode));
+                }
+                request.setParam(readJson(in, MAP_TYPE));
+                taskInstance.setRequest(request);
+            }
+            if (in.readBoolean()) {
+                String invokeMode = readString(in);
+                SystemContext systemContext = new SystemContext()
+                        .setInvokeMode(invokeMode == null ? null : InvokeMode.valueOf(invokeMode))
+                        .setExecutor(resolveExecutor(readString(in)))
+                        .setRequestParameter(readJson(in, MAP_TYPE));
+                Map<String, Map<String, Object>> interOutput = readJson(in, INTER_OUTPUT_TYPE);
+                if (interOutput != null) {
+                    systemContext.setInterOutput(interOutput);
+                }
+                taskInstance.setSystemContext(systemContext);
+            }
+            return taskInstance;
+        } catch (IOException e) {
+            throw new RuntimeException("decode task instance error", e);
+        }
+    }
+
+    private static Executor resolveExecutor(String className) {
+        if (className == null || ApplicationContextUtil.getApplicationContext() == null) {
+            return null;
+        }
+        try {
+            return (Executor) ApplicationContextUtil.getBean(Class.forName(className));
+        } catch (Exception e) {
+            log.warn("cannot resolve executor bean: {}", className, e);
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeJson(DataOutputStream out, Object value) throws IOException {
+        writeBytes(out, value == null ? null : JSON.toJSONBytes(value));
+    }
+
+    private static <T> T readJson(DataInputStream in, TypeReference<T> type) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : JSON.parseObject(new String(bytes, StandardCharsets.UTF_8), type);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -18,8 +18,10 @@ package com.alibaba.agentic.core.flows.storage.redis;
 import lombok.extern.slf4j.Slf4j;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 @Slf4j
 public class AiRedisTemplate {
@@ -184,4 +186,35 @@ public class AiRedisTemplate {
             throw ex;
         }
     }
-}
\ No newline at end of file
+
+    public byte[] get(byte[] key) {
+        if (Objects.isNull(jedisPool)) {
+            throw new RuntimeException("redis session not available");
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.get(key);
+        } catch (Exception ex) {
+            log.error("redis get method occur exception", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * 通过pipeline批量执行命令，一次网络往返
+     *
+     * @param commands 在pipeline上追加的命令
+     */
+    public void pipelined(Consumer<Pipeline> commands) {
+        if (Objects.isNull(jedisPool)) {
+            throw new RuntimeException("redis session not available");
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            commands.accept(pipeline);
+            pipeline.sync();
+        } catch (Exception ex) {
+            log.error("redis pipelined method occur exception", ex);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.models;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * DESCRIPTION
+ * 简单的模型客户端池，空闲对象有上限，池空时直接新建，归还时池满则丢弃。
+ */
+public class ClientPool<T> {
+
+    private final BlockingQueue<T> idle;
+
+    private final Supplier<T> factory;
+
+    public ClientPool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    public T borrow() {
+        T client = idle.poll();
+        return client == null ? factory.get() : client;
+    }
+
+    public void release(T client) {
+        if (client != null) {
+            idle.offer(client);
+        }
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+}
@@ -28,7 +28,6 @@ import com.alibaba.dashscope.common.Role;
 import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.InputRequiredException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
-import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -47,8 +46,14 @@ import java.util.stream.Collectors;
 @Component
 public class DashScopeLlm implements BasicLlm {
 
+    public static final int DEFAULT_MAX_IDLE_CLIENTS = 64;
+
     private String apiKey;
 
+    private final ClientPool<Generation> generationPool = new ClientPool<>(Generation::new, DEFAULT_MAX_IDLE_CLIENTS);
+
+    private final LlmStreamMetrics streamMetrics = new LlmStreamMetrics();
+
     @Override
     public String model() {
         return "dashscope";
@@ -132,17 +137,23 @@ public class DashScopeLlm implements BasicLlm {
                 .build();
 
         return Flowable.fromCallable(() -> {
+            Generation gen = generationPool.borrow();
             try {
-                Generation gen = new Generation();
                 GenerationResult result = gen.call(param);
                 return toLlmResponse(result);
             } catch (Throwable e) {
                 throw new RuntimeException("Qwen 调用失败", e);
+            } finally {
+                generationPool.release(gen);
             }
         });
 
     }
 
+    /**
+     * 流式调用。SDK 返回的 RxJava2 流直接桥接为 RxJava3 流，
+     * 不再占用线程阻塞等待，下游的请求量与取消都会传递到 SDK 流。
+     */
     public Flowable<LlmResponse> invokeStream(LlmRequest llmRequest) {
         List<Message> messages = toQwenMessages(llmRequest);
 
@@ -155,16 +166,29 @@ public class DashScopeLlm implements BasicLlm {
                 .incrementalOutput(true)
                 .build();
 
-        return Flowable.create(emitter -> {
+        return Flowable.defer(() -> {
+            LlmStreamMetrics.Trace trace = streamMetrics.start(llmRequest.getModelName());
+            Generation gen = generationPool.borrow();
+            io.reactivex.Flowable<GenerationResult> stream;
             try {
-                Generation gen = new Generation();
-                io.reactivex.Flowable<GenerationResult> stream = gen.streamCall(param);
-                stream.blockingForEach(r -> emitter.onNext(toLlmResponse(r)));
-                emitter.onComplete();
+                stream = gen.streamCall(param);
             } catch (ApiException | NoApiKeyException | InputRequiredException e) {
-                emitter.onError(e);
+                generationPool.release(gen);
+                return Flowable.error(e);
             }
-        }, BackpressureStrategy.BUFFER);
+            return Flowable.fromPublisher(stream)
+                    .map(result -> {
+                        LlmResponse response = toLlmResponse(result);
+                        trace.onChunk(response);
+                        return response;
+                    })
+                    .doOnComplete(trace::complete)
+                    .doFinally(() -> generationPool.release(gen));
+        });
+    }
+
+    public LlmStreamMetrics getStreamMetrics() {
+        return streamMetrics;
     }
 
     private String getApiKey() {
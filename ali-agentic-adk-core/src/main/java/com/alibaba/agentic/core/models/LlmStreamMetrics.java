@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.models;
+
+import com.alibaba.agentic.core.engine.delegation.domain.LlmResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DESCRIPTION
+ * 流式调用指标：首 token 延迟与生成速度。
+ * <p>
+ * 每次流式调用通过 {@link #start(String)} 获得一个 {@link Trace}，收到分片时调用 {@link Trace#onChunk(LlmResponse)}，
+ * 正常结束时调用 {@link Trace#complete()} 记录本次请求的指标并汇总。
+ * </p>
+ */
+@Slf4j
+public class LlmStreamMetrics {
+
+    private final LongAdder completedCount = new LongAdder();
+
+    private final LongAdder firstTokenCount = new LongAdder();
+
+    private final LongAdder firstTokenLatencyMillis = new LongAdder();
+
+    private final LongAdder outputTokens = new LongAdder();
+
+    private final LongAdder generationMillis = new LongAdder();
+
+    public Trace start(String model) {
+        return new Trace(model, System.nanoTime());
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public double getAverageFirstTokenLatencyMillis() {
+        long count = firstTokenCount.sum();
+        return count == 0 ? 0 : (double) firstTokenLatencyMillis.sum() / count;
+    }
+
+    /**
+     * @return 从首 token 到结束的平均生成速度（token/秒）
+     */
+    public double getTokensPerSecond() {
+        long millis = generationMillis.sum();
+        return millis == 0 ? 0 : outputTokens.sum() * 1000.0 / millis;
+    }
+
+    /**
+     * 单次流式请求的计时
+     */
+    public class Trace {
+
+        private final String model;
+
+        private final long startNanos;
+
+        private long firstTokenNanos;
+
+        private int chunkCount;
+
+        private int tokens;
+
+        private Trace(String model, long startNanos) {
+            this.model = model;
+            this.startNanos = startNanos;
+        }
+
+        public void onChunk(LlmResponse response) {
+            if (firstTokenNanos == 0 && hasContent(response)) {
+                firstTokenNanos = System.nanoTime();
+            }
+            chunkCount++;
+            if (response.getUsage() != null && response.getUsage().getCompletionTokens() != null) {
+                // 用量为累计值，取最大即可
+                tokens = Math.max(tokens, response.getUsage().getCompletionTokens());
+            }
+        }
+
+        public void complete() {
+            long endNanos = System.nanoTime();
+            completedCount.increment();
+            if (firstTokenNanos == 0) {
+                return;
+            }
+            long firstTokenMillis = TimeUnit.NANOSECONDS.toMillis(firstTokenNanos - startNanos);
+            long generateMillis = TimeUnit.NANOSECONDS.toMillis(endNanos - firstTokenNanos);
+            // 没有用量信息时按分片数近似
+            int outputTokenCount = tokens > 0 ? tokens : chunkCount;
+            firstTokenCount.increment();
+            firstTokenLatencyMillis.add(firstTokenMillis);
+            outputTokens.add(outputTokenCount);
+            generationMillis.add(generateMillis);
+            log.debug("llm stream of {} finished, first token: {}ms, tokens: {}, tokens/s: {}", model, firstTokenMillis,
+                    outputTokenCount, generateMillis == 0 ? outputTokenCount : outputTokenCount * 1000.0 / generateMillis);
+        }
+
+        private boolean hasContent(LlmResponse response) {
+            if (response.getChoices() == null) {
+                return false;
+            }
+            for (LlmResponse.Choice choice : response.getChoices()) {
+                if (choice.getText() != null && !choice.getText().isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.runner;
+
+import com.alibaba.agentic.core.executor.InvokeMode;
+import com.alibaba.agentic.core.executor.Result;
+import com.alibaba.agentic.core.executor.StreamPolicy;
+import io.reactivex.rxjava3.core.BackpressureOverflowStrategy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.processors.ReplayProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+
+import java.util.Map;
+
+/**
+ * 双工（BIDI）会话。
+ * <p>
+ * 外部事件先进入有界的待处理队列，再按 {@link StreamPolicy#getMaxInFlight()} 限制同时处理的事件数，
+ * 各事件的结果串行写入只保留最近 {@link StreamPolicy#getReplaySize()} 条的回放处理器，
+ * 长会话的内存占用不会随事件数增长。
+ * </p>
+ */
+@Slf4j
+public final class BidiSession {
+
+    private BidiSession() {
+    }
+
+    /**
+     * 启动会话，事件流是热流，会话在调用时即开始处理事件
+     *
+     * @param events  外部事件流
+     * @param handler 单个事件的处理逻辑
+     * @param policy  缓存与背压配置
+     * @return 会话结果流
+     */
+    public static Flowable<Result> start(Flowable<Map<String, Object>> events,
+                                         Function<Map<String, Object>, Flowable<Result>> handler,
+                                         StreamPolicy policy) {
+        ReplayProcessor<Result> resultClient = ReplayProcessor.createWithSize(Math.max(1, policy.getReplaySize()));
+        Flowable<Map<String, Object>> pending = events.onBackpressureBuffer(Math.max(1, policy.getMaxPendingEvents()),
+                () -> log.warn("bidi session pending events exceed {}", policy.getMaxPendingEvents()),
+                BackpressureOverflowStrategy.ERROR);
+        Function<Map<String, Object>, Publisher<Result>> mapper = event -> {
+            try {
+                return handler.apply(event).onErrorReturn(Result::fail);
+            } catch (Throwable throwable) {
+                return Flowable.just(Result.fail(throwable));
+            }
+        };
+        Flowable<Result> results = policy.getMaxInFlight() <= 1
+                ? pending.concatMap(mapper)
+                : pending.flatMap(mapper, policy.getMaxInFlight());
+        results.onErrorReturn(Result::fail).subscribe(resultClient);
+        return policy.applyBackpressure(resultClient, InvokeMode.BIDI);
+    }
+
+}
@@ -18,9 +18,12 @@ package com.alibaba.agentic.core.runner;
 import com.alibaba.agentic.core.engine.constants.ExecutionConstant;
 import com.alibaba.agentic.core.engine.dto.FlowDefinition;
 import com.alibaba.agentic.core.engine.node.FlowCanvas;
+import com.alibaba.agentic.core.engine.node.sub.ParallelFlowNode;
+import com.alibaba.agentic.core.engine.parallel.ParallelRegistry;
 import com.alibaba.agentic.core.executor.InvokeMode;
 import com.alibaba.agentic.core.executor.Request;
 import com.alibaba.agentic.core.executor.Result;
+import com.alibaba.agentic.core.executor.StreamPolicy;
 import com.alibaba.agentic.core.executor.SystemContext;
 import com.alibaba.agentic.core.flows.service.AgentProcessService;
 import com.alibaba.agentic.core.flows.service.domain.TaskInstance;
@@ -30,19 +33,19 @@ import com.alibaba.agentic.core.runner.pipeline.PipelineRequest;
 import com.alibaba.agentic.core.runner.pipeline.PipelineUtil;
 import com.alibaba.agentic.core.utils.AssertUtils;
 import io.reactivex.rxjava3.core.Flowable;
-import io.reactivex.rxjava3.processors.FlowableProcessor;
-import io.reactivex.rxjava3.processors.ReplayProcessor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 
 /**
  * 负责根据流程画布或流程定义启动执行，并协调同步/双工（BIDI）调用与异步回调的衔接。
  * <p>
  * - 当为同步调用时，直接按流程定义执行并返回结果流。
- * - 当为双工（BIDI）调用时，订阅外部事件流，将每次事件转化为一次流程请求并汇聚结果。
+ * - 当为双工（BIDI）调用时，订阅外部事件流，将每次事件转化为一次流程请求并汇聚结果，
+ * 缓存与并发上限见 {@link StreamPolicy}。
  * </p>
  *
  * @author baliang.smy
@@ -66,6 +69,11 @@ public class Runner {
         Runner.flowProcessService = flowProcessService;
     }
 
+    @Autowired(required = false)
+    public void setStreamPolicy(StreamPolicy streamPolicy) {
+        StreamPolicy.setDefault(streamPolicy);
+    }
+
     /**
      * 通过流程画布运行。
      *
@@ -75,23 +83,24 @@ public class Runner {
      */
     public Flowable<Result> run(FlowCanvas canvas, Request request) {
         AssertUtils.assertNotNull(request.getInvokeMode());
-        FlowableProcessor<Result> resultClient = ReplayProcessor.create();
         FlowDefinition flowDefinition = agentProcessService.deploy(canvas);
         log.info("flowDefinition: " + flowDefinition);
+        StreamPolicy streamPolicy = StreamPolicy.getDefault();
+        Flowable<Result> flowable;
         if (InvokeMode.BIDI.equals(request.getInvokeMode())) {
-            request.getProcessor().subscribe(event -> {
-                        try {
-                            run(flowDefinition, new Request().setInvokeMode(InvokeMode.BIDI).setParam(event)).subscribe(resultClient::onNext);
-                        } catch (Throwable throwable) {
-                            resultClient.onNext(Result.fail(throwable));
-                        }
-                    },
-                    throwable -> resultClient.onNext(Result.fail(throwable)),
-                    resultClient::onComplete);
-            return resultClient;
+            flowable = BidiSession.start(request.getProcessor(),
+                    event -> run(flowDefinition, new Request().setInvokeMode(InvokeMode.BIDI).setParam(event)),
+                    streamPolicy);
+        } else {
+            flowable = streamPolicy.applyBackpressure(run(flowDefinition, request), request.getInvokeMode());
         }
-        return run(flowDefinition, request);
-
+        // 流程运行期间持有并行节点的注册，结束或取消后释放
+        List<ParallelFlowNode> parallelNodes = canvas.parallelNodes();
+        if (parallelNodes.isEmpty()) {
+            return flowable;
+        }
+        return flowable.doOnSubscribe(subscription -> ParallelRegistry.retain(parallelNodes))
+                .doFinally(() -> ParallelRegistry.release(parallelNodes));
     }
 
     /**
@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.tools;
+
+import com.alibaba.agentic.core.exceptions.BaseException;
+import com.alibaba.agentic.core.exceptions.ErrorEnum;
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.tools.Annotations;
+import io.reactivex.rxjava3.core.Flowable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DESCRIPTION
+ * 函数工具的调用器。
+ * <p>
+ * 创建时解析一次方法参数，为每个参数生成绑定器（参数名、类型、转换方式），
+ * 并将方法编译为 {@link MethodHandle}，调用时只做参数转换和一次句柄调用。
+ * </p>
+ */
+final class FunctionInvoker {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final MethodHandle handle;
+
+    private final ParameterBinder[] binders;
+
+    FunctionInvoker(Object instance, Method func) {
+        Parameter[] parameters = func.getParameters();
+        this.binders = new ParameterBinder[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            binders[i] = new ParameterBinder(parameters[i]);
+        }
+        try {
+            if (!func.canAccess(Modifier.isStatic(func.getModifiers()) ? null : instance)) {
+                func.setAccessible(true);
+            }
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(func);
+            if (!Modifier.isStatic(func.getModifiers())) {
+                methodHandle = methodHandle.bindTo(instance);
+            }
+            // 参数统一按 Object 传入，拆箱与基本类型拓宽规则与 Method.invoke 一致，void 方法返回 null
+            this.handle = methodHandle.asType(MethodType.genericMethodType(parameters.length))
+                    .asSpreader(Object[].class, parameters.length);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new BaseException(String.format("function %s is not accessible: %s", func.getName(), e.getMessage()),
+                    ErrorEnum.SYSTEM_ERROR);
+        }
+    }
+
+    Flowable<Map<String, Object>> invoke(Map<String, Object> args, SystemContext systemContext) {
+        Object[] arguments = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            arguments[i] = binders[i].bind(args, systemContext);
+        }
+        Object result;
+        try {
+            result = handle.invokeExact(arguments);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return Flowable.error(e);
+        }
+        if (result == null) {
+            return Flowable.empty();
+        } else if (result instanceof Flowable) {
+            return (Flowable<Map<String, Object>>) result;
+        } else {
+            return Flowable.just((Map<String, Object>) result);
+        }
+    }
+
+    static String parameterName(Parameter parameter) {
+        return parameter.isAnnotationPresent(Annotations.Schema.class)
+                && !parameter.getAnnotation(Annotations.Schema.class).name().isEmpty()
+                ? parameter.getAnnotation(Annotations.Schema.class).name()
+                : parameter.getName();
+    }
+
+    /**
+     * 单个参数的绑定器
+     */
+    private static final class ParameterBinder {
+
+        private final String name;
+
+        private final Class<?> type;
+
+        private final boolean systemContext;
+
+        private final boolean list;
+
+        /**
+         * List 参数的元素类型，元素本身是泛型时为空
+         */
+        private final Class<?> elementType;
+
+        private ParameterBinder(Parameter parameter) {
+            this.name = parameterName(parameter);
+            this.type = parameter.getType();
+            this.systemContext = type.isAssignableFrom(SystemContext.class);
+            this.list = type.equals(List.class);
+            Class<?> element = null;
+            if (list && parameter.getParameterizedType() instanceof ParameterizedType parameterizedType) {
+                Type argument = parameterizedType.getActualTypeArguments()[0];
+                if (argument instanceof Class<?> clazz) {
+                    element = clazz;
+                }
+            }
+            this.elementType = element;
+        }
+
+        private Object bind(Map<String, Object> args, SystemContext context) {
+            if (systemContext) {
+                return context;
+            }
+            if (!args.containsKey(name)) {
+                throw new BaseException(
+                        String.format(
+                                "The parameter '%s' was not found in the arguments provided by the model.",
+                                name), ErrorEnum.SYSTEM_ERROR);
+            }
+            Object value = args.get(name);
+            if (list) {
+                if (value instanceof List) {
+                    return createList((List<Object>) value, elementType);
+                }
+            } else if (value instanceof Map) {
+                return MAPPER.convertValue(value, type);
+            }
+            return castValue(value, type);
+        }
+    }
+
+    private static List<Object> createList(List<Object> values, Class<?> type) {
+        List<Object> list = new ArrayList<>(values.size());
+        // List of parameterized type is not supported.
+        if (type == null) {
+            return list;
+        }
+        for (Object value : values) {
+            if (type == Integer.class
+                    || type == Long.class
+                    || type == Double.class
+                    || type == Float.class
+                    || type == Boolean.class
+                    || type == String.class) {
+                list.add(castValue(value, type));
+            } else {
+                list.add(MAPPER.convertValue(value, type));
+            }
+        }
+        return list;
+    }
+
+    private static Object castValue(Object value, Class<?> type) {
+        if (type.equals(Integer.class) || type.equals(int.class)) {
+            if (value instanceof Integer) {
+                return value;
+            }
+        }
+        if (type.equals(Long.class) || type.equals(long.class)) {
+            if (value instanceof Long || value instanceof Integer) {
+                return value;
+            }
+        } else if (type.equals(Double.class) || type.equals(double.class)) {
+            if (value instanceof Double d) {
+                return d.doubleValue();
+            }
+            if (value instanceof Float f) {
+                return f.doubleValue();
+            }
+            if (value instanceof Integer i) {
+                return i.doubleValue();
+            }
+            if (value instanceof Long l) {
+                return l.doubleValue();
+            }
+        } else if (type.equals(Float.class) || type.equals(float.class)) {
+            if (value instanceof Double d) {
+                return d.floatValue();
+            }
+            if (value instanceof Float f) {
+                return f.floatValue();
+            }
+            if (value instanceof Integer i) {
+                return i.floatValue();
+            }
+            if (value instanceof Long l) {
+                return l.floatValue();
+            }
+        } else if (type.equals(Boolean.class) || type.equals(boolean.class)) {
+            if (value instanceof Boolean) {
+                return value;
+            }
+        } else if (type.equals(String.class)) {
+            if (value instanceof String) {
+                return value;
+            }
+        }
+        return MAPPER.convertValue(value, type);
+    }
+
+}
@@ -50,55 +50,11 @@ public interface FunctionTool extends BaseTool {
                 ? func.getAnnotation(Annotations.Schema.class).description() : "";
         FunctionDeclaration.Builder builder = FunctionDeclaration.builder().name(name).description(description);
         FunctionDeclaration functionDeclaration = build(func, builder);
+        FunctionInvoker invoker = new FunctionInvoker(instance, func);
         FunctionTool functionTool = new FunctionTool() {
             @Override
             public Flowable<Map<String, Object>> run(Map<String, Object> args, SystemContext systemContext) {
-                Parameter[] parameters = func.getParameters();
-                Object[] arguments = new Object[parameters.length];
-                for (int i = 0; i < parameters.length; i++) {
-                    String paramName =
-                            parameters[i].isAnnotationPresent(Annotations.Schema.class)
-                                    && !parameters[i].getAnnotation(Annotations.Schema.class).name().isEmpty()
-                                    ? parameters[i].getAnnotation(Annotations.Schema.class).name()
-                                    : parameters[i].getName();
-                    if (parameters[i].getType().isAssignableFrom(SystemContext.class)) {
-                        arguments[i] = systemContext;
-                        continue;
-                    }
-                    if (!args.containsKey(paramName)) {
-                        throw new BaseException(
-                                String.format(
-                                        "The parameter '%s' was not found in the arguments provided by the model.",
-                                        paramName), ErrorEnum.SYSTEM_ERROR);
-                    }
-                    Class<?> paramType = parameters[i].getType();
-                    Object argValue = args.get(paramName);
-                    if (paramType.equals(List.class)) {
-                        if (argValue instanceof List) {
-                            Type type =
-                                    ((ParameterizedType) parameters[i].getParameterizedType())
-                                            .getActualTypeArguments()[0];
-                            arguments[i] = createList((List<Object>) argValue, (Class) type);
-                            continue;
-                        }
-                    } else if (argValue instanceof Map) {
-                        arguments[i] = new ObjectMapper().convertValue(argValue, paramType);
-                        continue;
-                    }
-                    arguments[i] = castValue(argValue, paramType);
-                }
-                try {
-                    Object result = func.invoke(instance, arguments);
-                    if (result == null) {
-                        return Flowable.empty();
-                    } else if (result instanceof Flowable) {
-                        return (Flowable<Map<String, Object>>) result;
-                    } else {
-                        return Flowable.just((Map<String, Object>) result);
-                    }
-                } catch (Exception e) {
-                    return Flowable.error(e);
-                }
+                return invoker.invoke(args, systemContext);
             }
 
             @Override
@@ -120,85 +76,11 @@ public interface FunctionTool extends BaseTool {
         return functionTool;
     }
 
-    private static List<Object> createList(List<Object> values, Class<?> type) {
-        List<Object> list = new ArrayList<>();
-        // List of parameterized type is not supported.
-        if (type == null) {
-            return list;
-        }
-        Class<?> cls = type;
-        for (Object value : values) {
-            if (cls == Integer.class
-                    || cls == Long.class
-                    || cls == Double.class
-                    || cls == Float.class
-                    || cls == Boolean.class
-                    || cls == String.class) {
-                list.add(castValue(value, cls));
-            } else {
-                list.add(new ObjectMapper().convertValue(value, type));
-            }
-        }
-        return list;
-    }
-
-    private static Object castValue(Object value, Class<?> type) {
-        if (type.equals(Integer.class) || type.equals(int.class)) {
-            if (value instanceof Integer) {
-                return value;
-            }
-        }
-        if (type.equals(Long.class) || type.equals(long.class)) {
-            if (value instanceof Long || value instanceof Integer) {
-                return value;
-            }
-        } else if (type.equals(Double.class) || type.equals(double.class)) {
-            if (value instanceof Double d) {
-                return d.doubleValue();
-            }
-            if (value instanceof Float f) {
-                return f.doubleValue();
-            }
-            if (value instanceof Integer i) {
-                return i.doubleValue();
-            }
-            if (value instanceof Long l) {
-                return l.doubleValue();
-            }
-        } else if (type.equals(Float.class) || type.equals(float.class)) {
-            if (value instanceof Double d) {
-                return d.floatValue();
-            }
-            if (value instanceof Float f) {
-                return f.floatValue();
-            }
-            if (value instanceof Integer i) {
-                return i.floatValue();
-            }
-            if (value instanceof Long l) {
-                return l.floatValue();
-            }
-        } else if (type.equals(Boolean.class) || type.equals(boolean.class)) {
-            if (value instanceof Boolean) {
-                return value;
-            }
-        } else if (type.equals(String.class)) {
-            if (value instanceof String) {
-                return value;
-            }
-        }
-        return new ObjectMapper().convertValue(value, type);
-    }
-
     private static FunctionDeclaration build(Method func, FunctionDeclaration.Builder builder) {
         List<String> required = new ArrayList<>();
         Map<String, Schema> properties = new LinkedHashMap<>();
         for (Parameter param : func.getParameters()) {
-            String paramName =
-                    param.isAnnotationPresent(Annotations.Schema.class)
-                            && !param.getAnnotation(Annotations.Schema.class).name().isEmpty()
-                            ? param.getAnnotation(Annotations.Schema.class).name()
-                            : param.getName();
+            String paramName = FunctionInvoker.parameterName(param);
             if (param.getType().isAssignableFrom(SystemContext.class)) {
                 continue;
             }
@@ -251,7 +133,7 @@ public interface FunctionTool extends BaseTool {
                                             .getActualTypeArguments()[0]));
             case "java.util.Map" -> builder.type("OBJECT");
             default -> {
-                ObjectMapper objectMapper = new ObjectMapper();
+                ObjectMapper objectMapper = FunctionInvoker.MAPPER;
                 BeanDescription beanDescription = objectMapper.getSerializationConfig()
                         .introspect(objectMapper.constructType(param.getType()));
                 Map<String, Schema> properties = new LinkedHashMap<>();
@@ -283,7 +165,7 @@ public interface FunctionTool extends BaseTool {
                         builder.type("NUMBER");
                 case "java.util.Map", "com.google.common.collect.ImmutableMap" -> builder.type("OBJECT");
                 default -> {
-                    ObjectMapper objectMapper = new ObjectMapper();
+                    ObjectMapper objectMapper = FunctionInvoker.MAPPER;
                     BeanDescription beanDescription = objectMapper.getSerializationConfig()
                             .introspect(objectMapper.constructType(type));
                     Map<String, Schema> properties = new LinkedHashMap<>();
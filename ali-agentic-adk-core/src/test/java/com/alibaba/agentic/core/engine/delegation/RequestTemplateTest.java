@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.delegation;
+
+import com.alibaba.agentic.core.engine.delegation.domain.FunctionCallRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestTemplateTest {
+
+    @Test
+    public void testTemplateBuiltOncePerSource() {
+        RequestTemplate.clear();
+        AtomicInteger builds = new AtomicInteger();
+        Object source = new Object();
+
+        for (int i = 0; i < 3; i++) {
+            RequestTemplate.lookup("flow:1.0.0:tool_1", source, () -> {
+                builds.incrementAndGet();
+                return newRequest();
+            }, FunctionCallRequest::copy);
+        }
+        Assert.assertEquals(1, builds.get());
+
+        // 重新部署后属性表更换，模板需要重建
+        RequestTemplate.lookup("flow:1.0.0:tool_1", new Object(), () -> {
+            builds.incrementAndGet();
+            return newRequest();
+        }, FunctionCallRequest::copy);
+        Assert.assertEquals(2, builds.get());
+        Assert.assertEquals(1, RequestTemplate.cacheSize());
+    }
+
+    @Test
+    public void testBindIsolatesExecutions() {
+        RequestTemplate.clear();
+        RequestTemplate<FunctionCallRequest> template = RequestTemplate.lookup("flow:1.0.0:tool_2", new Object(),
+                RequestTemplateTest::newRequest, FunctionCallRequest::copy);
+
+        BoundRequestParam<FunctionCallRequest> first = template.bind();
+        first.getTarget().getToolParameter().put("city", "shanghai");
+        first.put("extra", true);
+
+        BoundRequestParam<FunctionCallRequest> second = template.bind();
+        Assert.assertEquals("hangzhou", second.getTarget().getToolParameter().get("city"));
+        Assert.assertFalse(second.containsKey("extra"));
+        Assert.assertEquals("weather", second.get("toolName"));
+    }
+
+    @Test
+    public void testResolve() {
+        RequestTemplate<FunctionCallRequest> template = RequestTemplate.lookup("flow:1.0.0:tool_3", new Object(),
+                RequestTemplateTest::newRequest, FunctionCallRequest::copy);
+        BoundRequestParam<FunctionCallRequest> bound = template.bind();
+        Assert.assertSame(bound.getTarget(), BoundRequestParam.resolve(bound, FunctionCallRequest.class));
+
+        // 持久化恢复后的普通 Map 走 JSON 转换
+        FunctionCallRequest restored = BoundRequestParam.resolve(new HashMap<>(bound), FunctionCallRequest.class);
+        Assert.assertEquals("weather", restored.getToolName());
+        Assert.assertEquals("hangzhou", restored.getToolParameter().get("city"));
+    }
+
+    private static FunctionCallRequest newRequest() {
+        Map<String, Object> toolParameter = new HashMap<>();
+        toolParameter.put("city", "hangzhou");
+        return new FunctionCallRequest().setToolName("weather").setToolParameter(toolParameter);
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.node;
+
+import com.alibaba.agentic.core.engine.delegation.domain.LlmRequest;
+import com.alibaba.agentic.core.engine.node.sub.LlmFlowNode;
+import com.alibaba.agentic.core.engine.node.sub.NopFlowNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class FlowCanvasTest {
+
+    @Test
+    public void testStructuralHash() {
+        String hash = newCanvas("qwen-plus").structuralHash();
+
+        Assert.assertEquals(hash, newCanvas("qwen-plus").structuralHash());
+        Assert.assertNotEquals(hash, newCanvas("qwen-max").structuralHash());
+
+        FlowCanvas extended = newCanvas("qwen-plus");
+        extended.getRoot().getNext().next(new NopFlowNode().setId("tail"));
+        Assert.assertNotEquals(hash, extended.structuralHash());
+    }
+
+    @Test
+    public void testGeneratedIdsExcludedFromHash() {
+        FlowCanvas first = newGeneratedCanvas();
+        FlowCanvas second = newGeneratedCanvas();
+        Assert.assertNotEquals(first.getRoot().getNext().getId(), second.getRoot().getNext().getId());
+        Assert.assertEquals(first.structuralHash(), second.structuralHash());
+
+        second.restoreDeployedIds(first.deployedIds());
+        Assert.assertEquals(first.getRoot().getNext().getId(), second.getRoot().getNext().getId());
+        Assert.assertEquals("root", second.getRoot().getId());
+    }
+
+    private static FlowCanvas newGeneratedCanvas() {
+        FlowNode root = new NopFlowNode().setId("root");
+        root.next(new NopFlowNode());
+        FlowCanvas canvas = new FlowCanvas();
+        canvas.setRoot(root);
+        canvas.setProcessDefinitionId("generated_test");
+        return canvas;
+    }
+
+    private static FlowCanvas newCanvas(String modelName) {
+        LlmRequest llmRequest = new LlmRequest();
+        llmRequest.setModel("dashscope");
+        llmRequest.setModelName(modelName);
+        llmRequest.setMessages(List.of(new LlmRequest.Message("user", "hello")));
+        LlmFlowNode llmNode = new LlmFlowNode(llmRequest);
+        llmNode.setId("llmNode");
+
+        FlowNode root = new NopFlowNode().setId("root");
+        root.next(llmNode);
+        FlowCanvas canvas = new FlowCanvas();
+        canvas.setRoot(root);
+        canvas.setProcessDefinitionId("hash_test");
+        return canvas;
+    }
+}
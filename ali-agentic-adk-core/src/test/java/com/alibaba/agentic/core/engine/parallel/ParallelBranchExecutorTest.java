@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.engine.parallel;
+
+import com.alibaba.agentic.core.executor.Result;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelBranchExecutorTest {
+
+    @Test
+    public void testAllBranchesRunConcurrently() {
+        List<Callable<Result>> branches = List.of(sleep(500, "a"), sleep(500, "b"), sleep(500, "c"));
+
+        long start = System.currentTimeMillis();
+        List<Result> results = ParallelBranchExecutor.invokeAll(branches, null, JoinPolicy.ALL, 0, 0);
+        long cost = System.currentTimeMillis() - start;
+
+        // 墙钟时间约等于最慢的分支，而不是各分支之和
+        Assert.assertTrue("cost: " + cost, cost < 1200);
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals("b", results.get(1).getData().get("branch"));
+        Assert.assertTrue(ParallelBranchExecutor.isJoined(results, JoinPolicy.ALL, 0));
+    }
+
+    @Test
+    public void testFirstSuccessCancelsOthers() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Callable<Result> slow = () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Result.success(Map.of("branch", "slow"));
+        };
+        Callable<Result> failed = () -> {
+            throw new IllegalStateException("boom");
+        };
+
+        long start = System.currentTimeMillis();
+        List<Result> results = ParallelBranchExecutor.invokeAll(List.of(slow, failed, sleep(100, "fast")), null,
+                JoinPolicy.FIRST_SUCCESS, 0, 0);
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assert.assertNull(results.get(0));
+        Assert.assertFalse(results.get(1).isSuccess());
+        Assert.assertEquals("fast", results.get(2).getData().get("branch"));
+        Assert.assertTrue(ParallelBranchExecutor.isJoined(results, JoinPolicy.FIRST_SUCCESS, 0));
+        Assert.assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBranchTimeout() {
+        List<Result> results = ParallelBranchExecutor.invokeAll(List.of(sleep(50, "fast"), sleep(3000, "slow")), null,
+                JoinPolicy.ALL, 0, 300);
+
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertFalse(results.get(1).isSuccess());
+        Assert.assertFalse(ParallelBranchExecutor.isJoined(results, JoinPolicy.ALL, 0));
+        Assert.assertTrue(ParallelBranchExecutor.isJoined(results, JoinPolicy.FIRST_N, 1));
+    }
+
+    @Test
+    public void testRejectedBranchFails() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                new ThreadPoolExecutor.AbortPolicy());
+        try {
+            long start = System.currentTimeMillis();
+            List<Result> results = ParallelBranchExecutor.invokeAll(List.of(sleep(200, "a"), sleep(3000, "b")), executor,
+                    JoinPolicy.ALL, 0, 1000);
+
+            Assert.assertTrue(results.get(0).isSuccess());
+            Assert.assertFalse(results.get(1).isSuccess());
+            // 被拒绝的分支不会在调用线程上执行
+            Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Callable<Result> sleep(long millis, String branch) {
+        return () -> {
+            Thread.sleep(millis);
+            return Result.success(Map.of("branch", branch));
+        };
+    }
+}
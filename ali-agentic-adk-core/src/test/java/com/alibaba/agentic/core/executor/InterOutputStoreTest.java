@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor;
+
+import com.alibaba.fastjson.TypeReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class InterOutputStoreTest {
+
+    @Test
+    public void testTypedReadReturnsCopy() {
+        InterOutputStore store = new InterOutputStore();
+        Map<String, Object> data = Map.of("text", "hello");
+        Answer typed = new Answer("hello");
+        store.put("out_llm", data, typed);
+
+        Answer read = store.get("out_llm", Answer.class);
+        Assert.assertNotSame(typed, read);
+        Assert.assertEquals("hello", read.getText());
+        read.setText("changed");
+        Assert.assertEquals("hello", store.get("out_llm", Answer.class).getText());
+        Assert.assertEquals(data, store.get("out_llm", Map.class));
+        Assert.assertNull(store.get("out_missing", Map.class));
+
+        InterOutputStore copy = store.copy();
+        Assert.assertEquals("hello", copy.get("out_llm", Answer.class).getText());
+    }
+
+    @Test
+    public void testSpillAndAccounting() {
+        InterOutputStore store = new InterOutputStore(1024);
+        store.put("out_small", Map.of("text", "hi"));
+        Assert.assertTrue(store.heapBytes() > 0);
+        Assert.assertEquals(0, store.spilledBytes());
+
+        String large = "x".repeat(4096);
+        store.put("out_large", Map.of("text", large));
+        Assert.assertTrue(store.spilledBytes() > 0);
+        Assert.assertEquals(large, store.get("out_large").get("text"));
+
+        store.remove("out_small");
+        store.remove("out_large");
+        Assert.assertEquals(0, store.heapBytes());
+        Assert.assertEquals(0, store.spilledBytes());
+    }
+
+    @Test
+    public void testReadsDoNotShareMutableState() {
+        InterOutputStore store = new InterOutputStore();
+        Map<String, Object> data = new HashMap<>();
+        data.put("items", new ArrayList<>(List.of("a")));
+        store.put("out_node", data);
+        data.put("text", "changed");
+
+        Map<String, Object> read = store.get("out_node");
+        Assert.assertFalse(read.containsKey("text"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> read.put("text", "x"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) read.get("items")).add("b"));
+
+        Map<String, Object> first = store.get("out_node", new TypeReference<HashMap<String, Object>>() {});
+        first.put("text", "mutated");
+        Map<String, Object> second = store.get("out_node", new TypeReference<HashMap<String, Object>>() {});
+        Assert.assertNotSame(first, second);
+        Assert.assertFalse(second.containsKey("text"));
+
+        Map<String, Object> mutable = store.get("out_node", Map.class);
+        mutable.put("text", "x");
+        ((List<Object>) mutable.get("items")).add("b");
+        Assert.assertEquals(List.of("a"), store.get("out_node").get("items"));
+        ((List<Object>) store.getField("out_node", "items")).add("c");
+        Assert.assertEquals(List.of("a"), store.getField("out_node", "items"));
+    }
+
+    @Test
+    public void testTypedPayloadSpillsLosslessly() {
+        InterOutputStore store = new InterOutputStore(1024);
+        String large = "x".repeat(4096);
+        Map<String, Object> data = new HashMap<>();
+        data.put("text", large);
+        data.put("count", 1L);
+        data.put("score", 0.5d);
+        data.put("nested", Map.of("tokens", List.of(1, 2L)));
+        store.put("out_typed", data, new Answer(large));
+        Assert.assertTrue(store.spilledBytes() > 0);
+        Assert.assertEquals(0, store.heapBytes());
+
+        Assert.assertEquals(large, store.get("out_typed", Answer.class).getText());
+        Map<String, Object> read = store.get("out_typed");
+        Assert.assertEquals(1L, read.get("count"));
+        Assert.assertEquals(0.5d, read.get("score"));
+        Assert.assertEquals(List.of(1, 2L), ((Map<String, Object>) read.get("nested")).get("tokens"));
+
+        store.put("out_other", Map.of("text", large, "value", new StringBuilder(large)));
+        Assert.assertTrue(store.heapBytes() > 0);
+    }
+
+    @Test
+    public void testConcurrentWrites() throws Exception {
+        InterOutputStore store = new InterOutputStore();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        store.put("out_" + thread + "_" + i, Map.of("index", i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(8000, store.size());
+        Assert.assertEquals(999, store.get("out_7_999").get("index"));
+    }
+
+    public static class Answer {
+
+        private String text;
+
+        public Answer() {
+        }
+
+        public Answer(String text) {
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+
+}
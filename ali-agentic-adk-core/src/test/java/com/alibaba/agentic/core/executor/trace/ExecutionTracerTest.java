@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.executor.trace;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ExecutionTracerTest {
+
+    @After
+    public void tearDown() {
+        ExecutionTracer.disable();
+        ExecutionTracer.reset();
+        ExecutionTracer.setMaxNodes(ExecutionTracer.DEFAULT_MAX_NODES);
+    }
+
+    @Test
+    public void testDisabledReturnsNull() {
+        ExecutionTracer.disable();
+        Assert.assertNull(ExecutionTracer.start("flow", "node"));
+    }
+
+    @Test
+    public void testRecorderPercentile() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 1; i <= 10000; i++) {
+            recorder.record(i);
+        }
+        Assert.assertEquals(10000, recorder.getCount());
+        Assert.assertEquals(10000, recorder.getMax());
+        Assert.assertEquals(5000.5, recorder.getMean(), 0.001);
+        // 对数-线性分桶的相对误差不超过 1/64
+        Assert.assertEquals(5000, recorder.getPercentile(50), 5000 / 64.0);
+        Assert.assertEquals(9900, recorder.getPercentile(99), 9900 / 64.0);
+        Assert.assertEquals(10000, recorder.getPercentile(100), 10000 / 64.0);
+    }
+
+    @Test
+    public void testPhasesRecordedOnce() {
+        List<NodeTrace> received = new ArrayList<>();
+        TraceSink sink = new TraceSink() {
+            @Override
+            public void onNode(NodeTrace trace) {
+                received.add(trace);
+            }
+
+            @Override
+            public void export(Collection<NodeMetrics> metrics) {
+            }
+        };
+        ExecutionTracer.addSink(sink);
+        try {
+            ExecutionTracer.enable(0);
+            NodeTrace trace = ExecutionTracer.start("flow", "node");
+            Assert.assertNotNull(trace);
+            trace.chainStarted();
+            trace.invoking();
+            trace.afterStarted();
+            trace.afterFinished();
+            trace.finish();
+            trace.finish();
+
+            NodeMetrics metrics = ExecutionTracer.getMetrics("flow", "node");
+            Assert.assertNotNull(metrics);
+            Assert.assertEquals(1, metrics.getInvocations());
+            Assert.assertEquals(0, metrics.getErrors());
+            Assert.assertEquals(1, metrics.getPhase(TracePhase.QUEUE).getCount());
+            Assert.assertEquals(1, metrics.getPhase(TracePhase.AFTER).getCount());
+            // 未经过结果流的节点不记录执行耗时
+            Assert.assertEquals(0, metrics.getPhase(TracePhase.EXECUTE).getCount());
+            Assert.assertEquals(1, received.size());
+        } finally {
+            ExecutionTracer.removeSink(sink);
+        }
+    }
+
+    @Test
+    public void testLeastRecentNodeEvicted() {
+        ExecutionTracer.enable(0);
+        ExecutionTracer.setMaxNodes(2);
+        ExecutionTracer.start("flow", "a").finish();
+        ExecutionTracer.start("flow", "b").finish();
+        ExecutionTracer.start("flow", "a").finish();
+        ExecutionTracer.start("flow", "c").finish();
+
+        Assert.assertEquals(2, ExecutionTracer.getMetrics().size());
+        Assert.assertEquals(2, ExecutionTracer.getMetrics("flow", "a").getInvocations());
+        Assert.assertNull(ExecutionTracer.getMetrics("flow", "b"));
+        Assert.assertNotNull(ExecutionTracer.getMetrics("flow", "c"));
+    }
+
+}
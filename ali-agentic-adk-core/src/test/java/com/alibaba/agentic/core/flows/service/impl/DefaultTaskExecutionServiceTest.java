@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.flows.service.impl;
+
+import com.alibaba.agentic.core.executor.InvokeMode;
+import com.alibaba.agentic.core.executor.Request;
+import com.alibaba.agentic.core.executor.Result;
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.alibaba.agentic.core.flows.service.domain.AsyncRequest;
+import com.alibaba.agentic.core.flows.service.domain.TaskInstance;
+import com.alibaba.agentic.core.runner.Runner;
+import io.reactivex.rxjava3.core.Flowable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultTaskExecutionServiceTest {
+
+    @Test
+    public void testTasksConsumedConcurrently() throws Exception {
+        int taskCount = 40;
+        CountDownLatch latch = new CountDownLatch(taskCount);
+        Map<String, Result> signaled = new ConcurrentHashMap<>();
+        Runner runner = new Runner() {
+            @Override
+            public void signal(TaskInstance taskInstance, Result result) {
+                signaled.put(taskInstance.getId(), result);
+                latch.countDown();
+            }
+        };
+        DefaultTaskInstanceService taskInstanceService = new DefaultTaskInstanceService();
+        DefaultTaskExecutionService service = new DefaultTaskExecutionService(taskInstanceService, runner,
+                8, 100, DefaultTaskExecutionService.RejectPolicy.BLOCK, 1000L);
+        service.init();
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < taskCount; i++) {
+            String taskId = "task_" + i;
+            taskInstanceService.persistTaskInstance(new TaskInstance().setId(taskId));
+            service.submitTask(newTask(taskId, 100));
+        }
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // 40个100ms的任务在8个工作线程上约500ms完成，原先按秒轮询需要40秒
+        Assert.assertTrue(System.currentTimeMillis() - start < 3000);
+        Assert.assertEquals(taskCount, signaled.size());
+        Assert.assertTrue(signaled.get("task_0").isSuccess());
+        Assert.assertEquals(taskCount, service.getSubmittedCount());
+        service.destroy();
+    }
+
+    @Test
+    public void testRejectWhenQueueFull() {
+        DefaultTaskExecutionService service = new DefaultTaskExecutionService(new DefaultTaskInstanceService(), new Runner(),
+                1, 1, DefaultTaskExecutionService.RejectPolicy.ABORT, 0L);
+        service.submitTask(newTask("running", 500));
+        service.submitTask(newTask("queued", 500));
+
+        Assert.assertThrows(RuntimeException.class, () -> service.submitTask(newTask("rejected", 500)));
+        Assert.assertEquals(1, service.getRejectedCount());
+        service.destroy();
+    }
+
+    private static AsyncRequest newTask(String taskId, long millis) {
+        SystemContext systemContext = new SystemContext()
+                .setInvokeMode(InvokeMode.ASYNC)
+                .setExecutor((context, request) -> Flowable.fromCallable(() -> {
+                    Thread.sleep(millis);
+                    return Result.success(Map.of("taskId", taskId));
+                }));
+        return new AsyncRequest().setTaskId(taskId)
+                .setSystemContext(systemContext)
+                .setRequest(new Request().setInvokeMode(InvokeMode.ASYNC));
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.flows.service.impl;
+
+import com.alibaba.agentic.core.executor.InvokeMode;
+import com.alibaba.agentic.core.executor.Request;
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.alibaba.agentic.core.flows.service.domain.TaskInstance;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FileTaskInstanceServiceTest {
+
+    @Test
+    public void testTaskInstanceSurvivesRestart() throws Exception {
+        Path directory = Files.createTempDirectory("task-instances");
+        FileTaskInstanceService service = new FileTaskInstanceService(directory);
+        service.persistTaskInstance(newTaskInstance("task_1"));
+        service.persistTaskInstance(newTaskInstance("task_2"));
+        service.completeTaskInstance("task_2");
+        service.close();
+
+        FileTaskInstanceService reopened = new FileTaskInstanceService(directory);
+        TaskInstance taskInstance = reopened.getTaskInstance("task_1");
+        Assert.assertNotNull(taskInstance);
+        Assert.assertEquals("llmNode", taskInstance.getActivityId());
+        Assert.assertEquals(InvokeMode.ASYNC, taskInstance.getRequest().getInvokeMode());
+        Assert.assertEquals("hello", taskInstance.getRequest().getParam().get("prompt"));
+        Assert.assertEquals("world", taskInstance.getSystemContext().getInterOutput().get("out_start").get("text"));
+        Assert.assertNull(reopened.getTaskInstance("task_2"));
+        Assert.assertEquals(1, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    public void testExpiredTaskInstance() throws Exception {
+        FileTaskInstanceService service = new FileTaskInstanceService(Files.createTempDirectory("task-instances"),
+                16, 50L, false, FileTaskInstanceService.DEFAULT_COMPACT_THRESHOLD_BYTES);
+        service.persistTaskInstance(newTaskInstance("task_1"));
+        Assert.assertNotNull(service.getTaskInstance("task_1"));
+        Thread.sleep(100L);
+        Assert.assertNull(service.getTaskInstance("task_1"));
+        service.close();
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        Path directory = Files.createTempDirectory("task-instances");
+        FileTaskInstanceService service = new FileTaskInstanceService(directory, 16,
+                FileTaskInstanceService.DEFAULT_TTL_MILLIS, false, 1024L);
+        for (int i = 0; i < 100; i++) {
+            service.persistTaskInstance(newTaskInstance("task_" + i));
+            if (i % 10 != 0) {
+                service.completeTaskInstance("task_" + i);
+            }
+        }
+        service.close();
+
+        FileTaskInstanceService reopened = new FileTaskInstanceService(directory);
+        Assert.assertEquals(10, reopened.size());
+        Assert.assertNotNull(reopened.getTaskInstance("task_90"));
+        Assert.assertNull(reopened.getTaskInstance("task_91"));
+        reopened.close();
+    }
+
+    @Test
+    public void testReplayShortTaskIds() throws Exception {
+        Path directory = Files.createTempDirectory("task-instances");
+        FileTaskInstanceService service = new FileTaskInstanceService(directory);
+        service.persistTaskInstance(newTaskInstance("a"));
+        service.persistTaskInstance(newTaskInstance("bc"));
+        // 删除记录的长度小于任何PUT记录，不能被当作损坏的尾部截断
+        service.completeTaskInstance("a");
+        service.persistTaskInstance(newTaskInstance("task_3"));
+        service.close();
+
+        FileTaskInstanceService reopened = new FileTaskInstanceService(directory);
+        Assert.assertNull(reopened.getTaskInstance("a"));
+        Assert.assertNotNull(reopened.getTaskInstance("bc"));
+        Assert.assertNotNull(reopened.getTaskInstance("task_3"));
+        Assert.assertEquals(2, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    public void testWriteAfterCloseRejected() throws Exception {
+        FileTaskInstanceService service = new FileTaskInstanceService(Files.createTempDirectory("task-instances"));
+        service.close();
+        Assert.assertThrows(IllegalStateException.class, () -> service.persistTaskInstance(newTaskInstance("task_1")));
+    }
+
+    private static TaskInstance newTaskInstance(String taskId) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("prompt", "hello");
+        Map<String, Map<String, Object>> interOutput = new HashMap<>();
+        interOutput.put("out_start", Map.of("text", "world"));
+        return new TaskInstance()
+                .setId(taskId)
+                .setActivityId("llmNode")
+                .setRequest(new Request().setInvokeMode(InvokeMode.ASYNC).setParam(param))
+                .setSystemContext(new SystemContext().setInvokeMode(InvokeMode.ASYNC).setInterOutput(interOutput));
+    }
+}
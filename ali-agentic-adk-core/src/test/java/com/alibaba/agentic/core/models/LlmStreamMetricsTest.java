@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.models;
+
+import com.alibaba.agentic.core.engine.delegation.domain.LlmResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class LlmStreamMetricsTest {
+
+    @Test
+    public void testFirstTokenAndThroughput() throws Exception {
+        LlmStreamMetrics metrics = new LlmStreamMetrics();
+        LlmStreamMetrics.Trace trace = metrics.start("qwen-plus");
+
+        trace.onChunk(chunk("", null));
+        Thread.sleep(20);
+        trace.onChunk(chunk("你", 1));
+        Thread.sleep(50);
+        trace.onChunk(chunk("好", 10));
+        trace.complete();
+
+        Assert.assertEquals(1, metrics.getCompletedCount());
+        Assert.assertTrue(metrics.getAverageFirstTokenLatencyMillis() >= 20);
+        Assert.assertTrue(metrics.getTokensPerSecond() > 0);
+        Assert.assertTrue(metrics.getTokensPerSecond() <= 10 * 1000.0 / 50);
+    }
+
+    @Test
+    public void testStreamWithoutContent() {
+        LlmStreamMetrics metrics = new LlmStreamMetrics();
+        metrics.start("qwen-plus").complete();
+
+        Assert.assertEquals(1, metrics.getCompletedCount());
+        Assert.assertEquals(0, metrics.getAverageFirstTokenLatencyMillis(), 0);
+        Assert.assertEquals(0, metrics.getTokensPerSecond(), 0);
+    }
+
+    private static LlmResponse chunk(String text, Integer completionTokens) {
+        LlmResponse.Choice choice = new LlmResponse.Choice();
+        choice.setText(text);
+        LlmResponse response = new LlmResponse();
+        response.setChoices(List.of(choice));
+        if (completionTokens != null) {
+            LlmResponse.Usage usage = new LlmResponse.Usage();
+            usage.setCompletionTokens(completionTokens);
+            response.setUsage(usage);
+        }
+        return response;
+    }
+
+}
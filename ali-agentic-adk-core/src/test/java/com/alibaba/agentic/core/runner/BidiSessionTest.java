@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.runner;
+
+import com.alibaba.agentic.core.executor.Result;
+import com.alibaba.agentic.core.executor.StreamPolicy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BidiSessionTest {
+
+    @Test
+    public void testReplayBoundedFor10kEvents() {
+        PublishProcessor<Map<String, Object>> events = PublishProcessor.create();
+        StreamPolicy policy = new StreamPolicy().setReplaySize(64);
+        Flowable<Result> session = BidiSession.start(events,
+                event -> Flowable.just(Result.success(Map.of("index", event.get("index"), "payload", "x".repeat(10 * 1024)))),
+                policy);
+
+        AtomicLong received = new AtomicLong();
+        session.subscribe(result -> received.incrementAndGet());
+
+        for (int i = 0; i < 10_000; i++) {
+            events.onNext(Map.of("index", i));
+        }
+        events.onComplete();
+
+        Assert.assertEquals(10_000, received.get());
+
+        List<Result> replayed = session.toList().blockingGet();
+        Assert.assertEquals(64, replayed.size());
+        Assert.assertEquals(9_999, replayed.get(63).getData().get("index"));
+    }
+
+    @Test
+    public void testSerializedInOrder() {
+        PublishProcessor<Map<String, Object>> events = PublishProcessor.create();
+        Flowable<Result> session = BidiSession.start(events,
+                event -> Flowable.just(Result.success(Map.of("index", event.get("index"))))
+                        .delay(100 - (int) event.get("index"), TimeUnit.MICROSECONDS),
+                new StreamPolicy().setReplaySize(100));
+        for (int i = 0; i < 100; i++) {
+            events.onNext(Map.of("index", i));
+        }
+        events.onComplete();
+
+        List<Result> results = session.toList().blockingGet();
+        Assert.assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, results.get(i).getData().get("index"));
+        }
+    }
+
+    @Test
+    public void testMaxInFlight() {
+        PublishProcessor<Map<String, Object>> events = PublishProcessor.create();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Flowable<Result> session = BidiSession.start(events,
+                event -> Flowable.just(Result.success(Map.of()))
+                        .delay(1, TimeUnit.MILLISECONDS)
+                        .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .doFinally(inFlight::decrementAndGet),
+                new StreamPolicy().setMaxInFlight(4).setReplaySize(200));
+        for (int i = 0; i < 200; i++) {
+            events.onNext(Map.of("index", i));
+        }
+        events.onComplete();
+
+        Assert.assertEquals(200, session.toList().blockingGet().size());
+        Assert.assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testHandlerErrorIsolated() {
+        PublishProcessor<Map<String, Object>> events = PublishProcessor.create();
+        Flowable<Result> session = BidiSession.start(events, event -> {
+            if ((int) event.get("index") == 1) {
+                throw new IllegalStateException("boom");
+            }
+            return Flowable.just(Result.success(Map.of()));
+        }, new StreamPolicy());
+        for (int i = 0; i < 3; i++) {
+            events.onNext(Map.of("index", i));
+        }
+        events.onComplete();
+
+        List<Result> results = session.toList().blockingGet();
+        Assert.assertEquals(3, results.size());
+        Assert.assertFalse(results.get(1).isSuccess());
+        Assert.assertTrue(results.get(2).isSuccess());
+    }
+
+}
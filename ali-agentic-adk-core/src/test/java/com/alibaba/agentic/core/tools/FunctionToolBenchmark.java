@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.tools;
+
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.tools.Annotations;
+import io.reactivex.rxjava3.core.Flowable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 函数工具调用开销基准：预编译的参数绑定 + MethodHandle 与原先每次反射解析的方式对比
+ *
+ * 运行方式：执行main方法，或 mvn test-compile 后通过jmh Runner指定本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FunctionToolBenchmark {
+
+    public static class Query {
+        public String city;
+        public int days;
+    }
+
+    public static class WeatherTools {
+
+        public Map<String, Object> forecast(@Annotations.Schema(name = "query") Query query,
+                                            @Annotations.Schema(name = "unit") String unit,
+                                            @Annotations.Schema(name = "threshold") double threshold,
+                                            SystemContext systemContext) {
+            return Map.of("city", query.city, "unit", unit);
+        }
+    }
+
+    private final SystemContext systemContext = new SystemContext();
+
+    private final WeatherTools instance = new WeatherTools();
+
+    private Method method;
+
+    private FunctionTool tool;
+
+    private Map<String, Object> args;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        method = WeatherTools.class.getMethod("forecast", Query.class, String.class, double.class, SystemContext.class);
+        tool = FunctionTool.creat(instance, method);
+        args = Map.of("query", Map.of("city", "hangzhou", "days", 7), "unit", "celsius", "threshold", 1);
+    }
+
+    @Benchmark
+    public Map<String, Object> compiled() {
+        return tool.run(args, systemContext).blockingFirst();
+    }
+
+    @Benchmark
+    public Map<String, Object> reflective() throws Exception {
+        return reflectiveRun(args, systemContext).blockingFirst();
+    }
+
+    /**
+     * 原先的调用方式：每次读取参数注解、新建 ObjectMapper、通过 Method.invoke 调用
+     */
+    private Flowable<Map<String, Object>> reflectiveRun(Map<String, Object> args, SystemContext systemContext) throws Exception {
+        Parameter[] parameters = method.getParameters();
+        Object[] arguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            String paramName =
+                    parameters[i].isAnnotationPresent(Annotations.Schema.class)
+                            && !parameters[i].getAnnotation(Annotations.Schema.class).name().isEmpty()
+                            ? parameters[i].getAnnotation(Annotations.Schema.class).name()
+                            : parameters[i].getName();
+            if (parameters[i].getType().isAssignableFrom(SystemContext.class)) {
+                arguments[i] = systemContext;
+                continue;
+            }
+            Class<?> paramType = parameters[i].getType();
+            Object argValue = args.get(paramName);
+            if (argValue instanceof Map) {
+                arguments[i] = new ObjectMapper().convertValue(argValue, paramType);
+                continue;
+            }
+            if (paramType.equals(double.class) && argValue instanceof Integer value) {
+                arguments[i] = value.doubleValue();
+                continue;
+            }
+            arguments[i] = argValue instanceof String ? argValue : new ObjectMapper().convertValue(argValue, paramType);
+        }
+        return Flowable.just((Map<String, Object>) method.invoke(instance, arguments));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FunctionToolBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.agentic.core.tools;
+
+import com.alibaba.agentic.core.exceptions.BaseException;
+import com.alibaba.agentic.core.executor.SystemContext;
+import com.google.adk.tools.Annotations;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class FunctionToolTest {
+
+    public static class Query {
+        public String city;
+        public int days;
+    }
+
+    public static class WeatherTools {
+
+        public Map<String, Object> forecast(@Annotations.Schema(name = "query") Query query,
+                                            @Annotations.Schema(name = "hours") List<Integer> hours,
+                                            @Annotations.Schema(name = "threshold") double threshold,
+                                            @Annotations.Schema(name = "limit") long limit,
+                                            SystemContext systemContext) {
+            return Map.of("city", query.city, "days", query.days, "hours", hours.size(),
+                    "threshold", threshold, "limit", limit, "context", systemContext != null);
+        }
+
+        public static Map<String, Object> fail(@Annotations.Schema(name = "message") String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    @Test
+    public void testBindArguments() throws Exception {
+        FunctionTool tool = FunctionTool.creat(new WeatherTools(),
+                WeatherTools.class.getMethod("forecast", Query.class, List.class, double.class, long.class, SystemContext.class));
+
+        Map<String, Object> result = tool.run(Map.of("query", Map.of("city", "hangzhou", "days", 7),
+                        "hours", List.of(1, 2, 3), "threshold", 1, "limit", 5), new SystemContext())
+                .blockingFirst();
+
+        Assert.assertEquals("hangzhou", result.get("city"));
+        Assert.assertEquals(7, result.get("days"));
+        Assert.assertEquals(3, result.get("hours"));
+        Assert.assertEquals(1.0, result.get("threshold"));
+        Assert.assertEquals(5L, result.get("limit"));
+        Assert.assertEquals(true, result.get("context"));
+    }
+
+    @Test(expected = BaseException.class)
+    public void testMissingArgument() throws Exception {
+        FunctionTool tool = FunctionTool.creat(new WeatherTools(),
+                WeatherTools.class.getMethod("forecast", Query.class, List.class, double.class, long.class, SystemContext.class));
+        tool.run(Map.of("query", Map.of("city", "hangzhou")), new SystemContext());
+    }
+
+    @Test
+    public void testExceptionPropagated() throws Exception {
+        FunctionTool tool = FunctionTool.creat(null, WeatherTools.class.getMethod("fail", String.class));
+
+        try {
+            tool.run(Map.of("message", "boom"), new SystemContext()).blockingFirst();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // 方法句柄调用直接抛出原始异常，不再包装为 InvocationTargetException
+            Assert.assertEquals("boom", e.getMessage());
+        }
+    }
+
+}
@@ -15,17 +15,16 @@
  */
 package com.alibaba.langengine.azure.embeddings;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.azure.embeddings.service.AzureOpenAIEmbeddingsService;
 import com.alibaba.langengine.core.embeddings.Embeddings;
 import com.alibaba.langengine.core.indexes.Document;
 import com.alibaba.langengine.core.model.fastchat.embedding.EmbeddingRequest;
+import com.alibaba.langengine.core.util.VectorUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -86,6 +85,9 @@ public class AzureOpenAIEmbeddings extends Embeddings {
             }
         }
         service = new AzureOpenAIEmbeddingsService(serverUrl, Duration.ofSeconds(timeout), true, apiKey, null);
+        // Azure OpenAI单次请求最多16条输入、单条输入最多8191个token
+        setBatchMaxItems(16);
+        setInputMaxTokens(8191);
         this.deploymentName = deploymentName;
         this.apiVersion = apiVersion;
     }
@@ -105,26 +107,22 @@ public class AzureOpenAIEmbeddings extends Embeddings {
         Document document = new Document();
         document.setPageContent(text);
         return getLenSafeEmbeddings(Collections.singletonList(document), "query")
-                .stream().map(e -> JSON.toJSONString(e.getEmbedding()))
+                .stream().map(e -> VectorUtils.toVectorString(e.getEmbeddingVector()))
                 .collect(Collectors.toList());
     }
 
     private List<Document> getLenSafeEmbeddings(List<Document> documents, String textType) {
-        for (Document document : documents) {
-            String questionText = document.getPageContent();
-            List<String> messages = new ArrayList<>();
-            messages.add(questionText);
-            EmbeddingRequest.EmbeddingRequestBuilder builder = EmbeddingRequest.builder()
-                    .input(messages)
-                    .model(getModel());
-            EmbeddingRequest embeddingRequest = builder.build();
+        return embedDocumentsInBatches(documents, texts -> {
+            EmbeddingRequest embeddingRequest = EmbeddingRequest.builder()
+                    .input(texts)
+                    .model(getModel())
+                    .build();
+            float[][] vectors = new float[texts.size()][];
             service.createEmbeddings(deploymentPath(), apiVersion, embeddingRequest).getData().forEach(e -> {
-                document.setEmbedding(e.getEmbedding());
-                document.setIndex(e.getIndex());
-                log.warn("azure openai embeddings answer:" + JSON.toJSONString(e));
+                vectors[e.getIndex()] = VectorUtils.toFloatArray(e.getEmbedding());
             });
-        }
-        return documents;
+            return vectors;
+        });
     }
 
     private String deploymentPath() {
@@ -17,8 +17,8 @@ package com.alibaba.langengine.azure.embeddings.service;
 
 import com.alibaba.langengine.core.model.fastchat.embedding.EmbeddingRequest;
 import com.alibaba.langengine.core.model.fastchat.embedding.EmbeddingResult;
+import com.alibaba.langengine.core.model.fastchat.service.OkHttpClientRegistry;
 import com.alibaba.langengine.core.model.fastchat.service.RetrofitInitService;
-import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 
 import java.net.Proxy;
@@ -46,8 +46,7 @@ public class AzureOpenAIEmbeddingsService extends RetrofitInitService<AzureOpenA
 
     @Override
     public OkHttpClient defaultClient(Duration timeout, Proxy proxy) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .connectionPool(new ConnectionPool(20, 5, TimeUnit.SECONDS))
+        OkHttpClient.Builder builder = OkHttpClientRegistry.newBuilder()
                 .readTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
         if (proxy != null) {
             builder.proxy(proxy);
@@ -18,9 +18,9 @@ package com.alibaba.langengine.azure.model.service;
 import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionChunk;
 import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionRequest;
 import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionResult;
+import com.alibaba.langengine.core.model.fastchat.service.OkHttpClientRegistry;
 import com.alibaba.langengine.core.model.fastchat.service.RetrofitInitService;
 import io.reactivex.Flowable;
-import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 
@@ -74,8 +74,7 @@ public class AzureOpenAIService extends RetrofitInitService<AzureOpenAIApi> {
 
     @Override
     public OkHttpClient defaultClient(Duration timeout, Proxy proxy) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .connectionPool(new ConnectionPool(20, 5, TimeUnit.SECONDS))
+        OkHttpClient.Builder builder = OkHttpClientRegistry.newBuilder()
                 .readTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
         if (proxy != null) {
             builder.proxy(proxy);
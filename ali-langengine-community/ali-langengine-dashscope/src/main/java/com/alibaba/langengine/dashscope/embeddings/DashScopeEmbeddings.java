@@ -15,9 +15,9 @@
  */
 package com.alibaba.langengine.dashscope.embeddings;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.core.embeddings.Embeddings;
 import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.util.VectorUtils;
 import com.alibaba.langengine.dashscope.embeddings.embedding.DashScopeConstant;
 import com.alibaba.langengine.dashscope.model.embedding.EmbeddingRequest;
 import com.alibaba.langengine.dashscope.model.embedding.EmbeddingResult;
@@ -55,12 +55,19 @@ public class DashScopeEmbeddings extends Embeddings {
 
     private static final String DEFAULT_BASE_URL = "https://dashscope.aliyuncs.com/";
 
+    /**
+     * text-embedding-v3单次请求最多10条文本，v1/v2为25条，取较小值保证各模型可用
+     */
+    private static final int BATCH_MAX_ITEMS = 10;
+
     public DashScopeEmbeddings() {
+        setBatchMaxItems(BATCH_MAX_ITEMS);
         String serverUrl = !StringUtils.isEmpty(DASHSCOPE_SERVER_URL) ? DASHSCOPE_SERVER_URL : DEFAULT_BASE_URL;
         service = new DashScopeService(serverUrl, Duration.ofSeconds(Long.parseLong(DASHSCOPE_API_TIMEOUT)), true, token);
     }
 
     public DashScopeEmbeddings(String token) {
+        setBatchMaxItems(BATCH_MAX_ITEMS);
         this.token = token;
         String serverUrl = !StringUtils.isEmpty(DASHSCOPE_SERVER_URL) ? DASHSCOPE_SERVER_URL : DEFAULT_BASE_URL;
         service = new DashScopeService(serverUrl, Duration.ofSeconds(Long.parseLong(DASHSCOPE_API_TIMEOUT)), true, token);
@@ -81,16 +88,22 @@ public class DashScopeEmbeddings extends Embeddings {
         Document document = new Document();
         document.setPageContent(text);
         return getLenSafeEmbeddings(Arrays.asList(new Document[] {document}), "query").stream()
-            .map(e -> JSON.toJSONString(e.getEmbedding()))
+            .map(e -> VectorUtils.toVectorString(e.getEmbeddingVector()))
             .collect(Collectors.toList());
     }
 
+    @Override
+    public float[] embedQueryVector(String text) {
+        Document document = new Document();
+        document.setPageContent(text);
+        getLenSafeEmbeddings(Arrays.asList(new Document[] {document}), "query");
+        return document.getEmbeddingVector();
+    }
+
     private List<Document> getLenSafeEmbeddings(List<Document> documents, String textType) {
-        for (Document document : documents) {
-            String questionText = document.getPageContent();
+        return embedDocumentsInBatches(documents, texts -> {
             EmbeddingText text = new EmbeddingText();
-            text.setTexts(new ArrayList<>());
-            text.getTexts().add(questionText);
+            text.setTexts(texts);
 
             EmbeddingRequest.EmbeddingRequestBuilder builder = EmbeddingRequest.builder()
                 .input(text)
@@ -102,12 +115,11 @@ public class DashScopeEmbeddings extends Embeddings {
             }
             EmbeddingRequest embeddingRequest = builder.build();
             EmbeddingResult result = service.createEmbeddings(embeddingRequest);
+            float[][] vectors = new float[texts.size()][];
             result.getOutput().getEmbeddings().forEach(e -> {
-                document.setEmbedding(e.getEmbedding());
-                document.setIndex(e.getTextIndex());
-//                log.info(model + " embeddings answer:" + JSON.toJSONString(e));
+                vectors[e.getTextIndex()] = VectorUtils.toFloatArray(e.getEmbedding());
             });
-        }
-        return documents;
+            return vectors;
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.djl.embeddings;
+
+import ai.djl.inference.Predictor;
+import ai.djl.repository.zoo.ZooModel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 动态微批推理器
+ *
+ * 每个工作线程独占一个Predictor（Predictor本身非线程安全），从共享请求队列中取出首个请求后，
+ * 最多等待maxBatchDelayMillis毫秒或凑满maxBatchSize条，再通过batchPredict一次性推理
+ */
+@Slf4j
+public class BatchingPredictor implements AutoCloseable {
+
+    private final BlockingQueue<PendingRequest> requests = new LinkedBlockingQueue<>();
+
+    private final List<BatchFunction> predictors = new ArrayList<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final int maxBatchSize;
+
+    private final long maxBatchDelayMillis;
+
+    private volatile boolean running = true;
+
+    public BatchingPredictor(ZooModel<String, float[]> model, int poolSize, int maxBatchSize, long maxBatchDelayMillis) {
+        this(() -> {
+            Predictor<String, float[]> predictor = model.newPredictor();
+            return new BatchFunction() {
+                @Override
+                public List<float[]> predict(List<String> inputs) throws Exception {
+                    return predictor.batchPredict(inputs);
+                }
+
+                @Override
+                public void close() {
+                    predictor.close();
+                }
+            };
+        }, poolSize, maxBatchSize, maxBatchDelayMillis);
+    }
+
+    BatchingPredictor(Supplier<BatchFunction> factory, int poolSize, int maxBatchSize, long maxBatchDelayMillis) {
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.maxBatchDelayMillis = Math.max(maxBatchDelayMillis, 0L);
+        int size = Math.max(poolSize, 1);
+        for (int i = 0; i < size; i++) {
+            BatchFunction predictor = factory.get();
+            predictors.add(predictor);
+            Thread worker = new Thread(() -> work(predictor), "djl-embeddings-predictor-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * 提交单条文本，返回异步结果
+     *
+     * @param text
+     * @return
+     */
+    public CompletableFuture<float[]> submit(String text) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("predictor is closed"));
+            return future;
+        }
+        PendingRequest request = new PendingRequest(text != null ? text : "", future);
+        requests.add(request);
+        // close()可能在检查running之后、入队之前完成了清理，此时自行移出队列并失败，避免调用方永久等待
+        if (!running && requests.remove(request)) {
+            future.completeExceptionally(new IllegalStateException("predictor is closed"));
+        }
+        return future;
+    }
+
+    /**
+     * 推理一组文本，按入参顺序返回向量，推理失败的位置为null
+     *
+     * @param texts
+     * @return
+     */
+    public List<float[]> predictAll(List<String> texts) {
+        List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            futures.add(submit(text));
+        }
+        List<float[]> results = new ArrayList<>(texts.size());
+        for (CompletableFuture<float[]> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                log.error("predict error", e.getCause());
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    private void work(BatchFunction predictor) {
+        List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        List<String> inputs = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingRequest first = requests.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+                while (batch.size() < maxBatchSize) {
+                    // 队列中已积压的请求直接取走，不再等待
+                    if (requests.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingRequest next = requests.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                for (PendingRequest request : batch) {
+                    inputs.add(request.text);
+                }
+                try {
+                    List<float[]> outputs = predictor.predict(inputs);
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).future.complete(outputs.get(i));
+                    }
+                } catch (Throwable e) {
+                    batch.forEach(request -> request.future.completeExceptionally(e));
+                }
+            } catch (InterruptedException e) {
+                batch.forEach(request -> request.future.completeExceptionally(new IllegalStateException("predictor is closed")));
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+                inputs.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        PendingRequest request;
+        while ((request = requests.poll()) != null) {
+            request.future.completeExceptionally(new IllegalStateException("predictor is closed"));
+        }
+        predictors.forEach(BatchFunction::close);
+        predictors.clear();
+    }
+
+    /**
+     * 工作线程独占的批量推理函数
+     */
+    interface BatchFunction extends AutoCloseable {
+
+        List<float[]> predict(List<String> inputs) throws Exception;
+
+        @Override
+        void close();
+    }
+
+    private static class PendingRequest {
+
+        private final String text;
+
+        private final CompletableFuture<float[]> future;
+
+        PendingRequest(String text, CompletableFuture<float[]> future) {
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
@@ -16,18 +16,16 @@
 package com.alibaba.langengine.djl.embeddings;
 
 import ai.djl.huggingface.translator.TextEmbeddingTranslatorFactory;
-import ai.djl.inference.Predictor;
 import ai.djl.repository.zoo.Criteria;
 import ai.djl.repository.zoo.ZooModel;
 import ai.djl.training.util.ProgressBar;
-import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.core.embeddings.Embeddings;
 import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.util.VectorUtils;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,7 +39,28 @@ import java.util.stream.Collectors;
 @Data
 public class SentenceTransformerEmbeddings extends Embeddings {
 
+    /**
+     * 默认每个CPU核一个Predictor
+     */
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 32;
+
+    private static final long DEFAULT_MAX_BATCH_DELAY_MILLIS = 5L;
+
     public SentenceTransformerEmbeddings(String modelIdOrPath, Boolean remote) {
+        this(modelIdOrPath, remote, DEFAULT_POOL_SIZE, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_DELAY_MILLIS);
+    }
+
+    /**
+     * @param modelIdOrPath
+     * @param remote
+     * @param poolSize Predictor池大小，即并发推理线程数
+     * @param maxBatchSize 单次batchPredict最多的文本数
+     * @param maxBatchDelayMillis 凑批最长等待时间
+     */
+    public SentenceTransformerEmbeddings(String modelIdOrPath, Boolean remote,
+                                         int poolSize, int maxBatchSize, long maxBatchDelayMillis) {
         Criteria.Builder<String, float[]> builder = Criteria.builder()
                 .setTypes(String.class, float[].class);
 
@@ -57,7 +76,7 @@ public class SentenceTransformerEmbeddings extends Embeddings {
                 .build();
         try {
             model = criteria.loadModel();
-            predictor = model.newPredictor();
+            predictor = new BatchingPredictor(model, poolSize, maxBatchSize, maxBatchDelayMillis);
         } catch (Throwable e) {
             throw new RuntimeException(e);
         }
@@ -65,7 +84,7 @@ public class SentenceTransformerEmbeddings extends Embeddings {
 
     private ZooModel<String, float[]> model;
 
-    private Predictor<String, float[]> predictor;
+    private BatchingPredictor predictor;
 
     @Override
     public String getModelType() {
@@ -82,25 +101,27 @@ public class SentenceTransformerEmbeddings extends Embeddings {
         Document document = new Document();
         document.setPageContent(text);
         return getLenSafeEmbeddings(Arrays.asList(new Document[] { document }), "query").stream()
-                .map(e -> JSON.toJSONString(e.getEmbedding()))
+                .map(e -> VectorUtils.toVectorString(e.getEmbeddingVector()))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public float[] embedQueryVector(String text) {
+        try {
+            return predictor.submit(text).join();
+        } catch (Throwable e) {
+            log.error("embedQueryVector error", e);
+            return null;
+        }
+    }
+
     private List<Document> getLenSafeEmbeddings(List<Document> documents, String textType) {
-        for (Document document : documents) {
-            try {
-//                URL url = model.getArtifact("config.json");
-//                String configString = IOUtils.toString(url);
-                String questionText = document.getPageContent();
-                float[] floatArray = predictor.predict(questionText);
-                List<Double> doubleList = new ArrayList<>();
-                for (float floatValue : floatArray) {
-                    doubleList.add((double) floatValue);
-                }
-                document.setEmbedding(doubleList);
-//                log.info(getModelType() + " embeddings answer:" + JSON.toJSONString(doubleList));
-            } catch (Throwable e) {
-                log.error("getLenSafeEmbeddings error", e);
+        List<float[]> vectors = predictor.predictAll(documents.stream()
+                .map(Document::getPageContent)
+                .collect(Collectors.toList()));
+        for (int i = 0; i < documents.size(); i++) {
+            if (vectors.get(i) != null) {
+                documents.get(i).setEmbeddingVector(vectors.get(i));
             }
         }
         return documents;
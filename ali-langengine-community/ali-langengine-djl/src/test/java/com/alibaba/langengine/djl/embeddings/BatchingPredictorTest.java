@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.djl.embeddings;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BatchingPredictorTest {
+
+    @Test
+    public void test_batchesKeepInputOrder() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        BatchingPredictor predictor = new BatchingPredictor(() -> new IndexFunction(batchSizes, null), 1, 4, 200L);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            texts.add(String.valueOf(i));
+        }
+
+        List<float[]> results = predictor.predictAll(texts);
+        predictor.close();
+
+        for (int i = 0; i < texts.size(); i++) {
+            Assertions.assertEquals(i, (int) results.get(i)[0]);
+        }
+        Assertions.assertTrue(batchSizes.size() < texts.size(), "batches " + batchSizes);
+        Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 4), "batches " + batchSizes);
+    }
+
+    @Test
+    public void test_failedBatchIsNull() {
+        BatchingPredictor predictor = new BatchingPredictor(() -> new IndexFunction(new ArrayList<>(), null), 1, 1, 0L);
+        List<String> texts = new ArrayList<>();
+        texts.add("1");
+        texts.add("fail");
+        texts.add("3");
+
+        List<float[]> results = predictor.predictAll(texts);
+        predictor.close();
+
+        Assertions.assertEquals(1, (int) results.get(0)[0]);
+        Assertions.assertNull(results.get(1));
+        Assertions.assertEquals(3, (int) results.get(2)[0]);
+    }
+
+    @Test
+    public void test_closeFailsPendingAndLaterRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        BatchingPredictor predictor = new BatchingPredictor(() -> new IndexFunction(new ArrayList<>(), started), 1, 1, 0L);
+        CompletableFuture<float[]> running = predictor.submit("1");
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<float[]> queued = predictor.submit("2");
+
+        predictor.close();
+
+        assertClosed(running);
+        assertClosed(queued);
+        assertClosed(predictor.submit("3"));
+    }
+
+    private static void assertClosed(CompletableFuture<float[]> future) throws Exception {
+        Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 以文本解析出的整数作为向量，started不为空时阻塞直到被中断
+     */
+    private static class IndexFunction implements BatchingPredictor.BatchFunction {
+
+        private final List<Integer> batchSizes;
+
+        private final CountDownLatch started;
+
+        IndexFunction(List<Integer> batchSizes, CountDownLatch started) {
+            this.batchSizes = batchSizes;
+            this.started = started;
+        }
+
+        @Override
+        public List<float[]> predict(List<String> inputs) throws Exception {
+            batchSizes.add(inputs.size());
+            if (started != null) {
+                started.countDown();
+                new CountDownLatch(1).await();
+            }
+            List<float[]> outputs = new ArrayList<>(inputs.size());
+            for (String input : inputs) {
+                if ("fail".equals(input)) {
+                    throw new IllegalStateException("mock failure");
+                }
+                outputs.add(new float[] { Integer.parseInt(input) });
+            }
+            return outputs;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
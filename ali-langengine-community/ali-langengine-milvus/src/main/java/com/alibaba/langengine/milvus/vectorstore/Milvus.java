@@ -15,7 +15,6 @@
  */
 package com.alibaba.langengine.milvus.vectorstore;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.core.embeddings.Embeddings;
 import com.alibaba.langengine.core.indexes.Document;
 import com.alibaba.langengine.core.vectorstore.VectorStore;
@@ -24,6 +23,7 @@ import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.alibaba.langengine.milvus.MilvusConfiguration.MILVUS_SERVER_URL;
@@ -98,11 +98,14 @@ public class Milvus extends VectorStore {
 
     @Override
     public List<Document> similaritySearch(String query, int k, Double maxDistanceValue, Integer type) {
-        List<String> embeddingStrings = embedding.embedQuery(query, k);
-        if (CollectionUtils.isEmpty(embeddingStrings) || !embeddingStrings.get(0).startsWith("[")) {
+        float[] queryVector = embedding.embedQueryVector(query);
+        if (queryVector == null || queryVector.length == 0) {
             return Lists.newArrayList();
         }
-        List<Float> embeddings = JSON.parseArray(embeddingStrings.get(0), Float.class);
+        List<Float> embeddings = new ArrayList<>(queryVector.length);
+        for (float value : queryVector) {
+            embeddings.add(value);
+        }
         return milvusService.similaritySearch(embeddings, k);
     }
 
@@ -15,11 +15,11 @@
  */
 package com.alibaba.langengine.openai.embeddings;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.core.embeddings.Embeddings;
 import com.alibaba.langengine.core.indexes.Document;
 import com.alibaba.langengine.core.model.fastchat.embedding.EmbeddingRequest;
 import com.alibaba.langengine.core.model.fastchat.service.FastChatService;
+import com.alibaba.langengine.core.util.VectorUtils;
 import com.alibaba.langengine.openai.OpenAIConfiguration;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
@@ -27,7 +27,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -54,15 +53,26 @@ public class OpenAIEmbeddings extends Embeddings {
     private static final String DEFAULT_BASE_URL = "https://api.openai.com/";
 
     public OpenAIEmbeddings() {
+        initBatchConfig();
         String serverUrl = !StringUtils.isEmpty(OPENAI_SERVER_URL) ? OPENAI_SERVER_URL : DEFAULT_BASE_URL;
         service = new FastChatService(serverUrl, Duration.ofSeconds(Long.parseLong(OpenAIConfiguration.OPENAI_AI_TIMEOUT)), true, token);
     }
 
     public OpenAIEmbeddings(String token) {
+        initBatchConfig();
         String serverUrl = !StringUtils.isEmpty(OPENAI_SERVER_URL) ? OPENAI_SERVER_URL : DEFAULT_BASE_URL;
         service = new FastChatService(serverUrl, Duration.ofSeconds(Long.parseLong(OpenAIConfiguration.OPENAI_AI_TIMEOUT)), true, token);
     }
 
+    /**
+     * OpenAI单次请求最多2048条输入、单条输入最多8191个token
+     */
+    private void initBatchConfig() {
+        setBatchMaxItems(256);
+        setBatchMaxTokens(250000);
+        setInputMaxTokens(8191);
+    }
+
     @Override
     public String getModelType() {
         return "1";
@@ -78,25 +88,29 @@ public class OpenAIEmbeddings extends Embeddings {
         Document document = new Document();
         document.setPageContent(text);
         return getLenSafeEmbeddings(Arrays.asList(new Document[] { document })).stream()
-                .map(e -> JSON.toJSONString(e.getEmbedding()))
+                .map(e -> VectorUtils.toVectorString(e.getEmbeddingVector()))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public float[] embedQueryVector(String text) {
+        Document document = new Document();
+        document.setPageContent(text);
+        getLenSafeEmbeddings(Arrays.asList(new Document[] { document }));
+        return document.getEmbeddingVector();
+    }
+
     private List<Document> getLenSafeEmbeddings(List<Document> documents) {
-        for (Document document : documents) {
-            String questionText = document.getPageContent();
-            List<String> messages = new ArrayList<>();
-            messages.add(questionText);
-            EmbeddingRequest.EmbeddingRequestBuilder builder = EmbeddingRequest.builder()
-                    .input(messages)
-                    .model(getModel());
-            EmbeddingRequest embeddingRequest = builder.build();
+        return embedDocumentsInBatches(documents, texts -> {
+            EmbeddingRequest embeddingRequest = EmbeddingRequest.builder()
+                    .input(texts)
+                    .model(getModel())
+                    .build();
+            float[][] vectors = new float[texts.size()][];
             service.createEmbeddings(embeddingRequest).getData().forEach(e -> {
-                document.setEmbedding(e.getEmbedding());
-                document.setIndex(e.getIndex());
-//                log.warn("openai embeddings answer:" + JSON.toJSONString(e));
+                vectors[e.getIndex()] = VectorUtils.toFloatArray(e.getEmbedding());
             });
-        }
-        return documents;
+            return vectors;
+        });
     }
 }
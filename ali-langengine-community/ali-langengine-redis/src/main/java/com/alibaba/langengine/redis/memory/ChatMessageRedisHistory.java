@@ -16,6 +16,7 @@
 package com.alibaba.langengine.redis.memory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -35,6 +36,9 @@ import lombok.Data;
 /**
  * redis消息历史记录
  *
+ * 每个会话存为一个redis list，追加消息只RPUSH新消息（可按maxMessages在服务端LTRIM裁剪）并刷新过期时间，
+ * 不再读出整段历史再整体回写；窗口类记忆可以只读取最近的若干条
+ *
  * @author liuchunhe.lch on 2023/9/2 09:52
  */
 @Data
@@ -42,145 +46,146 @@ public class ChatMessageRedisHistory extends BaseChatMessageHistory {
 
     private RedisCache redisCache;
 
+    /**
+     * 服务端保留的最大消息数，小于等于0时不裁剪
+     */
+    private int maxMessages;
+
     @Override
     public void setMessages(String sessionId, List<BaseMessage> messages) {
         if(sessionId == null) {
             sessionId = this.getSessionId();
         }
-        List<MessageInfoDO> messageInfoDOs = messages.stream().map(message -> {
-            MessageInfoDO messageInfoDO = new MessageInfoDO();
-            if (message instanceof HumanMessage) {
-                messageInfoDO.setRole("Human");
-            } else if (message instanceof AIMessage) {
-                messageInfoDO.setRole("AI");
-            } else if (message instanceof SystemMessage) {
-                messageInfoDO.setRole("System");
-            } else if (message instanceof ToolMessage) {
-                messageInfoDO.setRole("Tool");
-            } else if (message instanceof ChatMessage) {
-                messageInfoDO.setRole(((ChatMessage)message).getRole());
-            } else {
-                return null;
-            }
-            messageInfoDO.setContent(message.getContent());
-            return messageInfoDO;
-        }).filter(Objects::nonNull).collect(Collectors.toList());
-        // Update messages in Redis
-        redisCache.updateMessageInfo(sessionId, messageInfoDOs);
+        redisCache.replaceMessageInfo(sessionId, toMessageInfos(sessionId, messages));
     }
 
     @Override
     public List<BaseMessage> getRawMessages(String sessionId) {
-        if(sessionId == null) {
-            sessionId = this.getSessionId();
-        }
-        List<MessageInfoDO> messageInfoDOs = redisCache.getMessageInfo(sessionId);
-        if (messageInfoDOs == null) {
+        return getMessages(sessionId, 0, -1);
+    }
+
+    /**
+     * 读取最近的若干条消息
+     *
+     * @param sessionId 会话id
+     * @param count     条数
+     * @return 消息列表
+     */
+    public List<BaseMessage> getLastMessages(String sessionId, int count) {
+        if (count <= 0) {
             return new ArrayList<>();
         }
-        return messageInfoDOs.stream().map(messageInfoDO -> {
-            if (messageInfoDO.getRole().equals("Human")) {
-                HumanMessage humanMessage = new HumanMessage();
-                humanMessage.setContent(messageInfoDO.getContent());
-                return humanMessage;
-            } else if (messageInfoDO.getRole().equals("AI")) {
-                AIMessage aiMessage = new AIMessage();
-                aiMessage.setContent(messageInfoDO.getContent());
-                return aiMessage;
-            } else if (messageInfoDO.getRole().equals("System")) {
-                SystemMessage systemMessage = new SystemMessage();
-                systemMessage.setContent(messageInfoDO.getContent());
-                return systemMessage;
-            } else if (messageInfoDO.getRole().equals("Tool")) {
-                ToolMessage toolMessage = new ToolMessage();
-                toolMessage.setContent(messageInfoDO.getContent());
-                return toolMessage;
-            } else {
-                ChatMessage chatMessage = new ChatMessage();
-                chatMessage.setRole(messageInfoDO.getRole());
-                chatMessage.setContent(messageInfoDO.getContent());
-            }
-            return null;
-        }).filter(e -> e != null).collect(Collectors.toList());
+        return getMessages(sessionId, -count, -1);
     }
 
-    @Override
-    public void addSystemMessage(String sessionId, String message) {
-        List<MessageInfoDO> allMessageInfoDOs = new ArrayList<>();
+    /**
+     * 在一次pipeline中追加多条消息
+     *
+     * @param sessionId 会话id
+     * @param messages  消息
+     */
+    public void addMessages(String sessionId, List<BaseMessage> messages) {
         if(sessionId == null) {
             sessionId = this.getSessionId();
         }
-        List<MessageInfoDO> messageInfoDOs = redisCache.getMessageInfo(sessionId);
-        if (messageInfoDOs != null) {
-            allMessageInfoDOs.addAll(messageInfoDOs);
+        List<MessageInfoDO> messageInfoDOs = toMessageInfos(sessionId, messages);
+        if (!messageInfoDOs.isEmpty()) {
+            redisCache.appendMessageInfo(sessionId, messageInfoDOs, maxMessages);
         }
-        MessageInfoDO messageInfoDO = new MessageInfoDO();
-        messageInfoDO.setSessionId(sessionId);
-        messageInfoDO.setRole("System");
-        messageInfoDO.setContent(message);
-        allMessageInfoDOs.add(messageInfoDO);
-        redisCache.updateMessageInfo(sessionId, allMessageInfoDOs);
+    }
+
+    @Override
+    public void addSystemMessage(String sessionId, String message) {
+        append(sessionId, "System", message);
     }
 
     @Override
     public void addUserMessage(String sessionId, String message) {
-        List<MessageInfoDO> allMessageInfoDOs = new ArrayList<>();
-        if(sessionId == null) {
-            sessionId = this.getSessionId();
-        }
-        List<MessageInfoDO> messageInfoDOs = redisCache.getMessageInfo(sessionId);
-        if (messageInfoDOs != null) {
-            allMessageInfoDOs.addAll(messageInfoDOs);
-        }
-        MessageInfoDO messageInfoDO = new MessageInfoDO();
-        messageInfoDO.setSessionId(sessionId);
-        messageInfoDO.setRole("Human");
-        messageInfoDO.setContent(message);
-        allMessageInfoDOs.add(messageInfoDO);
-        redisCache.updateMessageInfo(sessionId, allMessageInfoDOs);
+        append(sessionId, "Human", message);
     }
 
     @Override
     public void addAIMessage(String sessionId, String message) {
-        List<MessageInfoDO> allMessageInfoDOs = new ArrayList<>();
-        if(sessionId == null) {
-            sessionId = this.getSessionId();
-        }
-        List<MessageInfoDO> messageInfoDOs = redisCache.getMessageInfo(sessionId);
-        if (messageInfoDOs != null) {
-            allMessageInfoDOs.addAll(messageInfoDOs);
-        }
-        MessageInfoDO messageInfoDO = new MessageInfoDO();
-        messageInfoDO.setSessionId(sessionId);
-        messageInfoDO.setRole("AI");
-        messageInfoDO.setContent(message);
-        allMessageInfoDOs.add(messageInfoDO);
-        redisCache.updateMessageInfo(sessionId, allMessageInfoDOs);
+        append(sessionId, "AI", message);
     }
 
     @Override
     public void addToolMessage(String sessionId, String message) {
-        List<MessageInfoDO> allMessageInfoDOs = new ArrayList<>();
+        append(sessionId, "Tool", message);
+    }
+
+    @Override
+    public void clear(String sessionId) {
         if(sessionId == null) {
             sessionId = this.getSessionId();
         }
-        List<MessageInfoDO> messageInfoDOs = redisCache.getMessageInfo(sessionId);
-        if (messageInfoDOs != null) {
-            allMessageInfoDOs.addAll(messageInfoDOs);
+        redisCache.removeMessageInfo(sessionId);
+    }
+
+    private void append(String sessionId, String role, String message) {
+        if(sessionId == null) {
+            sessionId = this.getSessionId();
         }
         MessageInfoDO messageInfoDO = new MessageInfoDO();
         messageInfoDO.setSessionId(sessionId);
-        messageInfoDO.setRole("Tool");
+        messageInfoDO.setRole(role);
         messageInfoDO.setContent(message);
-        allMessageInfoDOs.add(messageInfoDO);
-        redisCache.updateMessageInfo(sessionId, allMessageInfoDOs);
+        redisCache.appendMessageInfo(sessionId, Collections.singletonList(messageInfoDO), maxMessages);
     }
 
-    @Override
-    public void clear(String sessionId) {
+    private List<BaseMessage> getMessages(String sessionId, long start, long end) {
         if(sessionId == null) {
             sessionId = this.getSessionId();
         }
-        redisCache.remove(sessionId);
+        List<MessageInfoDO> messageInfoDOs = redisCache.getMessageInfo(sessionId, start, end);
+        if (messageInfoDOs == null) {
+            return new ArrayList<>();
+        }
+        return messageInfoDOs.stream().map(messageInfoDO -> {
+            if ("Human".equals(messageInfoDO.getRole())) {
+                HumanMessage humanMessage = new HumanMessage();
+                humanMessage.setContent(messageInfoDO.getContent());
+                return humanMessage;
+            } else if ("AI".equals(messageInfoDO.getRole())) {
+                AIMessage aiMessage = new AIMessage();
+                aiMessage.setContent(messageInfoDO.getContent());
+                return aiMessage;
+            } else if ("System".equals(messageInfoDO.getRole())) {
+                SystemMessage systemMessage = new SystemMessage();
+                systemMessage.setContent(messageInfoDO.getContent());
+                return systemMessage;
+            } else if ("Tool".equals(messageInfoDO.getRole())) {
+                ToolMessage toolMessage = new ToolMessage();
+                toolMessage.setContent(messageInfoDO.getContent());
+                return toolMessage;
+            } else {
+                ChatMessage chatMessage = new ChatMessage();
+                chatMessage.setRole(messageInfoDO.getRole());
+                chatMessage.setContent(messageInfoDO.getContent());
+                return chatMessage;
+            }
+        }).collect(Collectors.toList());
+    }
+
+    private static List<MessageInfoDO> toMessageInfos(String sessionId, List<BaseMessage> messages) {
+        return messages.stream().map(message -> {
+            MessageInfoDO messageInfoDO = new MessageInfoDO();
+            if (message instanceof HumanMessage) {
+                messageInfoDO.setRole("Human");
+            } else if (message instanceof AIMessage) {
+                messageInfoDO.setRole("AI");
+            } else if (message instanceof SystemMessage) {
+                messageInfoDO.setRole("System");
+            } else if (message instanceof ToolMessage) {
+                messageInfoDO.setRole("Tool");
+            } else if (message instanceof ChatMessage) {
+                messageInfoDO.setRole(((ChatMessage)message).getRole());
+            } else {
+                return null;
+            }
+            messageInfoDO.setSessionId(sessionId);
+            messageInfoDO.setContent(message.getContent());
+            return messageInfoDO;
+        }).filter(Objects::nonNull).collect(Collectors.toList());
     }
 }
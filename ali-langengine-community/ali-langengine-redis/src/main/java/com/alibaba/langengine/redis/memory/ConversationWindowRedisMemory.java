@@ -15,12 +15,14 @@
  */
 package com.alibaba.langengine.redis.memory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import com.alibaba.langengine.core.memory.impl.ConversationBufferWindowMemory;
 import com.alibaba.langengine.core.messages.BaseMessage;
+import com.alibaba.langengine.core.messages.MessageConverter;
 
 import com.alibaba.langengine.redis.memory.cache.RedisCache;
 import org.apache.commons.lang3.StringUtils;
@@ -32,9 +34,7 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class ConversationWindowRedisMemory extends ConversationBufferWindowMemory {
 
-    /**
-     * 窗口数量，返回最近的窗口数量消息
-     */
+    private final ChatMessageRedisHistory redisHistory;
 
     public ConversationWindowRedisMemory(RedisCache redisCache,
                                          String sessionId) {
@@ -47,25 +47,40 @@ public class ConversationWindowRedisMemory extends ConversationBufferWindowMemor
             chatMessageRedisHistory.setSessionId(UUID.randomUUID().toString());
         }
         setChatMemory(chatMessageRedisHistory);
+        this.redisHistory = chatMessageRedisHistory;
+    }
+
+    /**
+     * 只读取窗口内最近的消息
+     *
+     * @param inputs
+     * @return
+     */
+    @Override
+    public Map<String, Object> loadMemoryVariables(Map<String, Object> inputs) {
+        List<BaseMessage> messages = redisHistory.getLastMessages(null, getHistoryCount() * 2);
+        Map<String, Object> map = new HashMap<>();
+        if (isReturnMessages()) {
+            map.put(getMemoryKey(), messages);
+        } else {
+            map.put(getMemoryKey(), MessageConverter.getBufferString(messages, getHumanPrefix(), getAiPrefix(),
+                getSystemPrefix(), null, getToolPrefix()));
+        }
+        return map;
     }
 
     /**
      * 再拿到模型结果之后，preOutput部分
      *
-     * 会把模型返回的output内容，重新保存一下
+     * 会把模型返回的output内容追加保存，超出窗口的消息由redis在服务端裁剪
      *
      * @param inputs
      * @param outputs
      */
     @Override
     public void saveContext(Map<String, Object> inputs, Map<String, Object> outputs) {
-        List<BaseMessage> messages = getChatMemory().getMessages();
-        super.saveContext(inputs, outputs);
-        int size = messages.size();
-        if (size > getHistoryCount() * 2) {
-            messages = messages.subList(size - getHistoryCount() * 2, size);
-            getChatMemory().setMessages(messages);
-        }
+        redisHistory.setMaxMessages(getHistoryCount() > 0 ? getHistoryCount() * 2 : 0);
+        saveContext(null, inputs, outputs);
     }
 
 }
@@ -20,8 +20,12 @@ import com.google.common.base.Charsets;
 import lombok.extern.slf4j.Slf4j;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
 
 import javax.annotation.PreDestroy;
+import java.util.List;
 
 
 /**
@@ -143,6 +147,84 @@ public class AiRedisTemplate {
         }
     }
 
+    /**
+     * 在一次pipeline中追加list元素、按长度裁剪并刷新过期时间
+     *
+     * @param key       key
+     * @param values    追加的元素
+     * @param maxLength 保留的最大长度，小于等于0时不裁剪
+     * @param time      过期时间(秒)，小于等于0时不设置
+     * @return 追加后、裁剪前的list长度
+     */
+    public long rpush(String key, List<byte[]> values, long maxLength, int time) {
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        byte[] rawKey = key.getBytes(Charsets.UTF_8);
+        Jedis jedis = null;
+        try {
+            jedis = jedisPool.getResource();
+            Pipeline pipeline = jedis.pipelined();
+            Response<Long> length = pipeline.rpush(rawKey, values.toArray(new byte[0][]));
+            if (maxLength > 0) {
+                pipeline.ltrim(rawKey, -maxLength, -1);
+            }
+            if (time > 0) {
+                pipeline.expire(rawKey, time);
+            }
+            pipeline.sync();
+            return length.get();
+        } catch (Exception ex) {
+            log.error("redis rpush method occur exception", ex);
+            throw ex;
+        } finally {
+            releaseConnection(jedis);
+        }
+    }
+
+    /**
+     * 读取list的区间，下标含义与LRANGE一致，负数表示从尾部计数
+     */
+    public List<byte[]> lrange(String key, long start, long end) {
+        Jedis jedis = null;
+        try {
+            jedis = jedisPool.getResource();
+            return jedis.lrange(key.getBytes(Charsets.UTF_8), start, end);
+        } catch (Exception ex) {
+            log.error("redis lrange method occur exception", ex);
+            throw ex;
+        } finally {
+            releaseConnection(jedis);
+        }
+    }
+
+    /**
+     * 在一个事务中用给定元素整体替换list
+     *
+     * @return 事务是否执行成功
+     */
+    public boolean replaceList(String key, List<byte[]> values, int time) {
+        byte[] rawKey = key.getBytes(Charsets.UTF_8);
+        Jedis jedis = null;
+        try {
+            jedis = jedisPool.getResource();
+            Transaction transaction = jedis.multi();
+            transaction.del(rawKey);
+            if (values != null && !values.isEmpty()) {
+                transaction.rpush(rawKey, values.toArray(new byte[0][]));
+                if (time > 0) {
+                    transaction.expire(rawKey, time);
+                }
+            }
+            return transaction.exec() != null;
+        } catch (Exception ex) {
+            log.error("redis replaceList method occur exception", ex);
+            throw ex;
+        } finally {
+            releaseConnection(jedis);
+        }
+    }
+
     @PreDestroy
     void destroy() {
         if (null == jedisPool) {
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.redis.memory.cache;
+
+import com.alibaba.langengine.core.prompt.MessageInfoDO;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 会话消息的紧凑二进制编码，用作redis list的元素
+ *
+ * 格式：1字节头 + [自定义角色长度(1~2字节) + 角色] + 内容(UTF-8，占满剩余字节)
+ * 头的低3位为角色编号（0表示自定义角色），最高位表示内容为null；sessionId由key承载，不再重复存储
+ */
+public final class MessageInfoCodec {
+
+    private static final String[] ROLES = {null, "Human", "AI", "System", "Tool"};
+
+    private static final int NULL_CONTENT = 0x80;
+
+    private static final int ROLE_MASK = 0x07;
+
+    private MessageInfoCodec() {
+    }
+
+    public static byte[] encode(MessageInfoDO messageInfoDO) {
+        String role = messageInfoDO.getRole();
+        String content = messageInfoDO.getContent();
+        int code = roleCode(role);
+        byte[] roleBytes = code == 0 && role != null ? role.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (roleBytes.length > 0x3FFF) {
+            throw new IllegalArgumentException("message role too long: " + roleBytes.length);
+        }
+        byte[] contentBytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int roleHeader = code == 0 ? (roleBytes.length < 0x80 ? 1 : 2) : 0;
+        byte[] bytes = new byte[1 + roleHeader + roleBytes.length + contentBytes.length];
+        bytes[0] = (byte) (code | (content == null ? NULL_CONTENT : 0));
+        int pos = 1;
+        if (code == 0) {
+            if (roleHeader == 1) {
+                bytes[pos++] = (byte) roleBytes.length;
+            } else {
+                bytes[pos++] = (byte) (0x80 | (roleBytes.length >>> 7));
+                bytes[pos++] = (byte) (roleBytes.length & 0x7F);
+            }
+            System.arraycopy(roleBytes, 0, bytes, pos, roleBytes.length);
+            pos += roleBytes.length;
+        }
+        System.arraycopy(contentBytes, 0, bytes, pos, contentBytes.length);
+        return bytes;
+    }
+
+    public static MessageInfoDO decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        int code = header & ROLE_MASK;
+        int pos = 1;
+        MessageInfoDO messageInfoDO = new MessageInfoDO();
+        if (code > 0 && code < ROLES.length) {
+            messageInfoDO.setRole(ROLES[code]);
+        } else {
+            int length = bytes[pos] & 0xFF;
+            pos++;
+            if ((length & 0x80) != 0) {
+                length = ((length & 0x7F) << 7) | (bytes[pos] & 0x7F);
+                pos++;
+            }
+            messageInfoDO.setRole(new String(bytes, pos, length, StandardCharsets.UTF_8));
+            pos += length;
+        }
+        if ((header & NULL_CONTENT) == 0) {
+            messageInfoDO.setContent(new String(bytes, pos, bytes.length - pos, StandardCharsets.UTF_8));
+        }
+        return messageInfoDO;
+    }
+
+    private static int roleCode(String role) {
+        for (int i = 1; i < ROLES.length; i++) {
+            if (ROLES[i].equals(role)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
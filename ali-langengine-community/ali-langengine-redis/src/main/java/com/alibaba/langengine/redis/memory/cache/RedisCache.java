@@ -15,6 +15,7 @@
  */
 package com.alibaba.langengine.redis.memory.cache;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.fastjson.JSON;
@@ -38,6 +39,7 @@ import org.apache.commons.lang3.StringUtils;
 public class RedisCache extends BaseCache {
 
     private static final String SESSION_PREFIX_KEY = "chatmessage_";
+    private static final String SESSION_LIST_PREFIX_KEY = "chatmessage_list_";
     private Integer redisExpireTimeSeconds;
 
     private AiRedisTemplate aiRedisTemplate;
@@ -100,6 +102,126 @@ public class RedisCache extends BaseCache {
         }
     }
 
+    /**
+     * 追加会话消息，多条消息在一次pipeline中写入并刷新过期时间；
+     * 追加后list为新建时，将旧版本整段存储的会话迁移到追加的消息之前
+     *
+     * @param sessionId      会话id
+     * @param messageInfoDOs 追加的消息
+     * @param maxMessages    保留的最大消息数，小于等于0时不裁剪
+     */
+    public void appendMessageInfo(String sessionId, List<MessageInfoDO> messageInfoDOs, int maxMessages) {
+        String cacheKey = SESSION_LIST_PREFIX_KEY + sessionId;
+        try {
+            long length = aiRedisTemplate.rpush(cacheKey, encode(messageInfoDOs), maxMessages, redisExpireTimeSeconds);
+            if (length != messageInfoDOs.size()) {
+                return;
+            }
+            List<MessageInfoDO> legacy = getMessageInfo(sessionId);
+            if (legacy == null || legacy.isEmpty()) {
+                return;
+            }
+            List<MessageInfoDO> merged = new ArrayList<>(legacy.size() + messageInfoDOs.size());
+            merged.addAll(legacy);
+            merged.addAll(messageInfoDOs);
+            if (maxMessages > 0 && merged.size() > maxMessages) {
+                merged = merged.subList(merged.size() - maxMessages, merged.size());
+            }
+            migrateMessageInfo(sessionId, merged);
+        } catch (Exception e) {
+            log.warn("append redis error#cacheKey = " + cacheKey + ", size = " + messageInfoDOs.size(), e);
+        }
+    }
+
+    /**
+     * 读取会话消息区间，下标含义与LRANGE一致，如(-k, -1)表示最近k条；
+     * 旧版本整段存储的会话在首次读取时迁移为list
+     *
+     * @param sessionId 会话id
+     * @param start     起始下标
+     * @param end       结束下标(包含)
+     * @return 消息列表，不存在时为null
+     */
+    public List<MessageInfoDO> getMessageInfo(String sessionId, long start, long end) {
+        String cacheKey = SESSION_LIST_PREFIX_KEY + sessionId;
+        List<byte[]> values = aiRedisTemplate.lrange(cacheKey, start, end);
+        if (values != null && !values.isEmpty()) {
+            List<MessageInfoDO> messageInfoDOs = new ArrayList<>(values.size());
+            for (byte[] value : values) {
+                MessageInfoDO messageInfoDO = MessageInfoCodec.decode(value);
+                if (messageInfoDO != null) {
+                    messageInfoDO.setSessionId(sessionId);
+                    messageInfoDOs.add(messageInfoDO);
+                }
+            }
+            return messageInfoDOs;
+        }
+        List<MessageInfoDO> legacy = getMessageInfo(sessionId);
+        if (legacy == null || legacy.isEmpty()) {
+            return null;
+        }
+        migrateMessageInfo(sessionId, legacy);
+        int size = legacy.size();
+        int from = (int) Math.max(0, start < 0 ? size + start : start);
+        int to = (int) Math.min(size - 1, end < 0 ? size + end : end);
+        return from > to ? new ArrayList<>() : new ArrayList<>(legacy.subList(from, to + 1));
+    }
+
+    /**
+     * 整体替换会话消息
+     *
+     * @param sessionId      会话id
+     * @param messageInfoDOs 消息
+     */
+    public void replaceMessageInfo(String sessionId, List<MessageInfoDO> messageInfoDOs) {
+        String cacheKey = SESSION_LIST_PREFIX_KEY + sessionId;
+        try {
+            aiRedisTemplate.replaceList(cacheKey, encode(messageInfoDOs), redisExpireTimeSeconds);
+        } catch (Exception e) {
+            log.warn("replace redis error#cacheKey = " + cacheKey + ", size = " + messageInfoDOs.size(), e);
+        }
+    }
+
+    /**
+     * 删除会话消息，同时清理旧版本整段存储的key
+     *
+     * @param sessionId 会话id
+     */
+    public void removeMessageInfo(String sessionId) {
+        String cacheKey = SESSION_LIST_PREFIX_KEY + sessionId;
+        try {
+            aiRedisTemplate.delete(cacheKey);
+        } catch (Exception e) {
+            log.warn("delete redis error#cacheKey = " + cacheKey, e);
+        }
+        remove(sessionId);
+    }
+
+    /**
+     * 将消息写入list，事务成功后才删除旧版本整段存储的key，失败时保留旧key以便下次重试
+     */
+    private void migrateMessageInfo(String sessionId, List<MessageInfoDO> messageInfoDOs) {
+        String cacheKey = SESSION_LIST_PREFIX_KEY + sessionId;
+        boolean migrated;
+        try {
+            migrated = aiRedisTemplate.replaceList(cacheKey, encode(messageInfoDOs), redisExpireTimeSeconds);
+        } catch (Exception e) {
+            log.warn("migrate redis error#cacheKey = " + cacheKey + ", size = " + messageInfoDOs.size(), e);
+            return;
+        }
+        if (migrated) {
+            remove(sessionId);
+        }
+    }
+
+    private static List<byte[]> encode(List<MessageInfoDO> messageInfoDOs) {
+        List<byte[]> values = new ArrayList<>(messageInfoDOs.size());
+        for (MessageInfoDO messageInfoDO : messageInfoDOs) {
+            values.add(MessageInfoCodec.encode(messageInfoDO));
+        }
+        return values;
+    }
+
     public void remove(String sessionId) {
         String cacheKey = SESSION_PREFIX_KEY + sessionId;
         try {
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.redis.memory.cache;
+
+import com.alibaba.langengine.core.prompt.MessageInfoDO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageInfoCodecTest {
+
+    @Test
+    public void test_builtinRole() {
+        MessageInfoDO decoded = roundTrip("AI", "你好, world");
+        assertEquals("AI", decoded.getRole());
+        assertEquals("你好, world", decoded.getContent());
+        // 内置角色只占1字节头
+        assertEquals(1 + "你好, world".getBytes(StandardCharsets.UTF_8).length,
+            MessageInfoCodec.encode(messageInfo("AI", "你好, world")).length);
+    }
+
+    @Test
+    public void test_customRoleAndNullContent() {
+        MessageInfoDO decoded = roundTrip("planner", null);
+        assertEquals("planner", decoded.getRole());
+        assertNull(decoded.getContent());
+
+        StringBuilder longRole = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longRole.append('r');
+        }
+        decoded = roundTrip(longRole.toString(), "");
+        assertEquals(longRole.toString(), decoded.getRole());
+        assertEquals("", decoded.getContent());
+    }
+
+    private static MessageInfoDO roundTrip(String role, String content) {
+        return MessageInfoCodec.decode(MessageInfoCodec.encode(messageInfo(role, content)));
+    }
+
+    private static MessageInfoDO messageInfo(String role, String content) {
+        MessageInfoDO messageInfoDO = new MessageInfoDO();
+        messageInfoDO.setRole(role);
+        messageInfoDO.setContent(content);
+        return messageInfoDO;
+    }
+}
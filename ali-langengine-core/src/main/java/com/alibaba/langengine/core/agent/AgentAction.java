@@ -19,7 +19,9 @@ import com.alibaba.fastjson.annotation.JSONField;
 import com.alibaba.langengine.core.tool.BaseTool;
 import lombok.Data;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 代理要采取的行动
@@ -61,4 +63,23 @@ public class AgentAction implements AgentNextStep {
     private List<BaseTool> nextTools;
 
     private String prevId;
+
+    /**
+     * 合并多工具调用中各工具返回的下一轮工具集，同名工具只保留先出现的一个
+     *
+     * @param tools
+     */
+    public void mergeNextTools(List<BaseTool> tools) {
+        if (tools == null || tools.isEmpty()) {
+            return;
+        }
+        if (nextTools == null) {
+            nextTools = new ArrayList<>();
+        }
+        for (BaseTool tool : tools) {
+            if (nextTools.stream().noneMatch(existing -> Objects.equals(existing.getName(), tool.getName()))) {
+                nextTools.add(tool);
+            }
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.alibaba.langengine.core.callback.ExecutionContext;
 import com.alibaba.langengine.core.chain.Chain;
 import com.alibaba.langengine.core.memory.BaseChatMemory;
 import com.alibaba.langengine.core.tool.BaseTool;
+import com.alibaba.langengine.core.tool.ParallelToolExecutor;
 import com.alibaba.langengine.core.tool.ToolExecuteResult;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
@@ -84,6 +85,14 @@ public class AgentExecutor extends Chain {
     private boolean handleParsingErrors = false;
     private boolean isCH = false;
 
+    /**
+     * 同一轮包含多个工具调用(AgentAction.actions)时的执行方式
+     *
+     * - 为空时沿用原有行为，只执行返回的action本身，actions中的工具调用不会执行
+     * - 设置后actions中的全部工具调用都会执行(并行)，observation按调用顺序合并，开启前需确认这些工具可以一起调用
+     */
+    private ParallelToolExecutor parallelToolExecutor;
+
     @Override
     public void setCallbackManager(BaseCallbackManager callbackManager) {
         super.setCallbackManager(callbackManager);
@@ -295,7 +304,11 @@ public class AgentExecutor extends Chain {
         }
         List<AgentAction> actions = new ArrayList<>();
         if(output instanceof AgentAction) {
-            actions.add((AgentAction) output);
+            AgentAction action = (AgentAction) output;
+            if(parallelToolExecutor != null && action.getActions() != null && action.getActions().size() > 1) {
+                return takeParallelStep(nameToToolMap, action, intermediateSteps, executionContext);
+            }
+            actions.add(action);
         }
         for (AgentAction agentAction : actions) {
             onAgentAction(this, agentAction, executionContext);
@@ -338,6 +351,83 @@ public class AgentExecutor extends Chain {
         return null;
     }
 
+    /**
+     * 并行执行同一轮的多个工具调用，observation按调用顺序合并到父action
+     */
+    private Object takeParallelStep(Map<String, BaseTool> nameToToolMap,
+                                    AgentAction parentAction,
+                                    List<AgentAction> intermediateSteps,
+                                    ExecutionContext executionContext) {
+        List<AgentAction> childActions = parentAction.getActions();
+        List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+        for (int i = 0; i < childActions.size(); i++) {
+            AgentAction childAction = childActions.get(i);
+            onAgentAction(this, childAction, executionContext);
+
+            String toolName = containActionName(nameToToolMap, childAction.getTool());
+            if(StringUtils.isEmpty(toolName)) {
+                return null;
+            }
+            BaseTool tool = nameToToolMap.get(toolName);
+            ExecutionContext toolContext = forkExecutionContext(executionContext, "tool-" + intermediateSteps.size() + "-" + i);
+            calls.add(new ParallelToolExecutor.ToolCall(tool, childAction.getToolInput(),
+                    () -> tool.run(childAction.getToolInput(), toolContext)));
+        }
+
+        List<ToolExecuteResult> results = parallelToolExecutor.execute(calls, null);
+        List<String> observations = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            ToolExecuteResult toolExecuteResult = results.get(i);
+            if(toolExecuteResult == null) {
+                return null;
+            }
+
+            if(getMemory() != null) {
+                BaseChatMemory chatMemory = (BaseChatMemory) getMemory();
+                chatMemory.getChatMemory().addToolMessage(toolExecuteResult.getOutput());
+            }
+
+            if(toolExecuteResult.isInterrupted()) {
+                Map<String, Object> returnValues = new HashMap<>();
+                returnValues.put("output", toolExecuteResult.getOutput());
+                AgentFinish agentFinish = new AgentFinish();
+                agentFinish.setReturnValues(returnValues);
+                agentFinish.setLog(toolExecuteResult.getOutput());
+                return agentFinish;
+            }
+
+            AgentAction childAction = childActions.get(i);
+            if(!CollectionUtils.isEmpty(toolExecuteResult.getNextTools())) {
+                childAction.setNextTools(toolExecuteResult.getNextTools());
+                // call()只读取返回的父action上的nextTools
+                parentAction.mergeNextTools(toolExecuteResult.getNextTools());
+            }
+            childAction.setObservation(toolExecuteResult.getOutput());
+            observations.add(toolExecuteResult.getOutput());
+        }
+        parentAction.setObservation(String.join("\n", observations));
+        return parentAction;
+    }
+
+    /**
+     * 并行调用时每个工具使用独立的ExecutionContext，避免回调之间互相覆盖
+     */
+    private ExecutionContext forkExecutionContext(ExecutionContext executionContext, String childExecutionType) {
+        if(executionContext == null) {
+            return null;
+        }
+        ExecutionContext toolContext = new ExecutionContext();
+        toolContext.setChainInstanceId(executionContext.getChainInstanceId());
+        toolContext.setEagleEyeCtx(executionContext.getEagleEyeCtx());
+        toolContext.setChain(executionContext.getChain());
+        toolContext.setInputs(executionContext.getInputs());
+        toolContext.setExecutionType(executionContext.getExecutionType());
+        toolContext.setChunkConsumer(executionContext.getChunkConsumer());
+        toolContext.setTraceData(executionContext.getTraceData());
+        toolContext.setChildExecutionType(childExecutionType);
+        return toolContext;
+    }
+
     /**
      * 模糊匹配
      *
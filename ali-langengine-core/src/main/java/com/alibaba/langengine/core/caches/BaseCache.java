@@ -19,6 +19,7 @@ import com.alibaba.langengine.core.callback.ExecutionContext;
 import com.alibaba.langengine.core.outputs.Generation;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Base interface for cache.
@@ -80,6 +81,25 @@ public abstract class BaseCache {
      */
     public abstract void update(String prompt, String llmString, List<Generation> returnVal);
 
+    /**
+     * 查找缓存，未命中时调用loader生成结果并写入缓存，调用方无需事先调用get
+     * 子类可覆盖以合并相同prompt的并发加载，流式调用不经过此方法
+     *
+     * @param prompt
+     * @param llmString
+     * @param loader
+     * @return
+     */
+    public List<Generation> getOrLoad(String prompt, String llmString, Supplier<List<Generation>> loader) {
+        List<Generation> cacheVal = get(prompt, llmString);
+        if (cacheVal != null && !cacheVal.isEmpty()) {
+            return cacheVal;
+        }
+        List<Generation> returnVal = loader.get();
+        update(prompt, llmString, returnVal);
+        return returnVal;
+    }
+
     /**
      * Clear cache that can take additional keyword arguments.
      */
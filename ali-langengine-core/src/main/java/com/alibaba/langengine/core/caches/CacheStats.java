@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.caches;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存命中率与加载耗时统计
+ */
+public class CacheStats {
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder semanticHitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder coalescedLoadCount = new LongAdder();
+
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    public void recordSemanticHit() {
+        hitCount.increment();
+        semanticHitCount.increment();
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    public void recordLoadSuccess(long loadNanos) {
+        loadSuccessCount.increment();
+        totalLoadNanos.add(loadNanos);
+    }
+
+    public void recordLoadFailure(long loadNanos) {
+        loadFailureCount.increment();
+        totalLoadNanos.add(loadNanos);
+    }
+
+    /**
+     * 相同请求并发时等待已有加载结果，未重复调用模型
+     */
+    public void recordCoalescedLoad() {
+        coalescedLoadCount.increment();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getSemanticHitCount() {
+        return semanticHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    public long getCoalescedLoadCount() {
+        return coalescedLoadCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = getHitCount();
+        long requests = hits + getMissCount();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * 平均加载(调用模型)耗时，毫秒
+     *
+     * @return
+     */
+    public double getAverageLoadMillis() {
+        long loads = getLoadSuccessCount() + getLoadFailureCount();
+        return loads == 0 ? 0.0 : totalLoadNanos.sum() / 1e6 / loads;
+    }
+
+    public void reset() {
+        hitCount.reset();
+        semanticHitCount.reset();
+        missCount.reset();
+        loadSuccessCount.reset();
+        loadFailureCount.reset();
+        coalescedLoadCount.reset();
+        totalLoadNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + getHitCount()
+                + ", semanticHitCount=" + getSemanticHitCount()
+                + ", missCount=" + getMissCount()
+                + ", hitRate=" + getHitRate()
+                + ", loadSuccessCount=" + getLoadSuccessCount()
+                + ", loadFailureCount=" + getLoadFailureCount()
+                + ", coalescedLoadCount=" + getCoalescedLoadCount()
+                + ", averageLoadMillis=" + getAverageLoadMillis() + "}";
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.caches;
+
+import com.alibaba.langengine.core.outputs.Generation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 有界的大模型结果缓存
+ *
+ * - key为prompt与llmString(模型、温度等参数及stops)的SHA-256摘要，不同模型/参数不会串用结果
+ * - 基于W-TinyLFU按条数或按结果文本长度淘汰，支持写入后过期
+ * - 相同key的并发请求合并为一次模型调用(single-flight)
+ * - 记录命中率与模型调用耗时
+ */
+public class LlmResponseCache extends BaseCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000L;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    });
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final WTinyLfuCache<String, List<Generation>> cache;
+
+    private final ConcurrentHashMap<String, CompletableFuture<List<Generation>>> inFlight = new ConcurrentHashMap<>();
+
+    private final CacheStats stats = new CacheStats();
+
+    public LlmResponseCache() {
+        this(DEFAULT_MAXIMUM_SIZE, 0L, 0L);
+    }
+
+    /**
+     * @param maximumSize 最大条数，小于等于0表示不按条数限制
+     * @param maximumWeight 最大权重(结果文本字符数之和)，小于等于0表示不按权重限制
+     * @param expireAfterWriteMillis 写入后过期时间，小于等于0表示不过期
+     */
+    public LlmResponseCache(long maximumSize, long maximumWeight, long expireAfterWriteMillis) {
+        this.cache = new WTinyLfuCache<>(maximumSize, maximumWeight, LlmResponseCache::weigh, expireAfterWriteMillis);
+    }
+
+    @Override
+    public String getCacheKey(String prompt, String llmString) {
+        return hash((llmString != null ? llmString : "") + '\u0000' + prompt);
+    }
+
+    @Override
+    public List<Generation> get(String prompt, String llmString) {
+        List<Generation> generations = cache.getIfPresent(getCacheKey(prompt, llmString));
+        if (generations != null) {
+            stats.recordHit();
+            return generations;
+        }
+        generations = semanticLookup(prompt, llmString);
+        if (generations != null) {
+            stats.recordSemanticHit();
+            return generations;
+        }
+        stats.recordMiss();
+        return null;
+    }
+
+    @Override
+    public void update(String prompt, String llmString, List<Generation> returnVal) {
+        if (returnVal == null || returnVal.isEmpty()) {
+            return;
+        }
+        cache.put(getCacheKey(prompt, llmString), returnVal);
+    }
+
+    @Override
+    public List<Generation> getOrLoad(String prompt, String llmString, Supplier<List<Generation>> loader) {
+        List<Generation> generations = get(prompt, llmString);
+        if (generations != null) {
+            return generations;
+        }
+
+        String cacheKey = getCacheKey(prompt, llmString);
+        CompletableFuture<List<Generation>> future = new CompletableFuture<>();
+        CompletableFuture<List<Generation>> loading = inFlight.putIfAbsent(cacheKey, future);
+        if (loading != null) {
+            stats.recordCoalescedLoad();
+            return join(loading);
+        }
+
+        long start = System.nanoTime();
+        try {
+            generations = loader.get();
+            stats.recordLoadSuccess(System.nanoTime() - start);
+            update(prompt, llmString, generations);
+            future.complete(generations);
+            return generations;
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long evictionCount() {
+        return cache.evictionCount();
+    }
+
+    /**
+     * 精确匹配未命中时的补充查找，默认不做
+     *
+     * @param prompt
+     * @param llmString
+     * @return
+     */
+    protected List<Generation> semanticLookup(String prompt, String llmString) {
+        return null;
+    }
+
+    protected List<Generation> getIfPresent(String cacheKey) {
+        return cache.getIfPresent(cacheKey);
+    }
+
+    protected static String hash(String text) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        byte[] bytes = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static long weigh(List<Generation> generations) {
+        long weight = 0;
+        for (Generation generation : generations) {
+            weight += generation.getText() != null ? generation.getText().length() : 0;
+        }
+        return Math.max(1L, weight);
+    }
+
+    private static List<Generation> join(CompletableFuture<List<Generation>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
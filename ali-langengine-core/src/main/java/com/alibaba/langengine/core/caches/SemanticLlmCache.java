@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.caches;
+
+import com.alibaba.langengine.core.embeddings.Embeddings;
+import com.alibaba.langengine.core.outputs.Generation;
+import com.alibaba.langengine.core.util.VectorUtils;
+
+import java.util.List;
+
+/**
+ * 语义缓存：精确匹配未命中时，在相同llmString的已缓存prompt中查找向量相似度最高且不低于阀值的结果
+ *
+ * 向量与结果缓存使用相同的容量和过期配置，查找为对缓存中向量的线性扫描，适合千级别的缓存规模
+ */
+public class SemanticLlmCache extends LlmResponseCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000L;
+
+    /**
+     * Embedding API
+     */
+    private Embeddings embedding;
+
+    /**
+     * 相似度阀值
+     */
+    private Double similarityThreshold = 0.9;
+
+    private final WTinyLfuCache<String, SemanticEntry> entries;
+
+    /**
+     * 查找时计算出的向量，写入时复用，避免同一prompt重复调用Embedding
+     */
+    private final WTinyLfuCache<String, float[]> pendingVectors = new WTinyLfuCache<>(256L);
+
+    public SemanticLlmCache(Embeddings embedding) {
+        this(embedding, DEFAULT_MAXIMUM_SIZE, 0L);
+    }
+
+    public SemanticLlmCache(Embeddings embedding, long maximumSize, long expireAfterWriteMillis) {
+        super(maximumSize, 0L, expireAfterWriteMillis);
+        this.embedding = embedding;
+        this.entries = new WTinyLfuCache<>(maximumSize, 0L, null, expireAfterWriteMillis);
+    }
+
+    public Embeddings getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(Embeddings embedding) {
+        this.embedding = embedding;
+    }
+
+    public Double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+    public void setSimilarityThreshold(Double similarityThreshold) {
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    @Override
+    protected List<Generation> semanticLookup(String prompt, String llmString) {
+        float[] vector = embed(prompt);
+        if (vector == null) {
+            return null;
+        }
+        String cacheKey = getCacheKey(prompt, llmString);
+        pendingVectors.put(cacheKey, vector);
+
+        String llmKey = hash(llmString != null ? llmString : "");
+        SemanticEntry best = null;
+        float bestScore = similarityThreshold != null ? similarityThreshold.floatValue() : 0F;
+        for (SemanticEntry entry : entries.values()) {
+            if (!entry.llmKey.equals(llmKey) || entry.vector.length != vector.length) {
+                continue;
+            }
+            float score = VectorUtils.dotProduct(entry.vector, 0, vector, 0, vector.length);
+            if (score >= bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        return best != null ? getIfPresent(best.cacheKey) : null;
+    }
+
+    @Override
+    public void update(String prompt, String llmString, List<Generation> returnVal) {
+        super.update(prompt, llmString, returnVal);
+        if (returnVal == null || returnVal.isEmpty()) {
+            return;
+        }
+        String cacheKey = getCacheKey(prompt, llmString);
+        float[] vector = pendingVectors.getIfPresent(cacheKey);
+        if (vector != null) {
+            pendingVectors.invalidate(cacheKey);
+        } else {
+            vector = embed(prompt);
+        }
+        if (vector != null) {
+            entries.put(cacheKey, new SemanticEntry(cacheKey, hash(llmString != null ? llmString : ""), vector));
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        entries.invalidateAll();
+        pendingVectors.invalidateAll();
+    }
+
+    private float[] embed(String prompt) {
+        if (embedding == null) {
+            return null;
+        }
+        float[] vector = embedding.embedQueryVector(prompt);
+        return vector != null && vector.length > 0 ? VectorUtils.normalize(vector) : null;
+    }
+
+    private static final class SemanticEntry {
+
+        final String cacheKey;
+
+        final String llmKey;
+
+        final float[] vector;
+
+        SemanticEntry(String cacheKey, String llmKey, float[] vector) {
+            this.cacheKey = cacheKey;
+            this.llmKey = llmKey;
+            this.vector = vector;
+        }
+    }
+}
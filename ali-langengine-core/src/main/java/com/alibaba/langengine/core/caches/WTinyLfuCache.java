@@ -0,0 +1,397 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.caches;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 有界的W-TinyLFU缓存
+ *
+ * 新写入的数据先进入容量1%的窗口LRU，被挤出窗口后与主区(SLRU: probation + protected)的淘汰候选比较TinyLFU估算的访问频率，
+ * 频率高者留下；既能容纳突发的新热点，又能抵御一次性扫描对热点数据的冲刷。
+ * 支持按条数或按权重限制容量，以及写入后过期(TTL)
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class WTinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    /**
+     * 最大条数，小于等于0表示不按条数限制
+     */
+    private final long maximumSize;
+
+    /**
+     * 最大权重，小于等于0表示不按权重限制(每条权重记为1)
+     */
+    private final long maximumWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private final long expireAfterWriteNanos;
+
+    private final long windowMaximum;
+
+    private final long mainMaximum;
+
+    private final long protectedMaximum;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    private final FrequencySketch sketch;
+
+    private long totalWeight;
+
+    private long evictionCount;
+
+    private long expirationCount;
+
+    public WTinyLfuCache(long maximumSize) {
+        this(maximumSize, 0L, null, 0L);
+    }
+
+    /**
+     * @param maximumSize 最大条数
+     * @param maximumWeight 最大权重，需同时提供weigher
+     * @param weigher 权重计算函数
+     * @param expireAfterWriteMillis 写入后过期时间，小于等于0表示不过期
+     */
+    public WTinyLfuCache(long maximumSize, long maximumWeight, ToLongFunction<V> weigher, long expireAfterWriteMillis) {
+        if (maximumSize <= 0 && maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumSize or maximumWeight must be positive");
+        }
+        if (maximumWeight > 0 && weigher == null) {
+            throw new IllegalArgumentException("weigher is required when maximumWeight is set");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.expireAfterWriteNanos = expireAfterWriteMillis > 0 ? expireAfterWriteMillis * 1000000L : 0L;
+
+        long capacity = maximumWeight > 0 ? maximumWeight : maximumSize;
+        this.windowMaximum = Math.max(1L, capacity / 100);
+        this.mainMaximum = Math.max(1L, capacity - windowMaximum);
+        this.protectedMaximum = mainMaximum * 8 / 10;
+        this.sketch = new FrequencySketch(maximumSize > 0 ? maximumSize : Math.min(maximumWeight, 1 << 16));
+    }
+
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (isExpired(node, nanoTime())) {
+            expire(node);
+            return null;
+        }
+        onAccess(node);
+        return node.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long weight = weigh(value);
+        Node<K, V> node = data.get(key);
+        if (maximumWeight > 0 && weight > maximumWeight) {
+            // 单条超过总容量，不缓存
+            if (node != null) {
+                remove(node);
+            }
+            return;
+        }
+        sketch.increment(key);
+        long now = nanoTime();
+        if (node != null) {
+            AccessQueue<K, V> queue = queueOf(node);
+            queue.remove(node);
+            totalWeight += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            node.writeTime = now;
+            queue.addLast(node);
+        } else {
+            node = new Node<>(key, value, weight, now);
+            node.queue = WINDOW;
+            data.put(key, node);
+            window.addLast(node);
+            totalWeight += weight;
+        }
+        expireHeads(now);
+        maintain();
+    }
+
+    public synchronized void invalidate(K key) {
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        sketch.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * 当前未过期数据的快照
+     *
+     * @return
+     */
+    public synchronized List<V> values() {
+        long now = nanoTime();
+        List<V> values = new ArrayList<>(data.size());
+        for (Node<K, V> node : data.values()) {
+            if (!isExpired(node, now)) {
+                values.add(node.value);
+            }
+        }
+        return values;
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    public synchronized long weightedSize() {
+        return totalWeight;
+    }
+
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long expirationCount() {
+        return expirationCount;
+    }
+
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == WINDOW) {
+            window.moveToLast(node);
+        } else if (node.queue == PROBATION) {
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedQueue.addLast(node);
+            demoteProtected();
+        } else {
+            protectedQueue.moveToLast(node);
+        }
+    }
+
+    private void maintain() {
+        while (window.weight > windowMaximum && window.first() != null) {
+            Node<K, V> candidate = window.first();
+            window.remove(candidate);
+            admit(candidate);
+        }
+        demoteProtected();
+        while (exceedsMaximum()) {
+            Node<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protectedQueue.first();
+            }
+            if (victim == null) {
+                victim = window.first();
+            }
+            if (victim == null) {
+                break;
+            }
+            evict(victim);
+        }
+    }
+
+    /**
+     * TinyLFU准入：窗口淘汰的候选与主区最久未访问的数据比较频率
+     */
+    private void admit(Node<K, V> candidate) {
+        while (probation.weight + protectedQueue.weight + candidate.weight > mainMaximum) {
+            Node<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protectedQueue.first();
+            }
+            if (victim == null) {
+                break;
+            }
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                data.remove(candidate.key);
+                totalWeight -= candidate.weight;
+                evictionCount++;
+                return;
+            }
+        }
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+    }
+
+    private void demoteProtected() {
+        while (protectedQueue.weight > protectedMaximum && protectedQueue.first() != null) {
+            Node<K, V> node = protectedQueue.first();
+            protectedQueue.remove(node);
+            node.queue = PROBATION;
+            probation.addLast(node);
+        }
+    }
+
+    private boolean exceedsMaximum() {
+        return (maximumWeight > 0 && totalWeight > maximumWeight)
+                || (maximumSize > 0 && data.size() > maximumSize);
+    }
+
+    /**
+     * 各队列头部是最久未访问的数据，顺带清理其中已过期的部分；其余过期数据在读取时清理
+     */
+    private void expireHeads(long now) {
+        if (expireAfterWriteNanos <= 0) {
+            return;
+        }
+        expireHead(window, now);
+        expireHead(probation, now);
+        expireHead(protectedQueue, now);
+    }
+
+    private void expireHead(AccessQueue<K, V> queue, long now) {
+        Node<K, V> node;
+        while ((node = queue.first()) != null && isExpired(node, now)) {
+            expire(node);
+        }
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    private void expire(Node<K, V> node) {
+        remove(node);
+        expirationCount++;
+    }
+
+    private void evict(Node<K, V> node) {
+        remove(node);
+        evictionCount++;
+    }
+
+    private void remove(Node<K, V> node) {
+        data.remove(node.key);
+        queueOf(node).remove(node);
+        totalWeight -= node.weight;
+    }
+
+    private AccessQueue<K, V> queueOf(Node<K, V> node) {
+        return node.queue == WINDOW ? window : (node.queue == PROBATION ? probation : protectedQueue);
+    }
+
+    private long weigh(V value) {
+        return maximumWeight > 0 ? Math.max(0L, weigher.applyAsLong(value)) : 1L;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+
+        V value;
+
+        long weight;
+
+        long writeTime;
+
+        int queue;
+
+        Node<K, V> prev;
+
+        Node<K, V> next;
+
+        Node(K key, V value, long weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * 双向链表实现的访问顺序队列，头部最久未访问
+     */
+    private static final class AccessQueue<K, V> {
+
+        private final Node<K, V> head = new Node<>(null, null, 0L, 0L);
+
+        long weight;
+
+        AccessQueue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node<K, V> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            weight += node.weight;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                return;
+            }
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            remove(node);
+            addLast(node);
+        }
+
+        void clear() {
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        }
+    }
+}
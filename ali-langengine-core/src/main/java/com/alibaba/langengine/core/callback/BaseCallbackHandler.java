@@ -40,6 +40,15 @@ public abstract class BaseCallbackHandler implements Serializable {
      * @return
      */
     public String getTraceId() {
+        return ensureContext();
+    }
+
+    /**
+     * 获取当前线程的跟踪id，不存在时生成并绑定到当前线程
+     *
+     * @return
+     */
+    public static String ensureContext() {
         String traceId = getContext();
         if(traceId == null) {
             traceId = UUID.randomUUID().toString();
@@ -0,0 +1,352 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.callback;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 回调事件异步分发器
+ *
+ * - 事件写入有界无锁环形队列(生产者CAS占位，按槽位序号发布)，由消费线程批量取出后调用handler
+ * - 按runId分区，同一runId的事件由同一消费线程按发布顺序处理
+ * - 队列满时按OverflowPolicy丢弃或阻塞等待
+ * - handler异常只记录日志，不影响调用方
+ * - 发布时记录调用线程的traceId(BaseCallbackHandler.getContext)，分发时在消费线程还原
+ */
+@Slf4j
+public class CallbackDispatcher implements AutoCloseable {
+
+    public static final int DEFAULT_RING_SIZE = 8192;
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    public static final int DEFAULT_PARTITIONS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    public static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 5000L;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 丢弃当前事件并计数
+         */
+        DROP,
+        /**
+         * 阻塞调用方直到有空闲槽位
+         */
+        BLOCK
+    }
+
+    private final Partition[] partitions;
+
+    private final int batchSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public CallbackDispatcher() {
+        this(DEFAULT_RING_SIZE, DEFAULT_PARTITIONS, DEFAULT_BATCH_SIZE, OverflowPolicy.DROP);
+    }
+
+    /**
+     * @param ringSize       每个分区的队列容量，向上取整为2的幂
+     * @param partitionCount 分区(消费线程)数
+     * @param batchSize      消费线程单批最多处理的事件数
+     * @param overflowPolicy 队列满时的处理策略
+     */
+    public CallbackDispatcher(int ringSize, int partitionCount, int batchSize, OverflowPolicy overflowPolicy) {
+        if (ringSize <= 0 || partitionCount <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("ringSize, partitionCount and batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.DROP;
+        int capacity = Integer.highestOneBit(ringSize - 1) << 1;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(Math.max(capacity, 1), i);
+        }
+    }
+
+    /**
+     * 发布事件
+     *
+     * @param event            事件类型
+     * @param runId            排序键，同一runId的事件保证按发布顺序分发
+     * @param handlers         处理事件的handler，调用方需保证发布后不再修改(通常传入副本)
+     * @param executionContext 执行上下文，调用方需保证发布后不再修改(通常传入快照)
+     * @return 分发器已关闭或在消费线程内阻塞发布时返回false，调用方应同步分发；被丢弃的事件返回true
+     */
+    public boolean publish(CallbackEvent event, String runId, List<BaseCallbackHandler> handlers,
+                           ExecutionContext executionContext) {
+        Partition partition = partitions[partitionOf(runId)];
+        // 先登记再检查closed，close()等待登记数归零后才让消费线程退出，已通过检查的发布不会丢失
+        partition.publishers.incrementAndGet();
+        try {
+            if (closed) {
+                return false;
+            }
+            long sequence = partition.tryClaim();
+            if (sequence < 0) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    long dropped = droppedCount.incrementAndGet();
+                    if ((dropped & (dropped - 1)) == 0) {
+                        log.warn("callback ring is full, {} events dropped so far", dropped);
+                    }
+                    return true;
+                }
+                if (Thread.currentThread() == partition.thread) {
+                    // handler内部再次触发回调，阻塞等待自身会死锁
+                    return false;
+                }
+                while ((sequence = partition.tryClaim()) < 0) {
+                    if (closed) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            partition.publish(sequence, event, handlers, executionContext, BaseCallbackHandler.getContext());
+            return true;
+        } finally {
+            partition.publishers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 等待调用前已发布的事件全部分发完成
+     *
+     * @param timeoutMillis
+     * @return 超时返回false
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Partition partition : partitions) {
+            long target = partition.tail.get();
+            while (partition.processed < target) {
+                if (System.nanoTime() - deadline >= 0 || !partition.thread.isAlive()) {
+                    return false;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 停止接收新事件，分发完已发布的事件后退出消费线程
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEFAULT_CLOSE_TIMEOUT_MILLIS);
+        for (Partition partition : partitions) {
+            while (partition.publishers.get() > 0 && System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        if (!flush(Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())))) {
+            log.warn("callback dispatcher closed before all events were dispatched");
+        }
+        for (Partition partition : partitions) {
+            partition.running = false;
+            LockSupport.unpark(partition.thread);
+        }
+    }
+
+    private int partitionOf(String runId) {
+        if (runId == null || partitions.length == 1) {
+            return 0;
+        }
+        int hash = runId.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % partitions.length;
+    }
+
+    private static final class Slot {
+
+        private CallbackEvent event;
+
+        private List<BaseCallbackHandler> handlers;
+
+        private ExecutionContext executionContext;
+
+        private String traceContext;
+    }
+
+    /**
+     * 单个分区：多生产者单消费者环形队列
+     *
+     * tail为下一个可占用的序号，head为消费者已取走的序号，available[i]等于序号+1表示该槽位已发布
+     */
+    private final class Partition implements Runnable {
+
+        private final Slot[] slots;
+
+        private final int mask;
+
+        private final AtomicLongArray available;
+
+        private final AtomicLong tail = new AtomicLong();
+
+        /**
+         * 正在发布(已登记但尚未返回)的生产者数
+         */
+        private final AtomicInteger publishers = new AtomicInteger();
+
+        private volatile long head;
+
+        private volatile long processed;
+
+        private volatile boolean waiting;
+
+        private volatile boolean running = true;
+
+        private final Thread thread;
+
+        private Partition(int capacity, int index) {
+            this.slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Slot();
+            }
+            this.mask = capacity - 1;
+            this.available = new AtomicLongArray(capacity);
+            this.thread = new Thread(this, "langengine-callback-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private long tryClaim() {
+            long sequence;
+            do {
+                sequence = tail.get();
+                if (sequence - head >= slots.length) {
+                    return -1L;
+                }
+            } while (!tail.compareAndSet(sequence, sequence + 1));
+            return sequence;
+        }
+
+        private void publish(long sequence, CallbackEvent event, List<BaseCallbackHandler> handlers,
+                             ExecutionContext executionContext, String traceContext) {
+            int index = (int) (sequence & mask);
+            Slot slot = slots[index];
+            slot.event = event;
+            slot.handlers = handlers;
+            slot.executionContext = executionContext;
+            slot.traceContext = traceContext;
+            available.set(index, sequence + 1);
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            CallbackEvent[] events = new CallbackEvent[batchSize];
+            Object[] handlers = new Object[batchSize];
+            ExecutionContext[] contexts = new ExecutionContext[batchSize];
+            String[] traceContexts = new String[batchSize];
+            while (true) {
+                long start = head;
+                int count = 0;
+                while (count < batchSize) {
+                    long sequence = start + count;
+                    int index = (int) (sequence & mask);
+                    if (available.get(index) != sequence + 1) {
+                        break;
+                    }
+                    Slot slot = slots[index];
+                    events[count] = slot.event;
+                    handlers[count] = slot.handlers;
+                    contexts[count] = slot.executionContext;
+                    traceContexts[count] = slot.traceContext;
+                    slot.event = null;
+                    slot.handlers = null;
+                    slot.executionContext = null;
+                    slot.traceContext = null;
+                    count++;
+                }
+                if (count > 0) {
+                    // 先归还槽位再调用handler，慢handler不占用队列容量
+                    head = start + count;
+                    for (int i = 0; i < count; i++) {
+                        if (traceContexts[i] != null) {
+                            BaseCallbackHandler.setContext(traceContexts[i]);
+                        } else {
+                            BaseCallbackHandler._traceContext.remove();
+                        }
+                        deliver(events[i], handlers[i], contexts[i]);
+                        handlers[i] = null;
+                        contexts[i] = null;
+                    }
+                    processed = start + count;
+                    continue;
+                }
+                // 已占位但尚未发布的槽位要等生产者发布后取走，不能提前退出
+                if (!running && start == tail.get()) {
+                    return;
+                }
+                waiting = true;
+                if (available.get((int) (start & mask)) != start + 1 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                waiting = false;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(CallbackEvent event, Object handlers, ExecutionContext executionContext) {
+            // 发布方已复制handler列表，这里不会与调用方的修改并发
+            for (BaseCallbackHandler handler : (List<BaseCallbackHandler>) handlers) {
+                try {
+                    event.dispatch(handler, executionContext);
+                } catch (Throwable t) {
+                    log.warn("callback handler {} {} error", handler.getClass().getName(), event, t);
+                }
+            }
+        }
+    }
+}
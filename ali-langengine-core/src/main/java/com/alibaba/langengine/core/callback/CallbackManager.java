@@ -15,8 +15,10 @@
  */
 package com.alibaba.langengine.core.callback;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +30,12 @@ import java.util.Map;
 @Data
 public class CallbackManager extends BaseCallbackManager {
 
+    /**
+     * 异步分发器，为空时在调用线程同步执行handler
+     */
+    @JsonIgnore
+    private transient CallbackDispatcher dispatcher;
+
     public CallbackManager() {
     }
 
@@ -41,80 +49,107 @@ public class CallbackManager extends BaseCallbackManager {
         CallbackManager manager = new CallbackManager();
         manager.setHandlers(getHandlers());
         manager.setRunManager(getRunManager().getChild());
+        manager.setDispatcher(dispatcher);
         return manager;
     }
 
     @Override
     public void onChainStart(ExecutionContext executionContext) {
         getRunManager().onStart();
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onChainStart(executionContext));
+        dispatch(CallbackEvent.CHAIN_START, executionContext);
     }
 
     @Override
     public void onChainEnd(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onChainEnd(executionContext));
+        dispatch(CallbackEvent.CHAIN_END, executionContext);
     }
 
     @Override
     public void onChainError(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onChainError(executionContext));
+        dispatch(CallbackEvent.CHAIN_ERROR, executionContext);
     }
 
     @Override
     public void onLlmStart(ExecutionContext executionContext) {
         getRunManager().onStart();
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onLlmStart(executionContext));
+        dispatch(CallbackEvent.LLM_START, executionContext);
     }
 
     @Override
     public void onLlmEnd(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onLlmEnd(executionContext));
+        dispatch(CallbackEvent.LLM_END, executionContext);
     }
 
     @Override
     public void onLlmError(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onLlmError(executionContext));
+        dispatch(CallbackEvent.LLM_ERROR, executionContext);
     }
 
     @Override
     public void onToolStart(ExecutionContext executionContext) {
         getRunManager().onStart();
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onToolStart(executionContext));
+        dispatch(CallbackEvent.TOOL_START, executionContext);
     }
 
     @Override
     public void onToolEnd(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onToolEnd(executionContext));
+        dispatch(CallbackEvent.TOOL_END, executionContext);
     }
 
     @Override
     public void onToolError(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onToolError(executionContext));
+        dispatch(CallbackEvent.TOOL_ERROR, executionContext);
     }
 
     @Override
     public void onAgentAction(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onAgentAction(executionContext));
+        dispatch(CallbackEvent.AGENT_ACTION, executionContext);
     }
 
     @Override
     public void onAgentFinish(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onAgentFinish(executionContext));
+        dispatch(CallbackEvent.AGENT_FINISH, executionContext);
     }
 
     @Override
     public void onRetrieverStart(ExecutionContext executionContext) {
         getRunManager().onStart();
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onRetrieverStart(executionContext));
+        dispatch(CallbackEvent.RETRIEVER_START, executionContext);
     }
 
     @Override
     public void onRetrieverEnd(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onRetrieverEnd(executionContext));
+        dispatch(CallbackEvent.RETRIEVER_END, executionContext);
     }
 
     @Override
     public void onRetrieverError(ExecutionContext executionContext) {
-        getHandlers().stream().forEach(baseCallbackHandler -> baseCallbackHandler.onRetrieverError(executionContext));
-    }
-}
\ No newline at end of file
+        dispatch(CallbackEvent.RETRIEVER_ERROR, executionContext);
+    }
+
+    /**
+     * 配置了dispatcher时发布执行上下文的快照，由消费线程按runId顺序分发；否则在当前线程同步分发
+     *
+     * @param event
+     * @param executionContext
+     */
+    protected void dispatch(CallbackEvent event, ExecutionContext executionContext) {
+        List<BaseCallbackHandler> handlers = getHandlers();
+        if (handlers == null || handlers.isEmpty()) {
+            return;
+        }
+        if (dispatcher != null) {
+            // 与同步分发一致，在调用线程上固定traceId，消费线程按发布时的traceId还原
+            BaseCallbackHandler.ensureContext();
+        }
+        // 消费线程使用发布时的handler列表，调用方之后增删handler不影响已发布的事件
+        if (dispatcher != null
+                && dispatcher.publish(event, getRunManager().getRunId(), new ArrayList<>(handlers),
+                executionContext != null ? executionContext.snapshot() : null)) {
+            return;
+        }
+        for (BaseCallbackHandler handler : handlers) {
+            event.dispatch(handler, executionContext);
+        }
+    }
+}
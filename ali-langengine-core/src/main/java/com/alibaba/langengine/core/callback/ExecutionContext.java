@@ -28,6 +28,8 @@ import com.alibaba.langengine.core.tool.BaseTool;
 import com.alibaba.langengine.core.tool.ToolExecuteResult;
 import lombok.Data;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -38,7 +40,7 @@ import java.util.function.Consumer;
  * @author xiaoxuan.lp
  */
 @Data
-public class ExecutionContext<T> {
+public class ExecutionContext<T> implements Cloneable {
 
     /**
      * eagleEyeCtx
@@ -190,4 +192,31 @@ public class ExecutionContext<T> {
     public boolean isContainTool() {
         return getChildExecutionType() != null && getChildExecutionType().startsWith("tool-");
     }
+
+    /**
+     * 拷贝当前上下文(保留子类类型)，异步回调分发时避免调用方后续修改影响handler
+     * 请求/响应Map、prompts、检索结果和traceData复制一份，其余字段与原上下文共享
+     */
+    @SuppressWarnings("unchecked")
+    public ExecutionContext<T> snapshot() {
+        ExecutionContext<T> copy;
+        try {
+            copy = (ExecutionContext<T>) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.inputs = copyOf(inputs);
+        copy.outputs = copyOf(outputs);
+        copy.childInputs = copyOf(childInputs);
+        copy.childOutputs = copyOf(childOutputs);
+        copy.retrieverInput = copyOf(retrieverInput);
+        copy.prompts = prompts != null ? new ArrayList<>(prompts) : null;
+        copy.retrieverOutput = retrieverOutput != null ? new ArrayList<>(retrieverOutput) : null;
+        copy.traceData = traceData != null ? traceData.copy() : null;
+        return copy;
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> map) {
+        return map != null ? new LinkedHashMap<>(map) : null;
+    }
 }
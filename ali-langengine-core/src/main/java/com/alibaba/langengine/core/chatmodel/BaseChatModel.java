@@ -33,16 +33,17 @@ import com.alibaba.langengine.core.outputs.Generation;
 import com.alibaba.langengine.core.outputs.LLMResult;
 import com.alibaba.langengine.core.model.fastchat.completion.chat.FunctionDefinition;
 import com.alibaba.langengine.core.prompt.*;
+import com.alibaba.langengine.core.runnables.RunnableConfig;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * ChatModel基础抽象类，专门处理对话式交互的模型基类
@@ -69,6 +70,23 @@ public abstract class BaseChatModel<T extends ChatCompletionRequest> extends Bas
     }
 
     public LLMResult generate(List<List<BaseMessage>> messages, List<FunctionDefinition> functions, List<String> stops, ExecutionContext executionContext, Consumer<BaseMessage> consumer, Map<String, Object> extraAttributes) {
+        return generate(messages, functions, stops, executionContext, consumer, extraAttributes, null);
+    }
+
+    /**
+     * 多组消息时按config.maxConcurrency(为空时取模型的maxConcurrency)并发调用；
+     * config.isolateErrors开启时单组消息失败不影响其他消息，异常记录在LLMResult.errors中
+     *
+     * @param messages
+     * @param functions
+     * @param stops
+     * @param executionContext
+     * @param consumer
+     * @param extraAttributes
+     * @param config 可为空
+     * @return
+     */
+    public LLMResult generate(List<List<BaseMessage>> messages, List<FunctionDefinition> functions, List<String> stops, ExecutionContext executionContext, Consumer<BaseMessage> consumer, Map<String, Object> extraAttributes, RunnableConfig config) {
         if(executionContext == null) {
             executionContext = new ExecutionContext();
         }
@@ -84,14 +102,20 @@ public abstract class BaseChatModel<T extends ChatCompletionRequest> extends Bas
             if(executionContext != null && executionContext.getLlmResult() != null) {
                 llmResult = executionContext.getLlmResult();
             } else {
-                List<ChatResult> results = new ArrayList<>();
-                for (List<BaseMessage> message : messages) {
-                    ChatResult result = generateWithCache(message, functions, stops, executionContext, consumer, extraAttributes);
-                    results.add(result);
-
+                // 多组消息按maxConcurrency并发调用，流式输出时保持顺序调用避免内容交错
+                ChatResult[] results = new ChatResult[messages.size()];
+                ExecutionContext finalContext = executionContext;
+                Throwable[] errors = runConcurrently(messages.size(), config, consumer != null,
+                        i -> results[i] = generateWithCache(messages.get(i), functions, stops, finalContext, consumer, extraAttributes));
+                List<List<Generation>> generationsList = new ArrayList<>(results.length);
+                for (ChatResult result : results) {
+                    generationsList.add(result != null ? result.getGenerations() : null);
                 }
                 llmResult = new LLMResult();
-                llmResult.setGenerations(results.stream().map(result -> result.getGenerations()).collect(Collectors.toList()));
+                llmResult.setGenerations(generationsList);
+                if (config != null && config.isIsolateErrors()) {
+                    llmResult.setErrors(Arrays.asList(errors));
+                }
             }
             if(getCallbackManager() != null) {
                 executionContext.setMessages(messages);
@@ -112,8 +136,6 @@ public abstract class BaseChatModel<T extends ChatCompletionRequest> extends Bas
     }
 
     public ChatResult generateWithCache(List<BaseMessage> messages, List<FunctionDefinition> functions, List<String> stops, ExecutionContext executionContext, Consumer<BaseMessage> consumer, Map<String, Object> extraAttributes) {
-        String prompt = null;
-        String llmString = null;
         BaseCache cache = null;
 
         // 优先使用上下文的 cache（从 BaseLanguageModel 继承的 context）
@@ -126,19 +148,35 @@ public abstract class BaseChatModel<T extends ChatCompletionRequest> extends Bas
             cache = LangEngineConfiguration.CurrentCache;
         }
 
-        if(cache != null) {
-            prompt = JSON.toJSONString(messages);
-            if (!CollectionUtils.isEmpty(stops)) {
-                llmString = JSON.toJSONString(stops);
-            }
-            List<Generation> cacheVal = cache.get(prompt, llmString);
-            if(cacheVal != null) {
-                ChatResult chatResult = new ChatResult();
-                chatResult.setGenerations(cacheVal);
-                return chatResult;
+        if(cache == null) {
+            return runChatResult(messages, functions, stops, consumer, extraAttributes);
+        }
+
+        String prompt = JSON.toJSONString(messages);
+        String llmString = getLlmString(stops);
+        if (!CollectionUtils.isEmpty(functions)) {
+            llmString = llmString + JSON.toJSONString(functions);
+        }
+        List<Generation> cacheVal;
+        if(consumer != null) {
+            // 流式调用不合并并发加载，否则等待合并结果的调用方收不到流式片段
+            cacheVal = cache.get(prompt, llmString);
+            if(cacheVal == null) {
+                cacheVal = runChatResult(messages, functions, stops, consumer, extraAttributes).getGenerations();
+                cache.update(prompt, llmString, cacheVal);
             }
+        } else {
+            // getOrLoad自身完成查找，不再先调用get，避免同一prompt查找与统计两次
+            cacheVal = cache.getOrLoad(prompt, llmString,
+                    () -> runChatResult(messages, functions, stops, consumer, extraAttributes).getGenerations());
         }
+        ChatResult chatResult = new ChatResult();
+        chatResult.setGenerations(cacheVal);
+        return chatResult;
+    }
 
+    private ChatResult runChatResult(List<BaseMessage> messages, List<FunctionDefinition> functions, List<String> stops, Consumer<BaseMessage> consumer, Map<String, Object> extraAttributes) {
+        acquirePermit();
         BaseMessage resultMessage = run(messages, functions, stops, consumer, extraAttributes);
         if(resultMessage == null) {
             throw new RuntimeException("resultMessage is null");
@@ -152,11 +190,6 @@ public abstract class BaseChatModel<T extends ChatCompletionRequest> extends Bas
         ChatResult chatResult = new ChatResult();
         chatResult.setGenerations(new ArrayList<>());
         chatResult.getGenerations().add(generation);
-
-        if (cache != null) {
-            cache.update(prompt, llmString, chatResult.getGenerations());
-        }
-
         return chatResult;
     }
 
@@ -63,4 +63,9 @@ public class CacheBackedEmbeddings extends Embeddings {
     public List<String> embedQuery(String text, int recommend) {
         return underlyingEmbeddings.embedQuery(text, recommend);
     }
+
+    @Override
+    public float[] embedQueryVector(String text) {
+        return underlyingEmbeddings.embedQueryVector(text);
+    }
 }
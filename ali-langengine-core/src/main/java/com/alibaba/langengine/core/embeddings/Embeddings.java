@@ -16,11 +16,27 @@
 package com.alibaba.langengine.core.embeddings;
 
 import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.runnables.RunnableExecutors;
+import com.alibaba.langengine.core.jtokkit.api.Encoding;
+import com.alibaba.langengine.core.jtokkit.api.EncodingType;
+import com.alibaba.langengine.core.jtokkit.api.IntArrayList;
+import com.alibaba.langengine.core.tokenizers.TikTokensUtil;
 import com.alibaba.langengine.core.util.JacksonUtils;
+import com.alibaba.langengine.core.util.VectorUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import lombok.Data;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +54,37 @@ import java.util.stream.Collectors;
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property= JacksonUtils.PROPERTY_CLASS_NAME)
 public abstract class Embeddings {
 
+    /**
+     * 单次请求最多包含的文本条数
+     */
+    private int batchMaxItems = 16;
+
+    /**
+     * 单次请求最多包含的token数，小于等于0表示不限制
+     */
+    private int batchMaxTokens = 0;
+
+    /**
+     * 单条文本最多包含的token数，超过时切分为多段分别嵌入后按token数加权平均，小于等于0表示不切分
+     */
+    private int inputMaxTokens = 0;
+
+    /**
+     * 同时在途的批量请求数
+     */
+    private int batchConcurrency = 1;
+
+    /**
+     * 统计token所使用的编码
+     */
+    private EncodingType batchEncodingType = EncodingType.CL100K_BASE;
+
+    /**
+     * 执行并发批量请求的线程池，为空时使用RunnableExecutors的默认有界线程池
+     */
+    @JsonIgnore
+    private transient ExecutorService batchExecutor;
+
     public List<Document> embedTexts(List<String> texts) {
         List<Document> documents = texts.stream().map(text -> {
             Document document = new Document();
@@ -71,4 +118,164 @@ public abstract class Embeddings {
      * @return
      */
     public abstract List<String> embedQuery(String text, int recommend);
+
+    /**
+     * 嵌入查询文本，直接返回float向量
+     * 默认实现基于embedQuery的JSON字符串做兼容解析，子类可覆盖以避免字符串往返
+     *
+     * @param text
+     * @return 查询向量，无结果时返回null
+     */
+    public float[] embedQueryVector(String text) {
+        List<String> embeddingStrings = embedQuery(text, 1);
+        if (embeddingStrings == null || embeddingStrings.isEmpty()) {
+            return null;
+        }
+        return VectorUtils.parseVector(embeddingStrings.get(0));
+    }
+
+    /**
+     * 按batchMaxItems/batchMaxTokens将文档打包为多输入请求，超过inputMaxTokens的文本切分后按token数加权合并，
+     * 最多batchConcurrency个批次并发执行，结果按输入位置写回文档的embeddingVector，index为文档在入参中的位置；
+     * 只有切分后合并的向量会重新归一化
+     *
+     * @param documents
+     * @param batchFunction 对一批文本发起一次嵌入请求，返回与入参位置一一对应的向量
+     * @return
+     */
+    protected List<Document> embedDocumentsInBatches(List<Document> documents, Function<List<String>, float[][]> batchFunction) {
+        if (documents == null || documents.isEmpty()) {
+            return documents;
+        }
+        boolean countTokens = batchMaxTokens > 0 || inputMaxTokens > 0;
+        Encoding encoding = countTokens ? TikTokensUtil.getEncoding(batchEncodingType) : null;
+
+        // 拆分为待嵌入的文本片段，firstPiece记录每个文档对应的首个片段位置
+        List<String> pieces = new ArrayList<>(documents.size());
+        IntArrayList pieceTokens = new IntArrayList(documents.size());
+        int[] firstPiece = new int[documents.size() + 1];
+        for (int i = 0; i < documents.size(); i++) {
+            firstPiece[i] = pieces.size();
+            String text = documents.get(i).getPageContent() != null ? documents.get(i).getPageContent() : "";
+            if (!countTokens) {
+                pieces.add(text);
+                pieceTokens.add(1);
+                continue;
+            }
+            IntArrayList tokens = encoding.encode(text);
+            if (inputMaxTokens <= 0 || tokens.size() <= inputMaxTokens) {
+                pieces.add(text);
+                pieceTokens.add(Math.max(tokens.size(), 1));
+                continue;
+            }
+            for (int start = 0; start < tokens.size(); start += inputMaxTokens) {
+                int end = Math.min(start + inputMaxTokens, tokens.size());
+                IntArrayList chunk = new IntArrayList(end - start);
+                for (int j = start; j < end; j++) {
+                    chunk.add(tokens.get(j));
+                }
+                pieces.add(encoding.decode(chunk));
+                pieceTokens.add(end - start);
+            }
+        }
+        firstPiece[documents.size()] = pieces.size();
+
+        // 按条数和token数打包
+        List<int[]> batches = new ArrayList<>();
+        int maxItems = Math.max(batchMaxItems, 1);
+        int batchStart = 0;
+        int batchTokens = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            int tokens = countTokens ? pieceTokens.get(i) : 0;
+            boolean full = i - batchStart >= maxItems
+                    || (batchMaxTokens > 0 && i > batchStart && batchTokens + tokens > batchMaxTokens);
+            if (full) {
+                batches.add(new int[] { batchStart, i });
+                batchStart = i;
+                batchTokens = 0;
+            }
+            batchTokens += tokens;
+        }
+        batches.add(new int[] { batchStart, pieces.size() });
+
+        float[][] pieceVectors = new float[pieces.size()][];
+        runBatches(batches, batch -> {
+            float[][] vectors = batchFunction.apply(pieces.subList(batch[0], batch[1]));
+            if (vectors != null) {
+                System.arraycopy(vectors, 0, pieceVectors, batch[0], Math.min(vectors.length, batch[1] - batch[0]));
+            }
+        });
+
+        // 拆分的文档按token数加权合并各片段向量后归一化，未拆分的文档保持模型返回的向量
+        for (int i = 0; i < documents.size(); i++) {
+            int from = firstPiece[i];
+            int to = firstPiece[i + 1];
+            documents.get(i).setIndex(i);
+            if (to - from == 1) {
+                if (pieceVectors[from] != null) {
+                    documents.get(i).setEmbeddingVector(pieceVectors[from]);
+                }
+                continue;
+            }
+            float[] merged = null;
+            for (int j = from; j < to; j++) {
+                float[] vector = pieceVectors[j];
+                if (vector == null) {
+                    continue;
+                }
+                if (merged == null) {
+                    merged = new float[vector.length];
+                }
+                float weight = pieceTokens.get(j);
+                for (int d = 0; d < merged.length && d < vector.length; d++) {
+                    merged[d] += vector[d] * weight;
+                }
+            }
+            if (merged != null) {
+                documents.get(i).setEmbeddingVector(VectorUtils.normalize(merged));
+            }
+        }
+        return documents;
+    }
+
+    private void runBatches(List<int[]> batches, Consumer<int[]> batchRunner) {
+        int workers = Math.min(Math.max(batchConcurrency, 1), batches.size());
+        if (workers <= 1) {
+            batches.forEach(batchRunner);
+            return;
+        }
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int next;
+            while (failure.get() == null && (next = cursor.getAndIncrement()) < batches.size()) {
+                try {
+                    batchRunner.accept(batches.get(next));
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        };
+        Executor executor = batchExecutor != null ? batchExecutor : RunnableExecutors.get(RunnableExecutors.DEFAULT);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            futures.add(CompletableFuture.runAsync(worker, executor));
+        }
+        worker.run();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            failure.compareAndSet(null, e.getCause());
+        }
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t != null) {
+            throw new RuntimeException(t);
+        }
+    }
 }
\ No newline at end of file
@@ -17,9 +17,13 @@ package com.alibaba.langengine.core.indexes;
 
 import com.alibaba.fastjson.annotation.JSONField;
 
+import com.alibaba.langengine.core.util.VectorUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -68,6 +72,15 @@ public class Document {
 
     private List<Double> embedding;
 
+    /**
+     * 向量的原始float表示，与embedding互为懒转换，向量检索链路优先使用该字段避免装箱
+     */
+    @JSONField(serialize = false, deserialize = false)
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private float[] embeddingVector;
+
     /**
      * chunk index
      */
@@ -83,6 +96,30 @@ public class Document {
      */
     private String category;
 
+    public List<Double> getEmbedding() {
+        if (embedding == null && embeddingVector != null) {
+            embedding = VectorUtils.toDoubleList(embeddingVector);
+        }
+        return embedding;
+    }
+
+    public void setEmbedding(List<Double> embedding) {
+        this.embedding = embedding;
+        this.embeddingVector = null;
+    }
+
+    public float[] getEmbeddingVector() {
+        if (embeddingVector == null && embedding != null) {
+            embeddingVector = VectorUtils.toFloatArray(embedding);
+        }
+        return embeddingVector;
+    }
+
+    public void setEmbeddingVector(float[] embeddingVector) {
+        this.embeddingVector = embeddingVector;
+        this.embedding = null;
+    }
+
     public Boolean hasMetadata() {
         return MapUtils.isNotEmpty(metadata);
     }
@@ -18,9 +18,17 @@ package com.alibaba.langengine.core.languagemodel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
+import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.core.agent.AgentOutputParser;
 import com.alibaba.langengine.core.callback.BaseCallbackManager;
 import com.alibaba.langengine.core.callback.CallbackManager;
@@ -38,6 +46,7 @@ import com.alibaba.langengine.core.prompt.PromptValue;
 import com.alibaba.langengine.core.prompt.StringPromptValue;
 import com.alibaba.langengine.core.runnables.Runnable;
 import com.alibaba.langengine.core.runnables.RunnableConfig;
+import com.alibaba.langengine.core.runnables.RunnableExecutors;
 import com.alibaba.langengine.core.runnables.RunnableInput;
 import com.alibaba.langengine.core.runnables.RunnableModelInput;
 import com.alibaba.langengine.core.runnables.RunnableOutput;
@@ -125,6 +134,22 @@ public abstract class BaseLanguageModel<T> extends Runnable<RunnableInput, Runna
      */
     private Object toolChoice = "auto";
 
+    /**
+     * 一次generate包含多个prompt时的最大并发调用数，为空或小于等于1时顺序调用；调用时传入的RunnableConfig.maxConcurrency优先
+     */
+    private Integer maxConcurrency;
+
+    /**
+     * 同一模型提供方(按模型类区分)每秒最多发起的请求数，为空或小于等于0时不限流
+     */
+    private Double requestsPerSecond;
+
+    /**
+     * 并发调用使用的线程池，为空时使用RunnableExecutors默认有界线程池
+     */
+    @JsonIgnore
+    private transient ExecutorService generateExecutor;
+
 	@JsonIgnore
 	private LangEngineContext context;
 
@@ -353,6 +378,109 @@ public abstract class BaseLanguageModel<T> extends Runnable<RunnableInput, Runna
         return model;
     }
 
+    /**
+     * 描述当前模型及生成参数的字符串，与prompt一起作为结果缓存的key
+     * 旧版本只以stops作为llmString，升级后旧的缓存条目不会再命中
+     *
+     * @param stops
+     * @return
+     */
+    public String getLlmString(List<String> stops) {
+        Map<String, Object> params = new TreeMap<>();
+        params.put("llm", getClass().getName());
+        params.put("model", getLlmModelName());
+        params.put("temperature", getTemperature());
+        params.put("maxTokens", getMaxTokens());
+        params.put("topK", getTopK());
+        params.put("topP", getTopP());
+        params.put("frequencyPenalty", getFrequencyPenalty());
+        params.put("presencePenalty", getPresencePenalty());
+        if (stops != null && !stops.isEmpty()) {
+            params.put("stops", stops);
+        }
+        return JSON.toJSONString(params);
+    }
+
+    /**
+     * 按模型提供方限流，在每次调用大模型前获取许可
+     */
+    protected void acquirePermit() {
+        if (requestsPerSecond != null && requestsPerSecond > 0) {
+            LlmRateLimiters.acquire(getClass().getName(), requestsPerSecond);
+        }
+    }
+
+    /**
+     * 以最多concurrency个并发执行count个任务，当前线程也参与执行。
+     * 默认任一任务失败后不再开始新的任务，等已开始的任务结束后按任务顺序抛出第一个异常；
+     * RunnableConfig.isolateErrors开启时每个任务都会执行，异常按任务序号返回，不抛出
+     *
+     * @param count
+     * @param config 为空时使用模型的maxConcurrency与generateExecutor
+     * @param sequential 是否强制顺序执行，如流式输出
+     * @param task 入参为任务序号
+     * @return 按任务序号排列的异常，成功的位置为null
+     */
+    protected Throwable[] runConcurrently(int count, RunnableConfig config, boolean sequential, IntConsumer task) {
+        boolean isolate = config != null && config.isIsolateErrors();
+        Throwable[] errors = new Throwable[count];
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(count);
+        java.lang.Runnable worker = () -> {
+            int next;
+            while ((next = cursor.getAndIncrement()) < count) {
+                try {
+                    if (!failed.get()) {
+                        task.accept(next);
+                    }
+                } catch (Throwable t) {
+                    errors[next] = t;
+                    if (!isolate) {
+                        failed.set(true);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        Integer concurrency = config != null && config.getMaxConcurrency() != null ? config.getMaxConcurrency() : maxConcurrency;
+        int workers = sequential ? 1 : Math.min(concurrency != null ? Math.max(concurrency, 1) : 1, count);
+        Executor executor;
+        if (config != null && (config.getExecutor() != null || config.getExecutorName() != null)) {
+            executor = RunnableExecutors.resolve(config);
+        } else {
+            executor = generateExecutor != null ? generateExecutor : RunnableExecutors.get(null);
+        }
+        for (int i = 1; i < workers; i++) {
+            executor.execute(worker);
+        }
+        // 当前线程领取剩余任务直到全部领取完毕，只需等待已被其他线程领取的任务，不依赖排队中的worker被调度
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (isolate) {
+            return errors;
+        }
+        for (Throwable error : errors) {
+            if (error == null) {
+                continue;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw new RuntimeException(error);
+        }
+        return errors;
+    }
+
     public <T> void onLlmStart(BaseLanguageModel llm, ExecutionContext executionContext) {
         onLlmStart(llm, executionContext, null);
     }
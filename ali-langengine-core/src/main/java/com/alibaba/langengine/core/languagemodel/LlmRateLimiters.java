@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.languagemodel;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按模型提供方共享的请求限流器，同一提供方的所有模型实例共用一个令牌桶
+ */
+public final class LlmRateLimiters {
+
+    private static final Map<String, RateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private LlmRateLimiters() {
+    }
+
+    /**
+     * 获取一次请求许可，超出速率时阻塞等待
+     *
+     * @param provider
+     * @param permitsPerSecond
+     */
+    public static void acquire(String provider, double permitsPerSecond) {
+        RateLimiter limiter = LIMITERS.computeIfAbsent(provider, key -> RateLimiter.create(permitsPerSecond));
+        if (limiter.getRate() != permitsPerSecond) {
+            limiter.setRate(permitsPerSecond);
+        }
+        limiter.acquire();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.memory;
+
+import com.alibaba.langengine.core.messages.BaseMessage;
+import com.alibaba.langengine.core.tokenizers.Tokenizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 按 token 计数的消息缓冲
+ * <p>
+ * 与对话历史的消息列表一一对应，缓存每条消息渲染后的 token 数并维护总数：
+ * 新增消息只统计一次，裁剪时从头部逐条扣减，不再每轮重新拼接并编码整段历史。
+ * 历史被外部改写（如清空、从远端重新加载后内容不一致）时自动整体重算。
+ * 每条非空消息额外计 1 个 token 作为拼接时的换行分隔，总数与整段编码的结果近似一致。
+ * </p>
+ */
+public class MessageTokenBuffer {
+
+    private final Tokenizer tokenizer;
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    private int totalTokens;
+
+    public MessageTokenBuffer(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * 与消息列表同步，只统计尚未计数的消息
+     *
+     * @param messages 对话历史
+     * @param renderer 单条消息的渲染方式
+     * @return 当前总 token 数
+     */
+    public synchronized int sync(List<BaseMessage> messages, Function<BaseMessage, String> renderer) {
+        if (!matches(messages)) {
+            entries.clear();
+            totalTokens = 0;
+        }
+        for (int i = entries.size(); i < messages.size(); i++) {
+            BaseMessage message = messages.get(i);
+            String line = renderer.apply(message);
+            int tokens = line == null || line.isEmpty() ? 0 : tokenizer.getTokenCount(line) + 1;
+            entries.addLast(new Entry(message, tokens));
+            totalTokens += tokens;
+        }
+        return totalTokens;
+    }
+
+    /**
+     * 从头部移除消息直到总 token 数不超过上限，直接修改传入的列表
+     *
+     * @param messages      对话历史
+     * @param maxTokenLimit 上限
+     * @param renderer      单条消息的渲染方式
+     * @return 被移除的消息，按原顺序
+     */
+    public synchronized List<BaseMessage> prune(List<BaseMessage> messages, int maxTokenLimit,
+                                                Function<BaseMessage, String> renderer) {
+        sync(messages, renderer);
+        int count = 0;
+        while (totalTokens > maxTokenLimit && !entries.isEmpty()) {
+            totalTokens -= entries.pollFirst().tokens;
+            count++;
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<BaseMessage> head = messages.subList(0, count);
+        List<BaseMessage> pruned = new ArrayList<>(head);
+        head.clear();
+        return pruned;
+    }
+
+    public synchronized int getTotalTokens() {
+        return totalTokens;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalTokens = 0;
+    }
+
+    private boolean matches(List<BaseMessage> messages) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        int size = entries.size();
+        return size <= messages.size()
+                && same(entries.peekFirst().message, messages.get(0))
+                && same(entries.peekLast().message, messages.get(size - 1));
+    }
+
+    private static boolean same(BaseMessage cached, BaseMessage current) {
+        return cached == current || Objects.equals(cached, current);
+    }
+
+    private static class Entry {
+
+        private final BaseMessage message;
+
+        private final int tokens;
+
+        private Entry(BaseMessage message, int tokens) {
+            this.message = message;
+            this.tokens = tokens;
+        }
+    }
+}
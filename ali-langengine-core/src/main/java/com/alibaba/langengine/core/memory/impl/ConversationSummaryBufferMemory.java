@@ -16,11 +16,16 @@
 package com.alibaba.langengine.core.memory.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import com.alibaba.fastjson.annotation.JSONField;
 import com.alibaba.langengine.core.chain.LLMChain;
+import com.alibaba.langengine.core.memory.MessageTokenBuffer;
 import com.alibaba.langengine.core.memory.SummarizerMixin;
 import com.alibaba.langengine.core.messages.MessageConverter;
 import com.alibaba.langengine.core.model.BaseLLM;
@@ -28,9 +33,17 @@ import com.alibaba.langengine.core.messages.BaseMessage;
 import com.alibaba.langengine.core.prompt.BasePromptTemplate;
 import com.alibaba.langengine.core.messages.SystemMessage;
 import com.alibaba.langengine.core.tokenizers.GPT3Tokenizer;
+import com.alibaba.langengine.core.tokenizers.Tokenizer;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * @author aihe.ah
@@ -38,6 +51,7 @@ import org.apache.commons.collections.CollectionUtils;
  * 功能说明：
  */
 @Data
+@Slf4j
 public class ConversationSummaryBufferMemory extends ConversationBufferMemory {
 
     private BaseLLM llm;
@@ -52,13 +66,41 @@ public class ConversationSummaryBufferMemory extends ConversationBufferMemory {
     /**
      * 移动摘要缓冲区
      */
-    private String movingSummaryBuffer = "";
+    private volatile String movingSummaryBuffer = "";
 
     /**
      * 内存关键字
      */
     private String memoryKey = "history";
 
+    /**
+     * 计算 token 使用的分词器，应与模型实际编码一致，如通义千问使用 QwenTokenizer
+     */
+    private Tokenizer tokenizer = new GPT3Tokenizer();
+
+    /**
+     * 异步生成摘要的线程池，为空时在裁剪时同步生成
+     */
+    @JSONField(serialize = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Executor summaryExecutor;
+
+    /**
+     * 已计数的消息缓冲，分词器变更后重建
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile MessageTokenBuffer tokenBuffer;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile CompletableFuture<String> pendingSummary;
+
     @Override
     public Object buffer() {
         return super.buffer();
@@ -76,31 +118,35 @@ public class ConversationSummaryBufferMemory extends ConversationBufferMemory {
     }
 
     /**
-     * 返回历史缓冲区。
+     * 返回历史缓冲区，已有摘要时作为首条系统消息拼在剩余消息之前。
      *
      * @param inputs 输入参数
      * @return 历史缓冲区
      */
     @Override
     public Map<String, Object> loadMemoryVariables(Map<String, Object> inputs) {
-        // 加载消息的时候，对之前的消息做一下总结
         prune();
-        //List<BaseMessage> buffer = getBuffer();
-        List<BaseMessage> firstMessages = new ArrayList<>();
-        if (!movingSummaryBuffer.isEmpty()) {
+        List<BaseMessage> messages = new ArrayList<>();
+        String summary = movingSummaryBuffer;
+        if (!StringUtils.isEmpty(summary)) {
             SystemMessage systemMessage = new SystemMessage();
-            systemMessage.setContent(movingSummaryBuffer);
-            firstMessages.add(systemMessage);
-            getChatMemory().setMessages(firstMessages);
+            systemMessage.setContent(summary);
+            messages.add(systemMessage);
         }
+        messages.addAll(getChatMemory().getMessages());
 
         Map<String, Object> result = new HashMap<>();
-        result.put(getMemoryKey(), buffer());
+        if (isReturnMessages()) {
+            result.put(getMemoryKey(), messages);
+        } else {
+            result.put(getMemoryKey(), MessageConverter.getBufferString(messages, getHumanPrefix(), getAiPrefix(),
+                getSystemPrefix(), null, getToolPrefix()));
+        }
         return result;
     }
 
     /**
-     * 将这次对话的上下文保存到缓冲区中。
+     * 将这次对话的上下文保存到缓冲区中，超过最大令牌限制时裁剪并总结被裁剪的消息。
      *
      * @param inputs  输入参数
      * @param outputs 输出参数
@@ -108,6 +154,7 @@ public class ConversationSummaryBufferMemory extends ConversationBufferMemory {
     @Override
     public void saveContext(Map<String, Object> inputs, Map<String, Object> outputs) {
         super.saveContext(inputs, outputs);
+        prune();
     }
 
     public String getBufferAsString() {
@@ -116,25 +163,58 @@ public class ConversationSummaryBufferMemory extends ConversationBufferMemory {
     }
 
     /**
-     * 如果缓冲区超过最大令牌限制则进行裁剪。
+     * 如果缓冲区超过最大令牌限制则从头部裁剪，并把被裁剪的消息合入摘要。
+     * 配置了 summaryExecutor 时摘要在该线程池上按顺序异步生成，不阻塞当前请求。
      */
     public void prune() {
         List<BaseMessage> buffer = getChatMemory().getMessages();
-        GPT3Tokenizer tokenizer = new GPT3Tokenizer();
-        String bufferString = MessageConverter.getBufferString(buffer, getHumanPrefix(), getAiPrefix(),
-            getSystemPrefix(), null, getToolPrefix());
-        int currBufferLength = tokenizer.getTokenCount(bufferString);
-        while (currBufferLength > this.maxTokenLimit) {
-            buffer.remove(0);
-            currBufferLength = tokenizer.getTokenCount(MessageConverter.getBufferString(buffer, getHumanPrefix(), getAiPrefix(),
-                getSystemPrefix(), null, getToolPrefix()));
+        List<BaseMessage> pruned = tokenBuffer().prune(buffer, this.maxTokenLimit, this::getMessageString);
+        if (CollectionUtils.isEmpty(pruned)) {
+            return;
         }
-        if (CollectionUtils.isEmpty(buffer)) {
+        getChatMemory().setMessages(buffer);
+        if (summaryExecutor == null) {
+            this.movingSummaryBuffer = predictNewSummary(pruned, this.movingSummaryBuffer);
             return;
         }
-        // This method also assumes the existence of a method to predict a new summary,
-        // which would need to be implemented in your Java code base.
-        this.movingSummaryBuffer = predictNewSummary(buffer, this.movingSummaryBuffer);
+        synchronized (this) {
+            CompletableFuture<String> previous = pendingSummary != null
+                ? pendingSummary : CompletableFuture.completedFuture(this.movingSummaryBuffer);
+            pendingSummary = previous.thenApplyAsync(summary -> {
+                try {
+                    String newSummary = predictNewSummary(pruned, summary);
+                    this.movingSummaryBuffer = newSummary;
+                    return newSummary;
+                } catch (Throwable e) {
+                    log.warn("summarize pruned messages error", e);
+                    return summary;
+                }
+            }, summaryExecutor);
+        }
+    }
+
+    /**
+     * 等待进行中的异步摘要完成
+     *
+     * @return 最新摘要
+     */
+    public String awaitSummary() {
+        CompletableFuture<String> pending = pendingSummary;
+        return pending != null ? pending.join() : movingSummaryBuffer;
+    }
+
+    protected MessageTokenBuffer tokenBuffer() {
+        MessageTokenBuffer current = tokenBuffer;
+        if (current == null || current.getTokenizer() != tokenizer) {
+            current = new MessageTokenBuffer(tokenizer);
+            tokenBuffer = current;
+        }
+        return current;
+    }
+
+    private String getMessageString(BaseMessage message) {
+        return MessageConverter.getBufferString(Collections.singletonList(message), getHumanPrefix(), getAiPrefix(),
+            getSystemPrefix(), null, getToolPrefix());
     }
 
     public String predictNewSummary(List<BaseMessage> messages, String existingSummary) {
@@ -17,6 +17,7 @@ package com.alibaba.langengine.core.memory.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,12 +25,19 @@ import java.util.Map;
 import com.alibaba.langengine.core.memory.BaseChatMemory;
 import com.alibaba.langengine.core.memory.BaseChatMessageHistory;
 import com.alibaba.langengine.core.memory.ChatMessageHistory;
+import com.alibaba.langengine.core.memory.MessageTokenBuffer;
 import com.alibaba.langengine.core.languagemodel.BaseLanguageModel;
 import com.alibaba.langengine.core.messages.BaseMessage;
 import com.alibaba.langengine.core.messages.MessageConverter;
 import com.alibaba.langengine.core.tokenizers.GPT3Tokenizer;
+import com.alibaba.langengine.core.tokenizers.Tokenizer;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * @author aihe.ah
@@ -48,6 +56,20 @@ public class ConversationTokenBufferMemory extends BaseChatMemory {
 
     private BaseChatMessageHistory chatMemory = new ChatMessageHistory();
 
+    /**
+     * 计算 token 使用的分词器，应与模型实际编码一致，如通义千问使用 QwenTokenizer
+     */
+    private Tokenizer tokenizer = new GPT3Tokenizer();
+
+    /**
+     * 已计数的消息缓冲，分词器变更后重建
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile MessageTokenBuffer tokenBuffer;
+
     public Object getBuffer() {
 
         if (isReturnMessages()) {
@@ -88,20 +110,28 @@ public class ConversationTokenBufferMemory extends BaseChatMemory {
     public void saveContext(Map<String, Object> inputs, Map<String, Object> outputs) {
         super.saveContext(inputs, outputs);
         List<BaseMessage> buffer = getChatMemory().getMessages();
-        GPT3Tokenizer tokenizer = new GPT3Tokenizer();
-        int currBufferLength = tokenizer.getTokenCount(
-            MessageConverter.getBufferString(buffer, getHumanPrefix(), getAiPrefix(), getSystemPrefix(), null, getToolPrefix()));
-
-        while (currBufferLength > maxTokenLimit) {
-            // Calculate the token count of the first message in the buffer
-            int firstBufferLength = tokenizer.getTokenCount(
-                MessageConverter.getBufferString(Arrays.asList(buffer.get(0)), getHumanPrefix(),
-                    getAiPrefix(), getSystemPrefix(), null, getToolPrefix()));
-            // Remove the first message in the buffer
-            buffer.remove(0);
-            // Subtract the token count of the removed message from the total count
-            currBufferLength -= firstBufferLength;
+        List<BaseMessage> pruned = tokenBuffer().prune(buffer, maxTokenLimit, this::getMessageString);
+        if (!pruned.isEmpty()) {
+            getChatMemory().setMessages(buffer);
+        }
+    }
+
+    /**
+     * 获取按 token 计数的消息缓冲，分词器变更后重新统计
+     *
+     * @return 消息缓冲
+     */
+    protected MessageTokenBuffer tokenBuffer() {
+        MessageTokenBuffer current = tokenBuffer;
+        if (current == null || current.getTokenizer() != tokenizer) {
+            current = new MessageTokenBuffer(tokenizer);
+            tokenBuffer = current;
         }
-        getChatMemory().setMessages(buffer);
+        return current;
+    }
+
+    private String getMessageString(BaseMessage message) {
+        return MessageConverter.getBufferString(Collections.singletonList(message), getHumanPrefix(), getAiPrefix(),
+            getSystemPrefix(), null, getToolPrefix());
     }
-}
\ No newline at end of file
+}
@@ -31,6 +31,7 @@ import com.alibaba.langengine.core.outputs.context.LlmResultHolder;
 import com.alibaba.langengine.core.outputs.Generation;
 import com.alibaba.langengine.core.outputs.LLMResult;
 import com.alibaba.langengine.core.prompt.PromptValue;
+import com.alibaba.langengine.core.runnables.RunnableConfig;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
@@ -62,6 +63,23 @@ public abstract class BaseLLM<T extends ChatCompletionRequest> extends BaseLangu
 
     public LLMResult generate(List<String> prompts, List<String> stops, ExecutionContext executionContext,
                               Consumer<String> consumer, Map<String, Object> extraAttributes) {
+        return generate(prompts, stops, executionContext, consumer, extraAttributes, null);
+    }
+
+    /**
+     * 多个prompt时按config.maxConcurrency(为空时取模型的maxConcurrency)并发调用；
+     * config.isolateErrors开启时单个prompt失败不影响其他prompt，异常记录在LLMResult.errors中
+     *
+     * @param prompts
+     * @param stops
+     * @param executionContext
+     * @param consumer
+     * @param extraAttributes
+     * @param config 可为空
+     * @return
+     */
+    public LLMResult generate(List<String> prompts, List<String> stops, ExecutionContext executionContext,
+                              Consumer<String> consumer, Map<String, Object> extraAttributes, RunnableConfig config) {
         String promptStrings = prompts.stream().collect(Collectors.joining("\n"));
         log.info("prompts:" + promptStrings);
         log.info("stops:" + JSON.toJSONString(stops));
@@ -76,12 +94,8 @@ public abstract class BaseLLM<T extends ChatCompletionRequest> extends BaseLangu
             if (executionContext != null && executionContext.getLlmResult() != null) {
                 llmResult = executionContext.getLlmResult();
             } else {
-                String llmString = "";
-                if (stops != null && stops.size() > 0) {
-                    llmString = JSON.toJSONString(stops);
-                }
+                String llmString = getLlmString(stops);
                 llmResult = new LLMResult();
-                List<List<Generation>> generationsList = new ArrayList<>();
                 BaseCache cache = null;
 
                 // 优先使用上下文的 cache
@@ -94,42 +108,71 @@ public abstract class BaseLLM<T extends ChatCompletionRequest> extends BaseLangu
                     cache = LangEngineConfiguration.CurrentCache;
                 }
 
-                if (cache != null) {
-                    for (int i = 0; i < prompts.size(); i++) {
+                // 流式调用逐个prompt判断命中，只有未命中的prompt才调用大模型；
+                // 非流式调用直接交给getOrLoad，由它完成查找(含统计)与并发加载合并，避免同一prompt查找两次
+                List<List<Generation>> generationsList = new ArrayList<>(Collections.nCopies(prompts.size(), null));
+                List<Integer> missIndexes = new ArrayList<>();
+                for (int i = 0; i < prompts.size(); i++) {
+                    List<Generation> cacheVal = null;
+                    if (cache != null && consumer != null) {
                         String prompt = prompts.get(i);
-                        List<Generation> cacheVal = cache.get(prompt, llmString);
+                        cacheVal = cache.get(prompt, llmString);
                         if (CollectionUtils.isEmpty(cacheVal)) {
                             cacheVal = cache.get(executionContext, prompt, llmString);
                         }
-                        if (cacheVal != null) {
-                            generationsList.add(cacheVal);
-                        }
+                    }
+                    if (!CollectionUtils.isEmpty(cacheVal)) {
+                        generationsList.set(i, cacheVal);
+                    } else {
+                        missIndexes.add(i);
                     }
                 }
 
-                if (generationsList.size() > 0) {
-                    llmResult.setGenerations(generationsList);
-                } else {
-                    llmResult.setGenerations(generationsList);
-                    for (String prompt : prompts) {
-                        List<Generation> generations = new ArrayList<>();
-                        generationsList.add(generations);
-                        Generation generation = new Generation();
-                        generations.add(generation);
-
-                        //大模型调用
-                        String responseContent = run(prompt, stops, consumer, extraAttributes);
-                        generation.setText(responseContent);
-                        generation.setGenerationInfo(LlmResultHolder.getResult());
-
-                        if (cache != null) {
-                            cache.update(prompt, llmString, generations);
-                            cache.update(executionContext, prompt, llmString, generations);
+                // 未命中的prompt按maxConcurrency并发调用，流式输出时保持顺序调用避免内容交错
+                BaseCache finalCache = cache;
+                ExecutionContext finalContext = executionContext;
+                boolean[] loaded = new boolean[missIndexes.size()];
+                Throwable[] errors = runConcurrently(missIndexes.size(), config, consumer != null, i -> {
+                    String prompt = prompts.get(missIndexes.get(i));
+                    List<Generation> generations;
+                    if (finalCache == null) {
+                        generations = runGenerations(prompt, stops, consumer, extraAttributes);
+                        loaded[i] = true;
+                    } else if (consumer == null) {
+                        generations = finalCache.getOrLoad(prompt, llmString, () -> {
+                            List<Generation> contextVal = finalCache.get(finalContext, prompt, llmString);
+                            if (!CollectionUtils.isEmpty(contextVal)) {
+                                return contextVal;
+                            }
+                            loaded[i] = true;
+                            return runGenerations(prompt, stops, consumer, extraAttributes);
+                        });
+                        if (loaded[i]) {
+                            finalCache.update(finalContext, prompt, llmString, generations);
                         }
+                    } else {
+                        // 流式调用不合并并发加载，否则等待合并结果的调用方收不到流式片段
+                        generations = runGenerations(prompt, stops, consumer, extraAttributes);
+                        loaded[i] = true;
+                        finalCache.update(prompt, llmString, generations);
+                        finalCache.update(finalContext, prompt, llmString, generations);
+                    }
+                    generationsList.set(missIndexes.get(i), generations);
+                });
+                for (int i = missIndexes.size() - 1; i >= 0; i--) {
+                    if (loaded[i] && errors[i] == null) {
+                        llmResult.setLlmOutput(generationsList.get(missIndexes.get(i)).get(0).getGenerationInfo());
+                        break;
+                    }
+                }
+                if (config != null && config.isIsolateErrors()) {
+                    List<Throwable> promptErrors = new ArrayList<>(Collections.nCopies(prompts.size(), null));
+                    for (int i = 0; i < missIndexes.size(); i++) {
+                        promptErrors.set(missIndexes.get(i), errors[i]);
                     }
-                    llmResult.setLlmOutput(LlmResultHolder.getResult());
-                    llmResult.setGenerations(generationsList);
+                    llmResult.setErrors(promptErrors);
                 }
+                llmResult.setGenerations(generationsList);
             }
 
             onLlmEnd(this, prompts, llmResult, executionContext, consumer);
@@ -143,6 +186,24 @@ public abstract class BaseLLM<T extends ChatCompletionRequest> extends BaseLangu
         }
     }
 
+    private List<Generation> runGenerations(String prompt, List<String> stops, Consumer<String> consumer, Map<String, Object> extraAttributes) {
+        List<Generation> generations = new ArrayList<>();
+        Generation generation = new Generation();
+        generations.add(generation);
+
+        //大模型调用
+        acquirePermit();
+        try {
+            String responseContent = run(prompt, stops, consumer, extraAttributes);
+            generation.setText(responseContent);
+            generation.setGenerationInfo(LlmResultHolder.getResult());
+        } finally {
+            // 并发调用时运行在线程池线程上，取出结果后即清理，外层finally只覆盖调用线程
+            LlmResultHolder.clear();
+        }
+        return generations;
+    }
+
     public String predict(String text, List<String> stops, ExecutionContext executionContext, Consumer<String> consumer, Map<String, Object> extraAttributes) {
         LLMResult llmResult = generate(Arrays.asList(new String[] {text}), stops, executionContext, consumer, extraAttributes);
         return llmResult.getGenerations().get(0).get(0).getText();
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model.fastchat.completion.chat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式ChatCompletionChunk解析器
+ *
+ * 基于JsonParser逐token读取，只提取id/object/created/model与choices[].delta中的字段，
+ * 其余字段直接skipChildren跳过，避免对整块payload做树绑定
+ */
+public class ChatCompletionChunkReader {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private static final TypeReference<List<Map<String, Object>>> LIST_TYPE = new TypeReference<List<Map<String, Object>>>() {};
+
+    private static final TypeReference<List<ChatMessageContent>> CONTENT_LIST_TYPE = new TypeReference<List<ChatMessageContent>>() {};
+
+    private final ObjectMapper mapper;
+
+    public ChatCompletionChunkReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ChatCompletionChunk read(String json) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid chat completion chunk: " + json);
+            }
+            ChatCompletionChunk chunk = new ChatCompletionChunk();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "id":
+                        chunk.setId(text(parser, token));
+                        break;
+                    case "object":
+                        chunk.setObject(text(parser, token));
+                        break;
+                    case "created":
+                        chunk.setCreated(token.isNumeric() ? parser.getLongValue() : 0L);
+                        break;
+                    case "model":
+                        chunk.setModel(text(parser, token));
+                        break;
+                    case "choices":
+                        chunk.setChoices(readChoices(parser, token));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return chunk;
+        }
+    }
+
+    private List<ChatCompletionChoice> readChoices(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<ChatCompletionChoice> choices = new ArrayList<>(1);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            ChatCompletionChoice choice = new ChatCompletionChoice();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "index":
+                        choice.setIndex(value.isNumeric() ? parser.getIntValue() : null);
+                        break;
+                    case "delta":
+                    case "message":
+                        choice.setMessage(readMessage(parser, value));
+                        break;
+                    case "finish_reason":
+                        choice.setFinishReason(text(parser, value));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            choices.add(choice);
+        }
+        return choices;
+    }
+
+    private ChatMessage readMessage(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ChatMessage message = new ChatMessage();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "role":
+                    message.setRole(text(parser, value));
+                    break;
+                case "content":
+                    // 多模态content按ChatMessageContent列表保留，其余结构跳过
+                    if (value == JsonToken.START_ARRAY) {
+                        message.setContentWithPojo(mapper.readValue(parser, CONTENT_LIST_TYPE));
+                    } else {
+                        message.setContent(text(parser, value));
+                    }
+                    break;
+                case "reasoning_content":
+                    message.setReasoningContent(text(parser, value));
+                    break;
+                case "name":
+                    message.setName(text(parser, value));
+                    break;
+                case "prefix":
+                    message.setPrefix(parser.getValueAsBoolean());
+                    break;
+                case "tool_call_id":
+                    message.setToolCallId(text(parser, value));
+                    break;
+                case "function_call":
+                    message.setFunctionCall(mapper.readValue(parser, MAP_TYPE));
+                    break;
+                case "tool_calls":
+                    message.setToolCalls(mapper.readValue(parser, LIST_TYPE));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return message;
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+}
@@ -143,8 +143,7 @@ public class FastChatService extends RetrofitInitService<FastChatApi> {
         try {
             callerClass.set(getClass());
             request.setStream(true);
-            Flowable<ChatCompletionChunk> stream = stream(getApi().createChatCompletionStream(request),
-                ChatCompletionChunk.class);
+            Flowable<ChatCompletionChunk> stream = streamChatCompletionChunk(getApi().createChatCompletionStream(request));
             return stream;
 
         } finally {
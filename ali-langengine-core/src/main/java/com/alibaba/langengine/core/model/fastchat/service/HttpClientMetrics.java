@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model.fastchat.service;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 共享HTTP客户端的连接复用统计
+ */
+public class HttpClientMetrics extends EventListener {
+
+    private final LongAdder callCount = new LongAdder();
+
+    private final LongAdder failedCallCount = new LongAdder();
+
+    private final LongAdder connectionAcquiredCount = new LongAdder();
+
+    private final LongAdder newConnectionCount = new LongAdder();
+
+    private final LongAdder http2ConnectionCount = new LongAdder();
+
+    @Override
+    public void callStart(Call call) {
+        callCount.increment();
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        failedCallCount.increment();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        newConnectionCount.increment();
+        if (protocol == Protocol.HTTP_2) {
+            http2ConnectionCount.increment();
+        }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        connectionAcquiredCount.increment();
+    }
+
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    public long getFailedCallCount() {
+        return failedCallCount.sum();
+    }
+
+    /**
+     * 请求获取连接的次数(含复用)
+     */
+    public long getConnectionAcquiredCount() {
+        return connectionAcquiredCount.sum();
+    }
+
+    /**
+     * 新建连接(含TCP/TLS握手)的次数
+     */
+    public long getNewConnectionCount() {
+        return newConnectionCount.sum();
+    }
+
+    public long getHttp2ConnectionCount() {
+        return http2ConnectionCount.sum();
+    }
+
+    /**
+     * 连接复用率：获取连接时无需新建连接的比例
+     */
+    public double getReuseRate() {
+        long acquired = getConnectionAcquiredCount();
+        return acquired == 0 ? 0.0 : Math.max(0.0, 1.0 - (double) getNewConnectionCount() / acquired);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientMetrics{callCount=" + getCallCount()
+                + ", failedCallCount=" + getFailedCallCount()
+                + ", connectionAcquiredCount=" + getConnectionAcquiredCount()
+                + ", newConnectionCount=" + getNewConnectionCount()
+                + ", http2ConnectionCount=" + getHttp2ConnectionCount()
+                + ", reuseRate=" + getReuseRate() + "}";
+    }
+}
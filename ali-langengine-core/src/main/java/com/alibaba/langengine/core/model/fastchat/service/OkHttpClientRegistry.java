@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model.fastchat.service;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 进程级共享的OkHttpClient注册表
+ *
+ * 所有客户端由同一个根客户端派生，共享连接池、Dispatcher线程池和TLS会话，并优先协商HTTP/2多路复用；
+ * 只按baseUrl、代理、超时等连接配置缓存构建好的客户端，不包含token等鉴权信息；
+ * 需要鉴权的service通过 {@link OkHttpClient#newBuilder()} 在缓存的客户端上派生并添加拦截器，派生客户端同样共享连接池和Dispatcher
+ */
+@Slf4j
+public final class OkHttpClientRegistry {
+
+    private static volatile int maxIdleConnections = 64;
+
+    private static volatile long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+
+    private static volatile int maxRequests = 256;
+
+    private static volatile int maxRequestsPerHost = 64;
+
+    private static final HttpClientMetrics METRICS = new HttpClientMetrics();
+
+    private static final Map<String, OkHttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+    private static volatile OkHttpClient sharedClient;
+
+    private OkHttpClientRegistry() {
+    }
+
+    /**
+     * 配置共享连接池与Dispatcher，应在创建首个service前调用；之后调用时只有并发请求数的调整生效
+     *
+     * @param maxIdleConnections 最大空闲连接数
+     * @param keepAliveDuration 空闲连接保活时间
+     * @param timeUnit
+     * @param maxRequests 最大并发请求数
+     * @param maxRequestsPerHost 单host最大并发请求数
+     */
+    public static synchronized void configure(int maxIdleConnections, long keepAliveDuration, TimeUnit timeUnit,
+                                              int maxRequests, int maxRequestsPerHost) {
+        OkHttpClientRegistry.maxIdleConnections = maxIdleConnections;
+        OkHttpClientRegistry.keepAliveMillis = timeUnit.toMillis(keepAliveDuration);
+        OkHttpClientRegistry.maxRequests = maxRequests;
+        OkHttpClientRegistry.maxRequestsPerHost = maxRequestsPerHost;
+        if (sharedClient != null) {
+            sharedClient.dispatcher().setMaxRequests(maxRequests);
+            sharedClient.dispatcher().setMaxRequestsPerHost(maxRequestsPerHost);
+            log.warn("shared OkHttpClient already created, connection pool settings are ignored");
+        }
+    }
+
+    /**
+     * 共享连接池、Dispatcher与统计的builder，用于自定义客户端
+     *
+     * @return
+     */
+    public static OkHttpClient.Builder newBuilder() {
+        return sharedClient().newBuilder();
+    }
+
+    /**
+     * 按key获取缓存的客户端，不存在时通过factory构建
+     *
+     * @param key
+     * @param factory
+     * @return
+     */
+    public static OkHttpClient getOrCreate(String key, Supplier<OkHttpClient> factory) {
+        return CLIENTS.computeIfAbsent(key, k -> factory.get());
+    }
+
+    /**
+     * 构造客户端缓存key，只应传入连接配置，不应包含token等鉴权信息
+     *
+     * @param parts
+     * @return
+     */
+    public static String key(Object... parts) {
+        StringBuilder builder = new StringBuilder();
+        for (Object part : parts) {
+            builder.append(part).append('\u0000');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 是否为共享Dispatcher的线程池，共享线程池不能被单个service关闭
+     *
+     * @param executorService
+     * @return
+     */
+    public static boolean isSharedExecutor(ExecutorService executorService) {
+        OkHttpClient client = sharedClient;
+        return client != null && client.dispatcher().executorService() == executorService;
+    }
+
+    public static HttpClientMetrics getMetrics() {
+        return METRICS;
+    }
+
+    public static int getCachedClientCount() {
+        return CLIENTS.size();
+    }
+
+    public static int getConnectionCount() {
+        return sharedClient().connectionPool().connectionCount();
+    }
+
+    public static int getIdleConnectionCount() {
+        return sharedClient().connectionPool().idleConnectionCount();
+    }
+
+    public static int getRunningCallCount() {
+        return sharedClient().dispatcher().runningCallsCount();
+    }
+
+    public static int getQueuedCallCount() {
+        return sharedClient().dispatcher().queuedCallsCount();
+    }
+
+    private static OkHttpClient sharedClient() {
+        OkHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (OkHttpClientRegistry.class) {
+                client = sharedClient;
+                if (client == null) {
+                    Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequests(maxRequests);
+                    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+                    client = new OkHttpClient.Builder()
+                            .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                            .dispatcher(dispatcher)
+                            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                            .eventListener(METRICS)
+                            .build();
+                    sharedClient = client;
+                    log.info("shared OkHttpClient created, maxIdleConnections=" + maxIdleConnections
+                            + ", maxRequests=" + maxRequests + ", maxRequestsPerHost=" + maxRequestsPerHost);
+                }
+            }
+        }
+        return client;
+    }
+}
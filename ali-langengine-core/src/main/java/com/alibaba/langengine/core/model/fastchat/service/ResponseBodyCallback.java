@@ -24,10 +24,6 @@ import retrofit2.Callback;
 import retrofit2.HttpException;
 import retrofit2.Response;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import com.alibaba.langengine.core.util.JacksonUtils;
 
@@ -51,7 +47,7 @@ public class ResponseBodyCallback implements Callback<ResponseBody> {
     @Override
     public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
         log.info("ResponseBodyCallback onResponse");
-        BufferedReader reader = null;
+        ResponseBody body = null;
 
         try {
             if (!response.isSuccessful()) {
@@ -69,36 +65,18 @@ public class ResponseBodyCallback implements Callback<ResponseBody> {
                 }
             }
 
-            InputStream in = response.body().byteStream();
-            reader = new BufferedReader(new InputStreamReader(in));
-            String line;
-            SSE sse = null;
+            body = response.body();
+            SseDecoder decoder = new SseDecoder(body.source());
+            SSE sse;
 
-            while (!emitter.isCancelled() && (line = reader.readLine()) != null) {
-//                log.info("stream line is {}", line);
-                if (line.startsWith("data:")) {
-                    String data = line.substring(5).trim();
-                    sse = new SSE(data);
-                } else if (line.equals("") && sse != null) {
-                    if (sse.isDone()) {
-                        if (emitDone) {
-                            emitter.onNext(sse);
-                        }
-                        break;
+            while (!emitter.isCancelled() && (sse = decoder.next()) != null) {
+                if (sse.isDone()) {
+                    if (emitDone) {
+                        emitter.onNext(sse);
                     }
-
-                    emitter.onNext(sse);
-                    sse = null;
-                }
-                else {
-                    if (line.startsWith("id:")
-                            || line.startsWith("event:")
-                            || line.startsWith("retry:")
-                            || line.startsWith(":HTTP_STATUS/200")) {
-                        continue;
-                    }
-                    throw new SSEFormatException("Invalid sse format! " + line);
+                    break;
                 }
+                emitter.onNext(sse);
             }
 
             log.info("stream emitter onComplete");
@@ -109,12 +87,8 @@ public class ResponseBodyCallback implements Callback<ResponseBody> {
             onFailure(call, t);
         } finally {
             log.info("stream emitter finally start");
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    // do nothing
-                }
+            if (body != null) {
+                body.close();
             }
             log.info("stream emitter finally end");
         }
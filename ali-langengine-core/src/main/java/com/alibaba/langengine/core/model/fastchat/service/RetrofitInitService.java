@@ -15,16 +15,18 @@
  */
 package com.alibaba.langengine.core.model.fastchat.service;
 
+import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionChunk;
+import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionChunkReader;
 import com.alibaba.langengine.core.util.JacksonUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.Single;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import okhttp3.ResponseBody;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -177,6 +179,10 @@ public abstract class RetrofitInitService<T> {
 
     public void shutdownExecutor() {
         Objects.requireNonNull(this.executorService, "executorService must be set in order to shut down");
+        if (OkHttpClientRegistry.isSharedExecutor(this.executorService)) {
+            log.warn("skip shutting down the shared http dispatcher executor");
+            return;
+        }
         this.executorService.shutdown();
     }
 
@@ -191,8 +197,19 @@ public abstract class RetrofitInitService<T> {
 
     public static <T> Flowable<T> stream(Call<ResponseBody> apiCall, Class<T> cl) {
         log.info("RetrofitInitService stream");
-        Class<?> serviceClass = callerClass.get();
-        return stream(apiCall).map(sse -> JacksonUtils.getServiceMapper(serviceClass).readValue(sse.getData(), cl));
+        ObjectReader reader = JacksonUtils.getServiceMapper(callerClass.get()).readerFor(cl);
+        return stream(apiCall).map(sse -> reader.readValue(sse.getData()));
+    }
+
+    /**
+     * 流式对话专用：按token增量解析choices[].delta，不经过完整的对象绑定
+     *
+     * @param apiCall
+     * @return
+     */
+    public static Flowable<ChatCompletionChunk> streamChatCompletionChunk(Call<ResponseBody> apiCall) {
+        ChatCompletionChunkReader reader = new ChatCompletionChunkReader(JacksonUtils.getServiceMapper(callerClass.get()));
+        return stream(apiCall).map(sse -> reader.read(sse.getData()));
     }
 
     public static Flowable<String> streamText(Call<ResponseBody> apiCall) {
@@ -221,8 +238,27 @@ public abstract class RetrofitInitService<T> {
         }
     }
 
+    /**
+     * 构建客户端；baseUrl、代理、超时相同的service共用同一个基础客户端，所有客户端共享连接池和Dispatcher，见OkHttpClientRegistry。
+     * 鉴权信息不参与缓存，由每个service在基础客户端上派生并添加自己的鉴权拦截器
+     *
+     * @param timeout
+     * @param proxy
+     * @return
+     */
     public OkHttpClient defaultClient(Duration timeout, Proxy proxy) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+        String key = OkHttpClientRegistry.key(baseUrl, proxy, timeout, isDebug());
+        OkHttpClient client = OkHttpClientRegistry.getOrCreate(key, () -> buildClient(timeout, proxy));
+        if (!authentication) {
+            return client;
+        }
+        return client.newBuilder()
+            .addInterceptor(new AuthenticationInterceptor(token))
+            .build();
+    }
+
+    private OkHttpClient buildClient(Duration timeout, Proxy proxy) {
+        OkHttpClient.Builder builder = OkHttpClientRegistry.newBuilder()
                 .proxy(Proxy.NO_PROXY)
             .connectTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
             .writeTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
@@ -237,9 +273,6 @@ public abstract class RetrofitInitService<T> {
             loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
             builder.addInterceptor(loggingInterceptor);
         }
-        if (authentication) {
-            builder.addInterceptor(new AuthenticationInterceptor(token));
-        }
         return builder.build();
     }
 
@@ -15,6 +15,8 @@
  */
 package com.alibaba.langengine.core.model.fastchat.service;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Server-Sent Events规范
  *
@@ -25,19 +27,43 @@ public class SSE {
 
     private final String data;
 
+    /**
+     * 事件类型(event字段)
+     */
+    private final String event;
+
+    /**
+     * 事件id(id字段)
+     */
+    private final String id;
+
     public SSE(String data){
+        this(data, null, null);
+    }
+
+    public SSE(String data, String event, String id){
         this.data = data;
+        this.event = event;
+        this.id = id;
     }
 
     public String getData(){
         return this.data;
     }
 
+    public String getEvent(){
+        return this.event;
+    }
+
+    public String getId(){
+        return this.id;
+    }
+
     public byte[] toBytes(){
-        return String.format("data: %s\n\n", this.data).getBytes();
+        return String.format("data: %s\n\n", this.data).getBytes(StandardCharsets.UTF_8);
     }
 
     public boolean isDone(){
-        return DONE_DATA.equalsIgnoreCase(this.data);
+        return this.data != null && DONE_DATA.equalsIgnoreCase(this.data.trim());
     }
 }
@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model.fastchat.service;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+import java.io.IOException;
+
+/**
+ * 基于Okio的增量SSE解码器
+ *
+ * 直接在BufferedSource的字节上查找换行和字段名，只对data/event/id的值按UTF-8解码，
+ * 支持多行data(以换行拼接)、注释行、\n与\r\n两种行结束符，data的值会去掉首尾空白。
+ * 与旧版按行读取的实现一致，data/event/id/retry以外的行视为格式错误，JSON错误体等非SSE响应不会被静默忽略
+ */
+public class SseDecoder {
+
+    private static final ByteString DATA = ByteString.encodeUtf8("data");
+
+    private static final ByteString EVENT = ByteString.encodeUtf8("event");
+
+    private static final ByteString ID = ByteString.encodeUtf8("id");
+
+    private static final ByteString RETRY = ByteString.encodeUtf8("retry");
+
+    private final BufferedSource source;
+
+    /**
+     * 按规范，id在后续事件中保持不变，直到被新的id覆盖
+     */
+    private String lastEventId;
+
+    private boolean decoded;
+
+    public SseDecoder(BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * 读取下一个事件，流结束时返回null
+     *
+     * @return
+     * @throws IOException
+     * @throws SSEFormatException 出现非SSE格式的行，或流结束时没有任何事件
+     */
+    public SSE next() throws IOException, SSEFormatException {
+        StringBuilder data = null;
+        String event = null;
+        while (true) {
+            long newline = source.indexOf((byte) '\n');
+            Buffer buffer = source.getBuffer();
+            long lineLength;
+            long terminatorLength;
+            if (newline == -1) {
+                if (buffer.size() == 0) {
+                    // 流结束，未以空行结尾的事件仍然派发
+                    if (data != null) {
+                        return event(data, event);
+                    }
+                    if (!decoded) {
+                        throw new SSEFormatException("Invalid sse format! stream ended without any event");
+                    }
+                    return null;
+                }
+                lineLength = buffer.size();
+                terminatorLength = 0;
+            } else {
+                lineLength = newline;
+                terminatorLength = 1;
+            }
+            if (lineLength > 0 && buffer.getByte(lineLength - 1) == '\r') {
+                lineLength--;
+                terminatorLength++;
+            }
+
+            if (lineLength == 0) {
+                source.skip(terminatorLength);
+                if (data != null) {
+                    return event(data, event);
+                }
+                event = null;
+                continue;
+            }
+            if (buffer.getByte(0) == ':') {
+                // 注释行
+                source.skip(lineLength + terminatorLength);
+                continue;
+            }
+
+            long colon = buffer.indexOf((byte) ':', 0, lineLength);
+            long nameLength = colon == -1 ? lineLength : colon;
+            int field = field(buffer, nameLength);
+            if (field == 0) {
+                throw new SSEFormatException("Invalid sse format! " + source.readUtf8(lineLength));
+            }
+            if (field == 4) {
+                source.skip(lineLength + terminatorLength);
+                continue;
+            }
+            long valueLength = lineLength - nameLength;
+            source.skip(nameLength);
+            if (colon != -1) {
+                source.skip(1);
+                valueLength--;
+                if (valueLength > 0 && buffer.getByte(0) == ' ') {
+                    source.skip(1);
+                    valueLength--;
+                }
+            }
+            String value = source.readUtf8(valueLength);
+            source.skip(terminatorLength);
+
+            if (field == 1) {
+                // 与旧版按行读取的实现保持一致，去掉data值首尾的空白
+                value = value.trim();
+                if (data == null) {
+                    data = new StringBuilder(value);
+                } else {
+                    data.append('\n').append(value);
+                }
+            } else if (field == 2) {
+                event = value;
+            } else if (value.indexOf('\u0000') < 0) {
+                lastEventId = value;
+            }
+        }
+    }
+
+    private SSE event(StringBuilder data, String event) {
+        decoded = true;
+        return new SSE(data.toString(), event, lastEventId);
+    }
+
+    /**
+     * @return 1: data, 2: event, 3: id, 4: retry(忽略), 0: 其他
+     */
+    private static int field(Buffer buffer, long nameLength) {
+        if (nameLength == DATA.size() && buffer.rangeEquals(0, DATA)) {
+            return 1;
+        }
+        if (nameLength == EVENT.size() && buffer.rangeEquals(0, EVENT)) {
+            return 2;
+        }
+        if (nameLength == ID.size() && buffer.rangeEquals(0, ID)) {
+            return 3;
+        }
+        if (nameLength == RETRY.size() && buffer.rangeEquals(0, RETRY)) {
+            return 4;
+        }
+        return 0;
+    }
+}
@@ -33,4 +33,10 @@ public class LLMResult implements Serializable {
     private List<List<Generation>> generations;
 
     private Map<String, Object> llmOutput;
+
+    /**
+     * 每个prompt的调用异常，与generations位置一致，成功的位置为null；仅在RunnableConfig.isolateErrors开启时设置，
+     * 失败位置的generations为null
+     */
+    private List<Throwable> errors;
 }
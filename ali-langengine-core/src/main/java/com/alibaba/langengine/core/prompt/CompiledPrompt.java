@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.prompt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 预编译的提示模板
+ * <p>
+ * 模板字符串只解析一次，拆成 文本/变量 交替的片段并按模板字符串缓存；渲染时一次遍历写入预估好容量的 StringBuilder，
+ * 不再为每个变量编译正则、复制整段模板。
+ * 与原先逐个 replaceAll 的行为保持一致：入参中不存在（或转换结果为 null）的变量原样保留 {name}，
+ * 因此模板里的 json 示例等花括号内容不受影响；区别在于变量值中出现的 {xxx} 不会再被后续变量二次替换。
+ * </p>
+ */
+public final class CompiledPrompt {
+
+    /**
+     * 缓存上限，超过后新模板不再缓存，避免动态拼接的模板无限占用内存
+     */
+    static final int MAX_CACHE_SIZE = 1024;
+
+    private static final Map<String, CompiledPrompt> CACHE = new ConcurrentHashMap<>();
+
+    private final String template;
+
+    /**
+     * 文本片段，比变量片段多一个：literals[0] var[0] literals[1] ... var[n-1] literals[n]
+     */
+    private final String[] literals;
+
+    /**
+     * 每个变量片段对应的变量下标
+     */
+    private final int[] slots;
+
+    /**
+     * 去重后的变量名，按首次出现顺序
+     */
+    private final String[] names;
+
+    private final int literalLength;
+
+    private final Set<String> variables;
+
+    private CompiledPrompt(String template, String[] literals, int[] slots, String[] names, int literalLength) {
+        this.template = template;
+        this.literals = literals;
+        this.slots = slots;
+        this.names = names;
+        this.literalLength = literalLength;
+        Set<String> set = new LinkedHashSet<>();
+        Collections.addAll(set, names);
+        this.variables = Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * 获取模板的预编译结果，同一模板字符串只解析一次
+     *
+     * @param template 模板
+     * @return 预编译结果
+     */
+    public static CompiledPrompt of(String template) {
+        CompiledPrompt compiled = CACHE.get(template);
+        if (compiled != null) {
+            return compiled;
+        }
+        compiled = parse(template);
+        if (CACHE.size() < MAX_CACHE_SIZE) {
+            CompiledPrompt existing = CACHE.putIfAbsent(template, compiled);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * 解析模板。{name} 中 name 不含花括号与换行时视为变量，其余花括号按文本处理
+     *
+     * @param template 模板
+     * @return 预编译结果
+     */
+    static CompiledPrompt parse(String template) {
+        List<String> literalList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+        Map<String, Integer> nameIndex = new LinkedHashMap<>();
+        int literalLength = 0;
+        int start = 0;
+        int length = template.length();
+        int open = template.indexOf('{');
+        while (open >= 0) {
+            int end = open + 1;
+            while (end < length) {
+                char c = template.charAt(end);
+                if (c == '}' || c == '{' || c == '\n') {
+                    break;
+                }
+                end++;
+            }
+            if (end >= length) {
+                break;
+            }
+            char c = template.charAt(end);
+            if (c == '}' && end > open + 1) {
+                String literal = template.substring(start, open);
+                literalList.add(literal);
+                literalLength += literal.length();
+                String name = template.substring(open + 1, end);
+                slotList.add(nameIndex.computeIfAbsent(name, key -> nameIndex.size()));
+                start = end + 1;
+                open = template.indexOf('{', start);
+            } else {
+                // 嵌套或空的花括号，从下一个 { 继续查找
+                open = c == '{' ? end : template.indexOf('{', end + 1);
+            }
+        }
+        String tail = template.substring(start);
+        literalList.add(tail);
+        literalLength += tail.length();
+
+        int[] slots = new int[slotList.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = slotList.get(i);
+        }
+        return new CompiledPrompt(template, literalList.toArray(new String[0]), slots,
+                nameIndex.keySet().toArray(new String[0]), literalLength);
+    }
+
+    /**
+     * @return 模板中的变量名，按首次出现顺序
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * 校验声明的输入变量都出现在模板中
+     *
+     * @param inputVariables 声明的输入变量
+     * @throws IllegalArgumentException 存在模板中缺失的变量
+     */
+    public void validate(Collection<String> inputVariables) {
+        if (inputVariables == null) {
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        for (String inputVariable : inputVariables) {
+            if (!variables.contains(inputVariable)) {
+                missing.add(inputVariable);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Invalid prompt schema; missing input variables in template: " + missing
+                    + ", template variables: " + variables);
+        }
+    }
+
+    /**
+     * 一次遍历渲染模板
+     *
+     * @param inputs    变量值
+     * @param converter 变量值转字符串，返回 null 时保留原始占位符
+     * @return 渲染结果
+     */
+    public String render(Map<String, Object> inputs, Function<Object, String> converter) {
+        if (slots.length == 0 || inputs == null || inputs.isEmpty()) {
+            return template;
+        }
+        String[] values = new String[names.length];
+        boolean any = false;
+        for (int i = 0; i < names.length; i++) {
+            if (inputs.containsKey(names[i])) {
+                values[i] = converter.apply(inputs.get(names[i]));
+                any |= values[i] != null;
+            }
+        }
+        if (!any) {
+            return template;
+        }
+        int capacity = literalLength;
+        for (int slot : slots) {
+            capacity += values[slot] != null ? values[slot].length() : names[slot].length() + 2;
+        }
+        StringBuilder builder = new StringBuilder(capacity);
+        builder.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = values[slots[i]];
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('{').append(names[slots[i]]).append('}');
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    static void clearCache() {
+        CACHE.clear();
+    }
+}
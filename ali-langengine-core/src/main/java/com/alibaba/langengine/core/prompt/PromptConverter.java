@@ -35,13 +35,7 @@ public class PromptConverter {
         if(text == null) {
             return null;
         }
-        for (Map.Entry<String, Object> entry : inputs.entrySet()) {
-            if(entry.getValue() == null) {
-                continue;
-            }
-            text = text.replaceAll("\\{" + entry.getKey() + "\\}", Matcher.quoteReplacement(entry.getValue().toString()));
-        }
-        return text;
+        return CompiledPrompt.of(text).render(inputs, value -> value != null ? value.toString() : null);
     }
 
     public static String replacePrompt(String text, String input) {
@@ -16,12 +16,12 @@
 package com.alibaba.langengine.core.prompt.impl;
 
 import com.alibaba.langengine.core.outputparser.BaseOutputParser;
+import com.alibaba.langengine.core.prompt.CompiledPrompt;
 import com.alibaba.langengine.core.prompt.PromptConverter;
 import lombok.Data;
 
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 
 /**
  * Prompt schema模版
@@ -33,6 +33,11 @@ public class PromptTemplate extends StringPromptTemplate {
 
     private String template;
 
+    /**
+     * 是否校验 inputVariables 都出现在模板中，开启后在设置模板或输入变量时预编译并校验，不满足时抛出 IllegalArgumentException
+     */
+    private boolean validateTemplate;
+
     public PromptTemplate() {
 
     }
@@ -59,19 +64,11 @@ public class PromptTemplate extends StringPromptTemplate {
 
     @Override
     public String format(Map<String, Object> args) {
-        if(args == null) {
+        if(args == null || template == null) {
             return template;
         }
-        String realTemplate = template;
-        for (Map.Entry<String, Object> entry : args.entrySet()) {
-            if(entry.getValue() instanceof String) {
-                realTemplate = realTemplate.replaceAll("\\{" + entry.getKey() + "\\}", Matcher.quoteReplacement(entry.getValue().toString()));
-            } else {
-                // 如果value非字符串，默认被忽略了，这里需要转换成json
-                realTemplate = realTemplate.replaceAll("\\{" + entry.getKey() + "\\}", Matcher.quoteReplacement(PromptConverter.toJson(entry.getValue())));
-            }
-        }
-        return realTemplate;
+        // 如果value非字符串，默认被忽略了，这里需要转换成json
+        return CompiledPrompt.of(template).render(args, value -> value instanceof String ? (String) value : PromptConverter.toJson(value));
     }
 
     public String getTemplate() {
@@ -79,6 +76,27 @@ public class PromptTemplate extends StringPromptTemplate {
     }
 
     public void setTemplate(String template) {
+        checkTemplate(validateTemplate, template, getInputVariables());
         this.template = template;
     }
+
+    @Override
+    public void setInputVariables(List<String> inputVariables) {
+        checkTemplate(validateTemplate, template, inputVariables);
+        super.setInputVariables(inputVariables);
+    }
+
+    public void setValidateTemplate(boolean validateTemplate) {
+        checkTemplate(validateTemplate, template, getInputVariables());
+        this.validateTemplate = validateTemplate;
+    }
+
+    /**
+     * 校验通过后才修改字段，校验失败时保持原有配置
+     */
+    private static void checkTemplate(boolean validateTemplate, String template, List<String> inputVariables) {
+        if(validateTemplate && template != null) {
+            CompiledPrompt.of(template).validate(inputVariables);
+        }
+    }
 }
@@ -15,7 +15,6 @@
  */
 package com.alibaba.langengine.core.runnables;
 
-import com.google.common.collect.Lists;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
@@ -23,9 +22,9 @@ import org.apache.commons.lang3.tuple.Pair;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Runnable基础抽象类，可执行工作单元的基类
@@ -59,7 +58,7 @@ public abstract class Runnable<Input, Output> implements RunnableInterface<Input
     }
 
     public  CompletableFuture<Output> invokeAsync(Input input, RunnableConfig config) {
-        return CompletableFuture.supplyAsync(() -> invoke(input, config));
+        return CompletableFuture.supplyAsync(() -> invoke(input, config), RunnableExecutors.resolve(config));
     }
 
     public List<Output> batch(List<Input> inputs) {
@@ -68,25 +67,11 @@ public abstract class Runnable<Input, Output> implements RunnableInterface<Input
 
     public List<Output> batch(List<Input> inputs, RunnableConfig config) {
         try {
-            List<CompletableFuture<Output>> futures = Lists.newArrayList();
+            List<Supplier<Output>> tasks = new ArrayList<>(inputs.size());
             for (Input input : inputs) {
-                CompletableFuture<Output> future = invokeAsync(input, config);
-                futures.add(future);
+                tasks.add(() -> invoke(input, config));
             }
-
-            CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-
-            if(config != null) {
-                allFutures.get(config.getParallelSecondTimeout(), TimeUnit.SECONDS);
-            } else {
-                allFutures.get(1200, TimeUnit.SECONDS);
-            }
-
-            List<Output> outputs = new ArrayList<>();
-            for (CompletableFuture<Output> future : futures) {
-                outputs.add(future.get());
-            }
-            return outputs;
+            return RunnableExecutors.invokeAll(tasks, config);
         } catch (Throwable e) {
             log.error("Runnable.batch error", e);
             throw new RuntimeException(e.toString());
@@ -98,7 +83,7 @@ public abstract class Runnable<Input, Output> implements RunnableInterface<Input
     }
 
     public CompletableFuture<List<Output>> batchAsync(List<Input> inputs, RunnableConfig config) {
-        return CompletableFuture.supplyAsync(() -> batch(inputs, config));
+        return CompletableFuture.supplyAsync(() -> batch(inputs, config), RunnableExecutors.resolve(config));
     }
 
     public Output stream(Input input, Consumer<Object> chunkConsumer) {
@@ -120,7 +105,7 @@ public abstract class Runnable<Input, Output> implements RunnableInterface<Input
     }
 
     public CompletableFuture<Output> streamAsync(Input input, RunnableConfig config, Consumer<Object> chunkConsumer) {
-        return CompletableFuture.supplyAsync(() -> stream(input, config, chunkConsumer));
+        return CompletableFuture.supplyAsync(() -> stream(input, config, chunkConsumer), RunnableExecutors.resolve(config));
     }
 
     public CompletableFuture<Output> streamLogAsync(Input input, Consumer<Object> chunkConsumer) {
@@ -128,7 +113,7 @@ public abstract class Runnable<Input, Output> implements RunnableInterface<Input
     }
 
     public CompletableFuture<Output> streamLogAsync(Input input, RunnableConfig config, Consumer<Object> chunkConsumer) {
-        return CompletableFuture.supplyAsync(() -> streamLog(input, config, chunkConsumer));
+        return CompletableFuture.supplyAsync(() -> streamLog(input, config, chunkConsumer), RunnableExecutors.resolve(config));
     }
 
     public RunnableInterface<Input, Output> bind(Map<String, Object> extraAttributes) {
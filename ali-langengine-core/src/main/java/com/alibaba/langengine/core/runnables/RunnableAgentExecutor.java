@@ -22,6 +22,7 @@ import com.alibaba.langengine.core.agent.AgentFinish;
 import com.alibaba.langengine.core.agent.AgentNextStep;
 import com.alibaba.langengine.core.agent.semantickernel.skill.SemanticKernelSkill;
 import com.alibaba.langengine.core.tool.BaseTool;
+import com.alibaba.langengine.core.tool.ParallelToolExecutor;
 import com.alibaba.langengine.core.tool.ToolExecuteResult;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -94,6 +95,11 @@ public class RunnableAgentExecutor extends Runnable<RunnableHashMap, RunnableHas
      */
     private Function<List<BaseTool>, RunnableHashMap> toolPromptTransform;
 
+    /**
+     * 同一轮包含多个工具调用时并行执行，为空时按顺序执行
+     */
+    private ParallelToolExecutor parallelToolExecutor;
+
     public RunnableAgentExecutor(RunnableAgent agent, List<BaseTool> tools) {
         this(agent, tools, null);
     }
@@ -295,16 +301,41 @@ public class RunnableAgentExecutor extends Runnable<RunnableHashMap, RunnableHas
             boolean finished = false;
             AgentFinish agentFinish = new AgentFinish();
 
-            for (AgentAction childAction : agentAction.getActions()) {
-                String toolName = containToolName(childAction.getTool());
-                if (StringUtils.isEmpty(toolName)) {
-                    String error = String.format("Call llm tool_calls is %s, but the toolName is not exists.", childAction.getTool());
-                    log.info(error);
-                    return returnStoppedResponse(!StringUtils.isEmpty(childAction.getLog()) ? childAction.getLog() : error);
+            List<AgentAction> childActions = agentAction.getActions();
+            List<ToolExecuteResult> parallelResults = null;
+            if (parallelToolExecutor != null && childActions.size() > 1) {
+                // 先解析全部工具，任一工具不存在时不发起调用
+                List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+                Consumer<Object> safeConsumer = chunkConsumer != null ? chunk -> {
+                    synchronized (chunkConsumer) {
+                        chunkConsumer.accept(chunk);
+                    }
+                } : null;
+                for (AgentAction childAction : childActions) {
+                    String toolName = containToolName(childAction.getTool());
+                    if (StringUtils.isEmpty(toolName)) {
+                        return returnToolNotExists(childAction);
+                    }
+                    BaseTool tool = nameToToolMap.get(toolName);
+                    calls.add(new ParallelToolExecutor.ToolCall(tool, childAction.getToolInput(),
+                            () -> tool.invoke(childAction.getToolInput(), config, safeConsumer)));
                 }
-                BaseTool tool = nameToToolMap.get(toolName);
+                parallelResults = parallelToolExecutor.execute(calls, RunnableExecutors.resolve(config));
+            }
 
-                ToolExecuteResult toolExecuteResult = tool.invoke(childAction.getToolInput(), config, chunkConsumer);
+            for (int i = 0; i < childActions.size(); i++) {
+                AgentAction childAction = childActions.get(i);
+                ToolExecuteResult toolExecuteResult;
+                if (parallelResults != null) {
+                    toolExecuteResult = parallelResults.get(i);
+                } else {
+                    String toolName = containToolName(childAction.getTool());
+                    if (StringUtils.isEmpty(toolName)) {
+                        return returnToolNotExists(childAction);
+                    }
+                    BaseTool tool = nameToToolMap.get(toolName);
+                    toolExecuteResult = tool.invoke(childAction.getToolInput(), config, chunkConsumer);
+                }
                 if (toolExecuteResult == null) {
                     log.error("tool invoke response error");
                     return returnStoppedResponse();
@@ -312,6 +343,7 @@ public class RunnableAgentExecutor extends Runnable<RunnableHashMap, RunnableHas
 
                 if (!CollectionUtils.isEmpty(toolExecuteResult.getNextTools())) {
                     childAction.setNextTools(toolExecuteResult.getNextTools());
+                    agentAction.mergeNextTools(toolExecuteResult.getNextTools());
                 }
                 childAction.setObservation(toolExecuteResult.getOutput());
 
@@ -373,6 +405,12 @@ public class RunnableAgentExecutor extends Runnable<RunnableHashMap, RunnableHas
         }
     }
 
+    private AgentFinish returnToolNotExists(AgentAction childAction) {
+        String error = String.format("Call llm tool_calls is %s, but the toolName is not exists.", childAction.getTool());
+        log.info(error);
+        return returnStoppedResponse(!StringUtils.isEmpty(childAction.getLog()) ? childAction.getLog() : error);
+    }
+
     protected String containToolName(String toolName) {
         if(nameToToolMap.get(toolName) != null) {
             return toolName;
@@ -20,6 +20,7 @@ import lombok.Data;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import com.alibaba.langengine.core.callback.ExecutionContext;
 
@@ -49,10 +50,26 @@ public class RunnableConfig {
     private String runName;
 
     /**
-     * 并行调用的最大数量。如果未提供，则默认为ThreadPoolExecutor的默认值。
+     * 并行调用的最大数量。如果未提供，则不限制单次调用的并发数，仅受线程池大小约束。
      */
     private Integer maxConcurrency;
 
+    /**
+     * 一次调用包含多个输入(如多个prompt)时是否隔离单个输入的异常。开启后某个输入失败不影响其他输入，
+     * 异常按输入位置返回(如LLMResult.errors)而不是整体抛出
+     */
+    private boolean isolateErrors = false;
+
+    /**
+     * 异步及并行调用使用的线程池名称，见RunnableExecutors；为空时使用默认有界线程池
+     */
+    private String executorName;
+
+    /**
+     * 异步及并行调用使用的执行器，优先于executorName
+     */
+    private transient Executor executor;
+
     /**
      * 调用可以递归的最大次数。 如果未提供，则默认为 25。
      */
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.runnables;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带运行指标的具名执行器，包装实际的线程池
+ *
+ * 池内线程再次提交任务且池中已无空闲线程时，任务直接在当前线程执行，避免嵌套的并行链互相等待造成线程池死锁
+ */
+public class RunnableExecutor implements Executor {
+
+    private static final ThreadLocal<RunnableExecutor> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+
+    private final Executor delegate;
+
+    /**
+     * 最大线程数，用于判断嵌套提交时是否还有空闲线程
+     */
+    private final int maximumThreads;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    private final LongAdder submittedCount = new LongAdder();
+
+    private final LongAdder completedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder inlineCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public RunnableExecutor(String name, Executor delegate, int maximumThreads) {
+        this.name = name;
+        this.delegate = delegate;
+        this.maximumThreads = maximumThreads;
+    }
+
+    @Override
+    public void execute(java.lang.Runnable task) {
+        submittedCount.increment();
+        if (CURRENT.get() == this && activeCount.get() >= maximumThreads) {
+            inlineCount.increment();
+            run(task);
+            return;
+        }
+        queuedCount.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queuedCount.decrementAndGet();
+                run(task);
+            });
+        } catch (RejectedExecutionException e) {
+            queuedCount.decrementAndGet();
+            rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    private void run(java.lang.Runnable task) {
+        RunnableExecutor previous = CURRENT.get();
+        CURRENT.set(this);
+        activeCount.incrementAndGet();
+        try {
+            task.run();
+            completedCount.increment();
+        } catch (RuntimeException | Error e) {
+            failedCount.increment();
+            throw e;
+        } finally {
+            activeCount.decrementAndGet();
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Executor getDelegate() {
+        return delegate;
+    }
+
+    public int getMaximumThreads() {
+        return maximumThreads;
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * 已提交等待执行的任务数
+     */
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 因池内无空闲线程而在提交线程中直接执行的任务数
+     */
+    public long getInlineCount() {
+        return inlineCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RunnableExecutor{name=" + name
+                + ", maximumThreads=" + maximumThreads
+                + ", active=" + getActiveCount()
+                + ", queued=" + getQueuedCount()
+                + ", submitted=" + getSubmittedCount()
+                + ", completed=" + getCompletedCount()
+                + ", failed=" + getFailedCount()
+                + ", inline=" + getInlineCount()
+                + ", rejected=" + getRejectedCount() + "}";
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.runnables;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runnable异步执行使用的具名线程池注册表
+ *
+ * - 默认使用有界线程池执行异步调用，不再占用ForkJoinPool.commonPool
+ * - 可按名称注册独立线程池，通过RunnableConfig.executorName选择
+ * - JDK21及以上可选择虚拟线程(VIRTUAL)，低版本自动退回默认线程池
+ */
+@Slf4j
+public final class RunnableExecutors {
+
+    public static final String DEFAULT = "default";
+
+    public static final String VIRTUAL = "virtual";
+
+    /**
+     * 默认线程池的线程数
+     */
+    public static final int DEFAULT_POOL_SIZE = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * 默认线程池的队列长度，队列满时由提交线程执行
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final Map<String, RunnableExecutor> EXECUTORS = new ConcurrentHashMap<>();
+
+    private RunnableExecutors() {
+    }
+
+    /**
+     * 获取具名线程池，不存在时按默认配置创建
+     *
+     * @param name
+     * @return
+     */
+    public static RunnableExecutor get(String name) {
+        String key = name != null ? name : DEFAULT;
+        RunnableExecutor executor = EXECUTORS.get(key);
+        if (executor != null) {
+            return executor;
+        }
+        if (VIRTUAL.equals(key)) {
+            executor = createVirtual();
+            RunnableExecutor previous = EXECUTORS.putIfAbsent(VIRTUAL, executor);
+            return previous != null ? previous : executor;
+        }
+        return EXECUTORS.computeIfAbsent(key, k -> createBounded(k, DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY));
+    }
+
+    /**
+     * 注册有界线程池
+     *
+     * @param name
+     * @param poolSize
+     * @param queueCapacity
+     * @return
+     */
+    public static RunnableExecutor register(String name, int poolSize, int queueCapacity) {
+        return register(createBounded(name, poolSize, queueCapacity));
+    }
+
+    /**
+     * 注册自定义执行器
+     *
+     * @param name
+     * @param executor
+     * @param maximumThreads
+     * @return
+     */
+    public static RunnableExecutor register(String name, Executor executor, int maximumThreads) {
+        return register(new RunnableExecutor(name, executor, maximumThreads));
+    }
+
+    public static Collection<RunnableExecutor> getExecutors() {
+        return new ArrayList<>(EXECUTORS.values());
+    }
+
+    /**
+     * 按RunnableConfig选择执行器：优先使用指定的executor，其次按executorName，最后使用默认线程池
+     *
+     * @param config
+     * @return
+     */
+    public static Executor resolve(RunnableConfig config) {
+        if (config != null && config.getExecutor() != null) {
+            return config.getExecutor();
+        }
+        return get(config != null ? config.getExecutorName() : null);
+    }
+
+    /**
+     * 并发执行一组任务，结果与任务顺序一致
+     *
+     * - 同时运行的任务数不超过RunnableConfig.maxConcurrency
+     * - 任一任务失败或整体超过parallelSecondTimeout时，取消(中断)其余任务并抛出
+     *
+     * @param tasks
+     * @param config
+     * @param <T>
+     * @return
+     */
+    public static <T> List<T> invokeAll(List<Supplier<T>> tasks, RunnableConfig config) throws Exception {
+        Executor executor = resolve(config);
+        int timeoutSeconds = config != null ? config.getParallelSecondTimeout() : 1200;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        Integer maxConcurrency = config != null ? config.getMaxConcurrency() : null;
+        Semaphore semaphore = maxConcurrency != null && maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+
+        List<FutureTask<T>> futures = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            for (Supplier<T> task : tasks) {
+                if (failure.get() != null) {
+                    break;
+                }
+                if (semaphore != null && !semaphore.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException("parallel tasks timeout after " + timeoutSeconds + "s");
+                }
+                FutureTask<T> future = new FutureTask<T>(() -> {
+                    try {
+                        return task.get();
+                    } catch (Throwable t) {
+                        if (failure.compareAndSet(null, t)) {
+                            cancel(futures);
+                        }
+                        throw t;
+                    }
+                }) {
+                    private final AtomicBoolean released = new AtomicBoolean();
+
+                    @Override
+                    protected void done() {
+                        // 正常结束、异常及取消(包括尚未开始执行就被取消)都会回调，许可在这里归还
+                        if (semaphore != null && released.compareAndSet(false, true)) {
+                            semaphore.release();
+                        }
+                    }
+                };
+                futures.add(future);
+                executor.execute(future);
+            }
+
+            List<T> results = new ArrayList<>(futures.size());
+            for (FutureTask<T> future : futures) {
+                try {
+                    results.add(future.get(remaining(deadline), TimeUnit.NANOSECONDS));
+                } catch (CancellationException e) {
+                    break;
+                }
+            }
+            Throwable t = failure.get();
+            if (t != null) {
+                throw new ExecutionException(t);
+            }
+            return results;
+        } catch (Exception e) {
+            cancel(futures);
+            throw e;
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0L, deadline - System.nanoTime());
+    }
+
+    private static <T> void cancel(List<FutureTask<T>> futures) {
+        for (FutureTask<T> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static RunnableExecutor register(RunnableExecutor executor) {
+        RunnableExecutor previous = EXECUTORS.put(executor.getName(), executor);
+        if (previous != null && previous.getDelegate() instanceof ExecutorService) {
+            ((ExecutorService) previous.getDelegate()).shutdown();
+        }
+        return executor;
+    }
+
+    private static RunnableExecutor createBounded(String name, int poolSize, int queueCapacity) {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "langengine-runnable-" + name + "-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return new RunnableExecutor(name, executor, poolSize);
+    }
+
+    private static RunnableExecutor createVirtual() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new RunnableExecutor(VIRTUAL, (ExecutorService) method.invoke(null), Integer.MAX_VALUE);
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual threads are not available, fallback to default executor");
+            return get(DEFAULT);
+        }
+    }
+}
@@ -132,7 +132,7 @@ public class RunnableHashMap extends HashMap<String, Object> implements Runnable
 
     @Override
     public CompletableFuture invokeAsync(Object input, RunnableConfig config) {
-        return CompletableFuture.supplyAsync(() -> invoke(input, config));
+        return CompletableFuture.supplyAsync(() -> invoke(input, config), RunnableExecutors.resolve(config));
     }
 
     @Override
@@ -157,7 +157,7 @@ public class RunnableHashMap extends HashMap<String, Object> implements Runnable
 
     @Override
     public CompletableFuture streamAsync(Object input, RunnableConfig config, Consumer chunkConsumer) {
-        return CompletableFuture.supplyAsync(() -> stream(input, config, chunkConsumer));
+        return CompletableFuture.supplyAsync(() -> stream(input, config, chunkConsumer), RunnableExecutors.resolve(config));
     }
 
     @Override
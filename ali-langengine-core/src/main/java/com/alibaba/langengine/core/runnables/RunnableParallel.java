@@ -15,15 +15,14 @@
  */
 package com.alibaba.langengine.core.runnables;
 
-import com.google.common.collect.Lists;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Runnable that runs a mapping of Runnables in parallel, and returns a mapping of their outputs.
@@ -56,35 +55,24 @@ public class RunnableParallel extends Runnable<Object, RunnableHashMap> {
         try {
             RunnableHashMap runnableHashMap = new RunnableHashMap();
 
-            List<CompletableFuture<RunnableOutput>> futures = Lists.newArrayList();
+            // 各分支在RunnableConfig指定的线程池上并发执行，任一分支失败或超时时取消其余分支
+            List<Supplier<RunnableOutput>> tasks = new ArrayList<>();
             for (RunnableInterface step : getSteps()) {
-                CompletableFuture<RunnableOutput> future;
                 if(chunkConsumer != null) {
                     if(config != null && config.isStreamLog()) {
-                        future = step.streamLogAsync(input, config, chunkConsumer);
+                        tasks.add(() -> (RunnableOutput) step.streamLog(input, config, chunkConsumer));
                     } else {
-                        future = step.streamAsync(input, config, chunkConsumer);
+                        tasks.add(() -> (RunnableOutput) step.stream(input, config, chunkConsumer));
                     }
                 } else {
-                    future = step.invokeAsync(input, config);
+                    tasks.add(() -> (RunnableOutput) step.invoke(input, config));
                 }
-                futures.add(future);
-            }
-
-            // 使用 allOf 等待所有的 CompletableFuture 完成
-            CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-
-            // 阻塞并等待所有 future 完成
-            if(config != null) {
-                allFutures.get(config.getParallelSecondTimeout(), TimeUnit.SECONDS);
-            } else {
-                allFutures.get(1200, TimeUnit.SECONDS);
             }
+            List<RunnableOutput> responses = RunnableExecutors.invokeAll(tasks, config);
 
             int counter = 0;
-            // 之后获取每个 CompletableFuture 的结果
-            for (CompletableFuture<RunnableOutput> future : futures) {
-                RunnableOutput response  = future.get();
+            // 按分支顺序合并结果
+            for (RunnableOutput response : responses) {
                 if(response instanceof RunnableHashMap) {
                     runnableHashMap.putAll((RunnableHashMap)response);
                 } else {
@@ -39,4 +39,20 @@ public class RunnableTraceData {
     private Boolean success = true;
     private String code;
     private String message;
+
+    public RunnableTraceData copy() {
+        RunnableTraceData copy = new RunnableTraceData();
+        copy.setModelType(modelType);
+        copy.setModelName(modelName);
+        copy.setToolName(toolName);
+        copy.setToolDesc(toolDesc);
+        copy.setToolResult(toolResult);
+        copy.setStep(step);
+        copy.setStartTime(startTime);
+        copy.setExecuteTime(executeTime);
+        copy.setSuccess(success);
+        copy.setCode(code);
+        copy.setMessage(message);
+        return copy;
+    }
 }
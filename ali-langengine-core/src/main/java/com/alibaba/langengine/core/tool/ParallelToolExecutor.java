@@ -0,0 +1,301 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.tool;
+
+import com.alibaba.langengine.core.runnables.RunnableExecutors;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 并行执行同一轮中的多个工具调用
+ *
+ * - 在有界线程池上并发执行，同时运行的调用数不超过maxConcurrency；超时但忽略中断仍在运行的调用继续占用名额，直到真正结束
+ * - 每个调用单独计算超时，超时后取消(中断)该调用；等待名额超过超时时间的调用不再启动，按超时处理
+ * - 失败和超时只影响对应的调用，以错误描述作为该工具的observation，其余调用照常返回
+ * - 线程池拒绝的调用按失败处理，不会退回到调用线程上无超时地执行
+ * - 结果顺序与调用顺序一致
+ */
+@Slf4j
+@Data
+public class ParallelToolExecutor {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    public static final long DEFAULT_TOOL_TIMEOUT_MILLIS = 60_000L;
+
+    private static final long ACQUIRE_POLL_MILLIS = 10L;
+
+    /**
+     * 执行工具调用的线程池，为空时使用调用方指定的线程池或工具调用专用线程池
+     * 自定义线程池应在饱和时拒绝任务(抛出RejectedExecutionException)，CallerRunsPolicy会让工具在调用线程上执行，超时无法生效
+     */
+    private transient Executor executor;
+
+    /**
+     * 单轮同时运行的最大调用数
+     */
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    /**
+     * 单个工具调用的超时时间(毫秒)，小于等于0时不限制
+     */
+    private long toolTimeoutMillis = DEFAULT_TOOL_TIMEOUT_MILLIS;
+
+    /**
+     * 工具调用耗时回调
+     */
+    private transient ToolLatencyListener latencyListener;
+
+    /**
+     * 单个工具调用
+     */
+    @Data
+    public static class ToolCall {
+
+        private final BaseTool tool;
+
+        private final String toolInput;
+
+        private final Supplier<ToolExecuteResult> task;
+    }
+
+    /**
+     * 并行执行工具调用
+     *
+     * @param calls           工具调用
+     * @param defaultExecutor 未配置executor时使用的线程池，为空时使用工具调用专用线程池
+     * @return 与调用顺序一致的结果，工具自身返回null时对应位置为null
+     */
+    public List<ToolExecuteResult> execute(List<ToolCall> calls, Executor defaultExecutor) {
+        Executor target = executor != null ? executor
+                : defaultExecutor != null ? defaultExecutor : DefaultPool.INSTANCE;
+        Semaphore semaphore = new Semaphore(Math.max(1, maxConcurrency));
+        List<RunningCall> running = new ArrayList<>(calls.size());
+        try {
+            for (ToolCall call : calls) {
+                // 等待空闲名额期间，超时的调用会被取消，结束后让出名额
+                long waitDeadline = toolTimeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(toolTimeoutMillis) : 0L;
+                boolean acquired;
+                while (!(acquired = semaphore.tryAcquire(ACQUIRE_POLL_MILLIS, TimeUnit.MILLISECONDS))) {
+                    for (RunningCall runningCall : running) {
+                        runningCall.expireIfOverdue();
+                    }
+                    if (waitDeadline != 0L && System.nanoTime() - waitDeadline >= 0) {
+                        break;
+                    }
+                }
+                RunningCall runningCall = new RunningCall(call, semaphore);
+                running.add(runningCall);
+                if (acquired) {
+                    try {
+                        target.execute(runningCall.future);
+                    } catch (RejectedExecutionException e) {
+                        runningCall.reject(e);
+                    }
+                } else {
+                    runningCall.skip();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.forEach(runningCall -> runningCall.future.cancel(true));
+            throw new RuntimeException("parallel tool calls interrupted", e);
+        }
+
+        List<ToolExecuteResult> results = new ArrayList<>(running.size());
+        for (RunningCall runningCall : running) {
+            results.add(runningCall.await());
+        }
+        return results;
+    }
+
+    /**
+     * 执行中的调用，名额只在调用真正结束(或尚未开始即被取消)时释放，耗时回调只发生一次
+     */
+    private class RunningCall {
+
+        private final ToolCall call;
+
+        private final Semaphore semaphore;
+
+        private final long start = System.nanoTime();
+
+        private final long deadline;
+
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        /**
+         * 调用已开始执行或已确定不再执行，由抢到的一方负责释放名额
+         */
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private final FutureTask<ToolExecuteResult> future;
+
+        /**
+         * 线程池拒绝时的异常
+         */
+        private volatile RejectedExecutionException rejected;
+
+        private RunningCall(ToolCall call, Semaphore semaphore) {
+            this.call = call;
+            this.semaphore = semaphore;
+            this.deadline = toolTimeoutMillis > 0 ? start + TimeUnit.MILLISECONDS.toNanos(toolTimeoutMillis) : 0L;
+            this.future = new FutureTask<>(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    // 开始前已被取消，名额已由取消方归还
+                    throw new CancellationException();
+                }
+                Throwable error = null;
+                try {
+                    return call.getTask().get();
+                } catch (RuntimeException | Error t) {
+                    error = t;
+                    throw t;
+                } finally {
+                    semaphore.release();
+                    finish(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), error);
+                }
+            });
+        }
+
+        /**
+         * 等待名额超时，不再启动
+         */
+        private void skip() {
+            started.set(true);
+            if (finish(toolTimeoutMillis, new TimeoutException("tool " + call.getTool().getName() + " timeout"))) {
+                log.warn("tool {} not started, no free slot within {}ms", call.getTool().getName(), toolTimeoutMillis);
+            }
+            future.cancel(false);
+        }
+
+        /**
+         * 线程池拒绝执行，按失败处理并归还名额
+         */
+        private void reject(RejectedExecutionException e) {
+            rejected = e;
+            if (started.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+            if (finish(0L, e)) {
+                log.warn("tool {} rejected by executor", call.getTool().getName());
+            }
+            future.cancel(false);
+        }
+
+        private void expireIfOverdue() {
+            if (deadline != 0L && !future.isDone() && System.nanoTime() - deadline >= 0) {
+                timeout();
+            }
+        }
+
+        private TimeoutException timeout() {
+            TimeoutException exception = new TimeoutException("tool " + call.getTool().getName() + " timeout");
+            if (finish(toolTimeoutMillis, exception)) {
+                log.warn("tool {} timeout after {}ms", call.getTool().getName(), toolTimeoutMillis);
+            }
+            future.cancel(true);
+            if (started.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+            return exception;
+        }
+
+        private boolean finish(long latencyMillis, Throwable error) {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            onLatency(call, latencyMillis, error);
+            return true;
+        }
+
+        private ToolExecuteResult await() {
+            String toolName = call.getTool().getName();
+            if (rejected != null) {
+                return new ToolExecuteResult(String.format("Tool %s was rejected by executor.", toolName));
+            }
+            try {
+                if (deadline == 0L) {
+                    return future.get();
+                }
+                return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timeout();
+                return new ToolExecuteResult(String.format("Tool %s timed out after %dms.", toolName, toolTimeoutMillis));
+            } catch (CancellationException e) {
+                return new ToolExecuteResult(String.format("Tool %s timed out after %dms.", toolName, toolTimeoutMillis));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("tool {} execute error", toolName, cause);
+                return new ToolExecuteResult(String.format("Tool %s failed: %s", toolName, cause.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return new ToolExecuteResult(String.format("Tool %s was interrupted.", toolName));
+            }
+        }
+    }
+
+    private void onLatency(ToolCall call, long latencyMillis, Throwable error) {
+        if (latencyListener == null) {
+            return;
+        }
+        try {
+            latencyListener.onToolLatency(call.getTool(), call.getToolInput(), latencyMillis, error);
+        } catch (Throwable t) {
+            log.warn("tool latency listener error", t);
+        }
+    }
+
+    /**
+     * 工具调用专用线程池，队列满时拒绝，不与RunnableExecutors默认线程池的CallerRunsPolicy共用
+     */
+    private static final class DefaultPool {
+
+        private static final ThreadPoolExecutor INSTANCE = create();
+
+        private static ThreadPoolExecutor create() {
+            AtomicInteger index = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(RunnableExecutors.DEFAULT_POOL_SIZE, RunnableExecutors.DEFAULT_POOL_SIZE,
+                    60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(RunnableExecutors.DEFAULT_QUEUE_CAPACITY),
+                    r -> {
+                        Thread thread = new Thread(r, "langengine-tool-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.tool;
+
+/**
+ * 工具调用耗时回调
+ */
+@FunctionalInterface
+public interface ToolLatencyListener {
+
+    /**
+     * 单个工具调用结束（成功、失败或超时）时回调，可能在工具执行线程中调用
+     *
+     * @param tool          工具
+     * @param toolInput     工具输入
+     * @param latencyMillis 耗时，超时时为超时时间
+     * @param error         失败或超时的异常，成功时为null
+     */
+    void onToolLatency(BaseTool tool, String toolInput, long latencyMillis, Throwable error);
+}
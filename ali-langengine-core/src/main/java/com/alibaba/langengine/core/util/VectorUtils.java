@@ -15,6 +15,7 @@
  */
 package com.alibaba.langengine.core.util;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -119,4 +120,200 @@ public class VectorUtils {
         
         return Math.sqrt(sum);
     }
+
+    /**
+     * 计算两个向量的点积 (float数组版本，按4路展开以便JIT向量化)
+     *
+     * @param vector1 第一个向量
+     * @param vector2 第二个向量
+     * @return 点积
+     */
+    public static float dotProduct(float[] vector1, float[] vector2) {
+        return dotProduct(vector1, 0, vector2, 0, Math.min(vector1.length, vector2.length));
+    }
+
+    /**
+     * 计算两个数组片段的点积，用于行连续存储的向量矩阵
+     *
+     * @param vector1 第一个数组
+     * @param offset1 第一个数组的起始位置
+     * @param vector2 第二个数组
+     * @param offset2 第二个数组的起始位置
+     * @param length 维度
+     * @return 点积
+     */
+    public static float dotProduct(float[] vector1, int offset1, float[] vector2, int offset2, int length) {
+        float s0 = 0.0F, s1 = 0.0F, s2 = 0.0F, s3 = 0.0F;
+        int i = 0;
+        int bound = length & ~3;
+        for (; i < bound; i += 4) {
+            s0 += vector1[offset1 + i] * vector2[offset2 + i];
+            s1 += vector1[offset1 + i + 1] * vector2[offset2 + i + 1];
+            s2 += vector1[offset1 + i + 2] * vector2[offset2 + i + 2];
+            s3 += vector1[offset1 + i + 3] * vector2[offset2 + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += vector1[offset1 + i] * vector2[offset2 + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * 计算向量的L2范数
+     *
+     * @param vector 向量
+     * @return L2范数
+     */
+    public static float norm(float[] vector) {
+        return (float) Math.sqrt(dotProduct(vector, vector));
+    }
+
+    /**
+     * 计算两个向量的余弦相似度 (float数组版本)
+     *
+     * @param vector1 第一个向量
+     * @param vector2 第二个向量
+     * @return 余弦相似度值，任一向量为零向量时返回0
+     */
+    public static float calculateCosineSimilarity(float[] vector1, float[] vector2) {
+        if (vector1 == null || vector2 == null || vector1.length == 0 || vector2.length == 0) {
+            throw new IllegalArgumentException("Invalid vectors for similarity calculation");
+        }
+        if (vector1.length != vector2.length) {
+            throw new IllegalArgumentException("Vectors must have the same size");
+        }
+        float normA = norm(vector1);
+        float normB = norm(vector2);
+        if (normA == 0.0F || normB == 0.0F) {
+            return 0.0F;
+        }
+        return dotProduct(vector1, vector2) / (normA * normB);
+    }
+
+    /**
+     * 归一化向量，返回新的数组，零向量原样拷贝
+     *
+     * @param vector 向量
+     * @return 单位向量
+     */
+    public static float[] normalize(float[] vector) {
+        float[] normalized = new float[vector.length];
+        float norm = norm(vector);
+        if (norm == 0.0F) {
+            System.arraycopy(vector, 0, normalized, 0, vector.length);
+            return normalized;
+        }
+        float inv = 1.0F / norm;
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * inv;
+        }
+        return normalized;
+    }
+
+    /**
+     * List&lt;Double&gt;转换为float数组
+     *
+     * @param vector 向量
+     * @return float数组，入参为null时返回null
+     */
+    public static float[] toFloatArray(List<? extends Number> vector) {
+        if (vector == null) {
+            return null;
+        }
+        float[] array = new float[vector.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = vector.get(i).floatValue();
+        }
+        return array;
+    }
+
+    /**
+     * float数组转换为List&lt;Double&gt;
+     *
+     * @param vector 向量
+     * @return List，入参为null时返回null
+     */
+    public static List<Double> toDoubleList(float[] vector) {
+        if (vector == null) {
+            return null;
+        }
+        List<Double> list = new ArrayList<>(vector.length);
+        for (float v : vector) {
+            list.add((double) v);
+        }
+        return list;
+    }
+
+    /**
+     * 解析JSON数组形式的向量字符串，如"[0.1,0.2]"或带引号的字符串数组，不经过JSON库和装箱
+     *
+     * @param vectorString 向量字符串
+     * @return float数组，格式不合法时返回null
+     */
+    public static float[] parseVector(String vectorString) {
+        if (vectorString == null) {
+            return null;
+        }
+        int start = vectorString.indexOf('[');
+        int end = vectorString.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            return null;
+        }
+        int count = 0;
+        boolean hasValue = false;
+        for (int i = start + 1; i < end; i++) {
+            char c = vectorString.charAt(i);
+            if (c == ',') {
+                count++;
+            } else if (!Character.isWhitespace(c)) {
+                hasValue = true;
+            }
+        }
+        if (!hasValue) {
+            return new float[0];
+        }
+        float[] vector = new float[count + 1];
+        int index = 0;
+        int tokenStart = start + 1;
+        for (int i = start + 1; i <= end; i++) {
+            if (i == end || vectorString.charAt(i) == ',') {
+                int s = tokenStart;
+                int e = i;
+                while (s < e && (Character.isWhitespace(vectorString.charAt(s)) || vectorString.charAt(s) == '"')) {
+                    s++;
+                }
+                while (e > s && (Character.isWhitespace(vectorString.charAt(e - 1)) || vectorString.charAt(e - 1) == '"')) {
+                    e--;
+                }
+                try {
+                    vector[index++] = Float.parseFloat(vectorString.substring(s, e));
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+                tokenStart = i + 1;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * float数组序列化为JSON数组字符串
+     *
+     * @param vector 向量
+     * @return JSON数组字符串
+     */
+    public static String toVectorString(float[] vector) {
+        if (vector == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(vector.length * 12 + 2);
+        builder.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(vector[i]);
+        }
+        return builder.append(']').toString();
+    }
 }
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * 暴力检索索引，逐行扫描连续存储的向量矩阵
+ */
+public class BruteForceVectorIndex implements VectorIndex {
+
+    private final VectorStorage storage;
+
+    public BruteForceVectorIndex(VectorStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void add(int id) {
+        // 扫描时直接读取存储，无需额外结构
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k, double minSimilarity) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<SearchHit> hits = new PriorityQueue<>(comparingDouble(SearchHit::score));
+        int size = storage.size();
+        for (int id = 0; id < size; id++) {
+            float score = storage.dot(id, query);
+            if (score < minSimilarity) {
+                continue;
+            }
+            if (hits.size() < k) {
+                hits.add(new SearchHit(id, score));
+            } else if (score > hits.peek().score()) {
+                hits.poll();
+                hits.add(new SearchHit(id, score));
+            }
+        }
+        List<SearchHit> result = new ArrayList<>(hits);
+        result.sort(comparingDouble(SearchHit::score));
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -15,28 +15,25 @@
  */
 package com.alibaba.langengine.core.vectorstore.memory;
 
-import java.util.ArrayList;
+import com.alibaba.langengine.core.util.VectorUtils;
+
 import java.util.Arrays;
 import java.util.List;
 
 public class EmbeddingValueEntity {
 
-    private final Double[] vector;
+    private final float[] vector;
 
-    public EmbeddingValueEntity(Double[] vector) {
+    public EmbeddingValueEntity(float[] vector) {
         this.vector = vector;
     }
 
-    public Double[] vector() {
+    public float[] vector() {
         return vector;
     }
 
     public List<Double> vectorAsList() {
-        List<Double> list = new ArrayList<>(vector.length);
-        for (Double f : vector) {
-            list.add(f);
-        }
-        return list;
+        return VectorUtils.toDoubleList(vector);
     }
 
     @Override
@@ -59,15 +56,19 @@ public class EmbeddingValueEntity {
                 " }";
     }
 
-    public static EmbeddingValueEntity from(Double[] vector) {
+    public static EmbeddingValueEntity from(float[] vector) {
         return new EmbeddingValueEntity(vector);
     }
 
-    public static EmbeddingValueEntity from(List<Double> vector) {
-        Double[] array = new Double[vector.size()];
-        for (int i = 0; i < vector.size(); i++) {
-            array[i] = vector.get(i);
+    public static EmbeddingValueEntity from(Double[] vector) {
+        float[] array = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            array[i] = vector[i].floatValue();
         }
         return new EmbeddingValueEntity(array);
     }
+
+    public static EmbeddingValueEntity from(List<Double> vector) {
+        return new EmbeddingValueEntity(VectorUtils.toFloatArray(vector));
+    }
 }
@@ -0,0 +1,311 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * HNSW(Hierarchical Navigable Small World)近似检索索引
+ *
+ * 向量本身保存在VectorStorage中，索引只维护各层的邻接表；
+ * 邻接表按节点加锁、写时复制，检索无锁，支持并发写入
+ */
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final int CHUNK_BITS = 10;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final VectorStorage storage;
+
+    /**
+     * 每个节点在非0层的最大邻居数
+     */
+    private final int m;
+
+    /**
+     * 第0层的最大邻居数
+     */
+    private final int maxM0;
+
+    private final int efConstruction;
+
+    private volatile int efSearch;
+
+    private final double levelMultiplier;
+
+    private final Object entryLock = new Object();
+
+    private volatile Node entryPoint;
+
+    private volatile Node[][] nodeChunks = new Node[0][];
+
+    public HnswVectorIndex(VectorStorage storage, int m, int efConstruction, int efSearch) {
+        this.storage = storage;
+        this.m = Math.max(m, 2);
+        this.maxM0 = this.m * 2;
+        this.efConstruction = Math.max(efConstruction, this.m);
+        this.efSearch = Math.max(efSearch, 1);
+        this.levelMultiplier = 1 / Math.log(this.m);
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = Math.max(efSearch, 1);
+    }
+
+    @Override
+    public void add(int id) {
+        Node node = new Node(id, randomLevel());
+        putNode(node);
+        float[] vector = storage.vector(id);
+
+        Node entry;
+        synchronized (entryLock) {
+            entry = entryPoint;
+            if (entry == null) {
+                entryPoint = node;
+                return;
+            }
+        }
+
+        Candidate current = new Candidate(entry.id, storage.dot(entry.id, vector));
+        for (int level = entry.level; level > node.level; level--) {
+            current = greedySearch(vector, current, level);
+        }
+        for (int level = Math.min(node.level, entry.level); level >= 0; level--) {
+            List<Candidate> candidates = sortDescending(searchLayer(vector, current, efConstruction, level));
+            candidates.removeIf(candidate -> candidate.id == id);
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            int[] neighbors = selectNeighbors(candidates, m);
+            node.links.set(level, neighbors);
+            int maxLinks = level == 0 ? maxM0 : m;
+            for (int neighbor : neighbors) {
+                connect(getNode(neighbor), id, level, maxLinks);
+            }
+            current = candidates.get(0);
+        }
+
+        if (node.level > entry.level) {
+            synchronized (entryLock) {
+                if (node.level > entryPoint.level) {
+                    entryPoint = node;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k, double minSimilarity) {
+        Node entry = entryPoint;
+        if (entry == null || k <= 0) {
+            return new ArrayList<>();
+        }
+        Candidate current = new Candidate(entry.id, storage.dot(entry.id, query));
+        for (int level = entry.level; level > 0; level--) {
+            current = greedySearch(query, current, level);
+        }
+        List<Candidate> candidates = sortDescending(searchLayer(query, current, Math.max(efSearch, k), 0));
+        List<SearchHit> result = new ArrayList<>(Math.min(k, candidates.size()));
+        for (Candidate candidate : candidates) {
+            if (result.size() >= k || candidate.score < minSimilarity) {
+                break;
+            }
+            result.add(new SearchHit(candidate.id, candidate.score));
+        }
+        return result;
+    }
+
+    private Candidate greedySearch(float[] query, Candidate start, int level) {
+        Candidate current = start;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbor : getNode(current.id).links.get(level)) {
+                float score = storage.dot(neighbor, query);
+                if (score > current.score) {
+                    current = new Candidate(neighbor, score);
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private PriorityQueue<Candidate> searchLayer(float[] query, Candidate entry, int ef, int level) {
+        BitSet visited = new BitSet(storage.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(comparingDouble((Candidate c) -> c.score).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(comparingDouble((Candidate c) -> c.score));
+        visited.set(entry.id);
+        candidates.add(entry);
+        results.add(entry);
+        while (!candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            if (results.size() >= ef && candidate.score < results.peek().score) {
+                break;
+            }
+            for (int neighbor : getNode(candidate.id).links.get(level)) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = storage.dot(neighbor, query);
+                if (results.size() < ef || score > results.peek().score) {
+                    Candidate next = new Candidate(neighbor, score);
+                    candidates.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 启发式选择邻居：候选点离基准点比离任何已选邻居都近时才保留，以保证邻居方向的多样性，不足时用被裁剪的候选补齐
+     *
+     * @param candidates 按与基准点相似度降序排列
+     * @param max
+     * @return
+     */
+    private int[] selectNeighbors(List<Candidate> candidates, int max) {
+        if (candidates.size() <= max) {
+            int[] neighbors = new int[candidates.size()];
+            for (int i = 0; i < neighbors.length; i++) {
+                neighbors[i] = candidates.get(i).id;
+            }
+            return neighbors;
+        }
+        int[] selected = new int[max];
+        int count = 0;
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (count >= max) {
+                break;
+            }
+            boolean keep = true;
+            for (int i = 0; i < count; i++) {
+                if (storage.dot(candidate.id, selected[i]) > candidate.score) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate.id;
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && count < max; i++) {
+            selected[count++] = pruned.get(i).id;
+        }
+        return count == max ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private void connect(Node target, int id, int level, int maxLinks) {
+        synchronized (target) {
+            int[] links = target.links.get(level);
+            if (links.length < maxLinks) {
+                int[] newLinks = Arrays.copyOf(links, links.length + 1);
+                newLinks[links.length] = id;
+                target.links.set(level, newLinks);
+                return;
+            }
+            List<Candidate> candidates = new ArrayList<>(links.length + 1);
+            for (int link : links) {
+                candidates.add(new Candidate(link, storage.dot(target.id, link)));
+            }
+            candidates.add(new Candidate(id, storage.dot(target.id, id)));
+            candidates.sort(comparingDouble((Candidate c) -> c.score).reversed());
+            target.links.set(level, selectNeighbors(candidates, maxLinks));
+        }
+    }
+
+    private List<Candidate> sortDescending(PriorityQueue<Candidate> queue) {
+        List<Candidate> list = new ArrayList<>(queue);
+        list.sort(comparingDouble((Candidate c) -> c.score));
+        Collections.reverse(list);
+        return list;
+    }
+
+    private int randomLevel() {
+        double random = ThreadLocalRandom.current().nextDouble();
+        return (int) (-Math.log(1 - random) * levelMultiplier);
+    }
+
+    private synchronized void putNode(Node node) {
+        int chunk = node.id >>> CHUNK_BITS;
+        Node[][] chunks = nodeChunks;
+        if (chunk >= chunks.length) {
+            Node[][] newChunks = new Node[chunk + 1][];
+            System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+            for (int i = chunks.length; i <= chunk; i++) {
+                newChunks[i] = new Node[CHUNK_SIZE];
+            }
+            chunks = newChunks;
+        }
+        chunks[chunk][node.id & CHUNK_MASK] = node;
+        nodeChunks = chunks;
+    }
+
+    private Node getNode(int id) {
+        return nodeChunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    private static final class Node {
+
+        private final int id;
+
+        private final int level;
+
+        private final AtomicReferenceArray<int[]> links;
+
+        private Node(int id, int level) {
+            this.id = id;
+            this.level = level;
+            this.links = new AtomicReferenceArray<>(level + 1);
+            for (int i = 0; i <= level; i++) {
+                links.set(i, new int[0]);
+            }
+        }
+    }
+
+    private static final class Candidate {
+
+        private final int id;
+
+        private final float score;
+
+        private Candidate(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -15,10 +15,11 @@
  */
 package com.alibaba.langengine.core.vectorstore.memory;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.langengine.core.embeddings.Embeddings;
 import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.util.VectorUtils;
 import com.alibaba.langengine.core.vectorstore.VectorStore;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,11 +27,11 @@ import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
-import static java.util.Comparator.comparingDouble;
-
 /**
  * 内存向量库
  *
+ * 向量归一化后行连续存储，默认暴力检索保证结果精确，数据量较大时可切换为HNSW近似检索
+ *
  * @author xiaoxuan.lp
  */
 @Slf4j
@@ -39,7 +40,31 @@ public class InMemoryDB extends VectorStore {
 
     private Embeddings embedding;
 
-    private final CopyOnWriteArrayList<EmbeddingEntity> entities = new CopyOnWriteArrayList<>();
+    /**
+     * 索引类型，需在写入数据前设置
+     */
+    private InMemoryIndexType indexType = InMemoryIndexType.BRUTE_FORCE;
+
+    /**
+     * HNSW每个节点的最大邻居数
+     */
+    private int hnswM = 16;
+
+    /**
+     * HNSW构建时的候选集大小
+     */
+    private int hnswEfConstruction = 100;
+
+    /**
+     * HNSW检索时的候选集大小，越大召回率越高
+     */
+    private int hnswEfSearch = 100;
+
+    @JsonIgnore
+    private volatile VectorStorage storage;
+
+    @JsonIgnore
+    private volatile VectorIndex index;
 
     @Override
     public void addDocuments(List<Document> documents) {
@@ -48,70 +73,83 @@ public class InMemoryDB extends VectorStore {
         }
         documents = embedding.embedDocument(documents);
         for (Document document : documents) {
-            EmbeddingValueEntity embeddingValue = new EmbeddingValueEntity(document.getEmbedding().toArray(new Double[0]));
+            float[] vector = document.getEmbeddingVector();
+            if (vector == null || vector.length == 0) {
+                continue;
+            }
             // 阮萤发现NPE的bug
-            entities.add(new EmbeddingEntity(document.getUniqueId(), embeddingValue, document.getPageContent(),
-                    document.getMetadata() != null && document.getMetadata().get("name") != null ? document.getMetadata().get("name").toString() : null));
+            // 向量只保存在storage中，entity不重复持有
+            EmbeddingEntity entity = new EmbeddingEntity(document.getUniqueId(), null, document.getPageContent(),
+                    document.getMetadata() != null && document.getMetadata().get("name") != null ? document.getMetadata().get("name").toString() : null);
+            int id = getOrCreateStorage(vector.length).append(VectorUtils.normalize(vector), entity);
+            index.add(id);
         }
     }
 
     @Override
     public List<Document> similaritySearch(String query, int k, Double maxDistanceValue, Integer type) {
-        List<String> embeddingStrings = embedding.embedQuery(query, k);
-        if (embeddingStrings.size() == 0 || !embeddingStrings.get(0).startsWith("[")) {
+        VectorStorage currentStorage = storage;
+        if (currentStorage == null) {
+            return new ArrayList<>();
+        }
+        VectorIndex currentIndex = index;
+        float[] queryVector = embedding.embedQueryVector(query);
+        if (queryVector == null || queryVector.length != currentStorage.dimension()) {
             return new ArrayList<>();
         }
-        String embeddingString = embeddingStrings.get(0);
-        List<String> embeddings = JSON.parseArray(embeddingString, String.class);
-
-        EmbeddingValueEntity referenceEmbedding = EmbeddingValueEntity.from(embeddings.stream()
-                .map(embedding -> Double.parseDouble(embedding))
-                .collect(Collectors.toList()));
-
-        Comparator<EmbeddingMatch> comparator = comparingDouble(EmbeddingMatch::score);
-        PriorityQueue<EmbeddingMatch> matches = new PriorityQueue<>(comparator);
 
         double minSimilarity = -1;
         if(maxDistanceValue != null) {
             minSimilarity = maxDistanceValue;
         }
-        for (EmbeddingEntity entity : entities) {
-            double similarity = cosineSimilarity(entity.embeddingValue, referenceEmbedding);
-            if (similarity >= minSimilarity) {
-                matches.add(new EmbeddingMatch(entity.id, entity.embeddingValue, similarity, entity.content, entity.name));
-                if (matches.size() > k) {
-                    matches.poll();
-                }
-            }
-        }
+        List<VectorIndex.SearchHit> hits = currentIndex.search(VectorUtils.normalize(queryVector), k, minSimilarity);
 
-        List<EmbeddingMatch> result = new ArrayList<>(matches);
-        result.sort(comparingDouble(EmbeddingMatch::score));
-        Collections.reverse(result);
-
-        return result.stream().map(e -> {
+        return hits.stream().map(hit -> {
+            EmbeddingEntity entity = currentStorage.payload(hit.id());
             Document document = new Document();
-            document.setUniqueId(e.embeddingId());
-            document.setPageContent(e.content());
-            document.setScore(e.score());
+            document.setUniqueId(entity.id);
+            document.setPageContent(entity.content);
+            document.setScore((double) hit.score());
             Map<String, Object> metadata = new HashMap<>();
-            metadata.put("name", e.name());
+            metadata.put("name", entity.name);
             document.setMetadata(metadata);
             return document;
         }).collect(Collectors.toList());
     }
 
-    private float cosineSimilarity(EmbeddingValueEntity first, EmbeddingValueEntity second) {
-        float dot = 0.0F;
-        float nru = 0.0F;
-        float nrv = 0.0F;
-
-        for (int i = 0; i < first.vector().length; ++i) {
-            dot += first.vector()[i] * second.vector()[i];
-            nru += first.vector()[i] * first.vector()[i];
-            nrv += second.vector()[i] * second.vector()[i];
+    /**
+     * 已写入的全部实体快照，embeddingValue为归一化后的向量，修改返回的列表不影响向量库
+     *
+     * @return
+     */
+    public CopyOnWriteArrayList<EmbeddingEntity> getEntities() {
+        VectorStorage currentStorage = storage;
+        if (currentStorage == null) {
+            return new CopyOnWriteArrayList<>();
         }
+        int size = currentStorage.size();
+        List<EmbeddingEntity> entities = new ArrayList<>(size);
+        for (int id = 0; id < size; id++) {
+            EmbeddingEntity entity = currentStorage.payload(id);
+            entities.add(new EmbeddingEntity(entity.id, EmbeddingValueEntity.from(currentStorage.vector(id)), entity.content, entity.name));
+        }
+        return new CopyOnWriteArrayList<>(entities);
+    }
 
-        return dot / (float) (Math.sqrt(nru) * Math.sqrt(nrv));
+    private VectorStorage getOrCreateStorage(int dimension) {
+        VectorStorage current = storage;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (storage == null) {
+                VectorStorage newStorage = new VectorStorage(dimension);
+                index = indexType == InMemoryIndexType.HNSW
+                        ? new HnswVectorIndex(newStorage, hnswM, hnswEfConstruction, hnswEfSearch)
+                        : new BruteForceVectorIndex(newStorage);
+                storage = newStorage;
+            }
+            return storage;
+        }
     }
 }
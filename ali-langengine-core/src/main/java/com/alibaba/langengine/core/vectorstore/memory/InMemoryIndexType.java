@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.memory;
+
+/**
+ * 内存向量库索引类型
+ */
+public enum InMemoryIndexType {
+
+    /**
+     * 暴力检索，结果精确，适用于小规模数据及召回率校验
+     */
+    BRUTE_FORCE,
+
+    /**
+     * HNSW近似检索，适用于大规模数据
+     */
+    HNSW,
+    ;
+}
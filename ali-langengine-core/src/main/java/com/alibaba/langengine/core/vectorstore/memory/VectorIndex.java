@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.memory;
+
+import java.util.List;
+
+/**
+ * 内存向量索引，向量写入前已归一化，相似度即点积
+ */
+public interface VectorIndex {
+
+    /**
+     * 将存储中的第id行加入索引
+     *
+     * @param id
+     */
+    void add(int id);
+
+    /**
+     * 返回与查询向量最相似的k个结果，按相似度从高到低排列
+     *
+     * @param query 归一化后的查询向量
+     * @param k
+     * @param minSimilarity 最小相似度
+     * @return
+     */
+    List<SearchHit> search(float[] query, int k, double minSimilarity);
+
+    class SearchHit {
+
+        private final int id;
+
+        private final float score;
+
+        public SearchHit(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public int id() {
+            return id;
+        }
+
+        public float score() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.memory;
+
+import com.alibaba.langengine.core.util.VectorUtils;
+
+/**
+ * 连续存储的向量矩阵
+ *
+ * 向量按固定步长逐行写入分块的float数组，扩容时只复制块指针，不复制已写入的数据；
+ * 写入串行化，读取无锁，通过volatile的size发布新写入的行
+ */
+public class VectorStorage {
+
+    private static final int CHUNK_BITS = 10;
+
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+
+    private final int dimension;
+
+    private volatile float[][] vectorChunks = new float[0][];
+
+    private volatile Object[][] payloadChunks = new Object[0][];
+
+    private volatile int size;
+
+    public VectorStorage(int dimension) {
+        this.dimension = dimension;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 追加一行向量，返回行号
+     *
+     * @param vector
+     * @param payload 行附带的业务数据
+     * @return
+     */
+    public synchronized int append(float[] vector, Object payload) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Vector dimension " + vector.length + " does not match " + dimension);
+        }
+        int id = size;
+        int chunk = id >>> CHUNK_BITS;
+        if (chunk >= vectorChunks.length) {
+            float[][] newVectorChunks = new float[chunk + 1][];
+            System.arraycopy(vectorChunks, 0, newVectorChunks, 0, vectorChunks.length);
+            newVectorChunks[chunk] = new float[CHUNK_ROWS * dimension];
+            Object[][] newPayloadChunks = new Object[chunk + 1][];
+            System.arraycopy(payloadChunks, 0, newPayloadChunks, 0, payloadChunks.length);
+            newPayloadChunks[chunk] = new Object[CHUNK_ROWS];
+            vectorChunks = newVectorChunks;
+            payloadChunks = newPayloadChunks;
+        }
+        System.arraycopy(vector, 0, vectorChunks[chunk], (id & CHUNK_MASK) * dimension, dimension);
+        payloadChunks[chunk][id & CHUNK_MASK] = payload;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * 计算第id行与查询向量的点积
+     *
+     * @param id
+     * @param query
+     * @return
+     */
+    public float dot(int id, float[] query) {
+        return VectorUtils.dotProduct(vectorChunks[id >>> CHUNK_BITS], (id & CHUNK_MASK) * dimension, query, 0, dimension);
+    }
+
+    /**
+     * 计算两行之间的点积
+     *
+     * @param id1
+     * @param id2
+     * @return
+     */
+    public float dot(int id1, int id2) {
+        float[][] chunks = vectorChunks;
+        return VectorUtils.dotProduct(chunks[id1 >>> CHUNK_BITS], (id1 & CHUNK_MASK) * dimension,
+                chunks[id2 >>> CHUNK_BITS], (id2 & CHUNK_MASK) * dimension, dimension);
+    }
+
+    /**
+     * 复制第id行向量
+     *
+     * @param id
+     * @return
+     */
+    public float[] vector(int id) {
+        float[] vector = new float[dimension];
+        System.arraycopy(vectorChunks[id >>> CHUNK_BITS], (id & CHUNK_MASK) * dimension, vector, 0, dimension);
+        return vector;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T payload(int id) {
+        return (T) payloadChunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.mmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * 一代(generation)存储文件，由三部分组成：
+ *
+ * index-{gen}.idx   头部(维度、已提交行数、日志已提交长度) + 每行8字节的日志偏移，最高位为墓碑标记
+ * vectors-{gen}-{n}.seg  固定步长的float32向量行，每个分段文件独立内存映射
+ * records-{gen}.log 追加写的内容/元数据日志，每条记录带长度与CRC32
+ *
+ * 写入顺序为 日志 -> 向量 -> 偏移 -> 头部，头部中的行数最后更新并刷盘，
+ * 崩溃后超出已提交行数的数据会被忽略并在下次追加时覆盖
+ */
+class MappedGeneration {
+
+    private static final int MAGIC = 0x4C45564D;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int OFFSET_DIMENSION = 8;
+
+    private static final int OFFSET_ROWS_PER_SEGMENT = 12;
+
+    private static final int OFFSET_ROW_COUNT = 16;
+
+    private static final int OFFSET_LOG_END = 24;
+
+    private static final long TOMBSTONE = Long.MIN_VALUE;
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    static final byte RECORD_PUT = 1;
+
+    static final byte RECORD_DELETE = 2;
+
+    /**
+     * 单个分段文件上限1GB，保证单次映射不超过2GB限制
+     */
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path directory;
+
+    private final long generation;
+
+    private final int dimension;
+
+    private final int rowsPerSegment;
+
+    private final FileChannel indexChannel;
+
+    private volatile MappedByteBuffer indexBuffer;
+
+    private final List<FloatBuffer> segments = new CopyOnWriteArrayList<>();
+
+    private final List<MappedByteBuffer> segmentBuffers = new ArrayList<>();
+
+    private final FileChannel logChannel;
+
+    private volatile long rowCount;
+
+    private long pendingRowCount;
+
+    private long logEnd;
+
+    private MappedGeneration(Path directory, long generation, int dimension, int rowsPerSegment,
+                             FileChannel indexChannel, MappedByteBuffer indexBuffer, FileChannel logChannel,
+                             long rowCount, long logEnd) {
+        this.directory = directory;
+        this.generation = generation;
+        this.dimension = dimension;
+        this.rowsPerSegment = rowsPerSegment;
+        this.indexChannel = indexChannel;
+        this.indexBuffer = indexBuffer;
+        this.logChannel = logChannel;
+        this.rowCount = rowCount;
+        this.pendingRowCount = rowCount;
+        this.logEnd = logEnd;
+    }
+
+    /**
+     * 创建新的一代文件，已存在的同名文件会被清空，只能用于尚未被MANIFEST引用的代
+     */
+    static MappedGeneration create(Path directory, long generation, int dimension, int rowsPerSegment) throws IOException {
+        int segmentRows = (int) Math.max(1L, Math.min(rowsPerSegment, MAX_SEGMENT_BYTES / (dimension * 4L)));
+        FileChannel indexChannel = FileChannel.open(indexPath(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer indexBuffer = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + segmentRows * 8L);
+        indexBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        indexBuffer.putInt(0, MAGIC);
+        indexBuffer.putInt(4, VERSION);
+        indexBuffer.putInt(OFFSET_DIMENSION, dimension);
+        indexBuffer.putInt(OFFSET_ROWS_PER_SEGMENT, segmentRows);
+        indexBuffer.putLong(OFFSET_ROW_COUNT, 0L);
+        indexBuffer.putLong(OFFSET_LOG_END, 0L);
+        indexBuffer.force();
+        FileChannel logChannel = FileChannel.open(logPath(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new MappedGeneration(directory, generation, dimension, segmentRows,
+                indexChannel, indexBuffer, logChannel, 0L, 0L);
+    }
+
+    static MappedGeneration open(Path directory, long generation) throws IOException {
+        FileChannel indexChannel = FileChannel.open(indexPath(directory, generation),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer indexBuffer = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+        indexBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (indexBuffer.getInt(0) != MAGIC || indexBuffer.getInt(4) != VERSION) {
+            indexChannel.close();
+            throw new IOException("Invalid vector index file: " + indexPath(directory, generation));
+        }
+        int dimension = indexBuffer.getInt(OFFSET_DIMENSION);
+        int rowsPerSegment = indexBuffer.getInt(OFFSET_ROWS_PER_SEGMENT);
+        long rowCount = indexBuffer.getLong(OFFSET_ROW_COUNT);
+        long logEnd = indexBuffer.getLong(OFFSET_LOG_END);
+        FileChannel logChannel = FileChannel.open(logPath(directory, generation),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // 丢弃崩溃时未提交的日志尾部
+        if (logChannel.size() > logEnd) {
+            logChannel.truncate(logEnd);
+        }
+        MappedGeneration mapped = new MappedGeneration(directory, generation, dimension, rowsPerSegment,
+                indexChannel, indexBuffer, logChannel, rowCount, logEnd);
+        long segmentCount = (rowCount + rowsPerSegment - 1) / rowsPerSegment;
+        for (int i = 0; i < segmentCount; i++) {
+            mapped.mapSegment(i);
+        }
+        return mapped;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    int rowsPerSegment() {
+        return rowsPerSegment;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 追加一行，需调用commit后才对检索可见
+     *
+     * @param vector 归一化后的向量
+     * @param payload 内容/元数据的序列化结果
+     * @return 行号
+     */
+    long append(float[] vector, byte[] payload) throws IOException {
+        long row = pendingRowCount;
+        long offset = appendRecord(RECORD_PUT, row, payload);
+
+        int segment = (int) (row / rowsPerSegment);
+        while (segments.size() <= segment) {
+            mapSegment(segments.size());
+        }
+        FloatBuffer floats = segments.get(segment);
+        int base = (int) (row % rowsPerSegment) * dimension;
+        for (int i = 0; i < dimension; i++) {
+            floats.put(base + i, vector[i]);
+        }
+
+        ensureIndexCapacity(row + 1);
+        indexBuffer.putLong(HEADER_SIZE + (int) (row * 8), offset);
+        pendingRowCount = row + 1;
+        return row;
+    }
+
+    /**
+     * 标记删除，写入删除日志并在偏移索引中设置墓碑位
+     *
+     * @param row
+     * @return 该行此前是否有效
+     */
+    boolean delete(long row) throws IOException {
+        if (row < 0 || row >= pendingRowCount) {
+            return false;
+        }
+        long offset = indexBuffer.getLong(HEADER_SIZE + (int) (row * 8));
+        if ((offset & TOMBSTONE) != 0) {
+            return false;
+        }
+        appendRecord(RECORD_DELETE, row, new byte[0]);
+        indexBuffer.putLong(HEADER_SIZE + (int) (row * 8), offset | TOMBSTONE);
+        return true;
+    }
+
+    /**
+     * 刷盘并发布新的行数，数据先于头部落盘保证崩溃一致
+     */
+    void commit(boolean force) throws IOException {
+        if (force) {
+            logChannel.force(false);
+            for (MappedByteBuffer buffer : segmentBuffers) {
+                buffer.force();
+            }
+            indexBuffer.force();
+        }
+        indexBuffer.putLong(OFFSET_LOG_END, logEnd);
+        indexBuffer.putLong(OFFSET_ROW_COUNT, pendingRowCount);
+        if (force) {
+            indexBuffer.force();
+        }
+        rowCount = pendingRowCount;
+    }
+
+    boolean isDeleted(long row) {
+        return (indexBuffer.getLong(HEADER_SIZE + (int) (row * 8)) & TOMBSTONE) != 0;
+    }
+
+    long liveCount() {
+        long live = 0;
+        long count = rowCount;
+        for (long row = 0; row < count; row++) {
+            if (!isDeleted(row)) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * 计算第row行与查询向量的点积，直接读取映射内存，不复制到堆上
+     */
+    float dot(long row, float[] query) {
+        FloatBuffer floats = segments.get((int) (row / rowsPerSegment));
+        int base = (int) (row % rowsPerSegment) * dimension;
+        float s0 = 0.0F, s1 = 0.0F, s2 = 0.0F, s3 = 0.0F;
+        int i = 0;
+        int bound = dimension & ~3;
+        for (; i < bound; i += 4) {
+            s0 += floats.get(base + i) * query[i];
+            s1 += floats.get(base + i + 1) * query[i + 1];
+            s2 += floats.get(base + i + 2) * query[i + 2];
+            s3 += floats.get(base + i + 3) * query[i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += floats.get(base + i) * query[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    float[] vector(long row) {
+        FloatBuffer floats = segments.get((int) (row / rowsPerSegment));
+        int base = (int) (row % rowsPerSegment) * dimension;
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = floats.get(base + i);
+        }
+        return vector;
+    }
+
+    /**
+     * 读取第row行对应的日志记录内容，CRC校验失败时抛出IOException
+     */
+    byte[] readPayload(long row) throws IOException {
+        long offset = indexBuffer.getLong(HEADER_SIZE + (int) (row * 8)) & ~TOMBSTONE;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, offset);
+        int length = header.getInt(0);
+        int crc = header.getInt(4);
+        ByteBuffer body = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(body, offset + RECORD_HEADER_SIZE);
+        CRC32 crc32 = new CRC32();
+        crc32.update(body.array(), 0, length);
+        if ((int) crc32.getValue() != crc) {
+            throw new IOException("Corrupted record at offset " + offset);
+        }
+        // type(1) + row(8)
+        byte[] payload = new byte[length - 9];
+        System.arraycopy(body.array(), 9, payload, 0, payload.length);
+        return payload;
+    }
+
+    void close() throws IOException {
+        try {
+            logChannel.close();
+        } finally {
+            indexChannel.close();
+        }
+    }
+
+    void deleteFiles() throws IOException {
+        Files.deleteIfExists(indexPath(directory, generation));
+        Files.deleteIfExists(logPath(directory, generation));
+        for (int i = 0; ; i++) {
+            if (!Files.deleteIfExists(segmentPath(directory, generation, i))) {
+                break;
+            }
+        }
+    }
+
+    private long appendRecord(byte type, long row, byte[] payload) throws IOException {
+        int length = 1 + 8 + payload.length;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(length);
+        buffer.putInt(0);
+        buffer.put(type);
+        buffer.putLong(row);
+        buffer.put(payload);
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.array(), RECORD_HEADER_SIZE, length);
+        buffer.putInt(4, (int) crc32.getValue());
+        buffer.flip();
+        long offset = logEnd;
+        while (buffer.hasRemaining()) {
+            logEnd += logChannel.write(buffer, logEnd);
+        }
+        return offset;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = logChannel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException("Unexpected end of record log at " + current);
+            }
+            current += read;
+        }
+        buffer.flip();
+    }
+
+    private void mapSegment(int segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, generation, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) rowsPerSegment * dimension * 4);
+            segmentBuffers.add(buffer);
+            segments.add(buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
+        }
+    }
+
+    private void ensureIndexCapacity(long rows) throws IOException {
+        long required = HEADER_SIZE + rows * 8;
+        if (required <= indexBuffer.capacity()) {
+            return;
+        }
+        long capacity = Math.max(required, HEADER_SIZE + (indexBuffer.capacity() - HEADER_SIZE) * 2L);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Vector index exceeds maximum size");
+        }
+        indexBuffer.force();
+        indexBuffer = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        indexBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static Path indexPath(Path directory, long generation) {
+        return directory.resolve("index-" + generation + ".idx");
+    }
+
+    static Path logPath(Path directory, long generation) {
+        return directory.resolve("records-" + generation + ".log");
+    }
+
+    static Path segmentPath(Path directory, long generation, int segment) {
+        return directory.resolve("vectors-" + generation + "-" + segment + ".seg");
+    }
+}
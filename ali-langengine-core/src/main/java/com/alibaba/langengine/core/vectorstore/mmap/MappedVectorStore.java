@@ -0,0 +1,451 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore.mmap;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.langengine.core.embeddings.Embeddings;
+import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.util.VectorUtils;
+import com.alibaba.langengine.core.vectorstore.VectorStore;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * 基于内存映射文件的本地持久化向量库
+ *
+ * 向量以float32定长行写入分段文件并内存映射，内容与元数据写入追加日志，打开时只映射文件不加载到堆上；
+ * 删除通过墓碑标记实现，compact会将存活数据重写为新一代文件并通过MANIFEST原子切换；
+ * 写入已存在的uniqueId时覆盖旧文档
+ */
+@Slf4j
+public class MappedVectorStore extends VectorStore implements Closeable {
+
+    private static final String MANIFEST = "MANIFEST";
+
+    private static final String MANIFEST_TMP = "MANIFEST.tmp";
+
+    private Embeddings embedding;
+
+    /**
+     * 存储目录
+     */
+    private String directory;
+
+    /**
+     * 每个向量分段文件的行数，实际值会受单文件1GB上限约束
+     */
+    private int rowsPerSegment = 65536;
+
+    /**
+     * 每次写入提交时是否刷盘，关闭后仍保证写入顺序，但进程崩溃外的掉电可能丢失最近的写入
+     */
+    private boolean forceOnCommit = true;
+
+    @JsonIgnore
+    private volatile MappedGeneration current;
+
+    @JsonIgnore
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @JsonIgnore
+    private final Object writeMonitor = new Object();
+
+    /**
+     * uniqueId到行号的映射，首次按uniqueId写入或删除时通过扫描日志构建
+     */
+    @JsonIgnore
+    private Map<String, Long> uniqueIdRows;
+
+    public MappedVectorStore() {
+    }
+
+    public MappedVectorStore(String directory, Embeddings embedding) {
+        this.directory = directory;
+        this.embedding = embedding;
+        open();
+    }
+
+    /**
+     * 打开存储目录，只读取头部并映射文件
+     */
+    public void open() {
+        lock.writeLock().lock();
+        try {
+            current = load();
+            uniqueIdRows = null;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addDocuments(List<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+        // 各Embeddings实现均在原文档上回填向量
+        embedding.embedDocument(documents);
+        synchronized (writeMonitor) {
+            MappedGeneration generation;
+            try {
+                generation = ensureGeneration(documents);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (generation == null) {
+                return;
+            }
+            // 追加只写入已发布行数之后的区域，检索只读取已提交的行，写入之间由writeMonitor串行，
+            // 因此持有读锁即可，不阻塞并发检索；切换current的操作(打开、compact、close)持有写锁
+            lock.readLock().lock();
+            try {
+                if (uniqueIdRows == null && documents.stream().anyMatch(document -> document.getUniqueId() != null)) {
+                    uniqueIdRows = loadUniqueIdRows(generation);
+                }
+                List<Long> replaced = new ArrayList<>();
+                for (Document document : documents) {
+                    float[] vector = document.getEmbeddingVector();
+                    if (vector == null || vector.length == 0) {
+                        continue;
+                    }
+                    if (vector.length != generation.dimension()) {
+                        throw new IllegalArgumentException("Vector dimension " + vector.length + " does not match " + generation.dimension());
+                    }
+                    long row = generation.append(VectorUtils.normalize(vector), encode(document));
+                    if (document.getUniqueId() != null) {
+                        Long previous = uniqueIdRows.put(document.getUniqueId(), row);
+                        if (previous != null) {
+                            replaced.add(previous);
+                        }
+                    }
+                }
+                generation.commit(forceOnCommit);
+                // 新行提交后再标记删除相同uniqueId的旧行，崩溃时最多留下重复行，重建映射时会清理
+                if (!replaced.isEmpty()) {
+                    for (Long row : replaced) {
+                        generation.delete(row);
+                    }
+                    generation.commit(forceOnCommit);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(String query, int k, Double maxDistanceValue, Integer type) {
+        lock.readLock().lock();
+        try {
+            MappedGeneration generation = current;
+            if (generation == null) {
+                return new ArrayList<>();
+            }
+            float[] queryVector = embedding.embedQueryVector(query);
+            if (queryVector == null || queryVector.length != generation.dimension()) {
+                return new ArrayList<>();
+            }
+            queryVector = VectorUtils.normalize(queryVector);
+            double minSimilarity = maxDistanceValue != null ? maxDistanceValue : -1;
+
+            PriorityQueue<long[]> hits = new PriorityQueue<>(comparingDouble(hit -> Float.intBitsToFloat((int) hit[1])));
+            long rowCount = generation.rowCount();
+            for (long row = 0; row < rowCount; row++) {
+                if (generation.isDeleted(row)) {
+                    continue;
+                }
+                float score = generation.dot(row, queryVector);
+                if (score < minSimilarity) {
+                    continue;
+                }
+                if (hits.size() < k) {
+                    hits.add(new long[] { row, Float.floatToIntBits(score) });
+                } else if (score > Float.intBitsToFloat((int) hits.peek()[1])) {
+                    hits.poll();
+                    hits.add(new long[] { row, Float.floatToIntBits(score) });
+                }
+            }
+
+            List<long[]> sorted = new ArrayList<>(hits);
+            sorted.sort(comparingDouble(hit -> -Float.intBitsToFloat((int) hit[1])));
+            List<Document> documents = new ArrayList<>(sorted.size());
+            for (long[] hit : sorted) {
+                Document document = decode(generation.readPayload(hit[0]));
+                document.setScore((double) Float.intBitsToFloat((int) hit[1]));
+                documents.add(document);
+            }
+            return documents;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按uniqueId删除文档
+     *
+     * @param uniqueIds
+     * @return 实际删除的条数
+     */
+    public int delete(List<String> uniqueIds) {
+        if (uniqueIds == null || uniqueIds.isEmpty()) {
+            return 0;
+        }
+        synchronized (writeMonitor) {
+            lock.readLock().lock();
+            try {
+                MappedGeneration generation = current;
+                if (generation == null) {
+                    return 0;
+                }
+                if (uniqueIdRows == null) {
+                    uniqueIdRows = loadUniqueIdRows(generation);
+                }
+                int deleted = 0;
+                for (String uniqueId : uniqueIds) {
+                    Long row = uniqueIdRows.remove(uniqueId);
+                    if (row != null && generation.delete(row)) {
+                        deleted++;
+                    }
+                }
+                generation.commit(forceOnCommit);
+                return deleted;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 压缩：将存活数据重写为新一代文件，切换MANIFEST后删除旧文件
+     */
+    public void compact() {
+        synchronized (writeMonitor) {
+            lock.writeLock().lock();
+            try {
+                MappedGeneration previous = current;
+                if (previous == null) {
+                    return;
+                }
+                Path path = Paths.get(directory);
+                long nextGeneration = previous.generation() + 1;
+                MappedGeneration next = MappedGeneration.create(path, nextGeneration, previous.dimension(), previous.rowsPerSegment());
+                long rowCount = previous.rowCount();
+                for (long row = 0; row < rowCount; row++) {
+                    if (!previous.isDeleted(row)) {
+                        next.append(previous.vector(row), previous.readPayload(row));
+                    }
+                }
+                next.commit(true);
+                writeManifest(nextGeneration);
+                current = next;
+                uniqueIdRows = null;
+                previous.close();
+                previous.deleteFiles();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 有效(未删除)的文档数
+     *
+     * @return
+     */
+    public long size() {
+        MappedGeneration generation = current;
+        return generation != null ? generation.liveCount() : 0L;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 扫描存活行构建uniqueId映射，旧版本写入的重复uniqueId只保留最后一行，其余标记删除，由调用方提交
+     */
+    /**
+     * 获取当前代，未打开或已关闭时先按MANIFEST加载，目录中没有数据时才创建第0代
+     *
+     * @return 当前代，文档都没有向量且目录中没有数据时为null
+     */
+    private MappedGeneration ensureGeneration(List<Document> documents) throws IOException {
+        MappedGeneration generation = current;
+        if (generation != null) {
+            return generation;
+        }
+        lock.writeLock().lock();
+        try {
+            if (current == null) {
+                current = load();
+                uniqueIdRows = null;
+            }
+            if (current == null) {
+                for (Document document : documents) {
+                    float[] vector = document.getEmbeddingVector();
+                    if (vector != null && vector.length > 0) {
+                        current = MappedGeneration.create(Paths.get(directory), 0L, vector.length, rowsPerSegment);
+                        writeManifest(0L);
+                        break;
+                    }
+                }
+            }
+            return current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按MANIFEST打开当前代并清理其他代的残留文件
+     *
+     * @return 当前代，没有MANIFEST时为null
+     */
+    private MappedGeneration load() throws IOException {
+        Path path = Paths.get(directory);
+        Files.createDirectories(path);
+        Path manifest = path.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        long generation = Long.parseLong(new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8).trim());
+        removeStaleGenerations(path, generation);
+        return MappedGeneration.open(path, generation);
+    }
+
+    private Map<String, Long> loadUniqueIdRows(MappedGeneration generation) throws IOException {
+        Map<String, Long> rows = new HashMap<>();
+        long rowCount = generation.rowCount();
+        for (long row = 0; row < rowCount; row++) {
+            if (generation.isDeleted(row)) {
+                continue;
+            }
+            String uniqueId = decode(generation.readPayload(row)).getUniqueId();
+            if (uniqueId != null) {
+                Long previous = rows.put(uniqueId, row);
+                if (previous != null) {
+                    generation.delete(previous);
+                }
+            }
+        }
+        return rows;
+    }
+
+    public Embeddings getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(Embeddings embedding) {
+        this.embedding = embedding;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getRowsPerSegment() {
+        return rowsPerSegment;
+    }
+
+    public void setRowsPerSegment(int rowsPerSegment) {
+        this.rowsPerSegment = rowsPerSegment;
+    }
+
+    public boolean isForceOnCommit() {
+        return forceOnCommit;
+    }
+
+    public void setForceOnCommit(boolean forceOnCommit) {
+        this.forceOnCommit = forceOnCommit;
+    }
+
+    private void writeManifest(long generation) throws IOException {
+        Path path = Paths.get(directory);
+        Path tmp = path.resolve(MANIFEST_TMP);
+        Files.write(tmp, String.valueOf(generation).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, path.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void removeStaleGenerations(Path path, long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "{index-,records-,vectors-}*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String gen = name.substring(name.indexOf('-') + 1).split("[-.]")[0];
+                if (!gen.equals(String.valueOf(generation))) {
+                    log.warn("remove stale vector store file: " + file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(Document document) {
+        JSONObject record = new JSONObject();
+        record.put("id", document.getUniqueId());
+        record.put("content", document.getPageContent());
+        record.put("metadata", document.getMetadata());
+        return JSON.toJSONString(record).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Document decode(byte[] payload) {
+        JSONObject record = JSON.parseObject(new String(payload, StandardCharsets.UTF_8));
+        Document document = new Document();
+        document.setUniqueId(record.getString("id"));
+        document.setPageContent(record.getString("content"));
+        JSONObject metadata = record.getJSONObject("metadata");
+        if (metadata != null) {
+            document.setMetadata(new HashMap<>(metadata));
+        }
+        return document;
+    }
+}
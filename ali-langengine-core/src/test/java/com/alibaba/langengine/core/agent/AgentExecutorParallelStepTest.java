@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.agent;
+
+import com.alibaba.langengine.core.callback.BaseCallbackManager;
+import com.alibaba.langengine.core.callback.ExecutionContext;
+import com.alibaba.langengine.core.tool.BaseTool;
+import com.alibaba.langengine.core.tool.ParallelToolExecutor;
+import com.alibaba.langengine.core.tool.ToolExecuteResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgentExecutorParallelStepTest {
+
+    @Test
+    public void test_parallelStep_mergesObservationsAndNextTools() {
+        BaseTool nextSearch = tool("next_search", "unused", null);
+        BaseTool nextCalc = tool("next_calc", "unused", null);
+        BaseTool search = tool("search", "found", Collections.singletonList(nextSearch));
+        BaseTool calc = tool("calc", "42", Arrays.asList(nextCalc, nextSearch));
+
+        AgentExecutor executor = new AgentExecutor();
+        executor.setAgent(new FixedAgent(multiAction(action("search", "q"), action("calc", "6*7"))));
+        executor.setTools(Arrays.asList(search, calc));
+        executor.setParallelToolExecutor(new ParallelToolExecutor());
+
+        Map<String, BaseTool> nameToToolMap = new TreeMap<>();
+        for (BaseTool tool : executor.getTools()) {
+            nameToToolMap.put(tool.getName(), tool);
+        }
+        Object step = executor.takeNextStep(nameToToolMap, new HashMap<>(), new ArrayList<>(), null, null, null);
+
+        assertTrue(step instanceof AgentAction);
+        AgentAction action = (AgentAction) step;
+        assertEquals("found\n42", action.getObservation());
+        assertEquals("found", action.getActions().get(0).getObservation());
+        assertEquals("42", action.getActions().get(1).getObservation());
+        List<String> nextToolNames = new ArrayList<>();
+        for (BaseTool tool : action.getNextTools()) {
+            nextToolNames.add(tool.getName());
+        }
+        assertEquals(Arrays.asList("next_search", "next_calc"), nextToolNames);
+    }
+
+    private static AgentAction action(String tool, String toolInput) {
+        AgentAction action = new AgentAction();
+        action.setTool(tool);
+        action.setToolInput(toolInput);
+        return action;
+    }
+
+    private static AgentAction multiAction(AgentAction... actions) {
+        AgentAction action = new AgentAction();
+        action.setActions(new ArrayList<>(Arrays.asList(actions)));
+        return action;
+    }
+
+    private static BaseTool tool(String name, String output, List<BaseTool> nextTools) {
+        BaseTool tool = new BaseTool() {
+            @Override
+            public ToolExecuteResult run(String toolInput, ExecutionContext executionContext) {
+                ToolExecuteResult result = new ToolExecuteResult(output);
+                result.setNextTools(nextTools);
+                return result;
+            }
+        };
+        tool.setName(name);
+        return tool;
+    }
+
+    private static class FixedAgent extends BaseSingleActionAgent {
+
+        private final AgentAction action;
+
+        FixedAgent(AgentAction action) {
+            this.action = action;
+        }
+
+        @Override
+        public Object plan(List<AgentAction> intermediateSteps, Map<String, Object> inputs, Consumer<String> consumer,
+                           ExecutionContext executionContext, Map<String, Object> extraAttributes) {
+            return action;
+        }
+
+        @Override
+        public List<String> getInputKeys() {
+            return Collections.singletonList("input");
+        }
+
+        @Override
+        public void setCallbackManager(BaseCallbackManager callbackManager) {
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.caches;
+
+import com.alibaba.langengine.core.config.LangEngineConfiguration;
+import com.alibaba.langengine.core.model.FakeAI;
+import com.alibaba.langengine.core.outputs.Generation;
+import com.alibaba.langengine.core.outputs.LLMResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class LlmResponseCacheTest {
+
+    @Test
+    public void test_boundedAndScanResistant() {
+        WTinyLfuCache<Integer, Integer> cache = new WTinyLfuCache<>(100);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.put(i, i);
+                cache.getIfPresent(i);
+            }
+        }
+        // 一次性扫描不应冲掉热点数据
+        for (int i = 1000; i < 5000; i++) {
+            cache.put(i, i);
+        }
+        Assertions.assertTrue(cache.size() <= 100);
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.getIfPresent(i) != null) {
+                hot++;
+            }
+        }
+        Assertions.assertTrue(hot >= 45, "hot entries retained: " + hot);
+    }
+
+    @Test
+    public void test_weightAndExpiry() {
+        AtomicLong clock = new AtomicLong();
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<String, String>(0L, 100L, value -> value.length(), 1000L) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+        for (int i = 0; i < 50; i++) {
+            cache.put("k" + i, "0123456789");
+        }
+        Assertions.assertTrue(cache.weightedSize() <= 100);
+
+        cache.put("ttl", "v");
+        Assertions.assertEquals("v", cache.getIfPresent("ttl"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        Assertions.assertNull(cache.getIfPresent("ttl"));
+    }
+
+    @Test
+    public void test_keyIncludesModelParams() {
+        LlmResponseCache cache = new LlmResponseCache();
+        FakeAI llm = new FakeAI();
+        llm.setTemperature(0.1);
+        String llmString = llm.getLlmString(null);
+        cache.update("hello", llmString, Collections.singletonList(new Generation()));
+
+        llm.setTemperature(0.9);
+        Assertions.assertNull(cache.get("hello", llm.getLlmString(null)));
+        Assertions.assertNotNull(cache.get("hello", llmString));
+    }
+
+    @Test
+    public void test_onlyMissesCallModel() {
+        LlmResponseCache cache = new LlmResponseCache();
+        LangEngineConfiguration.CurrentCache = cache;
+        try {
+            CountingAI llm = new CountingAI(0);
+            llm.generate(Collections.singletonList("a"), null, null, null, null);
+            Assertions.assertEquals(1, llm.calls.get());
+
+            LLMResult result = llm.generate(Arrays.asList("a", "b", "c"), null, null, null, null);
+            Assertions.assertEquals(3, llm.calls.get());
+            Assertions.assertEquals(3, result.getGenerations().size());
+            Assertions.assertEquals("b", result.getGenerations().get(1).get(0).getText());
+            Assertions.assertEquals(1L, cache.getStats().getHitCount());
+            Assertions.assertEquals(3L, cache.getStats().getMissCount());
+        } finally {
+            LangEngineConfiguration.CurrentCache = null;
+        }
+    }
+
+    @Test
+    public void test_singleFlight() throws Exception {
+        LlmResponseCache cache = new LlmResponseCache();
+        LangEngineConfiguration.CurrentCache = cache;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountingAI llm = new CountingAI(200);
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    return llm.predict("same prompt");
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                Assertions.assertEquals("same prompt", future.get());
+            }
+            Assertions.assertEquals(1, llm.calls.get());
+        } finally {
+            executor.shutdownNow();
+            LangEngineConfiguration.CurrentCache = null;
+        }
+    }
+
+    @Test
+    public void test_streamingCallsNotCoalesced() throws Exception {
+        LlmResponseCache cache = new LlmResponseCache();
+        LangEngineConfiguration.CurrentCache = cache;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountingAI llm = new CountingAI(200);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger[] chunks = new AtomicInteger[4];
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                AtomicInteger received = chunks[i] = new AtomicInteger();
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    return llm.predict("same prompt", null, null, chunk -> received.incrementAndGet(), null);
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                Assertions.assertEquals("same prompt", future.get());
+            }
+            for (AtomicInteger received : chunks) {
+                Assertions.assertEquals(1, received.get());
+            }
+            Assertions.assertEquals(4, llm.calls.get());
+            Assertions.assertNotNull(cache.get("same prompt", llm.getLlmString(null)));
+        } finally {
+            executor.shutdownNow();
+            LangEngineConfiguration.CurrentCache = null;
+        }
+    }
+
+    private static class CountingAI extends FakeAI {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final long latencyMillis;
+
+        CountingAI(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public String run(String prompt, List<String> stops, Consumer<String> consumer, Map<String, Object> extraAttributes) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (consumer != null) {
+                consumer.accept(prompt);
+            }
+            return prompt;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.callback;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回调分发在调用线程上的开销基准：同步分发 vs 异步环形队列分发，handler模拟日志类回调的耗时
+ *
+ * 运行方式：执行main方法，或 mvn test-compile 后通过jmh Runner指定本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallbackDispatchBenchmark {
+
+    @Param({"1000"})
+    private long handlerTokens;
+
+    @Param({"DROP", "BLOCK"})
+    private CallbackDispatcher.OverflowPolicy overflowPolicy;
+
+    private CallbackManager syncManager;
+
+    private CallbackManager asyncManager;
+
+    private CallbackDispatcher dispatcher;
+
+    private ExecutionContext executionContext;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BaseCallbackHandler handler = new EmptyCallbackHandler() {
+            @Override
+            public void onLlmStart(ExecutionContext executionContext) {
+                Blackhole.consumeCPU(handlerTokens);
+            }
+
+            @Override
+            public void onLlmEnd(ExecutionContext executionContext) {
+                Blackhole.consumeCPU(handlerTokens);
+            }
+        };
+        syncManager = new CallbackManager();
+        syncManager.addHandler(handler);
+        syncManager.addHandler(handler);
+
+        dispatcher = new CallbackDispatcher(CallbackDispatcher.DEFAULT_RING_SIZE, CallbackDispatcher.DEFAULT_PARTITIONS,
+                CallbackDispatcher.DEFAULT_BATCH_SIZE, overflowPolicy);
+        asyncManager = new CallbackManager();
+        asyncManager.addHandler(handler);
+        asyncManager.addHandler(handler);
+        asyncManager.setDispatcher(dispatcher);
+
+        executionContext = new ExecutionContext();
+        executionContext.setExecutionType("llm");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("dropped events: " + dispatcher.getDroppedCount());
+        dispatcher.close();
+    }
+
+    @Benchmark
+    public void sync() {
+        syncManager.onLlmStart(executionContext);
+        syncManager.onLlmEnd(executionContext);
+    }
+
+    @Benchmark
+    public void async() {
+        asyncManager.onLlmStart(executionContext);
+        asyncManager.onLlmEnd(executionContext);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CallbackDispatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
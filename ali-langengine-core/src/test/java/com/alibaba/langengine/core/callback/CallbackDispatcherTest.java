@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.callback;
+
+import com.alibaba.langengine.core.runnables.RunnableTraceData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallbackDispatcherTest {
+
+    @Test
+    public void test_publish_keepsOrderPerRunId() throws Exception {
+        Map<String, List<String>> received = new ConcurrentHashMap<>();
+        BaseCallbackHandler handler = new EmptyCallbackHandler() {
+            @Override
+            public void onToolStart(ExecutionContext executionContext) {
+                received.computeIfAbsent(executionContext.getChainInstanceId(), k -> new ArrayList<>())
+                        .add(executionContext.getToolInput());
+            }
+        };
+        try (CallbackDispatcher dispatcher = new CallbackDispatcher(64, 3, 8, CallbackDispatcher.OverflowPolicy.BLOCK)) {
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                String runId = "run-" + p;
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        ExecutionContext executionContext = new ExecutionContext();
+                        executionContext.setChainInstanceId(runId);
+                        executionContext.setToolInput(String.valueOf(i));
+                        assertTrue(dispatcher.publish(CallbackEvent.TOOL_START, runId,
+                                Collections.singletonList(handler), executionContext));
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            assertTrue(dispatcher.flush(5000));
+        }
+
+        assertEquals(4, received.size());
+        for (List<String> inputs : received.values()) {
+            assertEquals(2000, inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                assertEquals(String.valueOf(i), inputs.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void test_publish_dropsWhenRingIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger();
+        BaseCallbackHandler handler = new EmptyCallbackHandler() {
+            @Override
+            public void onLlmEnd(ExecutionContext executionContext) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.incrementAndGet();
+            }
+        };
+        try (CallbackDispatcher dispatcher = new CallbackDispatcher(4, 1, 1, CallbackDispatcher.OverflowPolicy.DROP)) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(dispatcher.publish(CallbackEvent.LLM_END, "run", Collections.singletonList(handler),
+                        new ExecutionContext()));
+            }
+            assertTrue(dispatcher.getDroppedCount() >= 20 - 5);
+            release.countDown();
+            assertTrue(dispatcher.flush(5000));
+            assertEquals(20, handled.get() + dispatcher.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void test_callbackManager_dispatchesSnapshotAsynchronously() throws Exception {
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        CallbackManager callbackManager = new CallbackManager();
+        callbackManager.addHandler(new EmptyCallbackHandler() {
+            @Override
+            public void onChainStart(ExecutionContext executionContext) {
+                throw new IllegalStateException("handler failure");
+            }
+
+            @Override
+            public void onChainEnd(ExecutionContext executionContext) {
+                seen.add(String.valueOf(executionContext.getOutputs()));
+                threads.add(Thread.currentThread().getName());
+            }
+        });
+        try (CallbackDispatcher dispatcher = new CallbackDispatcher()) {
+            callbackManager.setDispatcher(dispatcher);
+            BaseCallbackManager child = callbackManager.getChild();
+
+            ExecutionContext executionContext = new ExecutionContext();
+            child.onChainStart(executionContext);
+            executionContext.setOutputs(Collections.singletonMap("output", "first"));
+            child.onChainEnd(executionContext);
+            executionContext.setOutputs(Collections.singletonMap("output", "second"));
+            assertTrue(dispatcher.flush(5000));
+        }
+
+        assertEquals(Collections.singletonList("{output=first}"), seen);
+        assertTrue(threads.get(0).startsWith("langengine-callback-"));
+    }
+
+    @Test
+    public void test_callbackManager_snapshotsMutableStateAtPublish() throws Exception {
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CallbackManager callbackManager = new CallbackManager();
+        callbackManager.addHandler(new EmptyCallbackHandler() {
+            @Override
+            public void onChainEnd(ExecutionContext executionContext) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                seen.add(executionContext.getOutputs() + "," + executionContext.getTraceData().getStep());
+            }
+        });
+        try (CallbackDispatcher dispatcher = new CallbackDispatcher()) {
+            callbackManager.setDispatcher(dispatcher);
+
+            Map<String, Object> outputs = new HashMap<>();
+            outputs.put("output", "first");
+            RunnableTraceData traceData = new RunnableTraceData();
+            traceData.setStep("first");
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.setOutputs(outputs);
+            executionContext.setTraceData(traceData);
+            callbackManager.onChainEnd(executionContext);
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            // 分发期间修改原上下文中的Map、traceData以及handler列表
+            outputs.put("output", "second");
+            traceData.setStep("second");
+            callbackManager.getHandlers().clear();
+            release.countDown();
+            assertTrue(dispatcher.flush(5000));
+        }
+
+        assertEquals(Collections.singletonList("{output=first},first"), seen);
+    }
+
+    @Test
+    public void test_callbackManager_pinsTraceIdOnCallerThread() throws Exception {
+        List<String> traceIds = Collections.synchronizedList(new ArrayList<>());
+        CallbackManager callbackManager = new CallbackManager();
+        callbackManager.addHandler(new EmptyCallbackHandler() {
+            @Override
+            public void onChainStart(ExecutionContext executionContext) {
+                traceIds.add(getTraceId());
+            }
+
+            @Override
+            public void onChainEnd(ExecutionContext executionContext) {
+                traceIds.add(getTraceId());
+            }
+        });
+        String[] callerTraceId = new String[1];
+        try (CallbackDispatcher dispatcher = new CallbackDispatcher()) {
+            callbackManager.setDispatcher(dispatcher);
+            // 新线程上没有traceId
+            Thread caller = new Thread(() -> {
+                callbackManager.onChainStart(new ExecutionContext());
+                callbackManager.onChainEnd(new ExecutionContext());
+                callerTraceId[0] = BaseCallbackHandler.getContext();
+            });
+            caller.start();
+            caller.join();
+            assertTrue(dispatcher.flush(5000));
+        }
+
+        assertNotNull(callerTraceId[0]);
+        assertEquals(2, traceIds.size());
+        assertEquals(callerTraceId[0], traceIds.get(0));
+        assertEquals(callerTraceId[0], traceIds.get(1));
+    }
+
+    @Test
+    public void test_close_dispatchesEventsPublishedDuringClose() throws Exception {
+        AtomicInteger handled = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        BaseCallbackHandler handler = new EmptyCallbackHandler() {
+            @Override
+            public void onToolEnd(ExecutionContext executionContext) {
+                handled.incrementAndGet();
+            }
+        };
+        CallbackDispatcher dispatcher = new CallbackDispatcher(1024, 2, 16, CallbackDispatcher.OverflowPolicy.BLOCK);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            String runId = "run-" + p;
+            Thread producer = new Thread(() -> {
+                while (dispatcher.publish(CallbackEvent.TOOL_END, runId, Collections.singletonList(handler),
+                        new ExecutionContext())) {
+                    accepted.incrementAndGet();
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        Thread.sleep(50);
+        dispatcher.close();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // 被接收的事件在close返回前全部分发
+        assertEquals(accepted.get(), handled.get());
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.embeddings;
+
+import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.util.VectorUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class EmbeddingsBatchTest {
+
+    @Test
+    public void test_embedDocumentsInBatches() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        BatchEmbeddings embeddings = new BatchEmbeddings(batchSizes);
+        embeddings.setBatchMaxItems(4);
+        embeddings.setBatchConcurrency(3);
+
+        List<Document> documents = IntStream.range(0, 10).mapToObj(i -> {
+            Document document = new Document();
+            document.setPageContent(String.valueOf(i));
+            return document;
+        }).collect(Collectors.toList());
+        embeddings.embedDocument(documents);
+
+        Assertions.assertEquals(3, batchSizes.size());
+        Assertions.assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        for (int i = 0; i < documents.size(); i++) {
+            Assertions.assertArrayEquals(new float[] { i, 1F }, documents.get(i).getEmbeddingVector());
+            Assertions.assertEquals(i, documents.get(i).getIndex());
+        }
+    }
+
+    @Test
+    public void test_embedDocumentsInBatches_splitOversize() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        BatchEmbeddings embeddings = new BatchEmbeddings(batchSizes);
+        embeddings.setInputMaxTokens(2);
+
+        Document document = new Document();
+        document.setPageContent("hello world hello world");
+        embeddings.embedDocument(Collections.singletonList(document));
+
+        Assertions.assertEquals(1, batchSizes.size());
+        Assertions.assertTrue(batchSizes.get(0) > 1);
+        Assertions.assertEquals(2, document.getEmbeddingVector().length);
+        Assertions.assertEquals(1F, VectorUtils.norm(document.getEmbeddingVector()), 1e-6F);
+        Assertions.assertEquals(0, document.getIndex());
+    }
+
+    private static class BatchEmbeddings extends Embeddings {
+
+        private final List<Integer> batchSizes;
+
+        BatchEmbeddings(List<Integer> batchSizes) {
+            this.batchSizes = batchSizes;
+        }
+
+        @Override
+        public String getModelType() {
+            return null;
+        }
+
+        @Override
+        public List<Document> embedDocument(List<Document> documents) {
+            return embedDocumentsInBatches(documents, texts -> {
+                batchSizes.add(texts.size());
+                float[][] vectors = new float[texts.size()][];
+                for (int i = 0; i < texts.size(); i++) {
+                    String text = texts.get(i);
+                    vectors[i] = text.matches("\\d+") ? new float[] { Float.parseFloat(text), 1F } : new float[] { 1F, 1F };
+                }
+                return vectors;
+            });
+        }
+
+        @Override
+        public List<String> embedQuery(String text, int recommend) {
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.memory;
+
+import com.alibaba.langengine.core.jtokkit.api.EncodingType;
+import com.alibaba.langengine.core.memory.impl.ConversationSummaryBufferMemory;
+import com.alibaba.langengine.core.memory.impl.ConversationTokenBufferMemory;
+import com.alibaba.langengine.core.messages.AIMessage;
+import com.alibaba.langengine.core.messages.BaseMessage;
+import com.alibaba.langengine.core.messages.HumanMessage;
+import com.alibaba.langengine.core.messages.SystemMessage;
+import com.alibaba.langengine.core.tokenizers.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageTokenBufferTest {
+
+    private static final Function<BaseMessage, String> RENDERER = BaseMessage::getContent;
+
+    /**
+     * 按空格分词并记录调用次数
+     */
+    static class WordTokenizer extends Tokenizer {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public int getTokenCount(String text) {
+            calls.incrementAndGet();
+            return text.split(" ").length;
+        }
+
+        @Override
+        public EncodingType getEncoding() {
+            return EncodingType.CL100K_BASE;
+        }
+    }
+
+    @Test
+    public void test_countOncePerMessage() {
+        WordTokenizer tokenizer = new WordTokenizer();
+        MessageTokenBuffer buffer = new MessageTokenBuffer(tokenizer);
+        List<BaseMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            messages.add(human("a b c"));
+            buffer.sync(messages, RENDERER);
+        }
+        assertEquals(100, tokenizer.calls.get());
+        // 每条 3 个词 + 1 个换行
+        assertEquals(400, buffer.getTotalTokens());
+    }
+
+    @Test
+    public void test_pruneFromHead() {
+        WordTokenizer tokenizer = new WordTokenizer();
+        MessageTokenBuffer buffer = new MessageTokenBuffer(tokenizer);
+        List<BaseMessage> messages = new ArrayList<>();
+        messages.add(human("one"));
+        messages.add(human("two two"));
+        messages.add(human("three three three"));
+
+        List<BaseMessage> pruned = buffer.prune(messages, 5, RENDERER);
+        assertEquals(2, pruned.size());
+        assertEquals("one", pruned.get(0).getContent());
+        assertEquals(1, messages.size());
+        assertEquals(4, buffer.getTotalTokens());
+        assertEquals(3, tokenizer.calls.get());
+    }
+
+    @Test
+    public void test_recountWhenHistoryReplaced() {
+        WordTokenizer tokenizer = new WordTokenizer();
+        MessageTokenBuffer buffer = new MessageTokenBuffer(tokenizer);
+        List<BaseMessage> messages = new ArrayList<>();
+        messages.add(human("a b"));
+        buffer.sync(messages, RENDERER);
+
+        List<BaseMessage> replaced = new ArrayList<>();
+        replaced.add(human("x"));
+        assertEquals(2, buffer.sync(replaced, RENDERER));
+    }
+
+    @Test
+    public void test_tokenBufferMemory() {
+        ConversationTokenBufferMemory memory = new ConversationTokenBufferMemory();
+        memory.setTokenizer(new WordTokenizer());
+        memory.setMaxTokenLimit(20);
+        for (int i = 0; i < 50; i++) {
+            memory.saveContext(input("question " + i), output("answer number " + i));
+        }
+        List<BaseMessage> messages = memory.getChatMemory().getMessages();
+        assertFalse(messages.isEmpty());
+        assertEquals("AI: answer number 49", memory.getBufferAsString().substring(memory.getBufferAsString().lastIndexOf("AI:")));
+        assertTrue(memory.getBufferAsString().split(" ").length <= 20);
+    }
+
+    @Test
+    public void test_asyncSummary() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicInteger summarized = new AtomicInteger();
+            ConversationSummaryBufferMemory memory = new ConversationSummaryBufferMemory() {
+                @Override
+                public String predictNewSummary(List<BaseMessage> messages, String existingSummary) {
+                    summarized.addAndGet(messages.size());
+                    return existingSummary + messages.size() + ";";
+                }
+            };
+            memory.setTokenizer(new WordTokenizer());
+            memory.setMaxTokenLimit(10);
+            memory.setSummaryExecutor(executor);
+            for (int i = 0; i < 10; i++) {
+                memory.saveContext(input("q" + i), output("a" + i));
+            }
+            memory.awaitSummary();
+
+            int remaining = memory.getChatMemory().getMessages().size();
+            assertEquals(20, summarized.get() + remaining);
+            memory.setReturnMessages(true);
+            List<BaseMessage> loaded = (List<BaseMessage>) memory.loadMemoryVariables(new HashMap<>()).get(memory.getMemoryKey());
+            assertTrue(loaded.get(0) instanceof SystemMessage);
+            assertTrue(loaded.get(loaded.size() - 1) instanceof AIMessage);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HumanMessage human(String content) {
+        HumanMessage message = new HumanMessage();
+        message.setContent(content);
+        return message;
+    }
+
+    private static Map<String, Object> input(String value) {
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("input", value);
+        return inputs;
+    }
+
+    private static Map<String, Object> output(String value) {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("text", value);
+        return outputs;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model;
+
+import com.alibaba.langengine.core.outputs.LLMResult;
+import com.alibaba.langengine.core.runnables.RunnableConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class BaseLLMConcurrencyTest {
+
+    @Test
+    public void test_concurrentGenerateKeepsOrder() {
+        SlowAI llm = new SlowAI();
+        llm.setMaxConcurrency(8);
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            prompts.add("prompt-" + i);
+        }
+
+        long start = System.currentTimeMillis();
+        LLMResult result = llm.generate(prompts, null, null, null, null);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // 顺序调用需要16 * 200ms
+        Assertions.assertTrue(elapsed < 1600, "elapsed " + elapsed + "ms");
+        Assertions.assertTrue(llm.maxInFlight.get() <= 8);
+        for (int i = 0; i < prompts.size(); i++) {
+            Assertions.assertEquals(prompts.get(i), result.getGenerations().get(i).get(0).getText());
+        }
+    }
+
+    @Test
+    public void test_failureIsRethrown() {
+        SlowAI llm = new SlowAI();
+        llm.setMaxConcurrency(4);
+        RuntimeException e = Assertions.assertThrows(RuntimeException.class,
+                () -> llm.generate(Arrays.asList("a", "fail", "c"), null, null, null, null));
+        Assertions.assertEquals("mock failure", e.getMessage());
+
+        Assertions.assertThrows(RuntimeException.class, () -> llm.predict("fail"));
+    }
+
+    @Test
+    public void test_failureStopsPendingPrompts() {
+        SlowAI llm = new SlowAI();
+        List<String> prompts = new ArrayList<>();
+        prompts.add("fail");
+        for (int i = 0; i < 4; i++) {
+            prompts.add("prompt-" + i);
+        }
+        Assertions.assertThrows(RuntimeException.class, () -> llm.generate(prompts, null, null, null, null));
+        Assertions.assertEquals(1, llm.calls.get());
+    }
+
+    @Test
+    public void test_configMaxConcurrencyOverridesModel() {
+        SlowAI llm = new SlowAI();
+        llm.setMaxConcurrency(8);
+        RunnableConfig config = new RunnableConfig();
+        config.setMaxConcurrency(2);
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            prompts.add("prompt-" + i);
+        }
+
+        llm.generate(prompts, null, null, null, null, config);
+        Assertions.assertTrue(llm.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void test_isolateErrors() {
+        SlowAI llm = new SlowAI();
+        llm.setMaxConcurrency(4);
+        RunnableConfig config = new RunnableConfig();
+        config.setIsolateErrors(true);
+
+        LLMResult result = llm.generate(Arrays.asList("a", "fail", "c"), null, null, null, null, config);
+        Assertions.assertEquals("a", result.getGenerations().get(0).get(0).getText());
+        Assertions.assertNull(result.getGenerations().get(1));
+        Assertions.assertEquals("c", result.getGenerations().get(2).get(0).getText());
+        Assertions.assertNull(result.getErrors().get(0));
+        Assertions.assertEquals("mock failure", result.getErrors().get(1).getMessage());
+        Assertions.assertNull(result.getErrors().get(2));
+    }
+
+    private static class SlowAI extends FakeAI {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String run(String prompt, List<String> stops, Consumer<String> consumer, Map<String, Object> extraAttributes) {
+            calls.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(200);
+                if ("fail".equals(prompt)) {
+                    throw new RuntimeException("mock failure");
+                }
+                return prompt;
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model.fastchat.service;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class OkHttpClientRegistryTest {
+
+    @Test
+    public void test_clientsSharePoolAndDispatcher() {
+        OkHttpClient first = OkHttpClientRegistry.newBuilder().readTimeout(10, TimeUnit.SECONDS).build();
+        OkHttpClient second = OkHttpClientRegistry.newBuilder().readTimeout(30, TimeUnit.SECONDS).build();
+
+        Assertions.assertSame(first.connectionPool(), second.connectionPool());
+        Assertions.assertSame(first.dispatcher(), second.dispatcher());
+        Assertions.assertTrue(OkHttpClientRegistry.isSharedExecutor(first.dispatcher().executorService()));
+    }
+
+    @Test
+    public void test_clientCachedByConfig() {
+        String key = OkHttpClientRegistry.key("https://example.com/", null, Duration.ofSeconds(60), false);
+        OkHttpClient client = OkHttpClientRegistry.getOrCreate(key, () -> OkHttpClientRegistry.newBuilder().build());
+
+        Assertions.assertSame(client, OkHttpClientRegistry.getOrCreate(
+                OkHttpClientRegistry.key("https://example.com/", null, Duration.ofSeconds(60), false),
+                () -> OkHttpClientRegistry.newBuilder().build()));
+        Assertions.assertNotSame(client, OkHttpClientRegistry.getOrCreate(
+                OkHttpClientRegistry.key("https://example.com/", null, Duration.ofSeconds(30), false),
+                () -> OkHttpClientRegistry.newBuilder().build()));
+
+        OkHttpClient authenticated = client.newBuilder().addInterceptor(chain -> chain.proceed(chain.request())).build();
+        Assertions.assertSame(client.connectionPool(), authenticated.connectionPool());
+        Assertions.assertSame(client.dispatcher(), authenticated.dispatcher());
+    }
+}
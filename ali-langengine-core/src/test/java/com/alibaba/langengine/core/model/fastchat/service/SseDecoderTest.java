@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.model.fastchat.service;
+
+import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionChunk;
+import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatCompletionChunkReader;
+import com.alibaba.langengine.core.model.fastchat.completion.chat.ChatMessageContent;
+import com.alibaba.langengine.core.util.JacksonUtils;
+import okio.Buffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SseDecoderTest {
+
+    @Test
+    public void test_decodeEvents() throws Exception {
+        Buffer buffer = new Buffer().writeUtf8(":HTTP_STATUS/200\n"
+                + "id: 1\n"
+                + "event: message\n"
+                + "data: {\"text\":\"你好\"}\n"
+                + "\n"
+                + "data: line1\r\n"
+                + "data:line2\r\n"
+                + "retry: 3000\r\n"
+                + "\r\n"
+                + "data: [DONE]\n\n");
+        SseDecoder decoder = new SseDecoder(buffer);
+
+        SSE first = decoder.next();
+        Assertions.assertEquals("{\"text\":\"你好\"}", first.getData());
+        Assertions.assertEquals("message", first.getEvent());
+        Assertions.assertEquals("1", first.getId());
+
+        SSE second = decoder.next();
+        Assertions.assertEquals("line1\nline2", second.getData());
+        Assertions.assertNull(second.getEvent());
+        Assertions.assertEquals("1", second.getId());
+
+        Assertions.assertTrue(decoder.next().isDone());
+        Assertions.assertNull(decoder.next());
+    }
+
+    @Test
+    public void test_decodeLastEventWithoutBlankLine() throws Exception {
+        SseDecoder decoder = new SseDecoder(new Buffer().writeUtf8("data: tail"));
+        Assertions.assertEquals("tail", decoder.next().getData());
+        Assertions.assertNull(decoder.next());
+    }
+
+    @Test
+    public void test_decodeTrimsData() throws Exception {
+        SseDecoder decoder = new SseDecoder(new Buffer().writeUtf8("data:   {\"a\":1}  \r\n\n"));
+        Assertions.assertEquals("{\"a\":1}", decoder.next().getData());
+    }
+
+    @Test
+    public void test_rejectNonSseBody() throws Exception {
+        SseDecoder json = new SseDecoder(new Buffer().writeUtf8("{\"error\":{\"message\":\"invalid api key\"}}\n"));
+        Assertions.assertThrows(SSEFormatException.class, json::next);
+
+        SseDecoder empty = new SseDecoder(new Buffer().writeUtf8(":keep-alive\n\n"));
+        Assertions.assertThrows(SSEFormatException.class, empty::next);
+    }
+
+    @Test
+    public void test_readChunkKeepsStructuredContent() throws Exception {
+        ChatCompletionChunkReader reader = new ChatCompletionChunkReader(JacksonUtils.defaultObjectMapper());
+        ChatCompletionChunk chunk = reader.read("{\"choices\":[{\"index\":0,"
+                + "\"delta\":{\"role\":\"assistant\",\"content\":[{\"type\":\"text\",\"text\":\"hi\"}]}}]}");
+
+        Assertions.assertEquals("assistant", chunk.getChoices().get(0).getMessage().getRole());
+        List<ChatMessageContent> content = (List<ChatMessageContent>) chunk.getChoices().get(0).getMessage().getContent();
+        Assertions.assertEquals("hi", content.get(0).getText());
+
+        chunk = reader.read("{\"choices\":[{\"delta\":{\"content\":{\"text\":\"hi\"}}}]}");
+        Assertions.assertNull(chunk.getChoices().get(0).getMessage().getContent());
+    }
+
+    @Test
+    public void test_readChunkDelta() throws Exception {
+        ChatCompletionChunkReader reader = new ChatCompletionChunkReader(JacksonUtils.defaultObjectMapper());
+        ChatCompletionChunk chunk = reader.read("{\"id\":\"c1\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+                + "\"model\":\"qwen\",\"usage\":{\"total_tokens\":3},\"choices\":[{\"index\":0,\"logprobs\":null,"
+                + "\"delta\":{\"role\":\"assistant\",\"content\":\"hi\",\"tool_calls\":[{\"index\":0,\"id\":\"t1\"}]},"
+                + "\"finish_reason\":null}]}");
+
+        Assertions.assertEquals("c1", chunk.getId());
+        Assertions.assertEquals(1700000000L, chunk.getCreated());
+        Assertions.assertEquals("qwen", chunk.getModel());
+        Assertions.assertEquals(1, chunk.getChoices().size());
+        Assertions.assertEquals(0, chunk.getChoices().get(0).getIndex());
+        Assertions.assertEquals("assistant", chunk.getChoices().get(0).getMessage().getRole());
+        Assertions.assertEquals("hi", chunk.getChoices().get(0).getMessage().getContent());
+        Assertions.assertEquals("t1", chunk.getChoices().get(0).getMessage().getToolCalls().get(0).get("id"));
+        Assertions.assertNull(chunk.getChoices().get(0).getFinishReason());
+    }
+}
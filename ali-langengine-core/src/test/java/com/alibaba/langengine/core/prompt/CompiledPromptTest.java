@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.prompt;
+
+import com.alibaba.langengine.core.agent.structured2.PromptConstants;
+import com.alibaba.langengine.core.prompt.impl.PromptTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledPromptTest {
+
+    @Test
+    public void test_parseOnce() {
+        String template = "Question: {input}\nThought: {agent_scratchpad}\n{input}";
+        CompiledPrompt compiled = CompiledPrompt.of(template);
+        assertSame(compiled, CompiledPrompt.of(new String(template)));
+        assertEquals(Arrays.asList("input", "agent_scratchpad"), new ArrayList<>(compiled.getVariables()));
+    }
+
+    @Test
+    public void test_sameAsReplaceAll() {
+        String template = String.join("\n\n", PromptConstants.PREFIX, PromptConstants.FORMAT_INSTRUCTIONS,
+                PromptConstants.SUFFIX_MEMORY);
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("tool_names", "search, calculator");
+        inputs.put("input", "what is $1 + 1?");
+        inputs.put("chat_history", "Human: hi\\nAI: hello");
+        inputs.put("unused", "x");
+
+        String expected = template;
+        for (Map.Entry<String, Object> entry : inputs.entrySet()) {
+            expected = expected.replaceAll("\\{" + entry.getKey() + "\\}", Matcher.quoteReplacement(entry.getValue().toString()));
+        }
+        assertEquals(expected, PromptConverter.replacePrompt(template, inputs));
+        assertTrue(expected.contains("{{{{"));
+    }
+
+    @Test
+    public void test_missingAndNullKeepPlaceholder() {
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("b", null);
+        assertEquals("{a} {b} {} {\"k\": 1}", PromptConverter.replacePrompt("{a} {b} {} {\"k\": 1}", inputs));
+
+        PromptTemplate promptTemplate = new PromptTemplate("{a}|{b}");
+        Map<String, Object> args = new HashMap<>();
+        args.put("a", Collections.singletonMap("k", 1));
+        args.put("b", null);
+        assertEquals("{\"k\":1}|null", promptTemplate.format(args));
+    }
+
+    @Test
+    public void test_valueNotReplacedTwice() {
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("a", "{b}");
+        inputs.put("b", "B");
+        assertEquals("{b}-B", PromptConverter.replacePrompt("{a}-{b}", inputs));
+    }
+
+    @Test
+    public void test_validateTemplate() {
+        PromptTemplate promptTemplate = new PromptTemplate("Question: {input}", Arrays.asList("input", "agent_scratchpad"));
+        assertEquals("Question: hi", promptTemplate.format(Collections.singletonMap("input", "hi")));
+
+        assertThrows(IllegalArgumentException.class, () -> promptTemplate.setValidateTemplate(true));
+
+        PromptTemplate validated = new PromptTemplate("Question: {input}", Collections.singletonList("input"));
+        validated.setValidateTemplate(true);
+        assertEquals("Question: hi", validated.format(Collections.singletonMap("input", "hi")));
+        assertThrows(IllegalArgumentException.class, () -> validated.setTemplate("Question: {query}"));
+        assertEquals("Question: {input}", validated.getTemplate());
+    }
+}
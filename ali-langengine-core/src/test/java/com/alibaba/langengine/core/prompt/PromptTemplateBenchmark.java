@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.prompt;
+
+import com.alibaba.langengine.core.agent.structured2.PromptConstants;
+import com.alibaba.langengine.core.prompt.impl.PromptTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * 结构化 agent 提示渲染基准，对比逐变量 replaceAll 与预编译模板的单次渲染
+ *
+ * 运行方式：执行main方法，或 mvn test-compile 后通过jmh Runner指定本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptTemplateBenchmark {
+
+    @Param({"12"})
+    private int tools;
+
+    private String template;
+
+    private PromptTemplate promptTemplate;
+
+    private Map<String, Object> args;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> toolStrings = new ArrayList<>();
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            description.append("Looks up structured records by keyword and returns matching rows. ");
+        }
+        for (int i = 0; i < tools; i++) {
+            toolStrings.add("tool_" + i + ": " + description + " args: {{'query': {{'type': 'string'}}}}");
+        }
+        template = String.join("\n\n", PromptConstants.PREFIX, String.join("\n", toolStrings),
+                PromptConstants.FORMAT_INSTRUCTIONS, PromptConstants.SUFFIX_MEMORY,
+                "{context}\n{date}\n{user}\n{locale}\n{agent_scratchpad}");
+        promptTemplate = new PromptTemplate(template);
+
+        args = new HashMap<>();
+        args.put("tool_names", "tool_0, tool_1, tool_2");
+        args.put("input", "Find all orders placed last week and summarize them by region.");
+        args.put("chat_history", "Human: hi\nAI: hello, how can I help?");
+        args.put("context", "orders database");
+        args.put("date", "2024-05-01");
+        args.put("user", "alice");
+        args.put("locale", "en_US");
+        args.put("agent_scratchpad", "Thought: I should search the orders.\nAction:\n```\n{\"action\": \"tool_0\"}\n```");
+        args.put("stop", "Observation:");
+        args.put("retries", 3);
+        args.put("verbose", false);
+        args.put("tags", "orders");
+    }
+
+    @Benchmark
+    public String replaceAll() {
+        String realTemplate = template;
+        for (Map.Entry<String, Object> entry : args.entrySet()) {
+            String value = entry.getValue() instanceof String ? (String) entry.getValue() : PromptConverter.toJson(entry.getValue());
+            realTemplate = realTemplate.replaceAll("\\{" + entry.getKey() + "\\}", Matcher.quoteReplacement(value));
+        }
+        return realTemplate;
+    }
+
+    @Benchmark
+    public String compiled() {
+        return promptTemplate.format(args);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PromptTemplateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.runnables;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class RunnableExecutorsTest {
+
+    @Test
+    public void test_maxConcurrencyAndOrder() throws Exception {
+        RunnableConfig config = new RunnableConfig();
+        config.setMaxConcurrency(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Supplier<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            int index = i;
+            tasks.add(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(50);
+                inFlight.decrementAndGet();
+                return index;
+            });
+        }
+
+        List<Integer> results = RunnableExecutors.invokeAll(tasks, config);
+        for (int i = 0; i < 12; i++) {
+            Assertions.assertEquals(i, results.get(i).intValue());
+        }
+        Assertions.assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void test_failureCancelsOtherBranches() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        List<Supplier<String>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return "slow";
+        });
+        tasks.add(() -> {
+            sleep(50);
+            throw new IllegalStateException("mock failure");
+        });
+
+        long start = System.currentTimeMillis();
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> RunnableExecutors.invokeAll(tasks, new RunnableConfig()));
+        Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+        sleep(100);
+        Assertions.assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void test_nestedParallelOnSaturatedPool() throws Exception {
+        RunnableExecutors.register("nested-test", 2, 16);
+        RunnableConfig config = new RunnableConfig();
+        config.setExecutorName("nested-test");
+        List<Supplier<Integer>> outer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            outer.add(() -> {
+                List<Supplier<Integer>> inner = new ArrayList<>();
+                for (int j = 0; j < 4; j++) {
+                    inner.add(() -> {
+                        sleep(10);
+                        return 1;
+                    });
+                }
+                try {
+                    return RunnableExecutors.invokeAll(inner, config).stream().mapToInt(Integer::intValue).sum();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        List<Integer> results = RunnableExecutors.invokeAll(outer, config);
+        Assertions.assertEquals(16, results.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.tool;
+
+import com.alibaba.langengine.core.callback.ExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelToolExecutorTest {
+
+    @Test
+    public void test_execute_preservesCallOrderAndRunsConcurrently() {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ParallelToolExecutor executor = new ParallelToolExecutor();
+            executor.setExecutor(pool);
+
+            List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String input = "q" + i;
+                calls.add(call("slow" + i, input, () -> {
+                    sleep(300 - Integer.parseInt(input.substring(1)) * 100);
+                    return new ToolExecuteResult("r-" + input);
+                }));
+            }
+
+            long start = System.currentTimeMillis();
+            List<ToolExecuteResult> results = executor.execute(calls, null);
+            long elapsed = System.currentTimeMillis() - start;
+
+            assertEquals(Arrays.asList("r-q0", "r-q1", "r-q2"), outputs(results));
+            assertTrue(elapsed < 550, "elapsed " + elapsed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_execute_isolatesFailureAndTimeout() {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Map<String, Throwable> errors = new ConcurrentHashMap<>();
+            AtomicInteger callbacks = new AtomicInteger();
+            ParallelToolExecutor executor = new ParallelToolExecutor();
+            executor.setExecutor(pool);
+            executor.setToolTimeoutMillis(100);
+            executor.setLatencyListener((tool, toolInput, latencyMillis, error) -> {
+                callbacks.incrementAndGet();
+                if (error != null) {
+                    errors.put(tool.getName(), error);
+                }
+            });
+
+            List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+            calls.add(call("ok", "a", () -> new ToolExecuteResult("fine")));
+            calls.add(call("broken", "b", () -> {
+                throw new IllegalStateException("boom");
+            }));
+            calls.add(call("hang", "c", () -> {
+                sleep(5000);
+                return new ToolExecuteResult("late");
+            }));
+
+            List<ToolExecuteResult> results = executor.execute(calls, null);
+
+            assertEquals("fine", results.get(0).getOutput());
+            assertEquals("Tool broken failed: boom", results.get(1).getOutput());
+            assertEquals("Tool hang timed out after 100ms.", results.get(2).getOutput());
+            assertEquals(3, callbacks.get());
+            assertTrue(errors.get("broken") instanceof IllegalStateException);
+            assertTrue(errors.get("hang") instanceof java.util.concurrent.TimeoutException);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_execute_boundsConcurrency() {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            ParallelToolExecutor executor = new ParallelToolExecutor();
+            executor.setExecutor(pool);
+            executor.setMaxConcurrency(2);
+
+            List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                calls.add(call("t" + i, "x", () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(50);
+                    running.decrementAndGet();
+                    return new ToolExecuteResult("done");
+                }));
+            }
+
+            List<ToolExecuteResult> results = executor.execute(calls, null);
+
+            assertEquals(6, results.size());
+            assertTrue(peak.get() <= 2, "peak " + peak.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_execute_timedOutCallKeepsSlotUntilItFinishes() {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            ParallelToolExecutor executor = new ParallelToolExecutor();
+            executor.setExecutor(pool);
+            executor.setMaxConcurrency(1);
+            executor.setToolTimeoutMillis(100);
+
+            List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+            calls.add(call("stubborn", "a", () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                // 忽略中断，超时后仍继续运行
+                long end = System.currentTimeMillis() + 400;
+                while (System.currentTimeMillis() < end) {
+                    Thread.yield();
+                }
+                running.decrementAndGet();
+                return new ToolExecuteResult("late");
+            }));
+            calls.add(call("next", "b", () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                running.decrementAndGet();
+                return new ToolExecuteResult("done");
+            }));
+
+            List<ToolExecuteResult> results = executor.execute(calls, null);
+
+            assertEquals("Tool stubborn timed out after 100ms.", results.get(0).getOutput());
+            assertEquals("Tool next timed out after 100ms.", results.get(1).getOutput());
+            assertEquals(1, peak.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_execute_rejectedCallFailsWithoutRunningInline() {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            AtomicInteger submitted = new AtomicInteger();
+            Thread caller = Thread.currentThread();
+            Map<String, Thread> threads = new ConcurrentHashMap<>();
+            ParallelToolExecutor executor = new ParallelToolExecutor();
+            executor.setExecutor(task -> {
+                if (submitted.incrementAndGet() == 2) {
+                    throw new RejectedExecutionException("saturated");
+                }
+                pool.execute(task);
+            });
+
+            List<ParallelToolExecutor.ToolCall> calls = new ArrayList<>();
+            for (String input : Arrays.asList("a", "b", "c")) {
+                calls.add(call("t" + input, input, () -> {
+                    threads.put(input, Thread.currentThread());
+                    return new ToolExecuteResult(input);
+                }));
+            }
+            List<ToolExecuteResult> results = executor.execute(calls, null);
+
+            assertEquals(Arrays.asList("a", "Tool tb was rejected by executor.", "c"), outputs(results));
+            assertFalse(threads.containsKey("b"));
+            assertNotSame(caller, threads.get("a"));
+            assertNotSame(caller, threads.get("c"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ParallelToolExecutor.ToolCall call(String name, String input,
+                                                      java.util.function.Supplier<ToolExecuteResult> task) {
+        BaseTool tool = new BaseTool() {
+            @Override
+            public ToolExecuteResult run(String toolInput, ExecutionContext executionContext) {
+                return task.get();
+            }
+        };
+        tool.setName(name);
+        return new ParallelToolExecutor.ToolCall(tool, input, () -> tool.run(input, null));
+    }
+
+    private static List<String> outputs(List<ToolExecuteResult> results) {
+        List<String> outputs = new ArrayList<>();
+        for (ToolExecuteResult result : results) {
+            outputs.add(result.getOutput());
+        }
+        return outputs;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.util;
+
+import com.alibaba.langengine.core.indexes.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class VectorUtilsTest {
+
+    @Test
+    public void testParseVector() {
+        Assertions.assertArrayEquals(new float[] {0.1F, -0.2F, 3.0E-4F},
+                VectorUtils.parseVector("[0.1, -0.2,3.0E-4]"));
+        Assertions.assertArrayEquals(new float[] {0.5F, 1.5F},
+                VectorUtils.parseVector("[\"0.5\",\"1.5\"]"));
+        Assertions.assertArrayEquals(new float[0], VectorUtils.parseVector("[]"));
+        Assertions.assertNull(VectorUtils.parseVector("error"));
+        Assertions.assertNull(VectorUtils.parseVector("[a,b]"));
+
+        float[] vector = new float[] {0.25F, 0.5F, -1.0F};
+        Assertions.assertArrayEquals(vector, VectorUtils.parseVector(VectorUtils.toVectorString(vector)));
+    }
+
+    @Test
+    public void testDotProductAndCosine() {
+        float[] a = new float[] {1F, 2F, 3F, 4F, 5F};
+        float[] b = new float[] {5F, 4F, 3F, 2F, 1F};
+        Assertions.assertEquals(35F, VectorUtils.dotProduct(a, b), 1e-6);
+
+        double expected = VectorUtils.calculateCosineSimilarity(
+                new double[] {1, 2, 3, 4, 5}, new double[] {5, 4, 3, 2, 1});
+        Assertions.assertEquals(expected, VectorUtils.calculateCosineSimilarity(a, b), 1e-6);
+        Assertions.assertEquals(1F, VectorUtils.norm(VectorUtils.normalize(a)), 1e-6);
+    }
+
+    @Test
+    public void testDocumentEmbeddingVector() {
+        Document document = new Document();
+        document.setEmbeddingVector(new float[] {0.5F, 0.25F});
+        Assertions.assertEquals(Arrays.asList(0.5D, 0.25D), document.getEmbedding());
+
+        document.setEmbedding(Arrays.asList(1.0D, 2.0D));
+        Assertions.assertArrayEquals(new float[] {1F, 2F}, document.getEmbeddingVector());
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore;
+
+import com.alibaba.langengine.core.util.VectorUtils;
+import com.alibaba.langengine.core.vectorstore.memory.BruteForceVectorIndex;
+import com.alibaba.langengine.core.vectorstore.memory.HnswVectorIndex;
+import com.alibaba.langengine.core.vectorstore.memory.VectorIndex;
+import com.alibaba.langengine.core.vectorstore.memory.VectorStorage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 内存向量索引检索延迟基准，Setup阶段输出HNSW相对暴力检索的recall@k
+ *
+ * 运行方式：执行main方法，或 mvn test-compile 后通过jmh Runner指定本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryVectorIndexBenchmark {
+
+    @Param({"50000"})
+    private int size;
+
+    @Param({"384"})
+    private int dimension;
+
+    @Param({"10"})
+    private int k;
+
+    private BruteForceVectorIndex bruteForce;
+
+    private HnswVectorIndex hnsw;
+
+    private float[][] queries;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        VectorStorage storage = new VectorStorage(dimension);
+        bruteForce = new BruteForceVectorIndex(storage);
+        hnsw = new HnswVectorIndex(storage, 16, 100, 100);
+        float[][] centers = new float[64][];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = randomVector(random, null);
+        }
+        for (int i = 0; i < size; i++) {
+            hnsw.add(storage.append(VectorUtils.normalize(randomVector(random, centers[i % centers.length])), i));
+        }
+        queries = new float[256][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = VectorUtils.normalize(randomVector(random, centers[random.nextInt(centers.length)]));
+        }
+
+        int found = 0;
+        for (float[] query : queries) {
+            Set<Integer> expected = bruteForce.search(query, k, -1).stream()
+                    .map(VectorIndex.SearchHit::id)
+                    .collect(Collectors.toSet());
+            for (VectorIndex.SearchHit hit : hnsw.search(query, k, -1)) {
+                if (expected.contains(hit.id())) {
+                    found++;
+                }
+            }
+        }
+        System.out.println("hnsw recall@" + k + " = " + found / (double) (queries.length * k));
+    }
+
+    @Benchmark
+    public List<VectorIndex.SearchHit> bruteForce() {
+        return bruteForce.search(nextQuery(), k, -1);
+    }
+
+    @Benchmark
+    public List<VectorIndex.SearchHit> hnsw() {
+        return hnsw.search(nextQuery(), k, -1);
+    }
+
+    private float[] nextQuery() {
+        return queries[(cursor++) & (queries.length - 1)];
+    }
+
+    private float[] randomVector(Random random, float[] center) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (center != null ? center[i] : 0F) + (float) random.nextGaussian() * (center != null ? 0.5F : 1F);
+        }
+        return vector;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(InMemoryVectorIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore;
+
+import com.alibaba.langengine.core.util.VectorUtils;
+import com.alibaba.langengine.core.vectorstore.memory.BruteForceVectorIndex;
+import com.alibaba.langengine.core.vectorstore.memory.HnswVectorIndex;
+import com.alibaba.langengine.core.vectorstore.memory.VectorIndex;
+import com.alibaba.langengine.core.vectorstore.memory.VectorStorage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class InMemoryVectorIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    public void test_bruteForceIsExact() {
+        Random random = new Random(7);
+        VectorStorage storage = new VectorStorage(DIMENSION);
+        BruteForceVectorIndex index = new BruteForceVectorIndex(storage);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            float[] vector = VectorUtils.normalize(randomVector(random));
+            vectors.add(vector);
+            index.add(storage.append(vector, i));
+        }
+
+        float[] query = VectorUtils.normalize(randomVector(random));
+        List<Integer> expected = IntStream.range(0, vectors.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> VectorUtils.dotProduct(vectors.get(i), query)).reversed())
+                .limit(5)
+                .collect(Collectors.toList());
+        List<Integer> actual = index.search(query, 5, -1).stream()
+                .map(VectorIndex.SearchHit::id)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertTrue(index.search(query, 0, -1).isEmpty());
+    }
+
+    @Test
+    public void test_hnswRecall() {
+        Random random = new Random(11);
+        VectorStorage storage = new VectorStorage(DIMENSION);
+        BruteForceVectorIndex exact = new BruteForceVectorIndex(storage);
+        HnswVectorIndex hnsw = new HnswVectorIndex(storage, 16, 100, 100);
+
+        // 聚簇数据，模拟真实语料的分布
+        List<float[]> centers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            centers.add(randomVector(random));
+        }
+        IntStream.range(0, 3000).parallel().forEach(i -> {
+            Random local = new Random(i);
+            float[] center = centers.get(i % centers.size());
+            float[] vector = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = center[d] + (float) local.nextGaussian() * 0.3F;
+            }
+            hnsw.add(storage.append(VectorUtils.normalize(vector), i));
+        });
+
+        int found = 0;
+        int total = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = VectorUtils.normalize(randomVector(random));
+            Set<Integer> expected = exact.search(query, 10, -1).stream()
+                    .map(VectorIndex.SearchHit::id)
+                    .collect(Collectors.toSet());
+            for (VectorIndex.SearchHit hit : hnsw.search(query, 10, -1)) {
+                if (expected.contains(hit.id())) {
+                    found++;
+                }
+            }
+            total += expected.size();
+        }
+        Assertions.assertEquals(3000, storage.size());
+        Assertions.assertTrue(found / (double) total >= 0.9, "recall@10 = " + found / (double) total);
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
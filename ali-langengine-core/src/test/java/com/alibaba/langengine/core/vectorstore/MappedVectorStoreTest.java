@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2024 AIDC-AI
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.langengine.core.vectorstore;
+
+import com.alibaba.langengine.core.embeddings.Embeddings;
+import com.alibaba.langengine.core.indexes.Document;
+import com.alibaba.langengine.core.vectorstore.mmap.MappedVectorStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MappedVectorStoreTest {
+
+    @Test
+    public void test_persistDeleteCompact() throws Exception {
+        Path directory = Files.createTempDirectory("mapped-vector-store");
+        try {
+            MappedVectorStore store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            store.setRowsPerSegment(2);
+            List<Document> documents = new ArrayList<>();
+            String[] contents = { "apple", "banana", "cherry", "durian", "eggplant" };
+            for (int i = 0; i < contents.length; i++) {
+                Document document = new Document();
+                document.setUniqueId(String.valueOf(i));
+                document.setPageContent(contents[i]);
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("index", i);
+                document.setMetadata(metadata);
+                documents.add(document);
+            }
+            store.addDocuments(documents);
+            Assertions.assertEquals("banana", store.similaritySearch("banana", 1).get(0).getPageContent());
+            store.close();
+
+            // 重新打开后数据仍在
+            store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            Assertions.assertEquals(5L, store.size());
+            Document hit = store.similaritySearch("cherry", 1).get(0);
+            Assertions.assertEquals("2", hit.getUniqueId());
+            Assertions.assertEquals(2, ((Number) hit.getMetadata().get("index")).intValue());
+
+            Assertions.assertEquals(1, store.delete(Collections.singletonList("2")));
+            Assertions.assertEquals(4L, store.size());
+            Assertions.assertNotEquals("cherry", store.similaritySearch("cherry", 1).get(0).getPageContent());
+
+            store.compact();
+            Assertions.assertEquals(4L, store.size());
+            Assertions.assertEquals("durian", store.similaritySearch("durian", 1).get(0).getPageContent());
+            store.close();
+
+            store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            Assertions.assertEquals(4L, store.size());
+            Assertions.assertEquals(4, store.similaritySearch("apple", 10).size());
+            store.close();
+        } finally {
+            File[] files = directory.toFile().listFiles();
+            if (files != null) {
+                Arrays.stream(files).forEach(File::delete);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void test_duplicateUniqueIdOverwrites() throws Exception {
+        Path directory = Files.createTempDirectory("mapped-vector-store");
+        try {
+            MappedVectorStore store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            store.addDocuments(Arrays.asList(document("1", "apple"), document("2", "banana")));
+            store.addDocuments(Collections.singletonList(document("1", "cherry")));
+            Assertions.assertEquals(2L, store.size());
+            List<Document> hits = store.similaritySearch("apple", 10);
+            Assertions.assertEquals(2, hits.size());
+            Assertions.assertTrue(hits.stream().noneMatch(hit -> "apple".equals(hit.getPageContent())));
+            store.close();
+
+            store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            Assertions.assertEquals(1, store.delete(Collections.singletonList("1")));
+            Assertions.assertEquals(1L, store.size());
+            hits = store.similaritySearch("cherry", 10);
+            Assertions.assertEquals(1, hits.size());
+            Assertions.assertEquals("banana", hits.get(0).getPageContent());
+            store.close();
+        } finally {
+            File[] files = directory.toFile().listFiles();
+            if (files != null) {
+                Arrays.stream(files).forEach(File::delete);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void test_addWithoutOpenKeepsExistingData() throws Exception {
+        Path directory = Files.createTempDirectory("mapped-vector-store");
+        try {
+            MappedVectorStore store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            store.addDocuments(Collections.singletonList(document("1", "apple")));
+            store.close();
+            // 关闭后继续写入会重新加载当前代
+            store.addDocuments(Collections.singletonList(document("2", "banana")));
+            store.close();
+
+            MappedVectorStore unopened = new MappedVectorStore();
+            unopened.setDirectory(directory.toString());
+            unopened.setEmbedding(new CharEmbeddings());
+            unopened.addDocuments(Collections.singletonList(document("3", "cherry")));
+            Assertions.assertEquals(3L, unopened.size());
+            unopened.close();
+
+            store = new MappedVectorStore(directory.toString(), new CharEmbeddings());
+            Assertions.assertEquals(3L, store.size());
+            store.close();
+        } finally {
+            File[] files = directory.toFile().listFiles();
+            if (files != null) {
+                Arrays.stream(files).forEach(File::delete);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static Document document(String uniqueId, String content) {
+        Document document = new Document();
+        document.setUniqueId(uniqueId);
+        document.setPageContent(content);
+        return document;
+    }
+
+    /**
+     * 按字符计数的确定性向量
+     */
+    private static class CharEmbeddings extends Embeddings {
+
+        @Override
+        public String getModelType() {
+            return null;
+        }
+
+        @Override
+        public List<Document> embedDocument(List<Document> documents) {
+            documents.forEach(document -> document.setEmbeddingVector(embed(document.getPageContent())));
+            return documents;
+        }
+
+        @Override
+        public List<String> embedQuery(String text, int recommend) {
+            return Collections.singletonList(Arrays.toString(embed(text)));
+        }
+
+        @Override
+        public float[] embedQueryVector(String text) {
+            return embed(text);
+        }
+
+        private static float[] embed(String text) {
+            float[] vector = new float[26];
+            for (char c : text.toCharArray()) {
+                vector[(c - 'a' + 26) % 26] += 1;
+            }
+            return vector;
+        }
+    }
+}
@@ -15,9 +15,9 @@
  */
 package com.alibaba.langengine.tool.bing.service;
 
+import com.alibaba.langengine.core.model.fastchat.service.OkHttpClientRegistry;
 import com.alibaba.langengine.core.model.fastchat.service.RetrofitInitService;
 import lombok.Data;
-import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 
 import java.net.Proxy;
@@ -71,8 +71,7 @@ public class BingService extends RetrofitInitService<BingApi> {
     }
 
     public OkHttpClient defaultClient(Duration timeout, Proxy proxy) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .connectionPool(new ConnectionPool(100, 1, TimeUnit.SECONDS))
+        OkHttpClient.Builder builder = OkHttpClientRegistry.newBuilder()
                 .readTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
         // contribute by dapeng.fdp
         if(proxy != null) {
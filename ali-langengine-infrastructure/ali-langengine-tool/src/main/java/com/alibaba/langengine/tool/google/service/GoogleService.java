@@ -15,9 +15,9 @@
  */
 package com.alibaba.langengine.tool.google.service;
 
+import com.alibaba.langengine.core.model.fastchat.service.OkHttpClientRegistry;
 import com.alibaba.langengine.core.model.fastchat.service.RetrofitInitService;
 import lombok.Data;
-import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 
 import java.net.Proxy;
@@ -51,8 +51,7 @@ public class GoogleService extends RetrofitInitService<GoogleApi> {
     }
 
     public OkHttpClient defaultClient(Duration timeout, Proxy proxy) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .connectionPool(new ConnectionPool(100, 1, TimeUnit.SECONDS))
+        OkHttpClient.Builder builder = OkHttpClientRegistry.newBuilder()
                 .readTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
         // contribute by dapeng.fdp
         if(proxy != null) {